@@ -52,4 +52,24 @@ public enum AnalyticsMetaDataKey
     {
         return key;
     }
+
+    /**
+     * Returns the meta data key with the given key value, or null if no such
+     * key exists.
+     *
+     * @param key the key value, e.g. "ouHierarchy".
+     * @return an {@link AnalyticsMetaDataKey} or null.
+     */
+    public static AnalyticsMetaDataKey fromKey( String key )
+    {
+        for ( AnalyticsMetaDataKey metaDataKey : values() )
+        {
+            if ( metaDataKey.key.equals( key ) )
+            {
+                return metaDataKey;
+            }
+        }
+
+        return null;
+    }
 }
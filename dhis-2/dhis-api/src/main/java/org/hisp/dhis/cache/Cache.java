@@ -28,6 +28,8 @@
 package org.hisp.dhis.cache;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -81,6 +83,28 @@ public interface Cache<V>
      */
     Collection<V> getAll();
 
+    /**
+     * Returns the values associated with the given {@code keys} in this cache
+     * instance. Keys without a cached value are not present in the returned
+     * map. Note: This method will NOT return the defaultValue in case of
+     * absence of associated cache value. Implementations backed by a remote
+     * cache server fetch all values in a single round trip.
+     *
+     * @param keys the keys whose associated values are to be retrieved
+     * @return a map of keys and their cached values
+     */
+    default Map<String, V> getAll( Collection<String> keys )
+    {
+        Map<String, V> values = new HashMap<>();
+
+        for ( String key : keys )
+        {
+            getIfPresent( key ).ifPresent( value -> values.put( key, value ) );
+        }
+
+        return values;
+    }
+
     /**
      * Associates the {@code value} with the {@code key} in this cache. If the
      * cache previously contained a value associated with the {@code key}, the
@@ -107,6 +131,19 @@ public interface Cache<V>
      */
     void put( String key, V value, long ttlInSeconds );
 
+    /**
+     * Associates each value of the given {@code entries} with its key in this
+     * cache, as per {@link #put(String, Object)}. Implementations backed by a
+     * remote cache server store all entries in a single round trip.
+     *
+     * @param entries the keys and values to be cached
+     * @throws IllegalArgumentException if any of the values is null
+     */
+    default void putAll( Map<String, V> entries )
+    {
+        entries.forEach( this::put );
+    }
+
     /**
      * Discards any cached value for the {@code key}. The behavior of this
      * operation is undefined for an entry that is being loaded and is otherwise
@@ -33,6 +33,9 @@ import static org.springframework.util.Assert.hasText;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -129,6 +132,12 @@ public class LocalCache<V> implements Cache<V>
         return new ArrayList<V>( cache2kInstance.asMap().values() );
     }
 
+    @Override
+    public Map<String, V> getAll( Collection<String> keys )
+    {
+        return new HashMap<>( cache2kInstance.getAll( keys ) );
+    }
+
     @Override
     public void put( String key, V value )
     {
@@ -147,6 +156,16 @@ public class LocalCache<V> implements Cache<V>
             e -> e.setValue( value ).setExpiryTime( currentTimeMillis() + SECONDS.toMillis( ttlInSeconds ) ) );
     }
 
+    @Override
+    public void putAll( Map<String, V> entries )
+    {
+        if ( entries.values().stream().anyMatch( Objects::isNull ) )
+        {
+            throw new IllegalArgumentException( "Value cannot be null" );
+        }
+        cache2kInstance.putAll( entries );
+    }
+
     @Override
     public void invalidate( String key )
     {
@@ -196,6 +196,13 @@ public class AggregateAnalyticsQueryCriteria
      */
     private boolean includeMetadataDetails;
 
+    /**
+     * The parts of the meta data section to include in the response, can be
+     * items, dimensions, ouHierarchy and ouNameHierarchy. All parts are
+     * included if not specified.
+     */
+    private Set<String> metadataParts;
+
     /**
      * Property to display for metadata.
      */
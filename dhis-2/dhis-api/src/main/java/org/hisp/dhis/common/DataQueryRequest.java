@@ -78,6 +78,8 @@ public class DataQueryRequest
 
     protected boolean includeMetadataDetails;
 
+    protected Set<String> metadataParts;
+
     protected boolean duplicatesOnly;
 
     protected boolean allowAllPeriods;
@@ -207,6 +209,11 @@ public class DataQueryRequest
         return includeMetadataDetails;
     }
 
+    public Set<String> getMetadataParts()
+    {
+        return metadataParts;
+    }
+
     public DisplayProperty getDisplayProperty()
     {
         return displayProperty;
@@ -411,6 +418,12 @@ public class DataQueryRequest
             return this;
         }
 
+        public DataQueryRequestBuilder metadataParts( Set<String> metadataParts )
+        {
+            this.request.metadataParts = metadataParts;
+            return this;
+        }
+
         public DataQueryRequestBuilder displayProperty( DisplayProperty displayProperty )
         {
             this.request.displayProperty = displayProperty;
@@ -505,6 +518,7 @@ public class DataQueryRequest
             this.request.includeNumDen = criteria.isIncludeNumDen();
             this.request.inputIdScheme = criteria.getInputIdScheme();
             this.request.measureCriteria = criteria.getMeasureCriteria();
+            this.request.metadataParts = criteria.getMetadataParts();
             this.request.order = criteria.getOrder();
             this.request.orgUnitField = criteria.getOrgUnitField();
             this.request.outputIdScheme = criteria.getOutputIdScheme();
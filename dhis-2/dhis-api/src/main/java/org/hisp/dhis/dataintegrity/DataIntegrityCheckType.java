@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dataintegrity;
+
+/**
+ * The data integrity checks. The name of a check is the name of the
+ * corresponding property of the {@link FlattenedDataIntegrityReport}.
+ */
+public enum DataIntegrityCheckType
+{
+    DATA_ELEMENTS_WITHOUT_DATA_SET( "dataElementsWithoutDataSet" ),
+    DATA_ELEMENTS_WITHOUT_GROUPS( "dataElementsWithoutGroups" ),
+    DATA_ELEMENTS_ASSIGNED_TO_DATA_SETS_WITH_DIFFERENT_PERIOD_TYPES(
+        "dataElementsAssignedToDataSetsWithDifferentPeriodTypes" ),
+    DATA_ELEMENTS_VIOLATING_EXCLUSIVE_GROUP_SETS( "dataElementsViolatingExclusiveGroupSets" ),
+    DATA_ELEMENTS_IN_DATA_SET_NOT_IN_FORM( "dataElementsInDataSetNotInForm" ),
+    INVALID_CATEGORY_COMBOS( "invalidCategoryCombos" ),
+    DATA_SETS_NOT_ASSIGNED_TO_ORGANISATION_UNITS( "dataSetsNotAssignedToOrganisationUnits" ),
+    INDICATORS_WITH_IDENTICAL_FORMULAS( "indicatorsWithIdenticalFormulas" ),
+    INDICATORS_WITHOUT_GROUPS( "indicatorsWithoutGroups" ),
+    INVALID_INDICATOR_NUMERATORS( "invalidIndicatorNumerators" ),
+    INVALID_INDICATOR_DENOMINATORS( "invalidIndicatorDenominators" ),
+    INDICATORS_VIOLATING_EXCLUSIVE_GROUP_SETS( "indicatorsViolatingExclusiveGroupSets" ),
+    DUPLICATE_PERIODS( "duplicatePeriods" ),
+    ORGANISATION_UNITS_WITH_CYCLIC_REFERENCES( "organisationUnitsWithCyclicReferences" ),
+    ORPHANED_ORGANISATION_UNITS( "orphanedOrganisationUnits" ),
+    ORGANISATION_UNITS_WITHOUT_GROUPS( "organisationUnitsWithoutGroups" ),
+    ORGANISATION_UNITS_VIOLATING_EXCLUSIVE_GROUP_SETS( "organisationUnitsViolatingExclusiveGroupSets" ),
+    ORGANISATION_UNIT_GROUPS_WITHOUT_GROUP_SETS( "organisationUnitGroupsWithoutGroupSets" ),
+    VALIDATION_RULES_WITHOUT_GROUPS( "validationRulesWithoutGroups" ),
+    INVALID_VALIDATION_RULE_LEFT_SIDE_EXPRESSIONS( "invalidValidationRuleLeftSideExpressions" ),
+    INVALID_VALIDATION_RULE_RIGHT_SIDE_EXPRESSIONS( "invalidValidationRuleRightSideExpressions" ),
+    INVALID_PROGRAM_INDICATOR_EXPRESSIONS( "invalidProgramIndicatorExpressions" ),
+    PROGRAM_INDICATORS_WITH_NO_EXPRESSION( "programIndicatorsWithNoExpression" ),
+    INVALID_PROGRAM_INDICATOR_FILTERS( "invalidProgramIndicatorFilters" ),
+    PROGRAM_RULES_WITH_NO_CONDITION( "programRulesWithNoCondition" ),
+    PROGRAM_RULES_WITH_NO_PRIORITY( "programRulesWithNoPriority" ),
+    PROGRAM_RULES_WITH_NO_ACTION( "programRulesWithNoAction" ),
+    PROGRAM_RULE_VARIABLES_WITH_NO_DATA_ELEMENT( "programRuleVariablesWithNoDataElement" ),
+    PROGRAM_RULE_VARIABLES_WITH_NO_ATTRIBUTE( "programRuleVariablesWithNoAttribute" ),
+    PROGRAM_RULE_ACTIONS_WITH_NO_DATA_OBJECT( "programRuleActionsWithNoDataObject" ),
+    PROGRAM_RULE_ACTIONS_WITH_NO_NOTIFICATION( "programRuleActionsWithNoNotification" ),
+    PROGRAM_RULE_ACTIONS_WITH_NO_SECTION_ID( "programRuleActionsWithNoSectionId" ),
+    PROGRAM_RULE_ACTIONS_WITH_NO_STAGE_ID( "programRuleActionsWithNoStageId" );
+
+    private final String name;
+
+    DataIntegrityCheckType( String name )
+    {
+        this.name = name;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+}
@@ -48,6 +48,7 @@ import org.hisp.dhis.program.ProgramIndicator;
 import org.hisp.dhis.programrule.ProgramRule;
 import org.hisp.dhis.programrule.ProgramRuleAction;
 import org.hisp.dhis.programrule.ProgramRuleVariable;
+import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.validation.ValidationRule;
 import org.hisp.dhis.validation.ValidationRuleDataIntegrityProvider;
 
@@ -60,6 +61,10 @@ public interface DataIntegrityService
 {
     String ID = DataIntegrityService.class.getName();
 
+    String NAMESPACE = "DATA_INTEGRITY";
+
+    String REPORT_KEY = "report";
+
     // -------------------------------------------------------------------------
     // DataIntegrityService
     // -------------------------------------------------------------------------
@@ -169,6 +174,23 @@ public interface DataIntegrityService
      */
     FlattenedDataIntegrityReport getFlattenedDataIntegrityReport();
 
+    /**
+     * Runs the given checks in parallel and merges the results into the last
+     * persisted report, which is then persisted and returned. Progress is
+     * notified per check.
+     *
+     * @param checks the checks to run, all checks are run if empty.
+     * @param jobId the {@link JobConfiguration} for notifications, can be null.
+     * @return the updated FlattenedDataIntegrityReport.
+     */
+    FlattenedDataIntegrityReport runDataIntegrityChecks( Set<DataIntegrityCheckType> checks, JobConfiguration jobId );
+
+    /**
+     * Returns the last persisted FlattenedDataIntegrityReport, or null if the
+     * checks have never been run.
+     */
+    FlattenedDataIntegrityReport getLastDataIntegrityReport();
+
     /**
      * Get all ProgramIndicators with no expression.
      */
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dataintegrity;
+
+import java.util.List;
+
+/**
+ * Store for data integrity checks which are run as SQL queries. The queries
+ * return the identifiers of the offending objects only, so that large object
+ * graphs are not loaded to find a few violations.
+ */
+public interface DataIntegrityStore
+{
+    /**
+     * Returns the identifiers of data elements which are members of data sets
+     * with different period types.
+     *
+     * @return a list of data element identifiers.
+     */
+    List<Long> getDataElementsAssignedToDataSetsWithDifferentPeriodTypes();
+
+    /**
+     * Returns the identifiers of data elements which are members of more than
+     * one group of the same group set.
+     *
+     * @return a list of data element identifiers.
+     */
+    List<Long> getDataElementsViolatingExclusiveGroupSets();
+
+    /**
+     * Returns the identifiers of indicators which are members of more than one
+     * group of the same group set.
+     *
+     * @return a list of indicator identifiers.
+     */
+    List<Long> getIndicatorsViolatingExclusiveGroupSets();
+
+    /**
+     * Returns groups of identifiers of indicators which have identical
+     * numerators and denominators.
+     *
+     * @return a list of lists of indicator identifiers.
+     */
+    List<List<Long>> getIndicatorsWithIdenticalFormulas();
+
+    /**
+     * Returns the identifiers of periods which have the same period type and
+     * start date as another period.
+     *
+     * @return a list of period identifiers.
+     */
+    List<Long> getDuplicatePeriods();
+
+    /**
+     * Returns the identifiers of organisation units which are part of a cycle
+     * in the hierarchy, i.e. which are their own ancestor.
+     *
+     * @return a list of organisation unit identifiers.
+     */
+    List<Long> getOrganisationUnitsWithCyclicReferences();
+
+    /**
+     * Returns the identifiers of organisation units which are members of more
+     * than one group of the same group set.
+     *
+     * @return a list of organisation unit identifiers.
+     */
+    List<Long> getOrganisationUnitsViolatingExclusiveGroupSets();
+}
@@ -27,10 +27,45 @@
  */
 package org.hisp.dhis.dataintegrity;
 
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DATA_ELEMENTS_ASSIGNED_TO_DATA_SETS_WITH_DIFFERENT_PERIOD_TYPES;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DATA_ELEMENTS_IN_DATA_SET_NOT_IN_FORM;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DATA_ELEMENTS_VIOLATING_EXCLUSIVE_GROUP_SETS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DATA_ELEMENTS_WITHOUT_DATA_SET;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DATA_ELEMENTS_WITHOUT_GROUPS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DATA_SETS_NOT_ASSIGNED_TO_ORGANISATION_UNITS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DUPLICATE_PERIODS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INDICATORS_VIOLATING_EXCLUSIVE_GROUP_SETS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INDICATORS_WITHOUT_GROUPS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INDICATORS_WITH_IDENTICAL_FORMULAS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_CATEGORY_COMBOS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_INDICATOR_DENOMINATORS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_INDICATOR_NUMERATORS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_PROGRAM_INDICATOR_EXPRESSIONS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_PROGRAM_INDICATOR_FILTERS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_VALIDATION_RULE_LEFT_SIDE_EXPRESSIONS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_VALIDATION_RULE_RIGHT_SIDE_EXPRESSIONS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.ORGANISATION_UNITS_VIOLATING_EXCLUSIVE_GROUP_SETS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.ORGANISATION_UNITS_WITHOUT_GROUPS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.ORGANISATION_UNITS_WITH_CYCLIC_REFERENCES;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.ORGANISATION_UNIT_GROUPS_WITHOUT_GROUP_SETS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.ORPHANED_ORGANISATION_UNITS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_INDICATORS_WITH_NO_EXPRESSION;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULES_WITH_NO_ACTION;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULES_WITH_NO_CONDITION;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULES_WITH_NO_PRIORITY;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULE_ACTIONS_WITH_NO_DATA_OBJECT;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULE_ACTIONS_WITH_NO_NOTIFICATION;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULE_ACTIONS_WITH_NO_SECTION_ID;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULE_ACTIONS_WITH_NO_STAGE_ID;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULE_VARIABLES_WITH_NO_ATTRIBUTE;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULE_VARIABLES_WITH_NO_DATA_ELEMENT;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.VALIDATION_RULES_WITHOUT_GROUPS;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
@@ -39,202 +74,156 @@ import java.util.TreeMap;
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.common.IdentifiableObject;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
 
 /**
  * Flattened, easily serializable object derivable from the more complex
  * DataIntegrityReport. Use an instance of this object to serialize and deliver
- * a DataIntegrityReport.
+ * a DataIntegrityReport. The results are keyed by the name of the
+ * {@link DataIntegrityCheckType}.
  *
  * @author Halvdan Hoem Grelland <halvdanhg@gmail.com>
  */
 public class FlattenedDataIntegrityReport
 {
-    @JsonProperty
-    private List<String> dataElementsWithoutDataSet;
-
-    @JsonProperty
-    private List<String> dataElementsWithoutGroups;
-
-    @JsonProperty
-    private Map<String, Collection<String>> dataElementsAssignedToDataSetsWithDifferentPeriodTypes;
-
-    @JsonProperty
-    private SortedMap<String, Collection<String>> dataElementsViolatingExclusiveGroupSets;
-
-    @JsonProperty
-    private SortedMap<String, Collection<String>> dataElementsInDataSetNotInForm;
-
-    @JsonProperty
-    private List<String> invalidCategoryCombos;
-
-    @JsonProperty
-    private List<String> dataSetsNotAssignedToOrganisationUnits;
-
-    @JsonProperty
-    private Collection<Collection<String>> indicatorsWithIdenticalFormulas;
-
-    @JsonProperty
-    private List<String> indicatorsWithoutGroups;
-
-    @JsonProperty
-    private Map<String, String> invalidIndicatorNumerators;
-
-    @JsonProperty
-    private Map<String, String> invalidIndicatorDenominators;
-
-    @JsonProperty
-    private SortedMap<String, Collection<String>> indicatorsViolatingExclusiveGroupSets;
-
-    @JsonProperty
-    private List<String> duplicatePeriods;
-
-    @JsonProperty
-    private List<String> organisationUnitsWithCyclicReferences;
-
-    @JsonProperty
-    private List<String> orphanedOrganisationUnits;
-
-    @JsonProperty
-    private List<String> organisationUnitsWithoutGroups;
-
-    @JsonProperty
-    private SortedMap<String, Collection<String>> organisationUnitsViolatingExclusiveGroupSets;
-
-    @JsonProperty
-    private List<String> organisationUnitGroupsWithoutGroupSets;
-
-    @JsonProperty
-    private List<String> validationRulesWithoutGroups;
-
-    @JsonProperty
-    private Map<String, String> invalidValidationRuleLeftSideExpressions;
-
-    @JsonProperty
-    private Map<String, String> invalidValidationRuleRightSideExpressions;
-
-    @JsonProperty
-    private Map<String, String> invalidProgramIndicatorExpressions;
-
-    @JsonProperty
-    private List<String> programIndicatorsWithNoExpression;
-
-    @JsonProperty
-    private Map<String, String> invalidProgramIndicatorFilters;
+    private final Map<String, Object> results = new LinkedHashMap<>();
 
-    @JsonProperty
-    private Map<String, Collection<String>> programRulesWithNoCondition;
-
-    @JsonProperty
-    private Map<String, Collection<String>> programRulesWithNoPriority;
-
-    @JsonProperty
-    private Map<String, Collection<String>> programRulesWithNoAction;
-
-    @JsonProperty
-    private Map<String, Collection<String>> programRuleVariablesWithNoDataElement;
+    public FlattenedDataIntegrityReport()
+    {
+    }
 
-    @JsonProperty
-    private Map<String, Collection<String>> programRuleVariablesWithNoAttribute;
+    public FlattenedDataIntegrityReport( org.hisp.dhis.dataintegrity.DataIntegrityReport report )
+    {
+        set( DATA_ELEMENTS_WITHOUT_DATA_SET, transformCollection( report.getDataElementsWithoutDataSet() ) );
 
-    @JsonProperty
-    private Map<String, Collection<String>> programRuleActionsWithNoDataObject;
+        set( DATA_ELEMENTS_WITHOUT_GROUPS, transformCollection( report.getDataElementsWithoutGroups() ) );
 
-    @JsonProperty
-    private Map<String, Collection<String>> programRuleActionsWithNoNotification;
+        set( DATA_ELEMENTS_ASSIGNED_TO_DATA_SETS_WITH_DIFFERENT_PERIOD_TYPES,
+            transformMapOfCollections( report.getDataElementsAssignedToDataSetsWithDifferentPeriodTypes() ) );
 
-    @JsonProperty
-    private Map<String, Collection<String>> programRuleActionsWithNoSectionId;
+        set( DATA_ELEMENTS_VIOLATING_EXCLUSIVE_GROUP_SETS,
+            transformSortedMap( report.getDataElementsViolatingExclusiveGroupSets() ) );
 
-    @JsonProperty
-    private Map<String, Collection<String>> programRuleActionsWithNoStageId;
+        set( DATA_ELEMENTS_IN_DATA_SET_NOT_IN_FORM, transformSortedMap( report.getDataElementsInDataSetNotInForm() ) );
 
-    public FlattenedDataIntegrityReport( org.hisp.dhis.dataintegrity.DataIntegrityReport report )
-    {
-        dataElementsWithoutDataSet = transformCollection( report.getDataElementsWithoutDataSet() );
+        set( INVALID_CATEGORY_COMBOS, transformCollection( report.getInvalidCategoryCombos() ) );
 
-        dataElementsWithoutGroups = transformCollection( report.getDataElementsWithoutGroups() );
+        set( DATA_SETS_NOT_ASSIGNED_TO_ORGANISATION_UNITS,
+            transformCollection( report.getDataSetsNotAssignedToOrganisationUnits() ) );
 
-        dataElementsAssignedToDataSetsWithDifferentPeriodTypes = transformMapOfCollections(
-            report.getDataElementsAssignedToDataSetsWithDifferentPeriodTypes() );
+        set( INDICATORS_WITH_IDENTICAL_FORMULAS,
+            transformCollectionOfCollections( report.getIndicatorsWithIdenticalFormulas() ) );
 
-        dataElementsViolatingExclusiveGroupSets = transformSortedMap(
-            report.getDataElementsViolatingExclusiveGroupSets() );
+        set( INDICATORS_WITHOUT_GROUPS, transformCollection( report.getIndicatorsWithoutGroups() ) );
 
-        dataElementsInDataSetNotInForm = transformSortedMap( report.getDataElementsInDataSetNotInForm() );
+        set( INVALID_INDICATOR_NUMERATORS, transformMapOfStrings( report.getInvalidIndicatorNumerators() ) );
 
-        invalidCategoryCombos = transformCollection( report.getInvalidCategoryCombos() );
+        set( INVALID_INDICATOR_DENOMINATORS, transformMapOfStrings( report.getInvalidIndicatorDenominators() ) );
 
-        dataSetsNotAssignedToOrganisationUnits = transformCollection(
-            report.getDataSetsNotAssignedToOrganisationUnits() );
+        set( INDICATORS_VIOLATING_EXCLUSIVE_GROUP_SETS,
+            transformSortedMap( report.getIndicatorsViolatingExclusiveGroupSets() ) );
 
-        indicatorsWithIdenticalFormulas = transformCollectionOfCollections(
-            report.getIndicatorsWithIdenticalFormulas() );
+        set( DUPLICATE_PERIODS, transformCollection( report.getDuplicatePeriods() ) );
 
-        indicatorsWithoutGroups = transformCollection( report.getIndicatorsWithoutGroups() );
+        set( ORGANISATION_UNITS_WITH_CYCLIC_REFERENCES,
+            transformCollection( report.getOrganisationUnitsWithCyclicReferences() ) );
 
-        invalidIndicatorNumerators = transformMapOfStrings( report.getInvalidIndicatorNumerators() );
+        set( ORPHANED_ORGANISATION_UNITS, transformCollection( report.getOrphanedOrganisationUnits() ) );
 
-        invalidIndicatorDenominators = transformMapOfStrings( report.getInvalidIndicatorDenominators() );
+        set( ORGANISATION_UNITS_WITHOUT_GROUPS, transformCollection( report.getOrganisationUnitsWithoutGroups() ) );
 
-        indicatorsViolatingExclusiveGroupSets = transformSortedMap( report.getIndicatorsViolatingExclusiveGroupSets() );
+        set( ORGANISATION_UNITS_VIOLATING_EXCLUSIVE_GROUP_SETS,
+            transformSortedMap( report.getOrganisationUnitsViolatingExclusiveGroupSets() ) );
 
-        duplicatePeriods = transformCollection( report.getDuplicatePeriods() );
+        set( ORGANISATION_UNIT_GROUPS_WITHOUT_GROUP_SETS,
+            transformCollection( report.getOrganisationUnitGroupsWithoutGroupSets() ) );
 
-        organisationUnitsWithCyclicReferences = transformCollection(
-            report.getOrganisationUnitsWithCyclicReferences() );
+        set( VALIDATION_RULES_WITHOUT_GROUPS, transformCollection( report.getValidationRulesWithoutGroups() ) );
 
-        orphanedOrganisationUnits = transformCollection( report.getOrphanedOrganisationUnits() );
+        set( INVALID_VALIDATION_RULE_LEFT_SIDE_EXPRESSIONS,
+            transformMapOfStrings( report.getInvalidValidationRuleLeftSideExpressions() ) );
 
-        organisationUnitsWithoutGroups = transformCollection( report.getOrganisationUnitsWithoutGroups() );
+        set( INVALID_VALIDATION_RULE_RIGHT_SIDE_EXPRESSIONS,
+            transformMapOfStrings( report.getInvalidValidationRuleRightSideExpressions() ) );
 
-        organisationUnitsViolatingExclusiveGroupSets = transformSortedMap(
-            report.getOrganisationUnitsViolatingExclusiveGroupSets() );
+        set( PROGRAM_INDICATORS_WITH_NO_EXPRESSION,
+            transformCollection( report.getProgramIndicatorsWithNoExpression() ) );
 
-        organisationUnitGroupsWithoutGroupSets = transformCollection(
-            report.getOrganisationUnitGroupsWithoutGroupSets() );
+        set( INVALID_PROGRAM_INDICATOR_EXPRESSIONS,
+            transformMapOfStrings( report.getInvalidProgramIndicatorExpressions() ) );
 
-        validationRulesWithoutGroups = transformCollection( report.getValidationRulesWithoutGroups() );
+        set( INVALID_PROGRAM_INDICATOR_FILTERS, transformMapOfStrings( report.getInvalidProgramIndicatorFilters() ) );
 
-        invalidValidationRuleLeftSideExpressions = transformMapOfStrings(
-            report.getInvalidValidationRuleLeftSideExpressions() );
+        set( PROGRAM_RULES_WITH_NO_CONDITION, transformMapOfCollections( report.getProgramRulesWithoutCondition() ) );
 
-        invalidValidationRuleRightSideExpressions = transformMapOfStrings(
-            report.getInvalidValidationRuleRightSideExpressions() );
+        set( PROGRAM_RULES_WITH_NO_PRIORITY, transformMapOfCollections( report.getProgramRulesWithNoPriority() ) );
 
-        programIndicatorsWithNoExpression = transformCollection( report.getProgramIndicatorsWithNoExpression() );
+        set( PROGRAM_RULES_WITH_NO_ACTION, transformMapOfCollections( report.getProgramRulesWithNoAction() ) );
 
-        invalidProgramIndicatorExpressions = transformMapOfStrings( report.getInvalidProgramIndicatorExpressions() );
+        set( PROGRAM_RULE_VARIABLES_WITH_NO_DATA_ELEMENT,
+            transformMapOfCollections( report.getProgramRuleVariablesWithNoDataElement() ) );
 
-        invalidProgramIndicatorFilters = transformMapOfStrings( report.getInvalidProgramIndicatorFilters() );
+        set( PROGRAM_RULE_VARIABLES_WITH_NO_ATTRIBUTE,
+            transformMapOfCollections( report.getProgramRuleVariablesWithNoAttribute() ) );
 
-        programRulesWithNoCondition = transformMapOfCollections( report.getProgramRulesWithoutCondition() );
+        set( PROGRAM_RULE_ACTIONS_WITH_NO_DATA_OBJECT,
+            transformMapOfCollections( report.getProgramRuleActionsWithNoDataObject() ) );
 
-        programRulesWithNoPriority = transformMapOfCollections( report.getProgramRulesWithNoPriority() );
+        set( PROGRAM_RULE_ACTIONS_WITH_NO_NOTIFICATION,
+            transformMapOfCollections( report.getProgramRuleActionsWithNoNotification() ) );
 
-        programRulesWithNoAction = transformMapOfCollections( report.getProgramRulesWithNoAction() );
+        set( PROGRAM_RULE_ACTIONS_WITH_NO_SECTION_ID,
+            transformMapOfCollections( report.getProgramRuleActionsWithNoSectionId() ) );
 
-        programRuleVariablesWithNoDataElement = transformMapOfCollections(
-            report.getProgramRuleVariablesWithNoDataElement() );
+        set( PROGRAM_RULE_ACTIONS_WITH_NO_STAGE_ID,
+            transformMapOfCollections( report.getProgramRuleActionsWithNoStageId() ) );
+    }
 
-        programRuleVariablesWithNoAttribute = transformMapOfCollections(
-            report.getProgramRuleVariablesWithNoAttribute() );
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
 
-        programRuleActionsWithNoDataObject = transformMapOfCollections(
-            report.getProgramRuleActionsWithNoDataObject() );
+    /**
+     * Replaces the results of the given checks with the results of the given
+     * report.
+     *
+     * @param report the {@link FlattenedDataIntegrityReport} to merge.
+     * @param checks the checks to merge.
+     */
+    public void merge( FlattenedDataIntegrityReport report, Collection<DataIntegrityCheckType> checks )
+    {
+        for ( DataIntegrityCheckType check : checks )
+        {
+            results.put( check.getName(), report.results.get( check.getName() ) );
+        }
+    }
 
-        programRuleActionsWithNoNotification = transformMapOfCollections(
-            report.getProgramRuleActionsWithNoNotification() );
+    // -------------------------------------------------------------------------
+    // Getters and setters
+    // -------------------------------------------------------------------------
 
-        programRuleActionsWithNoSectionId = transformMapOfCollections( report.getProgramRuleActionsWithNoSectionId() );
+    @JsonAnyGetter
+    public Map<String, Object> getResults()
+    {
+        return results;
+    }
 
-        programRuleActionsWithNoStageId = transformMapOfCollections( report.getProgramRuleActionsWithNoStageId() );
+    @JsonAnySetter
+    public void setResult( String name, Object result )
+    {
+        results.put( name, result );
     }
 
     // -------------------------------------------------------------------------
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    private void set( DataIntegrityCheckType check, Object result )
+    {
+        results.put( check.getName(), result );
+    }
+
     private Collection<Collection<String>> transformCollectionOfCollections(
         Collection<? extends Collection<? extends IdentifiableObject>> collection )
     {
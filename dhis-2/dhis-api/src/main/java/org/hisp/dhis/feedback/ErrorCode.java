@@ -246,6 +246,7 @@ public enum ErrorCode
     E7131( "Query failed, likely because the query timed out" ),
     E7132( "An indicator expression caused division by zero operation" ),
     E7133( "Query cannot be executed, possibly because of invalid types or invalid operation" ),
+    E7134( "Meta data part is invalid: `{0}`" ),
 
     /* Event analytics */
     E7200( "At least one organisation unit must be specified" ),
@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.keyjsonvalue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.common.Pager;
+
+/**
+ * Query against the values of a single data store namespace. Filters, sort
+ * orders and projected fields refer to properties of the stored JSON values
+ * by dot separated paths, like {@code address.city} or {@code tags.0}.
+ *
+ * @see KeyJsonValueStore#getEntries(KeyJsonValueQuery)
+ */
+@Getter
+public class KeyJsonValueQuery
+{
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Postgres functions accept at most 100 arguments, and each projected
+     * field takes two of them in {@code jsonb_build_object}.
+     */
+    public static final int MAX_FIELDS = 50;
+
+    private static final Pattern PATH_SEGMENT = Pattern.compile( "[a-zA-Z0-9_\\-]+" );
+
+    private final String namespace;
+
+    private final List<String> fields = new ArrayList<>();
+
+    private final List<Filter> filters = new ArrayList<>();
+
+    private final List<Order> orders = new ArrayList<>();
+
+    private int page = 1;
+
+    private int pageSize = Pager.DEFAULT_PAGE_SIZE;
+
+    public KeyJsonValueQuery( String namespace )
+    {
+        this.namespace = namespace;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * @param fields comma separated list of paths to project, an empty value
+     *        returns the full value
+     */
+    public KeyJsonValueQuery withFields( String fields )
+    {
+        if ( StringUtils.isNotBlank( fields ) )
+        {
+            for ( String field : fields.split( "," ) )
+            {
+                String path = field.trim();
+
+                if ( !path.isEmpty() && !".".equals( path ) )
+                {
+                    this.fields.add( validatePath( path ) );
+                }
+            }
+        }
+
+        if ( this.fields.size() > MAX_FIELDS )
+        {
+            throw new IllegalQueryException( "At most " + MAX_FIELDS + " fields can be projected" );
+        }
+
+        return this;
+    }
+
+    /**
+     * @param filters filters on the form {@code path:operator[:value]}
+     */
+    public KeyJsonValueQuery withFilters( List<String> filters )
+    {
+        if ( filters != null )
+        {
+            filters.stream().filter( StringUtils::isNotBlank ).map( Filter::parse ).forEach( this.filters::add );
+        }
+
+        return this;
+    }
+
+    /**
+     * @param orders comma separated sort orders on the form
+     *        {@code path[:asc|desc]}
+     */
+    public KeyJsonValueQuery withOrders( String orders )
+    {
+        if ( StringUtils.isNotBlank( orders ) )
+        {
+            Arrays.stream( orders.split( "," ) ).filter( StringUtils::isNotBlank ).map( Order::parse )
+                .forEach( this.orders::add );
+        }
+
+        return this;
+    }
+
+    public KeyJsonValueQuery withPaging( Integer page, Integer pageSize )
+    {
+        if ( page != null && page > 0 )
+        {
+            this.page = page;
+        }
+
+        if ( pageSize != null && pageSize > 0 )
+        {
+            this.pageSize = Math.min( pageSize, MAX_PAGE_SIZE );
+        }
+
+        return this;
+    }
+
+    public int getOffset()
+    {
+        return (page - 1) * pageSize;
+    }
+
+    public boolean isProjection()
+    {
+        return !fields.isEmpty();
+    }
+
+    /**
+     * Splits and validates a dot separated path. Segments are restricted to
+     * letters, digits, underscores and dashes, which makes them safe to use as
+     * Postgres text array elements.
+     *
+     * @param path the path
+     * @return the path segments
+     * @throws IllegalQueryException if the path is invalid
+     */
+    public static List<String> toSegments( String path )
+    {
+        List<String> segments = Arrays.asList( path.split( "\\.", -1 ) );
+
+        if ( segments.stream().anyMatch( s -> !PATH_SEGMENT.matcher( s ).matches() ) )
+        {
+            throw new IllegalQueryException( "Invalid path: '" + path + "'" );
+        }
+
+        return Collections.unmodifiableList( segments );
+    }
+
+    private static String validatePath( String path )
+    {
+        toSegments( path );
+
+        return path;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive classes
+    // -------------------------------------------------------------------------
+
+    public enum Operator
+    {
+        EQ( "eq", true ),
+        NEQ( "!eq", true ),
+        GT( "gt", true ),
+        GE( "ge", true ),
+        LT( "lt", true ),
+        LE( "le", true ),
+        LIKE( "like", true ),
+        NLIKE( "!like", true ),
+        ILIKE( "ilike", true ),
+        NILIKE( "!ilike", true ),
+        NULL( "null", false ),
+        NNULL( "!null", false );
+
+        private final String value;
+
+        private final boolean requiresValue;
+
+        Operator( String value, boolean requiresValue )
+        {
+            this.value = value;
+            this.requiresValue = requiresValue;
+        }
+
+        public boolean isRequiresValue()
+        {
+            return requiresValue;
+        }
+
+        public static Operator fromValue( String value )
+        {
+            for ( Operator operator : values() )
+            {
+                if ( operator.value.equalsIgnoreCase( value ) )
+                {
+                    return operator;
+                }
+            }
+
+            throw new IllegalQueryException( "Invalid filter operator: '" + value + "'" );
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Filter
+    {
+        private final String path;
+
+        private final Operator operator;
+
+        private final String value;
+
+        public List<String> getSegments()
+        {
+            return toSegments( path );
+        }
+
+        /**
+         * Parses a filter on the form {@code path:operator[:value]}. The value
+         * may itself contain colons.
+         */
+        public static Filter parse( String filter )
+        {
+            String[] parts = filter.split( ":", 3 );
+
+            if ( parts.length < 2 )
+            {
+                throw new IllegalQueryException( "Invalid filter: '" + filter + "'" );
+            }
+
+            Operator operator = Operator.fromValue( parts[1] );
+            String value = parts.length == 3 ? parts[2] : null;
+
+            if ( operator.isRequiresValue() && value == null )
+            {
+                throw new IllegalQueryException( "Filter operator '" + parts[1] + "' requires a value" );
+            }
+
+            return new Filter( validatePath( parts[0] ), operator, value );
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Order
+    {
+        private final String path;
+
+        private final boolean ascending;
+
+        public List<String> getSegments()
+        {
+            return toSegments( path );
+        }
+
+        /**
+         * Parses a sort order on the form {@code path[:asc|desc]}.
+         */
+        public static Order parse( String order )
+        {
+            String[] parts = order.trim().split( ":" );
+
+            if ( parts.length > 2 || (parts.length == 2 && !parts[1].matches( "(?i)asc|desc" )) )
+            {
+                throw new IllegalQueryException( "Invalid order: '" + order + "'" );
+            }
+
+            return new Order( validatePath( parts[0] ), parts.length == 1 || "asc".equalsIgnoreCase( parts[1] ) );
+        }
+    }
+}
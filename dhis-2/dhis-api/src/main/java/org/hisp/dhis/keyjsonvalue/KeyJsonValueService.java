@@ -70,6 +70,50 @@ public interface KeyJsonValueService
      */
     KeyJsonValue getKeyJsonValue( String namespace, String key, boolean isAdmin );
 
+    /**
+     * Retrieves a page of the values in a namespace which match the given
+     * query.
+     *
+     * @param query the query.
+     * @return a list of matching entries.
+     */
+    List<KeyJsonValueEntry> getEntries( KeyJsonValueQuery query, boolean isAdmin );
+
+    /**
+     * Counts the values in a namespace which match the given query.
+     *
+     * @param query the query.
+     * @return the number of matching values.
+     */
+    long countEntries( KeyJsonValueQuery query, boolean isAdmin );
+
+    /**
+     * Creates an index supporting queries on a namespace. Without path the
+     * index supports equality filters on any path, with path it supports
+     * equality filters, comparison filters and sorting on the value at that
+     * path.
+     *
+     * @param namespace the namespace.
+     * @param path the dot separated path, or null.
+     */
+    void createIndex( String namespace, String path );
+
+    /**
+     * Drops an index created with {@link #createIndex(String, String)}.
+     *
+     * @param namespace the namespace.
+     * @param path the dot separated path, or null.
+     */
+    void dropIndex( String namespace, String path );
+
+    /**
+     * Retrieves the definitions of the indexes created for a namespace.
+     *
+     * @param namespace the namespace.
+     * @return a list of index definitions.
+     */
+    List<String> getIndexes( String namespace );
+
     /**
      * Adds a new KeyJsonValue.
      *
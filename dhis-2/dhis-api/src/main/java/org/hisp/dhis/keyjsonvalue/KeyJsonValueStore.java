@@ -81,4 +81,52 @@ public interface KeyJsonValueStore
      * @return the KeyJsonValue retrieved
      */
     KeyJsonValue getKeyJsonValue( String namespace, String key );
+
+    /**
+     * Retrieves the unencrypted values of a namespace matching the given
+     * query, one page at a time. Filters and sort orders are evaluated by the
+     * database using jsonb operators.
+     *
+     * @param query the query
+     * @return a list of entries
+     */
+    List<KeyJsonValueEntry> getEntries( KeyJsonValueQuery query );
+
+    /**
+     * Counts the unencrypted values of a namespace matching the filters of the
+     * given query.
+     *
+     * @param query the query
+     * @return the number of matching values
+     */
+    long countEntries( KeyJsonValueQuery query );
+
+    /**
+     * Creates an index for the given namespace. Without path a GIN index over
+     * the values is created which supports equality filters, otherwise
+     * expression indexes on the value at the path which support equality
+     * filters, comparison filters and sorting.
+     *
+     * @param namespace the namespace
+     * @param path the path, or null
+     */
+    void createIndex( String namespace, String path );
+
+    /**
+     * Drops an index previously created with
+     * {@link #createIndex(String, String)}.
+     *
+     * @param namespace the namespace
+     * @param path the path, or null
+     */
+    void dropIndex( String namespace, String path );
+
+    /**
+     * Retrieves the definitions of the indexes created for the given
+     * namespace.
+     *
+     * @param namespace the namespace
+     * @return a list of index definitions
+     */
+    List<String> getIndexes( String namespace );
 }
@@ -44,6 +44,18 @@ public interface MetadataVersionService
 
     String METADATAVERSION_NAME_PREFIX = "Version_";
 
+    /**
+     * Name of the snapshot property which lists the metadata objects deleted
+     * since the previous version.
+     */
+    String DELETED_OBJECTS = "deletedObjects";
+
+    /**
+     * Name of the response header which holds the hash code of a merged
+     * snapshot, used by child instances to verify its integrity.
+     */
+    String VERSIONS_DELTA_HASH_HEADER = "X-Versions-Delta-Hash";
+
     /**
      * Adds the metadata version.
      *
@@ -139,6 +151,21 @@ public interface MetadataVersionService
      */
     String getVersionData( String versionName );
 
+    /**
+     * Merges the snapshots of all versions created after the given baseline
+     * version up to and including the given version into a single snapshot.
+     * Objects present in several snapshots are included once in their latest
+     * state, and objects deleted in a later version are only listed as
+     * deleted.
+     *
+     * @param baselineVersionName the name of the version the delta is relative
+     *        to, or null to merge all versions up to the given version.
+     * @param versionName the name of the last version to include.
+     * @return JSON data for the merged snapshot, or null if no version with
+     *         the given name exists.
+     */
+    String getVersionsDelta( String baselineVersionName, String versionName );
+
     /**
      * Creates an entry in the DataStore given the MetadataVersion details.
      *
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.period;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.joda.time.DateTime;
+import org.joda.time.Days;
+
+/**
+ * Process-wide dictionary of periods which maps ISO period strings to compact
+ * integer period identifiers. The period type, canonical ISO string, start and
+ * end date and number of days of each period are computed once, when the
+ * period is first requested, and are immutable afterwards.
+ * <p>
+ * Looking up the identifier of a known ISO period does not parse the string
+ * and does not allocate objects, which makes the dictionary suitable for loops
+ * over large amounts of data values and analytics rows. Alternative ISO forms
+ * of the same period, e.g. {@code 2020W1} and {@code 2020W01}, map to the same
+ * identifier. Invalid ISO strings are not stored.
+ * <p>
+ * Periods are computed with the system calendar, and a separate dictionary is
+ * kept per calendar. Period identifiers are unrelated to database identifiers.
+ */
+public final class PeriodDictionary
+{
+    /**
+     * Identifier returned for invalid ISO period strings.
+     */
+    public static final int NO_PERIOD = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final Map<String, PeriodDictionary> DICTIONARIES = new ConcurrentHashMap<>();
+
+    /**
+     * Mapping of ISO period string to period identifier, which is the index of
+     * the period in the entries array.
+     */
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>( INITIAL_CAPACITY );
+
+    /**
+     * Entries are written before the identifier is published through the ids
+     * map and the array is replaced and never modified in place when grown.
+     */
+    private volatile Entry[] entries = new Entry[INITIAL_CAPACITY];
+
+    private int size = 0;
+
+    private PeriodDictionary()
+    {
+    }
+
+    /**
+     * Returns the period dictionary for the system calendar.
+     *
+     * @return the {@link PeriodDictionary}.
+     */
+    public static PeriodDictionary getInstance()
+    {
+        return DICTIONARIES.computeIfAbsent( PeriodType.getCalendar().name(), name -> new PeriodDictionary() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Lookup
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the identifier of the period with the given ISO string. The
+     * period is added to the dictionary if not already present.
+     *
+     * @param isoPeriod the ISO period string.
+     * @return the period identifier, or {@link #NO_PERIOD} if the ISO string
+     *         is null or invalid.
+     */
+    public int getId( String isoPeriod )
+    {
+        if ( isoPeriod == null )
+        {
+            return NO_PERIOD;
+        }
+
+        Integer id = ids.get( isoPeriod );
+
+        return id != null ? id : add( isoPeriod );
+    }
+
+    /**
+     * Indicates whether the given ISO string represents a valid period.
+     *
+     * @param isoPeriod the ISO period string.
+     * @return true if the ISO string represents a valid period.
+     */
+    public boolean isValid( String isoPeriod )
+    {
+        return getId( isoPeriod ) != NO_PERIOD;
+    }
+
+    /**
+     * Returns a new {@link Period} for the given ISO string.
+     *
+     * @param isoPeriod the ISO period string.
+     * @return a {@link Period}, or null if the ISO string is null or invalid.
+     */
+    public Period getPeriod( String isoPeriod )
+    {
+        int id = getId( isoPeriod );
+
+        return id != NO_PERIOD ? getPeriod( id ) : null;
+    }
+
+    /**
+     * Returns a new {@link Period} for the given period identifier.
+     *
+     * @param id the period identifier.
+     * @return a {@link Period}.
+     */
+    public Period getPeriod( int id )
+    {
+        Entry entry = getEntry( id );
+
+        return new Period( entry.periodType, new Date( entry.startTime ), new Date( entry.endTime ),
+            entry.isoPeriod );
+    }
+
+    /**
+     * Returns the canonical ISO string of the period with the given identifier.
+     *
+     * @param id the period identifier.
+     * @return the ISO period string.
+     */
+    public String getIsoPeriod( int id )
+    {
+        return getEntry( id ).isoPeriod;
+    }
+
+    /**
+     * Returns the period type of the period with the given identifier.
+     *
+     * @param id the period identifier.
+     * @return the {@link PeriodType}.
+     */
+    public PeriodType getPeriodType( int id )
+    {
+        return getEntry( id ).periodType;
+    }
+
+    /**
+     * Returns the start date of the period with the given identifier in
+     * milliseconds since the epoch.
+     *
+     * @param id the period identifier.
+     * @return the start time.
+     */
+    public long getStartTime( int id )
+    {
+        return getEntry( id ).startTime;
+    }
+
+    /**
+     * Returns the end date of the period with the given identifier in
+     * milliseconds since the epoch.
+     *
+     * @param id the period identifier.
+     * @return the end time.
+     */
+    public long getEndTime( int id )
+    {
+        return getEntry( id ).endTime;
+    }
+
+    /**
+     * Returns the number of days of the period with the given identifier,
+     * equal to {@link Period#getDaysInPeriod()}.
+     *
+     * @param id the period identifier.
+     * @return the number of days in the period.
+     */
+    public int getDaysInPeriod( int id )
+    {
+        return getEntry( id ).daysInPeriod;
+    }
+
+    /**
+     * Returns the number of periods in the dictionary.
+     *
+     * @return the number of periods.
+     */
+    public synchronized int size()
+    {
+        return size;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private Entry getEntry( int id )
+    {
+        Entry[] current = entries;
+
+        if ( id < 0 || id >= current.length || current[id] == null )
+        {
+            throw new IllegalArgumentException( String.format( "Invalid period identifier: %d", id ) );
+        }
+
+        return current[id];
+    }
+
+    /**
+     * Parses the given ISO string and adds the period to the dictionary. If
+     * the canonical ISO string of the period is already present, the given ISO
+     * string is added as an alias of the existing period.
+     *
+     * @param isoPeriod the ISO period string.
+     * @return the period identifier, or {@link #NO_PERIOD} if invalid.
+     */
+    private synchronized int add( String isoPeriod )
+    {
+        Integer id = ids.get( isoPeriod );
+
+        if ( id != null )
+        {
+            return id;
+        }
+
+        Period period = parse( isoPeriod );
+
+        if ( period == null )
+        {
+            return NO_PERIOD;
+        }
+
+        String canonical = period.getIsoDate();
+
+        id = ids.get( canonical );
+
+        if ( id == null )
+        {
+            if ( size == entries.length )
+            {
+                entries = Arrays.copyOf( entries, size * 2 );
+            }
+
+            entries[size] = new Entry( period, canonical );
+            id = size++;
+
+            ids.put( canonical, id );
+        }
+
+        ids.put( isoPeriod, id );
+
+        return id;
+    }
+
+    private static Period parse( String isoPeriod )
+    {
+        PeriodType periodType = PeriodType.getPeriodTypeFromIsoString( isoPeriod );
+
+        try
+        {
+            return periodType != null ? periodType.createPeriod( isoPeriod ) : null;
+        }
+        catch ( Exception ex )
+        {
+            return null;
+        }
+    }
+
+    private static final class Entry
+    {
+        private final String isoPeriod;
+
+        private final PeriodType periodType;
+
+        private final long startTime;
+
+        private final long endTime;
+
+        private final int daysInPeriod;
+
+        private Entry( Period period, String isoPeriod )
+        {
+            this.isoPeriod = isoPeriod;
+            this.periodType = period.getPeriodType();
+            this.startTime = period.getStartDate().getTime();
+            this.endTime = period.getEndDate().getTime();
+            this.daysInPeriod = Days.daysBetween( new DateTime( period.getStartDate() ),
+                new DateTime( period.getEndDate() ) ).getDays() + 1;
+        }
+    }
+}
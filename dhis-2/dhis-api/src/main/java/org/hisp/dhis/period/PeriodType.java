@@ -467,28 +467,16 @@ public abstract class PeriodType
 
     /**
      * Returns a period based on the given date string in ISO format. Returns
-     * null if the date string cannot be parsed to a period.
+     * null if the date string cannot be parsed to a period. The period is
+     * resolved through the {@link PeriodDictionary}, so that each ISO string
+     * is parsed once only.
      *
      * @param isoPeriod the date string in ISO format.
      * @return a period.
      */
     public static Period getPeriodFromIsoString( String isoPeriod )
     {
-        if ( isoPeriod != null )
-        {
-            PeriodType periodType = getPeriodTypeFromIsoString( isoPeriod );
-
-            try
-            {
-                return periodType != null ? periodType.createPeriod( isoPeriod ) : null;
-            }
-            catch ( Exception ex )
-            {
-                // Do nothing and return null
-            }
-        }
-
-        return null;
+        return PeriodDictionary.getInstance().getPeriod( isoPeriod );
     }
 
     /**
@@ -53,4 +53,9 @@ public interface ReservedValueService
     void deleteReservedValueByUid( String uid );
 
     void removeUsedOrExpiredReservations();
+
+    /**
+     * Tops up the pools of pre-generated values of recently requested keys.
+     */
+    void refillReservedValuePools();
 }
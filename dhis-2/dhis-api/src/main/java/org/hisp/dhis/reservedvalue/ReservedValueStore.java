@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.reservedvalue;
 
+import java.util.Date;
 import java.util.List;
 
 import org.hisp.dhis.common.GenericStore;
@@ -55,4 +56,44 @@ public interface ReservedValueStore
     boolean isReserved( String ownerObject, String ownerUID, String value );
 
     void removeUsedOrExpiredReservations();
+
+    // -------------------------------------------------------------------------
+    // Pool of pre-generated values
+    // -------------------------------------------------------------------------
+
+    /**
+     * Takes up to the given number of values from the pool of the owner and key
+     * of the given reserved value and reserves them, using a single statement.
+     * Pooled values which have been used in the meantime are discarded.
+     *
+     * @param reservedValue the reserved value holding owner, key, tracked
+     *        entity attribute id and expiry date.
+     * @param numberOfValues the max number of values to reserve.
+     * @return the reserved values.
+     */
+    List<ReservedValue> reserveValuesFromPool( ReservedValue reservedValue, int numberOfValues );
+
+    /**
+     * Adds the given values to the pool of the owner and key of the given
+     * reserved value, ignoring values already in the pool.
+     */
+    void addValuesToPool( ReservedValue reservedValue, List<String> values );
+
+    int getPoolSize( String ownerUid, String key );
+
+    /**
+     * Records that values were requested for the owner and key of the given
+     * reserved value, making the key eligible for pool refills.
+     */
+    void registerPoolKey( ReservedValue reservedValue );
+
+    /**
+     * Returns the owner and key of all pools requested since the given date.
+     */
+    List<ReservedValue> getPoolKeys( Date requestedSince );
+
+    /**
+     * Removes pools, and their values, not requested since the given date.
+     */
+    void removeIdlePools( Date requestedSince );
 }
@@ -99,6 +99,30 @@ public abstract class ResourceTable<T>
         return "alter table " + getTempTableName() + " rename to " + getTableName() + ";";
     }
 
+    /**
+     * Provides SQL statements which remove outdated rows from the existing
+     * resource table as part of an incremental update. An empty optional
+     * indicates that the resource table does not support incremental updates
+     * and must be regenerated in full.
+     *
+     * @return SQL delete statements for the resource table.
+     */
+    public Optional<List<String>> getIncrementalDeleteStatements()
+    {
+        return Optional.empty();
+    }
+
+    /**
+     * Provides content to insert into the existing resource table as part of an
+     * incremental update, after outdated rows have been removed.
+     *
+     * @return content for the resource table.
+     */
+    public Optional<List<Object[]>> getIncrementalContent()
+    {
+        return Optional.empty();
+    }
+
     // -------------------------------------------------------------------------
     // Protected methods
     // -------------------------------------------------------------------------
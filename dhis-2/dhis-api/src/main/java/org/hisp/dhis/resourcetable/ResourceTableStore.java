@@ -55,6 +55,37 @@ public interface ResourceTableStore
      */
     void generateResourceTable( ResourceTable<?> resourceTable );
 
+    /**
+     * Updates the given resource table in place by removing outdated rows and
+     * inserting the incremental content of the resource table.
+     *
+     * @param resourceTable the resource table.
+     * @throws IllegalArgumentException if the resource table does not support
+     *         incremental updates.
+     */
+    void updateResourceTable( ResourceTable<?> resourceTable );
+
+    /**
+     * Returns a fingerprint of the current state of the source tables of the
+     * given resource table type, based on the row count and the last updated
+     * timestamp of each source table, or a hash of the content for source
+     * tables without a last updated column such as join tables. A changed
+     * fingerprint indicates that the resource table is stale.
+     *
+     * @param tableType the {@link ResourceTableType}.
+     * @return a fingerprint, or null if the resource table type has no source
+     *         tables.
+     */
+    String getSourceFingerprint( ResourceTableType tableType );
+
+    /**
+     * Indicates whether the resource table of the given type exists.
+     *
+     * @param tableType the {@link ResourceTableType}.
+     * @return true if the resource table exists.
+     */
+    boolean resourceTableExists( ResourceTableType tableType );
+
     /**
      * Performs a batch update.
      *
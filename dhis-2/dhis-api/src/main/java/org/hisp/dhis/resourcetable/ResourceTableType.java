@@ -27,34 +27,60 @@
  */
 package org.hisp.dhis.resourcetable;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * @author Lars Helge Overland
  */
 public enum ResourceTableType
 {
-    ORG_UNIT_STRUCTURE( "_orgunitstructure" ),
-    DATA_SET_ORG_UNIT_CATEGORY( "_datasetorganisationunitcategory" ),
-    CATEGORY_OPTION_COMBO_NAME( "_categoryoptioncomboname" ),
-    DATA_ELEMENT_GROUP_SET_STRUCTURE( "_dataelementgroupsetstructure" ),
-    INDICATOR_GROUP_SET_STRUCTURE( "_indicatorgroupsetstructure" ),
-    ORG_UNIT_GROUP_SET_STRUCTURE( "_organisationunitgroupsetstructure" ),
-    CATEGORY_STRUCTURE( "_categorystructure" ),
-    DATA_ELEMENT_STRUCTURE( "_dataelementstructure" ),
-    PERIOD_STRUCTURE( "_periodstructure" ),
+    ORG_UNIT_STRUCTURE( "_orgunitstructure", "organisationunit" ),
+    DATA_SET_ORG_UNIT_CATEGORY( "_datasetorganisationunitcategory", "dataset", "datasetsource",
+        "categorycombo", "categoryoptioncombo", "dataelementcategoryoption", "categoryoption_organisationunits" ),
+    CATEGORY_OPTION_COMBO_NAME( "_categoryoptioncomboname", "categorycombo", "categoryoptioncombo",
+        "dataelementcategoryoption", "categorycombos_optioncombos" ),
+    DATA_ELEMENT_GROUP_SET_STRUCTURE( "_dataelementgroupsetstructure", "dataelement", "dataelementgroup",
+        "dataelementgroupset", "dataelementgroupmembers", "dataelementgroupsetmembers" ),
+    INDICATOR_GROUP_SET_STRUCTURE( "_indicatorgroupsetstructure", "indicator", "indicatorgroup",
+        "indicatorgroupset", "indicatorgroupmembers", "indicatorgroupsetmembers" ),
+    ORG_UNIT_GROUP_SET_STRUCTURE( "_organisationunitgroupsetstructure", "organisationunit", "orgunitgroup",
+        "orgunitgroupset", "orgunitgroupmembers", "orgunitgroupsetmembers" ),
+    CATEGORY_STRUCTURE( "_categorystructure", "categoryoptioncombo", "dataelementcategoryoption",
+        "dataelementcategory", "categoryoptiongroup", "categoryoptiongroupset", "categories_categoryoptions",
+        "categoryoptioncombos_categoryoptions", "categoryoptiongroupmembers", "categoryoptiongroupsetmembers" ),
+    DATA_ELEMENT_STRUCTURE( "_dataelementstructure", "dataelement", "dataset", "datasetelement" ),
+    PERIOD_STRUCTURE( "_periodstructure", "period" ),
     DATE_PERIOD_STRUCTURE( "_dateperiodstructure" ),
-    DATA_ELEMENT_CATEGORY_OPTION_COMBO( "_dataelementcategoryoptioncombo" ),
+    DATA_ELEMENT_CATEGORY_OPTION_COMBO( "_dataelementcategoryoptioncombo", "dataelement", "categoryoptioncombo",
+        "categorycombos_optioncombos" ),
     DATA_APPROVAL_REMAP_LEVEL( "_dataapprovalremaplevel" ),
     DATA_APPROVAL_MIN_LEVEL( "_dataapprovalminlevel" );
 
     private String tableName;
 
-    ResourceTableType( String tableName )
+    private List<String> sourceTables;
+
+    ResourceTableType( String tableName, String... sourceTables )
     {
         this.tableName = tableName;
+        this.sourceTables = Arrays.asList( sourceTables );
     }
 
     public String getTableName()
     {
         return tableName;
     }
+
+    /**
+     * Returns the names of the database tables which the content of the
+     * resource table is derived from. An empty list means that the resource
+     * table is not tracked for changes and is always regenerated.
+     *
+     * @return a list of database table names.
+     */
+    public List<String> getSourceTables()
+    {
+        return sourceTables;
+    }
 }
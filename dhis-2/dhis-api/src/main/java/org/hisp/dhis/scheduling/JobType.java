@@ -31,6 +31,7 @@ import java.util.Map;
 
 import org.hisp.dhis.scheduling.parameters.AnalyticsJobParameters;
 import org.hisp.dhis.scheduling.parameters.ContinuousAnalyticsJobParameters;
+import org.hisp.dhis.scheduling.parameters.DataIntegrityJobParameters;
 import org.hisp.dhis.scheduling.parameters.DataSynchronizationJobParameters;
 import org.hisp.dhis.scheduling.parameters.DisableInactiveUsersJobParameters;
 import org.hisp.dhis.scheduling.parameters.EventProgramsDataSynchronizationJobParameters;
@@ -57,7 +58,7 @@ import com.google.common.collect.ImmutableMap;
 public enum JobType
 {
     DATA_STATISTICS( "dataStatisticsJob", false ),
-    DATA_INTEGRITY( "dataIntegrityJob", true ),
+    DATA_INTEGRITY( "dataIntegrityJob", true, SchedulingType.CRON, DataIntegrityJobParameters.class, null ),
     RESOURCE_TABLE( "resourceTableJob", true ),
     ANALYTICS_TABLE( "analyticsTableJob", true, SchedulingType.CRON, AnalyticsJobParameters.class, ImmutableMap.of(
         "skipTableTypes", "/api/analytics/tableTypes" ) ),
@@ -86,6 +87,9 @@ public enum JobType
         "predictors", "/api/predictors", "predictorGroups", "/api/predictorGroups" ) ),
     DATA_SET_NOTIFICATION( "dataSetNotificationJob", false ),
     REMOVE_USED_OR_EXPIRED_RESERVED_VALUES( "removeUsedOrExpiredReservedValuesJob", false ),
+    REFILL_RESERVED_VALUE_POOLS( "refillReservedValuePoolsJob", false ),
+    OUTLIER_STATISTICS( "outlierStatisticsJob", true ),
+    TRACKED_ENTITY_ATTRIBUTE_SEARCH_INDEX( "trackedEntityAttributeSearchIndexJob", true ),
     TRACKER_IMPORT_JOB( "trackerImportJob", false ),
     TRACKER_IMPORT_NOTIFICATION_JOB( "trackerImportNotificationJob", false ),
     TRACKER_IMPORT_RULE_ENGINE_JOB( "trackerImportRuleEngineJob", false ),
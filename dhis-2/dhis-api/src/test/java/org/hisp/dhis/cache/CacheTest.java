@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for the default bulk operations of {@link Cache}.
+ */
+public class CacheTest
+{
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testDefaultGetAllOmitsMissingKeys()
+    {
+        Cache<String> cache = mock( Cache.class, CALLS_REAL_METHODS );
+
+        when( cache.getIfPresent( "a" ) ).thenReturn( Optional.of( "A" ) );
+        when( cache.getIfPresent( "b" ) ).thenReturn( Optional.empty() );
+        when( cache.getIfPresent( "c" ) ).thenReturn( Optional.of( "C" ) );
+
+        Map<String, String> values = cache.getAll( Lists.newArrayList( "a", "b", "c" ) );
+
+        assertEquals( ImmutableMap.of( "a", "A", "c", "C" ), values );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testDefaultPutAllDelegatesToPut()
+    {
+        Cache<String> cache = mock( Cache.class, CALLS_REAL_METHODS );
+
+        cache.putAll( ImmutableMap.of( "a", "A", "b", "B" ) );
+
+        verify( cache ).put( "a", "A" );
+        verify( cache ).put( "b", "B" );
+    }
+
+    @Test
+    public void testNoOpCacheBulkOperations()
+    {
+        Cache<String> cache = new NoOpCache<String>( new SimpleCacheBuilder<String>().withDefaultValue( "D" ) );
+
+        cache.putAll( ImmutableMap.of( "a", "A" ) );
+
+        assertTrue( cache.getAll( Lists.newArrayList( "a", "b" ) ).isEmpty() );
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for the bulk operations of {@link LocalCache}.
+ */
+public class LocalCacheTest
+{
+    private Cache<String> cache;
+
+    @Before
+    public void setUp()
+    {
+        cache = new LocalCache<>( new SimpleCacheBuilder<String>().forRegion( "region" ).withDefaultValue( "D" ) );
+    }
+
+    @Test
+    public void testPutAllAndGetAll()
+    {
+        cache.putAll( ImmutableMap.of( "a", "A", "b", "B" ) );
+
+        assertEquals( "A", cache.getIfPresent( "a" ).get() );
+        assertEquals( "B", cache.getIfPresent( "b" ).get() );
+        assertEquals( ImmutableMap.of( "a", "A", "b", "B" ), cache.getAll( Lists.newArrayList( "a", "b" ) ) );
+    }
+
+    @Test
+    public void testGetAllOmitsMissingKeysAndIgnoresDefaultValue()
+    {
+        cache.put( "a", "A" );
+
+        Map<String, String> values = cache.getAll( Lists.newArrayList( "a", "b" ) );
+
+        assertEquals( ImmutableMap.of( "a", "A" ), values );
+        assertFalse( values.containsKey( "b" ) );
+    }
+
+    @Test
+    public void testGetAllWithNoKeys()
+    {
+        cache.put( "a", "A" );
+
+        assertTrue( cache.getAll( Lists.newArrayList() ).isEmpty() );
+    }
+
+    @Test
+    public void testPutAllWithNullValue()
+    {
+        Map<String, String> entries = new HashMap<>();
+        entries.put( "a", "A" );
+        entries.put( "b", null );
+
+        try
+        {
+            cache.putAll( entries );
+
+            fail( "Null values must be rejected" );
+        }
+        catch ( IllegalArgumentException ex )
+        {
+            // Expected, no entry must be stored
+        }
+
+        assertFalse( cache.getIfPresent( "a" ).isPresent() );
+        assertFalse( cache.getIfPresent( "b" ).isPresent() );
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.keyjsonvalue;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQuery.Filter;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQuery.Operator;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQuery.Order;
+import org.junit.Test;
+
+public class KeyJsonValueQueryTest
+{
+    @Test
+    public void testParseFilter()
+    {
+        Filter filter = Filter.parse( "address.city:eq:Oslo" );
+
+        assertEquals( "address.city", filter.getPath() );
+        assertEquals( Operator.EQ, filter.getOperator() );
+        assertEquals( "Oslo", filter.getValue() );
+        assertEquals( asList( "address", "city" ), filter.getSegments() );
+    }
+
+    @Test
+    public void testParseFilterValueWithColon()
+    {
+        assertEquals( "12:30", Filter.parse( "time:!eq:12:30" ).getValue() );
+    }
+
+    @Test
+    public void testParseFilterWithoutValue()
+    {
+        Filter filter = Filter.parse( "tags.0:!null" );
+
+        assertEquals( Operator.NNULL, filter.getOperator() );
+        assertNull( filter.getValue() );
+    }
+
+    @Test( expected = IllegalQueryException.class )
+    public void testParseFilterMissingValue()
+    {
+        Filter.parse( "name:like" );
+    }
+
+    @Test( expected = IllegalQueryException.class )
+    public void testParseFilterInvalidOperator()
+    {
+        Filter.parse( "name:contains:a" );
+    }
+
+    @Test( expected = IllegalQueryException.class )
+    public void testParseFilterInvalidPath()
+    {
+        Filter.parse( "name}'; drop table keyjsonvalue;--:eq:a" );
+    }
+
+    @Test
+    public void testParseOrder()
+    {
+        Order order = Order.parse( "age:desc" );
+
+        assertEquals( "age", order.getPath() );
+        assertFalse( order.isAscending() );
+        assertTrue( Order.parse( "name" ).isAscending() );
+    }
+
+    @Test
+    public void testQuery()
+    {
+        KeyJsonValueQuery query = new KeyJsonValueQuery( "ns" )
+            .withFields( "name, address.city" )
+            .withFilters( asList( "age:gt:18", "name:ilike:an" ) )
+            .withOrders( "age:desc,name" )
+            .withPaging( 3, 5000 );
+
+        assertEquals( asList( "name", "address.city" ), query.getFields() );
+        assertEquals( 2, query.getFilters().size() );
+        assertEquals( 2, query.getOrders().size() );
+        assertEquals( KeyJsonValueQuery.MAX_PAGE_SIZE, query.getPageSize() );
+        assertEquals( 2 * KeyJsonValueQuery.MAX_PAGE_SIZE, query.getOffset() );
+        assertTrue( query.isProjection() );
+        assertFalse( new KeyJsonValueQuery( "ns" ).withFields( "." ).isProjection() );
+    }
+}
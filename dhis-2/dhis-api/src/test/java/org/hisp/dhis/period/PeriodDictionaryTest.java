@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.period;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PeriodDictionaryTest
+{
+    private final PeriodDictionary dictionary = PeriodDictionary.getInstance();
+
+    @Test
+    public void testGetId()
+    {
+        int idA = dictionary.getId( "202001" );
+        int idB = dictionary.getId( "2020Q1" );
+
+        assertNotEquals( PeriodDictionary.NO_PERIOD, idA );
+        assertNotEquals( PeriodDictionary.NO_PERIOD, idB );
+        assertNotEquals( idA, idB );
+        assertEquals( idA, dictionary.getId( "202001" ) );
+        assertEquals( idB, dictionary.getId( "2020Q1" ) );
+    }
+
+    @Test
+    public void testGetIdAlias()
+    {
+        int id = dictionary.getId( "2020W1" );
+
+        assertEquals( id, dictionary.getId( "2020W01" ) );
+        assertEquals( "2020W1", dictionary.getIsoPeriod( dictionary.getId( "2020W01" ) ) );
+    }
+
+    @Test
+    public void testGetIdInvalid()
+    {
+        assertEquals( PeriodDictionary.NO_PERIOD, dictionary.getId( null ) );
+        assertEquals( PeriodDictionary.NO_PERIOD, dictionary.getId( "" ) );
+        assertEquals( PeriodDictionary.NO_PERIOD, dictionary.getId( "2020X1" ) );
+        assertEquals( PeriodDictionary.NO_PERIOD, dictionary.getId( "2020S3" ) );
+        assertFalse( dictionary.isValid( "2020S3" ) );
+        assertTrue( dictionary.isValid( "202012" ) );
+    }
+
+    @Test
+    public void testGetProperties()
+    {
+        Period expected = new MonthlyPeriodType().createPeriod( "202002" );
+
+        int id = dictionary.getId( "202002" );
+
+        assertEquals( "202002", dictionary.getIsoPeriod( id ) );
+        assertEquals( PeriodType.getPeriodTypeByName( MonthlyPeriodType.NAME ), dictionary.getPeriodType( id ) );
+        assertEquals( expected.getStartDate().getTime(), dictionary.getStartTime( id ) );
+        assertEquals( expected.getEndDate().getTime(), dictionary.getEndTime( id ) );
+        assertEquals( 29, dictionary.getDaysInPeriod( id ) );
+        assertEquals( expected.getDaysInPeriod(), dictionary.getDaysInPeriod( id ) );
+    }
+
+    @Test
+    public void testGetPeriod()
+    {
+        Period periodA = dictionary.getPeriod( "2019July" );
+        Period periodB = dictionary.getPeriod( "2019July" );
+
+        assertEquals( new FinancialJulyPeriodType().createPeriod( "2019July" ), periodA );
+        assertEquals( "2019July", periodA.getIsoDate() );
+        assertEquals( periodA, periodB );
+        assertNotSame( periodA, periodB );
+        assertSame( periodA.getPeriodType(), periodB.getPeriodType() );
+        assertNull( dictionary.getPeriod( "2019Foo" ) );
+    }
+
+    @Test
+    public void testGetPeriodFromIsoString()
+    {
+        Period period = PeriodType.getPeriodFromIsoString( "2020S2" );
+
+        assertEquals( new SixMonthlyPeriodType().createPeriod( "2020S2" ), period );
+        assertNull( PeriodType.getPeriodFromIsoString( null ) );
+        assertNull( PeriodType.getPeriodFromIsoString( "abc" ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testGetInvalidId()
+    {
+        dictionary.getIsoPeriod( PeriodDictionary.NO_PERIOD );
+    }
+}
@@ -29,13 +29,48 @@ package org.hisp.dhis.dataintegrity;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.stream.Collectors.toList;
-import static org.hisp.dhis.commons.collection.ListUtils.getDuplicates;
+import static org.hisp.dhis.commons.util.SystemUtils.getCpuCores;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DATA_ELEMENTS_ASSIGNED_TO_DATA_SETS_WITH_DIFFERENT_PERIOD_TYPES;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DATA_ELEMENTS_IN_DATA_SET_NOT_IN_FORM;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DATA_ELEMENTS_VIOLATING_EXCLUSIVE_GROUP_SETS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DATA_ELEMENTS_WITHOUT_DATA_SET;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DATA_ELEMENTS_WITHOUT_GROUPS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DATA_SETS_NOT_ASSIGNED_TO_ORGANISATION_UNITS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.DUPLICATE_PERIODS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INDICATORS_VIOLATING_EXCLUSIVE_GROUP_SETS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INDICATORS_WITHOUT_GROUPS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INDICATORS_WITH_IDENTICAL_FORMULAS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_CATEGORY_COMBOS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_INDICATOR_DENOMINATORS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_INDICATOR_NUMERATORS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_PROGRAM_INDICATOR_EXPRESSIONS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_PROGRAM_INDICATOR_FILTERS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_VALIDATION_RULE_LEFT_SIDE_EXPRESSIONS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.INVALID_VALIDATION_RULE_RIGHT_SIDE_EXPRESSIONS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.ORGANISATION_UNITS_VIOLATING_EXCLUSIVE_GROUP_SETS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.ORGANISATION_UNITS_WITHOUT_GROUPS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.ORGANISATION_UNITS_WITH_CYCLIC_REFERENCES;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.ORGANISATION_UNIT_GROUPS_WITHOUT_GROUP_SETS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.ORPHANED_ORGANISATION_UNITS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_INDICATORS_WITH_NO_EXPRESSION;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULES_WITH_NO_ACTION;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULES_WITH_NO_CONDITION;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULES_WITH_NO_PRIORITY;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULE_ACTIONS_WITH_NO_DATA_OBJECT;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULE_ACTIONS_WITH_NO_NOTIFICATION;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULE_ACTIONS_WITH_NO_SECTION_ID;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULE_ACTIONS_WITH_NO_STAGE_ID;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULE_VARIABLES_WITH_NO_ATTRIBUTE;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.PROGRAM_RULE_VARIABLES_WITH_NO_DATA_ELEMENT;
+import static org.hisp.dhis.dataintegrity.DataIntegrityCheckType.VALIDATION_RULES_WITHOUT_GROUPS;
 import static org.hisp.dhis.expression.ParseType.INDICATOR_EXPRESSION;
 import static org.hisp.dhis.expression.ParseType.VALIDATION_RULE_EXPRESSION;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -43,6 +78,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -51,10 +93,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.hisp.dhis.antlr.ParserException;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryService;
-import org.hisp.dhis.common.ListMap;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementGroup;
-import org.hisp.dhis.dataelement.DataElementGroupSet;
 import org.hisp.dhis.dataelement.DataElementService;
 import org.hisp.dhis.dataentryform.DataEntryFormService;
 import org.hisp.dhis.dataset.DataSet;
@@ -66,15 +108,14 @@ import org.hisp.dhis.i18n.I18n;
 import org.hisp.dhis.i18n.I18nManager;
 import org.hisp.dhis.indicator.Indicator;
 import org.hisp.dhis.indicator.IndicatorGroup;
-import org.hisp.dhis.indicator.IndicatorGroupSet;
 import org.hisp.dhis.indicator.IndicatorService;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueService;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroupService;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodService;
-import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramIndicator;
 import org.hisp.dhis.program.ProgramIndicatorService;
@@ -84,10 +125,15 @@ import org.hisp.dhis.programrule.ProgramRuleActionService;
 import org.hisp.dhis.programrule.ProgramRuleService;
 import org.hisp.dhis.programrule.ProgramRuleVariable;
 import org.hisp.dhis.programrule.ProgramRuleVariableService;
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.system.notification.NotificationLevel;
+import org.hisp.dhis.system.notification.Notifier;
 import org.hisp.dhis.validation.ValidationRule;
 import org.hisp.dhis.validation.ValidationRuleService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.google.common.collect.Sets;
 
@@ -100,8 +146,6 @@ import com.google.common.collect.Sets;
 public class DefaultDataIntegrityService
     implements DataIntegrityService
 {
-    private static final String FORMULA_SEPARATOR = "#";
-
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -136,6 +180,27 @@ public class DefaultDataIntegrityService
 
     private final ProgramIndicatorService programIndicatorService;
 
+    private final DataIntegrityStore dataIntegrityStore;
+
+    private final IdentifiableObjectManager idObjectManager;
+
+    private final KeyJsonValueService keyJsonValueService;
+
+    private final Notifier notifier;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate reportTransactionTemplate;
+
+    private final Map<DataIntegrityCheckType, Consumer<DataIntegrityReport>> checks;
+
+    /**
+     * Serializes the read, merge and save of the persisted report so that
+     * concurrent runs neither insert the report twice nor drop each other's
+     * results.
+     */
+    private final Object reportLock = new Object();
+
     public DefaultDataIntegrityService( I18nManager i18nManager, DataElementService dataElementService,
         IndicatorService indicatorService, DataSetService dataSetService,
         OrganisationUnitService organisationUnitService, OrganisationUnitGroupService organisationUnitGroupService,
@@ -143,7 +208,9 @@ public class DefaultDataIntegrityService
         DataEntryFormService dataEntryFormService, CategoryService categoryService, PeriodService periodService,
         ProgramIndicatorService programIndicatorService,
         ProgramRuleService programRuleService, ProgramRuleVariableService programRuleVariableService,
-        ProgramRuleActionService programRuleActionService )
+        ProgramRuleActionService programRuleActionService, DataIntegrityStore dataIntegrityStore,
+        IdentifiableObjectManager idObjectManager, KeyJsonValueService keyJsonValueService, Notifier notifier,
+        TransactionTemplate transactionTemplate )
     {
         checkNotNull( i18nManager );
         checkNotNull( dataElementService );
@@ -159,6 +226,11 @@ public class DefaultDataIntegrityService
         checkNotNull( programRuleService );
         checkNotNull( programRuleVariableService );
         checkNotNull( programRuleActionService );
+        checkNotNull( dataIntegrityStore );
+        checkNotNull( idObjectManager );
+        checkNotNull( keyJsonValueService );
+        checkNotNull( notifier );
+        checkNotNull( transactionTemplate );
 
         this.i18nManager = i18nManager;
         this.dataElementService = dataElementService;
@@ -175,6 +247,14 @@ public class DefaultDataIntegrityService
         this.programRuleService = programRuleService;
         this.programRuleVariableService = programRuleVariableService;
         this.programRuleActionService = programRuleActionService;
+        this.dataIntegrityStore = dataIntegrityStore;
+        this.idObjectManager = idObjectManager;
+        this.keyJsonValueService = keyJsonValueService;
+        this.notifier = notifier;
+        this.transactionTemplate = new TransactionTemplate( transactionTemplate.getTransactionManager() );
+        this.transactionTemplate.setReadOnly( true );
+        this.reportTransactionTemplate = new TransactionTemplate( transactionTemplate.getTransactionManager() );
+        this.checks = getChecks();
     }
 
     // -------------------------------------------------------------------------
@@ -200,30 +280,14 @@ public class DefaultDataIntegrityService
     @Override
     public SortedMap<DataElement, Collection<DataSet>> getDataElementsAssignedToDataSetsWithDifferentPeriodTypes()
     {
-        Collection<DataElement> dataElements = dataElementService.getAllDataElements();
-
-        Collection<DataSet> dataSets = dataSetService.getAllDataSets();
+        List<DataElement> dataElements = getObjects( DataElement.class,
+            dataIntegrityStore.getDataElementsAssignedToDataSetsWithDifferentPeriodTypes() );
 
         SortedMap<DataElement, Collection<DataSet>> targets = new TreeMap<>();
 
         for ( DataElement element : dataElements )
         {
-            final Set<PeriodType> targetPeriodTypes = new HashSet<>();
-            final Collection<DataSet> targetDataSets = new HashSet<>();
-
-            for ( DataSet dataSet : dataSets )
-            {
-                if ( dataSet.getDataElements().contains( element ) )
-                {
-                    targetPeriodTypes.add( dataSet.getPeriodType() );
-                    targetDataSets.add( dataSet );
-                }
-            }
-
-            if ( targetPeriodTypes.size() > 1 )
-            {
-                targets.put( element, targetDataSets );
-            }
+            targets.put( element, new HashSet<>( element.getDataSets() ) );
         }
 
         return targets;
@@ -232,19 +296,14 @@ public class DefaultDataIntegrityService
     @Override
     public SortedMap<DataElement, Collection<DataElementGroup>> getDataElementsViolatingExclusiveGroupSets()
     {
-        Collection<DataElementGroupSet> groupSets = dataElementService.getAllDataElementGroupSets();
+        List<DataElement> dataElements = getObjects( DataElement.class,
+            dataIntegrityStore.getDataElementsViolatingExclusiveGroupSets() );
 
         SortedMap<DataElement, Collection<DataElementGroup>> targets = new TreeMap<>();
 
-        for ( DataElementGroupSet groupSet : groupSets )
+        for ( DataElement element : dataElements )
         {
-            Collection<DataElement> duplicates = getDuplicates(
-                new ArrayList<>( groupSet.getDataElements() ) );
-
-            for ( DataElement duplicate : duplicates )
-            {
-                targets.put( duplicate, duplicate.getGroups() );
-            }
+            targets.put( element, new HashSet<>( element.getGroups() ) );
         }
 
         return targets;
@@ -311,40 +370,14 @@ public class DefaultDataIntegrityService
     @Override
     public Set<Set<Indicator>> getIndicatorsWithIdenticalFormulas()
     {
-        Map<String, Indicator> formulas = new HashMap<>();
-
-        Map<String, Set<Indicator>> targets = new HashMap<>();
+        Set<Set<Indicator>> targets = new HashSet<>();
 
-        List<Indicator> indicators = indicatorService.getAllIndicators();
-
-        for ( Indicator indicator : indicators )
+        for ( List<Long> ids : dataIntegrityStore.getIndicatorsWithIdenticalFormulas() )
         {
-            final String formula = indicator.getNumerator() + FORMULA_SEPARATOR + indicator.getDenominator();
-
-            if ( formulas.containsKey( formula ) )
-            {
-                if ( targets.containsKey( formula ) )
-                {
-                    targets.get( formula ).add( indicator );
-                }
-                else
-                {
-                    Set<Indicator> elements = new HashSet<>();
-
-                    elements.add( indicator );
-                    elements.add( formulas.get( formula ) );
-
-                    targets.put( formula, elements );
-                    targets.get( formula ).add( indicator );
-                }
-            }
-            else
-            {
-                formulas.put( formula, indicator );
-            }
+            targets.add( new HashSet<>( getObjects( Indicator.class, ids ) ) );
         }
 
-        return Sets.newHashSet( targets.values() );
+        return targets;
     }
 
     @Override
@@ -387,19 +420,14 @@ public class DefaultDataIntegrityService
     @Override
     public SortedMap<Indicator, Collection<IndicatorGroup>> getIndicatorsViolatingExclusiveGroupSets()
     {
-        Collection<IndicatorGroupSet> groupSets = indicatorService.getAllIndicatorGroupSets();
+        List<Indicator> indicators = getObjects( Indicator.class,
+            dataIntegrityStore.getIndicatorsViolatingExclusiveGroupSets() );
 
         SortedMap<Indicator, Collection<IndicatorGroup>> targets = new TreeMap<>();
 
-        for ( IndicatorGroupSet groupSet : groupSets )
+        for ( Indicator indicator : indicators )
         {
-            Collection<Indicator> duplicates = getDuplicates(
-                new ArrayList<>( groupSet.getIndicators() ) );
-
-            for ( Indicator duplicate : duplicates )
-            {
-                targets.put( duplicate, duplicate.getGroups() );
-            }
+            targets.put( indicator, new HashSet<>( indicator.getGroups() ) );
         }
 
         return targets;
@@ -412,27 +440,15 @@ public class DefaultDataIntegrityService
     @Override
     public List<Period> getDuplicatePeriods()
     {
-        Collection<Period> periods = periodService.getAllPeriods();
-
         List<Period> duplicates = new ArrayList<>();
 
-        ListMap<String, Period> map = new ListMap<>();
-
-        for ( Period period : periods )
+        for ( Long id : dataIntegrityStore.getDuplicatePeriods() )
         {
-            String key = period.getPeriodType().getName() + period.getStartDate().toString();
+            Period period = periodService.getPeriod( id );
 
             period.setName( period.toString() );
 
-            map.putValue( key, period );
-        }
-
-        for ( List<Period> values : map.values() )
-        {
-            if ( values != null && values.size() > 1 )
-            {
-                duplicates.addAll( values );
-            }
+            duplicates.add( period );
         }
 
         return duplicates;
@@ -445,7 +461,8 @@ public class DefaultDataIntegrityService
     @Override
     public Set<OrganisationUnit> getOrganisationUnitsWithCyclicReferences()
     {
-        return organisationUnitService.getOrganisationUnitsWithCyclicReferences();
+        return new HashSet<>( getObjects( OrganisationUnit.class,
+            dataIntegrityStore.getOrganisationUnitsWithCyclicReferences() ) );
     }
 
     @Override
@@ -463,7 +480,8 @@ public class DefaultDataIntegrityService
     @Override
     public List<OrganisationUnit> getOrganisationUnitsViolatingExclusiveGroupSets()
     {
-        return organisationUnitService.getOrganisationUnitsViolatingExclusiveGroupSets();
+        return getObjects( OrganisationUnit.class,
+            dataIntegrityStore.getOrganisationUnitsViolatingExclusiveGroupSets() );
     }
 
     @Override
@@ -519,102 +537,250 @@ public class DefaultDataIntegrityService
     {
         DataIntegrityReport report = new DataIntegrityReport();
 
-        report.setDataElementsWithoutDataSet( new ArrayList<>( getDataElementsWithoutDataSet() ) );
-        report.setDataElementsWithoutGroups( new ArrayList<>( getDataElementsWithoutGroups() ) );
-        report.setDataElementsAssignedToDataSetsWithDifferentPeriodTypes(
-            getDataElementsAssignedToDataSetsWithDifferentPeriodTypes() );
-        report.setDataElementsViolatingExclusiveGroupSets( getDataElementsViolatingExclusiveGroupSets() );
-        report.setDataElementsInDataSetNotInForm( getDataElementsInDataSetNotInForm() );
-        report.setInvalidCategoryCombos( getInvalidCategoryCombos() );
+        checks.values().forEach( check -> check.accept( report ) );
+
+        return report;
+    }
 
-        log.info( "Checked data elements" );
+    private static SortedMap<OrganisationUnit, Collection<OrganisationUnitGroup>> groupsByUnit(
+        Collection<OrganisationUnit> units )
+    {
+        SortedMap<OrganisationUnit, Collection<OrganisationUnitGroup>> groupsByUnit = new TreeMap<>();
+        for ( OrganisationUnit unit : units )
+        {
+            groupsByUnit.put( unit, new HashSet<>( unit.getGroups() ) );
+        }
+        return groupsByUnit;
+    }
 
-        report.setDataSetsNotAssignedToOrganisationUnits(
-            new ArrayList<>( getDataSetsNotAssignedToOrganisationUnits() ) );
+    @Override
+    public FlattenedDataIntegrityReport getFlattenedDataIntegrityReport()
+    {
+        return new FlattenedDataIntegrityReport( getDataIntegrityReport() );
+    }
 
-        log.info( "Checked data sets" );
+    @Override
+    @Transactional( propagation = Propagation.NOT_SUPPORTED )
+    public FlattenedDataIntegrityReport runDataIntegrityChecks( Set<DataIntegrityCheckType> types,
+        JobConfiguration jobId )
+    {
+        Set<DataIntegrityCheckType> checkTypes = types == null || types.isEmpty()
+            ? checks.keySet()
+            : types;
 
-        report.setIndicatorsWithIdenticalFormulas( getIndicatorsWithIdenticalFormulas() );
-        report.setIndicatorsWithoutGroups( new ArrayList<>( getIndicatorsWithoutGroups() ) );
-        report.setInvalidIndicatorNumerators( getInvalidIndicatorNumerators() );
-        report.setInvalidIndicatorDenominators( getInvalidIndicatorDenominators() );
-        report.setIndicatorsViolatingExclusiveGroupSets( getIndicatorsViolatingExclusiveGroupSets() );
+        int threads = Math.max( 1, Math.min( checkTypes.size(), getCpuCores() / 2 ) );
 
-        log.info( "Checked indicators" );
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        CompletionService<FlattenedDataIntegrityReport> completionService = new ExecutorCompletionService<>(
+            executor );
 
-        report.setDuplicatePeriods( getDuplicatePeriods() );
+        Map<Future<FlattenedDataIntegrityReport>, DataIntegrityCheckType> futures = new HashMap<>();
 
-        log.info( "Checked periods" );
+        FlattenedDataIntegrityReport results = new FlattenedDataIntegrityReport();
+        Set<DataIntegrityCheckType> completed = EnumSet.noneOf( DataIntegrityCheckType.class );
 
-        report
-            .setOrganisationUnitsWithCyclicReferences( new ArrayList<>( getOrganisationUnitsWithCyclicReferences() ) );
-        report.setOrphanedOrganisationUnits( new ArrayList<>( getOrphanedOrganisationUnits() ) );
-        report.setOrganisationUnitsWithoutGroups( new ArrayList<>( getOrganisationUnitsWithoutGroups() ) );
-        report.setOrganisationUnitsViolatingExclusiveGroupSets(
-            groupsByUnit( getOrganisationUnitsViolatingExclusiveGroupSets() ) );
-        report.setOrganisationUnitGroupsWithoutGroupSets(
-            new ArrayList<>( getOrganisationUnitGroupsWithoutGroupSets() ) );
-        report.setValidationRulesWithoutGroups( new ArrayList<>( getValidationRulesWithoutGroups() ) );
+        try
+        {
+            for ( DataIntegrityCheckType type : checkTypes )
+            {
+                futures.put( completionService.submit( () -> runCheck( type ) ), type );
+            }
 
-        log.info( "Checked organisation units" );
+            for ( int i = 1; i <= futures.size(); i++ )
+            {
+                Future<FlattenedDataIntegrityReport> future = completionService.take();
+                DataIntegrityCheckType type = futures.get( future );
 
-        report.setInvalidValidationRuleLeftSideExpressions( getInvalidValidationRuleLeftSideExpressions() );
-        report.setInvalidValidationRuleRightSideExpressions( getInvalidValidationRuleRightSideExpressions() );
+                try
+                {
+                    results.merge( future.get(), Collections.singleton( type ) );
+                    completed.add( type );
 
-        log.info( "Checked validation rules" );
+                    notifier.notify( jobId, String.format( "Data integrity check '%s' completed (%d of %d)",
+                        type.getName(), i, futures.size() ) );
+                }
+                catch ( ExecutionException ex )
+                {
+                    log.error( String.format( "Data integrity check '%s' failed", type.getName() ), ex.getCause() );
 
-        report.setInvalidProgramIndicatorExpressions( getInvalidProgramIndicatorExpressions() );
-        report.setInvalidProgramIndicatorFilters( getInvalidProgramIndicatorFilters() );
-        report.setProgramIndicatorsWithNoExpression( getProgramIndicatorsWithNoExpression() );
+                    notifier.notify( jobId, NotificationLevel.ERROR, String.format(
+                        "Data integrity check '%s' failed: %s", type.getName(), ex.getCause().getMessage() ), false );
+                }
+            }
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
 
-        log.info( "Checked ProgramIndicators" );
+            log.warn( "Data integrity checks were interrupted" );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
 
-        report.setProgramRulesWithoutCondition( getProgramRulesWithNoCondition() );
-        report.setProgramRulesWithNoPriority( getProgramRulesWithNoPriority() );
-        report.setProgramRulesWithNoAction( getProgramRulesWithNoAction() );
+        return saveReport( results, completed );
+    }
 
-        log.info( "Checked ProgramRules" );
+    @Override
+    @Transactional( readOnly = true )
+    public FlattenedDataIntegrityReport getLastDataIntegrityReport()
+    {
+        return keyJsonValueService.getValue( NAMESPACE, REPORT_KEY, FlattenedDataIntegrityReport.class );
+    }
 
-        report.setProgramRuleVariablesWithNoDataElement( getProgramRuleVariablesWithNoDataElement() );
-        report.setProgramRuleVariablesWithNoAttribute( getProgramRuleVariablesWithNoAttribute() );
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
 
-        log.info( "Checked ProgramRuleVariables" );
+    /**
+     * Returns the data integrity checks. Each check sets its result on the
+     * given {@link DataIntegrityReport}.
+     */
+    private Map<DataIntegrityCheckType, Consumer<DataIntegrityReport>> getChecks()
+    {
+        Map<DataIntegrityCheckType, Consumer<DataIntegrityReport>> map = new EnumMap<>(
+            DataIntegrityCheckType.class );
+
+        map.put( DATA_ELEMENTS_WITHOUT_DATA_SET,
+            r -> r.setDataElementsWithoutDataSet( sorted( getDataElementsWithoutDataSet() ) ) );
+        map.put( DATA_ELEMENTS_WITHOUT_GROUPS,
+            r -> r.setDataElementsWithoutGroups( sorted( getDataElementsWithoutGroups() ) ) );
+        map.put( DATA_ELEMENTS_ASSIGNED_TO_DATA_SETS_WITH_DIFFERENT_PERIOD_TYPES,
+            r -> r.setDataElementsAssignedToDataSetsWithDifferentPeriodTypes(
+                getDataElementsAssignedToDataSetsWithDifferentPeriodTypes() ) );
+        map.put( DATA_ELEMENTS_VIOLATING_EXCLUSIVE_GROUP_SETS,
+            r -> r.setDataElementsViolatingExclusiveGroupSets( getDataElementsViolatingExclusiveGroupSets() ) );
+        map.put( DATA_ELEMENTS_IN_DATA_SET_NOT_IN_FORM,
+            r -> r.setDataElementsInDataSetNotInForm( getDataElementsInDataSetNotInForm() ) );
+        map.put( INVALID_CATEGORY_COMBOS,
+            r -> r.setInvalidCategoryCombos( getInvalidCategoryCombos() ) );
+        map.put( DATA_SETS_NOT_ASSIGNED_TO_ORGANISATION_UNITS,
+            r -> r.setDataSetsNotAssignedToOrganisationUnits( sorted( getDataSetsNotAssignedToOrganisationUnits() ) ) );
+        map.put( INDICATORS_WITH_IDENTICAL_FORMULAS,
+            r -> r.setIndicatorsWithIdenticalFormulas( getIndicatorsWithIdenticalFormulas() ) );
+        map.put( INDICATORS_WITHOUT_GROUPS,
+            r -> r.setIndicatorsWithoutGroups( sorted( getIndicatorsWithoutGroups() ) ) );
+        map.put( INVALID_INDICATOR_NUMERATORS,
+            r -> r.setInvalidIndicatorNumerators( getInvalidIndicatorNumerators() ) );
+        map.put( INVALID_INDICATOR_DENOMINATORS,
+            r -> r.setInvalidIndicatorDenominators( getInvalidIndicatorDenominators() ) );
+        map.put( INDICATORS_VIOLATING_EXCLUSIVE_GROUP_SETS,
+            r -> r.setIndicatorsViolatingExclusiveGroupSets( getIndicatorsViolatingExclusiveGroupSets() ) );
+        map.put( DUPLICATE_PERIODS,
+            r -> r.setDuplicatePeriods( getDuplicatePeriods() ) );
+        map.put( ORGANISATION_UNITS_WITH_CYCLIC_REFERENCES,
+            r -> r.setOrganisationUnitsWithCyclicReferences( sorted( getOrganisationUnitsWithCyclicReferences() ) ) );
+        map.put( ORPHANED_ORGANISATION_UNITS,
+            r -> r.setOrphanedOrganisationUnits( sorted( getOrphanedOrganisationUnits() ) ) );
+        map.put( ORGANISATION_UNITS_WITHOUT_GROUPS,
+            r -> r.setOrganisationUnitsWithoutGroups( sorted( getOrganisationUnitsWithoutGroups() ) ) );
+        map.put( ORGANISATION_UNITS_VIOLATING_EXCLUSIVE_GROUP_SETS,
+            r -> r.setOrganisationUnitsViolatingExclusiveGroupSets(
+                groupsByUnit( getOrganisationUnitsViolatingExclusiveGroupSets() ) ) );
+        map.put( ORGANISATION_UNIT_GROUPS_WITHOUT_GROUP_SETS,
+            r -> r.setOrganisationUnitGroupsWithoutGroupSets( sorted( getOrganisationUnitGroupsWithoutGroupSets() ) ) );
+        map.put( VALIDATION_RULES_WITHOUT_GROUPS,
+            r -> r.setValidationRulesWithoutGroups( sorted( getValidationRulesWithoutGroups() ) ) );
+        map.put( INVALID_VALIDATION_RULE_LEFT_SIDE_EXPRESSIONS,
+            r -> r.setInvalidValidationRuleLeftSideExpressions( getInvalidValidationRuleLeftSideExpressions() ) );
+        map.put( INVALID_VALIDATION_RULE_RIGHT_SIDE_EXPRESSIONS,
+            r -> r.setInvalidValidationRuleRightSideExpressions( getInvalidValidationRuleRightSideExpressions() ) );
+        map.put( INVALID_PROGRAM_INDICATOR_EXPRESSIONS,
+            r -> r.setInvalidProgramIndicatorExpressions( getInvalidProgramIndicatorExpressions() ) );
+        map.put( PROGRAM_INDICATORS_WITH_NO_EXPRESSION,
+            r -> r.setProgramIndicatorsWithNoExpression( getProgramIndicatorsWithNoExpression() ) );
+        map.put( INVALID_PROGRAM_INDICATOR_FILTERS,
+            r -> r.setInvalidProgramIndicatorFilters( getInvalidProgramIndicatorFilters() ) );
+        map.put( PROGRAM_RULES_WITH_NO_CONDITION,
+            r -> r.setProgramRulesWithoutCondition( getProgramRulesWithNoCondition() ) );
+        map.put( PROGRAM_RULES_WITH_NO_PRIORITY,
+            r -> r.setProgramRulesWithNoPriority( getProgramRulesWithNoPriority() ) );
+        map.put( PROGRAM_RULES_WITH_NO_ACTION,
+            r -> r.setProgramRulesWithNoAction( getProgramRulesWithNoAction() ) );
+        map.put( PROGRAM_RULE_VARIABLES_WITH_NO_DATA_ELEMENT,
+            r -> r.setProgramRuleVariablesWithNoDataElement( getProgramRuleVariablesWithNoDataElement() ) );
+        map.put( PROGRAM_RULE_VARIABLES_WITH_NO_ATTRIBUTE,
+            r -> r.setProgramRuleVariablesWithNoAttribute( getProgramRuleVariablesWithNoAttribute() ) );
+        map.put( PROGRAM_RULE_ACTIONS_WITH_NO_DATA_OBJECT,
+            r -> r.setProgramRuleActionsWithNoDataObject( getProgramRuleActionsWithNoDataObject() ) );
+        map.put( PROGRAM_RULE_ACTIONS_WITH_NO_NOTIFICATION,
+            r -> r.setProgramRuleActionsWithNoNotification( getProgramRuleActionsWithNoNotificationTemplate() ) );
+        map.put( PROGRAM_RULE_ACTIONS_WITH_NO_SECTION_ID,
+            r -> r.setProgramRuleActionsWithNoSectionId( getProgramRuleActionsWithNoSectionId() ) );
+        map.put( PROGRAM_RULE_ACTIONS_WITH_NO_STAGE_ID,
+            r -> r.setProgramRuleActionsWithNoStageId( getProgramRuleActionsWithNoProgramStageId() ) );
 
-        report.setProgramRuleActionsWithNoDataObject( getProgramRuleActionsWithNoDataObject() );
-        report.setProgramRuleActionsWithNoNotification( getProgramRuleActionsWithNoNotificationTemplate() );
-        report.setProgramRuleActionsWithNoSectionId( getProgramRuleActionsWithNoSectionId() );
-        report.setProgramRuleActionsWithNoStageId( getProgramRuleActionsWithNoProgramStageId() );
+        return map;
+    }
 
-        log.info( "Checked ProgramRuleActions" );
+    /**
+     * Runs the given check in a read-only transaction and returns the
+     * flattened result, so that no lazy associations are resolved outside of
+     * the transaction.
+     *
+     * @param type the {@link DataIntegrityCheckType}.
+     * @return a {@link FlattenedDataIntegrityReport} with the result.
+     */
+    private FlattenedDataIntegrityReport runCheck( DataIntegrityCheckType type )
+    {
+        return transactionTemplate.execute( status -> {
+            DataIntegrityReport report = new DataIntegrityReport();
 
-        Collections.sort( report.getDataElementsWithoutDataSet() );
-        Collections.sort( report.getDataElementsWithoutGroups() );
-        Collections.sort( report.getDataSetsNotAssignedToOrganisationUnits() );
-        Collections.sort( report.getIndicatorsWithoutGroups() );
-        Collections.sort( report.getOrganisationUnitsWithCyclicReferences() );
-        Collections.sort( report.getOrphanedOrganisationUnits() );
-        Collections.sort( report.getOrganisationUnitsWithoutGroups() );
-        Collections.sort( report.getOrganisationUnitGroupsWithoutGroupSets() );
-        Collections.sort( report.getValidationRulesWithoutGroups() );
+            checks.get( type ).accept( report );
 
-        return report;
+            return new FlattenedDataIntegrityReport( report );
+        } );
     }
 
-    private static SortedMap<OrganisationUnit, Collection<OrganisationUnitGroup>> groupsByUnit(
-        Collection<OrganisationUnit> units )
+    /**
+     * Merges the results of the given checks into the last persisted report
+     * and saves it. The report is read again under the lock and saved in the
+     * same transaction, so a report stored by a run which completed in the
+     * meantime is updated rather than inserted again.
+     *
+     * @param results the {@link FlattenedDataIntegrityReport} of this run.
+     * @param checks the checks which completed in this run.
+     * @return the saved {@link FlattenedDataIntegrityReport}.
+     */
+    private FlattenedDataIntegrityReport saveReport( FlattenedDataIntegrityReport results,
+        Collection<DataIntegrityCheckType> checks )
     {
-        SortedMap<OrganisationUnit, Collection<OrganisationUnitGroup>> groupsByUnit = new TreeMap<>();
-        for ( OrganisationUnit unit : units )
+        synchronized ( reportLock )
         {
-            groupsByUnit.put( unit, new HashSet<>( unit.getGroups() ) );
+            return reportTransactionTemplate.execute( status -> {
+                FlattenedDataIntegrityReport lastReport = keyJsonValueService.getValue( NAMESPACE, REPORT_KEY,
+                    FlattenedDataIntegrityReport.class );
+
+                FlattenedDataIntegrityReport report = lastReport != null ? lastReport
+                    : new FlattenedDataIntegrityReport();
+
+                report.merge( results, checks );
+
+                if ( lastReport == null )
+                {
+                    keyJsonValueService.addValue( NAMESPACE, REPORT_KEY, report );
+                }
+                else
+                {
+                    keyJsonValueService.updateValue( NAMESPACE, REPORT_KEY, report );
+                }
+
+                return report;
+            } );
         }
-        return groupsByUnit;
     }
 
-    @Override
-    public FlattenedDataIntegrityReport getFlattenedDataIntegrityReport()
+    private <T extends IdentifiableObject> List<T> getObjects( Class<T> type, List<Long> ids )
     {
-        return new FlattenedDataIntegrityReport( getDataIntegrityReport() );
+        return ids.isEmpty() ? new ArrayList<>() : idObjectManager.getById( type, ids );
+    }
+
+    private static <T extends Comparable<? super T>> List<T> sorted( Collection<T> objects )
+    {
+        List<T> list = new ArrayList<>( objects );
+        Collections.sort( list );
+        return list;
     }
 
     @Override
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dataintegrity.jdbc;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hisp.dhis.dataintegrity.DataIntegrityStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+@Service( "org.hisp.dhis.dataintegrity.DataIntegrityStore" )
+public class JdbcDataIntegrityStore
+    implements DataIntegrityStore
+{
+    // -------------------------------------------------------------------------
+    // Dependencies
+    // -------------------------------------------------------------------------
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcDataIntegrityStore( JdbcTemplate jdbcTemplate )
+    {
+        checkNotNull( jdbcTemplate );
+
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // -------------------------------------------------------------------------
+    // DataIntegrityStore implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public List<Long> getDataElementsAssignedToDataSetsWithDifferentPeriodTypes()
+    {
+        final String sql = "select dse.dataelementid " +
+            "from datasetelement dse " +
+            "inner join dataset ds on dse.datasetid = ds.datasetid " +
+            "group by dse.dataelementid " +
+            "having count(distinct ds.periodtypeid) > 1";
+
+        return jdbcTemplate.queryForList( sql, Long.class );
+    }
+
+    @Override
+    public List<Long> getDataElementsViolatingExclusiveGroupSets()
+    {
+        final String sql = "select distinct gm.dataelementid " +
+            "from dataelementgroupmembers gm " +
+            "inner join dataelementgroupsetmembers gsm on gm.dataelementgroupid = gsm.dataelementgroupid " +
+            "group by gm.dataelementid, gsm.dataelementgroupsetid " +
+            "having count(*) > 1";
+
+        return jdbcTemplate.queryForList( sql, Long.class );
+    }
+
+    @Override
+    public List<Long> getIndicatorsViolatingExclusiveGroupSets()
+    {
+        final String sql = "select distinct gm.indicatorid " +
+            "from indicatorgroupmembers gm " +
+            "inner join indicatorgroupsetmembers gsm on gm.indicatorgroupid = gsm.indicatorgroupid " +
+            "group by gm.indicatorid, gsm.indicatorgroupsetid " +
+            "having count(*) > 1";
+
+        return jdbcTemplate.queryForList( sql, Long.class );
+    }
+
+    @Override
+    public List<List<Long>> getIndicatorsWithIdenticalFormulas()
+    {
+        final String sql = "select array_agg(indicatorid) " +
+            "from indicator " +
+            "group by numerator, denominator " +
+            "having count(*) > 1";
+
+        return jdbcTemplate.query( sql, ( rs, rowNum ) -> {
+            List<Long> ids = new ArrayList<>();
+
+            for ( Object id : (Object[]) rs.getArray( 1 ).getArray() )
+            {
+                ids.add( ((Number) id).longValue() );
+            }
+
+            return ids;
+        } );
+    }
+
+    @Override
+    public List<Long> getDuplicatePeriods()
+    {
+        final String sql = "select pe.periodid " +
+            "from period pe " +
+            "inner join (" +
+            "select periodtypeid, startdate from period " +
+            "group by periodtypeid, startdate " +
+            "having count(*) > 1) dp " +
+            "on pe.periodtypeid = dp.periodtypeid and pe.startdate = dp.startdate";
+
+        return jdbcTemplate.queryForList( sql, Long.class );
+    }
+
+    /**
+     * Organisation units which are not reachable from a root unit are part of
+     * or below a cycle. Starting from those units only, the parent references
+     * are followed until a unit is visited twice, and a unit is part of a
+     * cycle if it is reached from itself.
+     */
+    @Override
+    public List<Long> getOrganisationUnitsWithCyclicReferences()
+    {
+        final String sql = "with recursive reachable (organisationunitid) as (" +
+            "select organisationunitid from organisationunit where parentid is null " +
+            "union " +
+            "select ou.organisationunitid from organisationunit ou " +
+            "inner join reachable r on ou.parentid = r.organisationunitid), " +
+            "unreachable as (" +
+            "select ou.organisationunitid, ou.parentid from organisationunit ou " +
+            "where not exists (select 1 from reachable r where r.organisationunitid = ou.organisationunitid)), " +
+            "ancestors (startid, currentid, visited) as (" +
+            "select organisationunitid, parentid, array[organisationunitid] from unreachable " +
+            "union all " +
+            "select a.startid, u.parentid, a.visited || a.currentid from ancestors a " +
+            "inner join unreachable u on u.organisationunitid = a.currentid " +
+            "where not a.currentid = any(a.visited)) " +
+            "select distinct startid from ancestors where currentid = startid";
+
+        return jdbcTemplate.queryForList( sql, Long.class );
+    }
+
+    @Override
+    public List<Long> getOrganisationUnitsViolatingExclusiveGroupSets()
+    {
+        final String sql = "select distinct gm.organisationunitid " +
+            "from orgunitgroupmembers gm " +
+            "inner join orgunitgroupsetmembers gsm on gm.orgunitgroupid = gsm.orgunitgroupid " +
+            "group by gm.organisationunitid, gsm.orgunitgroupsetid " +
+            "having count(*) > 1";
+
+        return jdbcTemplate.queryForList( sql, Long.class );
+    }
+}
@@ -29,13 +29,17 @@ package org.hisp.dhis.dataintegrity.jobs;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Set;
+
 import org.hisp.dhis.commons.timer.SystemTimer;
 import org.hisp.dhis.commons.timer.Timer;
+import org.hisp.dhis.dataintegrity.DataIntegrityCheckType;
 import org.hisp.dhis.dataintegrity.DataIntegrityService;
 import org.hisp.dhis.dataintegrity.FlattenedDataIntegrityReport;
 import org.hisp.dhis.scheduling.AbstractJob;
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.scheduling.parameters.DataIntegrityJobParameters;
 import org.hisp.dhis.system.notification.NotificationLevel;
 import org.hisp.dhis.system.notification.Notifier;
 import org.springframework.stereotype.Component;
@@ -83,7 +87,14 @@ public class DataIntegrityJob
             jobConfiguration, NotificationLevel.INFO,
             "Starting data integrity job", false );
 
-        FlattenedDataIntegrityReport report = dataIntegrityService.getFlattenedDataIntegrityReport();
+        DataIntegrityJobParameters parameters = jobConfiguration != null
+            ? (DataIntegrityJobParameters) jobConfiguration.getJobParameters()
+            : null;
+
+        Set<DataIntegrityCheckType> checks = parameters != null ? parameters.getChecks() : null;
+
+        FlattenedDataIntegrityReport report = dataIntegrityService.runDataIntegrityChecks( checks,
+            jobConfiguration );
 
         timer.stop();
 
@@ -31,8 +31,15 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.hisp.dhis.category.Category;
@@ -47,6 +54,7 @@ import org.hisp.dhis.dataelement.DataElementGroupSet;
 import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.indicator.IndicatorGroupSet;
 import org.hisp.dhis.jdbc.StatementBuilder;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroupSet;
 import org.hisp.dhis.organisationunit.OrganisationUnitLevel;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
@@ -67,6 +75,12 @@ import com.google.common.collect.Lists;
 public class DefaultResourceTableService
     implements ResourceTableService
 {
+    /**
+     * Max number of changed objects for which an incremental update of a
+     * resource table is attempted before falling back to full generation.
+     */
+    private static final int MAX_INCREMENTAL_CHANGES = 1000;
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -87,6 +101,14 @@ public class DefaultResourceTableService
 
     private StatementBuilder statementBuilder;
 
+    /**
+     * Source fingerprint and generation time of resource tables generated by
+     * this instance. Held in memory so that all resource tables are generated
+     * in full once after a restart, which also covers changes to the resource
+     * table structure between versions.
+     */
+    private final Map<ResourceTableType, ResourceTableState> tableStates = new ConcurrentHashMap<>();
+
     public DefaultResourceTableService( ResourceTableStore resourceTableStore,
         IdentifiableObjectManager idObjectManager, OrganisationUnitService organisationUnitService,
         PeriodService periodService, SqlViewService sqlViewService, DataApprovalLevelService dataApprovalLevelService,
@@ -119,66 +141,81 @@ public class DefaultResourceTableService
     @Transactional
     public void generateOrganisationUnitStructures()
     {
-        resourceTableStore.generateResourceTable( new OrganisationUnitStructureResourceTable(
-            null, organisationUnitService, organisationUnitService.getNumberOfOrganisationalLevels() ) );
+        final int levels = organisationUnitService.getNumberOfOrganisationalLevels();
+
+        generateResourceTable( ResourceTableType.ORG_UNIT_STRUCTURE,
+            () -> new OrganisationUnitStructureResourceTable( null, organisationUnitService, levels ),
+            since -> {
+                List<OrganisationUnit> changed = organisationUnitService.getAllOrganisationUnitsByLastUpdated( since );
+
+                return changed.size() <= MAX_INCREMENTAL_CHANGES
+                    ? new OrganisationUnitStructureResourceTable( changed, organisationUnitService, levels )
+                    : null;
+            } );
     }
 
     @Override
     @Transactional
     public void generateDataSetOrganisationUnitCategoryTable()
     {
-        resourceTableStore.generateResourceTable( new DataSetOrganisationUnitCategoryResourceTable(
-            idObjectManager.getAllNoAcl( DataSet.class ), categoryService.getDefaultCategoryOptionCombo() ) );
+        generateResourceTable( ResourceTableType.DATA_SET_ORG_UNIT_CATEGORY,
+            () -> new DataSetOrganisationUnitCategoryResourceTable( idObjectManager.getAllNoAcl( DataSet.class ),
+                categoryService.getDefaultCategoryOptionCombo() ) );
     }
 
     @Override
     @Transactional
     public void generateCategoryOptionComboNames()
     {
-        resourceTableStore.generateResourceTable( new CategoryOptionComboNameResourceTable(
-            idObjectManager.getAllNoAcl( CategoryCombo.class ) ) );
+        generateResourceTable( ResourceTableType.CATEGORY_OPTION_COMBO_NAME,
+            () -> new CategoryOptionComboNameResourceTable( idObjectManager.getAllNoAcl( CategoryCombo.class ) ),
+            since -> new CategoryOptionComboNameResourceTable(
+                idObjectManager.getAllNoAcl( CategoryCombo.class ), since ) );
     }
 
     @Override
     @Transactional
     public void generateDataElementGroupSetTable()
     {
-        resourceTableStore.generateResourceTable( new DataElementGroupSetResourceTable(
-            idObjectManager.getDataDimensionsNoAcl( DataElementGroupSet.class ) ) );
+        generateResourceTable( ResourceTableType.DATA_ELEMENT_GROUP_SET_STRUCTURE,
+            () -> new DataElementGroupSetResourceTable(
+                idObjectManager.getDataDimensionsNoAcl( DataElementGroupSet.class ) ) );
     }
 
     @Override
     @Transactional
     public void generateIndicatorGroupSetTable()
     {
-        resourceTableStore.generateResourceTable( new IndicatorGroupSetResourceTable(
-            idObjectManager.getAllNoAcl( IndicatorGroupSet.class ) ) );
+        generateResourceTable( ResourceTableType.INDICATOR_GROUP_SET_STRUCTURE,
+            () -> new IndicatorGroupSetResourceTable( idObjectManager.getAllNoAcl( IndicatorGroupSet.class ) ) );
     }
 
     @Override
     @Transactional
     public void generateOrganisationUnitGroupSetTable()
     {
-        resourceTableStore.generateResourceTable( new OrganisationUnitGroupSetResourceTable(
-            idObjectManager.getDataDimensionsNoAcl( OrganisationUnitGroupSet.class ),
-            statementBuilder.supportsPartialIndexes(), organisationUnitService.getNumberOfOrganisationalLevels() ) );
+        generateResourceTable( ResourceTableType.ORG_UNIT_GROUP_SET_STRUCTURE,
+            () -> new OrganisationUnitGroupSetResourceTable(
+                idObjectManager.getDataDimensionsNoAcl( OrganisationUnitGroupSet.class ),
+                statementBuilder.supportsPartialIndexes(),
+                organisationUnitService.getNumberOfOrganisationalLevels() ) );
     }
 
     @Override
     @Transactional
     public void generateCategoryTable()
     {
-        resourceTableStore.generateResourceTable( new CategoryResourceTable(
-            idObjectManager.getDataDimensionsNoAcl( Category.class ),
-            idObjectManager.getDataDimensionsNoAcl( CategoryOptionGroupSet.class ) ) );
+        generateResourceTable( ResourceTableType.CATEGORY_STRUCTURE,
+            () -> new CategoryResourceTable( idObjectManager.getDataDimensionsNoAcl( Category.class ),
+                idObjectManager.getDataDimensionsNoAcl( CategoryOptionGroupSet.class ) ) );
     }
 
     @Override
     @Transactional
     public void generateDataElementTable()
     {
-        resourceTableStore.generateResourceTable( new DataElementResourceTable(
-            idObjectManager.getAllNoAcl( DataElement.class ) ) );
+        generateResourceTable( ResourceTableType.DATA_ELEMENT_STRUCTURE,
+            () -> new DataElementResourceTable( idObjectManager.getAllNoAcl( DataElement.class ) ) );
     }
 
     @Override
@@ -191,14 +228,16 @@ public class DefaultResourceTableService
     @Transactional
     public void generatePeriodTable()
     {
-        resourceTableStore.generateResourceTable( new PeriodResourceTable( periodService.getAllPeriods() ) );
+        generateResourceTable( ResourceTableType.PERIOD_STRUCTURE,
+            () -> new PeriodResourceTable( periodService.getAllPeriods() ) );
     }
 
     @Override
     @Transactional
     public void generateCategoryOptionComboTable()
     {
-        resourceTableStore.generateResourceTable( new CategoryOptionComboResourceTable( null ) );
+        generateResourceTable( ResourceTableType.DATA_ELEMENT_CATEGORY_OPTION_COMBO,
+            () -> new CategoryOptionComboResourceTable( null ) );
     }
 
     @Override
@@ -219,6 +258,74 @@ public class DefaultResourceTableService
         }
     }
 
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void generateResourceTable( ResourceTableType tableType, Supplier<ResourceTable<?>> table )
+    {
+        generateResourceTable( tableType, table, since -> null );
+    }
+
+    /**
+     * Generates the resource table of the given type. The resource table is
+     * skipped if its source tables are unchanged since the previous generation,
+     * updated incrementally if supported, and otherwise generated in full.
+     *
+     * @param tableType the {@link ResourceTableType}.
+     * @param table supplier of the resource table for full generation.
+     * @param incrementalTable function which returns the resource table for an
+     *        incremental update of changes after the given date, or null if an
+     *        incremental update is not feasible.
+     */
+    private void generateResourceTable( ResourceTableType tableType, Supplier<ResourceTable<?>> table,
+        Function<Date, ResourceTable<?>> incrementalTable )
+    {
+        final Date startTime = new Date();
+        final String fingerprint = resourceTableStore.getSourceFingerprint( tableType );
+        final ResourceTableState previous = tableStates.get( tableType );
+        final boolean exists = previous != null && resourceTableStore.resourceTableExists( tableType );
+
+        if ( exists && fingerprint != null && fingerprint.equals( previous.getFingerprint() ) )
+        {
+            log.info( String.format( "Resource table is up to date: '%s'", tableType.getTableName() ) );
+            return;
+        }
+
+        ResourceTable<?> resourceTable = exists && fingerprint != null
+            ? incrementalTable.apply( previous.getGenerated() )
+            : null;
+
+        if ( resourceTable != null &&
+            previous.getCreateStatement().equals( resourceTable.getCreateTempTableStatement() ) )
+        {
+            resourceTableStore.updateResourceTable( resourceTable );
+        }
+        else
+        {
+            resourceTable = table.get();
+
+            resourceTableStore.generateResourceTable( resourceTable );
+        }
+
+        tableStates.put( tableType, new ResourceTableState(
+            fingerprint, startTime, resourceTable.getCreateTempTableStatement() ) );
+    }
+
+    /**
+     * State of a generated resource table.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class ResourceTableState
+    {
+        private final String fingerprint;
+
+        private final Date generated;
+
+        private final String createStatement;
+    }
+
     // -------------------------------------------------------------------------
     // SQL Views. Each view is created/dropped in separate transactions so that
     // process continues even if individual operations fail.
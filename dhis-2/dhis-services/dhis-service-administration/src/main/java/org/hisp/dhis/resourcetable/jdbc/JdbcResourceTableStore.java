@@ -29,8 +29,11 @@ package org.hisp.dhis.resourcetable.jdbc;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -41,8 +44,10 @@ import org.hisp.dhis.dbms.DbmsManager;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableStore;
+import org.hisp.dhis.resourcetable.ResourceTableType;
 import org.hisp.dhis.system.util.Clock;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Service;
 
 /**
@@ -65,6 +70,8 @@ public class JdbcResourceTableStore
 
     private final JdbcTemplate jdbcTemplate;
 
+    private final Map<String, Boolean> lastUpdatedColumns = new ConcurrentHashMap<>();
+
     public JdbcResourceTableStore( AnalyticsTableHookService analyticsTableHookService, DbmsManager dbmsManager,
         StatementBuilder statementBuilder, JdbcTemplate jdbcTemplate )
     {
@@ -192,6 +199,93 @@ public class JdbcResourceTableStore
             String.format( "Resource table '%s' update done: '%s'", resourceTable.getTableName(), clock.time() ) );
     }
 
+    @Override
+    public void updateResourceTable( ResourceTable<?> resourceTable )
+    {
+        final Optional<List<String>> deleteSql = resourceTable.getIncrementalDeleteStatements();
+
+        if ( !deleteSql.isPresent() )
+        {
+            throw new IllegalArgumentException( String.format(
+                "Resource table does not support incremental updates: '%s'", resourceTable.getTableName() ) );
+        }
+
+        List<AnalyticsTableHook> hooks = analyticsTableHookService
+            .getByPhaseAndResourceTableType( AnalyticsTablePhase.RESOURCE_TABLE_POPULATED,
+                resourceTable.getTableType() );
+
+        if ( !hooks.isEmpty() || !dbmsManager.tableExists( resourceTable.getTableName() ) )
+        {
+            generateResourceTable( resourceTable );
+            return;
+        }
+
+        log.info( String.format( "Updating resource table: '%s'", resourceTable.getTableName() ) );
+
+        final Clock clock = new Clock().startClock();
+        final List<Object[]> content = resourceTable.getIncrementalContent().orElse( Collections.emptyList() );
+        final String analyzeTableSql = statementBuilder.getAnalyze( resourceTable.getTableName() );
+
+        for ( final String sql : deleteSql.get() )
+        {
+            log.debug( String.format( "Delete rows SQL: '%s'", sql ) );
+
+            jdbcTemplate.execute( sql );
+        }
+
+        log.debug( String.format( "Insert content rows: '%d'", content.size() ) );
+
+        if ( content.size() > 0 )
+        {
+            batchUpdate( content.get( 0 ).length, resourceTable.getTableName(), content );
+        }
+
+        if ( analyzeTableSql != null )
+        {
+            jdbcTemplate.execute( analyzeTableSql );
+        }
+
+        log.info( String.format( "Resource table '%s' incremental update done: '%s'",
+            resourceTable.getTableName(), clock.time() ) );
+    }
+
+    @Override
+    public String getSourceFingerprint( ResourceTableType tableType )
+    {
+        if ( tableType.getSourceTables().isEmpty() )
+        {
+            return null;
+        }
+
+        StringBuilder fingerprint = new StringBuilder();
+
+        for ( String table : tableType.getSourceTables() )
+        {
+            // Join tables have no lastupdated column and rows can be changed
+            // without changing the row count, so their content is hashed
+
+            String sql = hasLastUpdatedColumn( table )
+                ? "select count(*), max(lastupdated) from " + table
+                : "select count(*), md5(coalesce(string_agg(t::text, ',' order by t::text), '')) from " + table
+                    + " t";
+
+            SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
+
+            rowSet.next();
+
+            fingerprint.append( table ).append( ':' ).append( rowSet.getLong( 1 ) )
+                .append( ':' ).append( rowSet.getObject( 2 ) ).append( ';' );
+        }
+
+        return fingerprint.toString();
+    }
+
+    @Override
+    public boolean resourceTableExists( ResourceTableType tableType )
+    {
+        return dbmsManager.tableExists( tableType.getTableName() );
+    }
+
     @Override
     public void batchUpdate( int columns, String tableName, List<Object[]> batchArgs )
     {
@@ -211,4 +305,23 @@ public class JdbcResourceTableStore
 
         jdbcTemplate.batchUpdate( builder.toString(), batchArgs );
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether the given table has a lastupdated column. The result
+     * is cached as the database schema does not change at runtime.
+     *
+     * @param table the table name.
+     * @return true if the table has a lastupdated column.
+     */
+    private boolean hasLastUpdatedColumn( String table )
+    {
+        return lastUpdatedColumns.computeIfAbsent( table, t -> jdbcTemplate.queryForObject(
+            "select count(*) from information_schema.columns " +
+                "where lower(table_name) = ? and lower(column_name) = 'lastupdated'",
+            Integer.class, t ) > 0 );
+    }
 }
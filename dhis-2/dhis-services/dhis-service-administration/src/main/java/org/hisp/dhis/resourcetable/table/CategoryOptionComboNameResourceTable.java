@@ -30,13 +30,17 @@ package org.hisp.dhis.resourcetable.table;
 import static org.hisp.dhis.dataapproval.DataApprovalLevelService.APPROVAL_LEVEL_HIGHEST;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableType;
 
@@ -49,11 +53,26 @@ import com.google.common.collect.Lists;
 public class CategoryOptionComboNameResourceTable
     extends ResourceTable<CategoryCombo>
 {
+    private Date since;
+
     public CategoryOptionComboNameResourceTable( List<CategoryCombo> objects )
     {
         super( objects );
     }
 
+    /**
+     * Creates a resource table which supports incremental updates of the
+     * category option combinations changed after the given date.
+     *
+     * @param objects all category combinations.
+     * @param since the date of the previous generation of the resource table.
+     */
+    public CategoryOptionComboNameResourceTable( List<CategoryCombo> objects, Date since )
+    {
+        super( objects );
+        this.since = since;
+    }
+
     @Override
     public ResourceTableType getTableType()
     {
@@ -77,10 +96,66 @@ public class CategoryOptionComboNameResourceTable
 
     @Override
     public Optional<List<Object[]>> getPopulateTempTableContent()
+    {
+        return Optional.of( getContent( objects ) );
+    }
+
+    /**
+     * Removes the rows of category option combinations which were deleted, and
+     * the rows of category option combinations which were changed, directly or
+     * through their category combination or category options.
+     */
+    @Override
+    public Optional<List<String>> getIncrementalDeleteStatements()
+    {
+        if ( since == null )
+        {
+            return Optional.empty();
+        }
+
+        List<String> sql = Lists.newArrayList( "delete from " + getTableName() + " " +
+            "where categoryoptioncomboid not in (select categoryoptioncomboid from categoryoptioncombo)" );
+
+        List<Long> changedIds = getChangedCategoryCombos().stream()
+            .flatMap( combo -> combo.getOptionCombos().stream() )
+            .map( CategoryOptionCombo::getId )
+            .collect( Collectors.toList() );
+
+        if ( !changedIds.isEmpty() )
+        {
+            sql.add( "delete from " + getTableName() + " " +
+                "where categoryoptioncomboid in (" + TextUtils.getCommaDelimitedString( changedIds ) + ")" );
+        }
+
+        return Optional.of( sql );
+    }
+
+    @Override
+    public Optional<List<Object[]>> getIncrementalContent()
+    {
+        if ( since == null )
+        {
+            return Optional.empty();
+        }
+
+        return Optional.of( getContent( getChangedCategoryCombos() ) );
+    }
+
+    @Override
+    public List<String> getCreateIndexStatements()
+    {
+        return Lists.newArrayList();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private List<Object[]> getContent( List<CategoryCombo> categoryCombos )
     {
         List<Object[]> batchArgs = new ArrayList<>();
 
-        for ( CategoryCombo combo : objects )
+        for ( CategoryCombo combo : categoryCombos )
         {
             if ( !combo.isValid() )
             {
@@ -102,12 +177,25 @@ public class CategoryOptionComboNameResourceTable
             }
         }
 
-        return Optional.of( batchArgs );
+        return batchArgs;
     }
 
-    @Override
-    public List<String> getCreateIndexStatements()
+    /**
+     * Returns the category combinations which were changed after the previous
+     * generation of the resource table. A category combination is considered
+     * changed if itself, any of its category option combinations or any of
+     * their category options were updated.
+     */
+    private List<CategoryCombo> getChangedCategoryCombos()
     {
-        return Lists.newArrayList();
+        return objects.stream()
+            .filter( combo -> isChanged( combo ) || combo.getOptionCombos().stream()
+                .anyMatch( coc -> isChanged( coc ) || coc.getCategoryOptions().stream().anyMatch( this::isChanged ) ) )
+            .collect( Collectors.toList() );
+    }
+
+    private boolean isChanged( IdentifiableObject object )
+    {
+        return object.getLastUpdated() == null || object.getLastUpdated().after( since );
     }
 }
@@ -32,9 +32,12 @@ import static org.hisp.dhis.system.util.SqlUtils.quote;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
@@ -104,36 +107,64 @@ public class OrganisationUnitStructureResourceTable
 
             for ( OrganisationUnit unit : units )
             {
-                List<Object> values = new ArrayList<>();
+                batchArgs.add( getRow( unit, level ) );
+            }
+        }
+
+        return Optional.of( batchArgs );
+    }
+
+    /**
+     * Removes the rows of organisation units which were deleted, and the rows
+     * of the sub-hierarchies of the changed organisation units, as a change
+     * in name, code or parent affects all descendants. Requires the objects of
+     * this resource table to be the changed organisation units.
+     */
+    @Override
+    public Optional<List<String>> getIncrementalDeleteStatements()
+    {
+        if ( objects == null )
+        {
+            return Optional.empty();
+        }
 
-                values.add( unit.getId() );
-                values.add( unit.getUid() );
-                values.add( level );
+        List<String> sql = Lists.newArrayList( "delete from " + getTableName() + " " +
+            "where organisationunitid not in (select organisationunitid from organisationunit)" );
 
-                Map<Integer, Long> identifiers = new HashMap<>();
-                Map<Integer, String> uids = new HashMap<>();
-                Map<Integer, String> names = new HashMap<>();
+        if ( !objects.isEmpty() )
+        {
+            String pathFilter = objects.stream()
+                .map( unit -> "ou.path like '%/" + unit.getUid() + "%'" )
+                .collect( Collectors.joining( " or " ) );
 
-                for ( int j = level; j > 0; j-- )
-                {
-                    identifiers.put( j, unit.getId() );
-                    uids.put( j, unit.getUid() );
-                    names.put( j, unit.getName() );
+            sql.add( "delete from " + getTableName() + " " +
+                "where organisationunitid in (select ou.organisationunitid from organisationunit ou " +
+                "where " + pathFilter + ")" );
+        }
 
-                    unit = unit.getParent();
-                }
+        return Optional.of( sql );
+    }
 
-                for ( int k = 1; k <= organisationUnitLevels; k++ )
-                {
-                    values.add( identifiers.get( k ) != null ? identifiers.get( k ) : null );
-                    values.add( uids.get( k ) );
-                    values.add( names.get( k ) );
-                }
+    @Override
+    public Optional<List<Object[]>> getIncrementalContent()
+    {
+        if ( objects == null )
+        {
+            return Optional.empty();
+        }
 
-                batchArgs.add( values.toArray() );
-            }
+        Set<OrganisationUnit> units = new HashSet<>();
+
+        for ( OrganisationUnit unit : objects )
+        {
+            units.addAll( organisationUnitService.getOrganisationUnitWithChildren( unit.getId() ) );
         }
 
+        List<Object[]> batchArgs = units.stream()
+            .filter( unit -> unit.getLevel() <= organisationUnitLevels )
+            .map( unit -> getRow( unit, unit.getLevel() ) )
+            .collect( Collectors.toList() );
+
         return Optional.of( batchArgs );
     }
 
@@ -146,4 +177,39 @@ public class OrganisationUnitStructureResourceTable
 
         return Lists.newArrayList( sql );
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private Object[] getRow( OrganisationUnit unit, int level )
+    {
+        List<Object> values = new ArrayList<>();
+
+        values.add( unit.getId() );
+        values.add( unit.getUid() );
+        values.add( level );
+
+        Map<Integer, Long> identifiers = new HashMap<>();
+        Map<Integer, String> uids = new HashMap<>();
+        Map<Integer, String> names = new HashMap<>();
+
+        for ( int j = level; j > 0; j-- )
+        {
+            identifiers.put( j, unit.getId() );
+            uids.put( j, unit.getUid() );
+            names.put( j, unit.getName() );
+
+            unit = unit.getParent();
+        }
+
+        for ( int k = 1; k <= organisationUnitLevels; k++ )
+        {
+            values.add( identifiers.get( k ) != null ? identifiers.get( k ) : null );
+            values.add( uids.get( k ) );
+            values.add( names.get( k ) );
+        }
+
+        return values.toArray();
+    }
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dataintegrity;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasKey;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementGroup;
+import org.hisp.dhis.dataelement.DataElementGroupSet;
+import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.dataset.DataSet;
+import org.hisp.dhis.dataset.DataSetService;
+import org.hisp.dhis.indicator.Indicator;
+import org.hisp.dhis.indicator.IndicatorService;
+import org.hisp.dhis.indicator.IndicatorType;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.period.MonthlyPeriodType;
+import org.hisp.dhis.period.PeriodService;
+import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.period.QuarterlyPeriodType;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Runs the data integrity checks against the SQL of the
+ * {@link DataIntegrityStore}, which cannot be covered with mocks.
+ */
+public class DataIntegrityServiceIntegrationTest
+    extends IntegrationTestBase
+{
+    @Autowired
+    private DataIntegrityService dataIntegrityService;
+
+    @Autowired
+    private DataElementService dataElementService;
+
+    @Autowired
+    private DataSetService dataSetService;
+
+    @Autowired
+    private IndicatorService indicatorService;
+
+    @Autowired
+    private OrganisationUnitService organisationUnitService;
+
+    @Autowired
+    private PeriodService periodService;
+
+    @Test
+    public void testGetDataElementsAssignedToDataSetsWithDifferentPeriodTypes()
+    {
+        PeriodType monthly = periodService.reloadPeriodType( new MonthlyPeriodType() );
+        PeriodType quarterly = periodService.reloadPeriodType( new QuarterlyPeriodType() );
+
+        DataElement elementA = createDataElement( 'A' );
+        DataElement elementB = createDataElement( 'B' );
+        dataElementService.addDataElement( elementA );
+        dataElementService.addDataElement( elementB );
+
+        DataSet dataSetA = createDataSet( 'A', monthly );
+        dataSetA.addDataSetElement( elementA );
+        dataSetA.addDataSetElement( elementB );
+        DataSet dataSetB = createDataSet( 'B', quarterly );
+        dataSetB.addDataSetElement( elementA );
+        DataSet dataSetC = createDataSet( 'C', monthly );
+        dataSetC.addDataSetElement( elementB );
+        dataSetService.addDataSet( dataSetA );
+        dataSetService.addDataSet( dataSetB );
+        dataSetService.addDataSet( dataSetC );
+
+        SortedMap<DataElement, Collection<DataSet>> result = dataIntegrityService
+            .getDataElementsAssignedToDataSetsWithDifferentPeriodTypes();
+
+        assertEquals( 1, result.size() );
+        assertThat( result.get( elementA ), containsInAnyOrder( dataSetA, dataSetB ) );
+    }
+
+    @Test
+    public void testGetDataElementsViolatingExclusiveGroupSets()
+    {
+        DataElement elementA = createDataElement( 'A' );
+        DataElement elementB = createDataElement( 'B' );
+        dataElementService.addDataElement( elementA );
+        dataElementService.addDataElement( elementB );
+
+        DataElementGroup groupA = createDataElementGroup( 'A' );
+        groupA.addDataElement( elementA );
+        groupA.addDataElement( elementB );
+        DataElementGroup groupB = createDataElementGroup( 'B' );
+        groupB.addDataElement( elementA );
+        dataElementService.addDataElementGroup( groupA );
+        dataElementService.addDataElementGroup( groupB );
+
+        DataElementGroupSet groupSetA = createDataElementGroupSet( 'A' );
+        groupSetA.addDataElementGroup( groupA );
+        groupSetA.addDataElementGroup( groupB );
+        dataElementService.addDataElementGroupSet( groupSetA );
+
+        SortedMap<DataElement, Collection<DataElementGroup>> result = dataIntegrityService
+            .getDataElementsViolatingExclusiveGroupSets();
+
+        assertEquals( 1, result.size() );
+        assertThat( result.get( elementA ), containsInAnyOrder( groupA, groupB ) );
+    }
+
+    @Test
+    public void testGetIndicatorsWithIdenticalFormulas()
+    {
+        IndicatorType indicatorType = createIndicatorType( 'A' );
+        indicatorService.addIndicatorType( indicatorType );
+
+        Indicator indicatorA = createIndicator( 'A', indicatorType );
+        Indicator indicatorB = createIndicator( 'B', indicatorType );
+        Indicator indicatorC = createIndicator( 'C', indicatorType );
+        indicatorC.setNumerator( "OtherNumerator" );
+        indicatorService.addIndicator( indicatorA );
+        indicatorService.addIndicator( indicatorB );
+        indicatorService.addIndicator( indicatorC );
+
+        Set<Set<Indicator>> result = dataIntegrityService.getIndicatorsWithIdenticalFormulas();
+
+        assertEquals( Sets.newHashSet( Sets.newHashSet( indicatorA, indicatorB ) ), result );
+    }
+
+    @Test
+    public void testGetOrganisationUnitsWithCyclicReferences()
+    {
+        OrganisationUnit unitA = createOrganisationUnit( 'A' );
+        OrganisationUnit unitB = createOrganisationUnit( 'B', unitA );
+        OrganisationUnit unitC = createOrganisationUnit( 'C' );
+        OrganisationUnit unitD = createOrganisationUnit( 'D' );
+        OrganisationUnit unitE = createOrganisationUnit( 'E' );
+        organisationUnitService.addOrganisationUnit( unitA );
+        organisationUnitService.addOrganisationUnit( unitB );
+        organisationUnitService.addOrganisationUnit( unitC );
+        organisationUnitService.addOrganisationUnit( unitD );
+        organisationUnitService.addOrganisationUnit( unitE );
+
+        // C and D reference each other, E is below the cycle but not part of it
+
+        setParent( unitC, unitD );
+        setParent( unitD, unitC );
+        setParent( unitE, unitD );
+
+        Set<String> result = dataIntegrityService.getOrganisationUnitsWithCyclicReferences().stream()
+            .map( OrganisationUnit::getUid )
+            .collect( Collectors.toSet() );
+
+        assertEquals( Sets.newHashSet( unitC.getUid(), unitD.getUid() ), result );
+    }
+
+    @Test
+    public void testRunDataIntegrityChecksMergesPersistedReport()
+    {
+        IndicatorType indicatorType = createIndicatorType( 'A' );
+        indicatorService.addIndicatorType( indicatorType );
+        indicatorService.addIndicator( createIndicator( 'A', indicatorType ) );
+        indicatorService.addIndicator( createIndicator( 'B', indicatorType ) );
+
+        dataIntegrityService.runDataIntegrityChecks(
+            Sets.newHashSet( DataIntegrityCheckType.INDICATORS_WITH_IDENTICAL_FORMULAS ), null );
+        dataIntegrityService.runDataIntegrityChecks(
+            Sets.newHashSet( DataIntegrityCheckType.ORGANISATION_UNITS_WITH_CYCLIC_REFERENCES ), null );
+
+        FlattenedDataIntegrityReport report = dataIntegrityService.getLastDataIntegrityReport();
+
+        assertNotNull( report );
+        assertThat( report.getResults(),
+            hasKey( DataIntegrityCheckType.INDICATORS_WITH_IDENTICAL_FORMULAS.getName() ) );
+        assertThat( report.getResults(),
+            hasKey( DataIntegrityCheckType.ORGANISATION_UNITS_WITH_CYCLIC_REFERENCES.getName() ) );
+        assertEquals( 1, ((Collection<?>) report.getResults()
+            .get( DataIntegrityCheckType.INDICATORS_WITH_IDENTICAL_FORMULAS.getName() )).size() );
+    }
+
+    private void setParent( OrganisationUnit unit, OrganisationUnit parent )
+    {
+        jdbcTemplate.update( "update organisationunit set parentid = ? where organisationunitid = ?",
+            parent.getId(), unit.getId() );
+    }
+}
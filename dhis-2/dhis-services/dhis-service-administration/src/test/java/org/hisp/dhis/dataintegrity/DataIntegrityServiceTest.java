@@ -60,15 +60,14 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import org.hisp.dhis.antlr.ParserException;
 import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementGroup;
 import org.hisp.dhis.dataelement.DataElementService;
@@ -81,13 +80,13 @@ import org.hisp.dhis.indicator.Indicator;
 import org.hisp.dhis.indicator.IndicatorGroup;
 import org.hisp.dhis.indicator.IndicatorService;
 import org.hisp.dhis.indicator.IndicatorType;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueService;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroupService;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.MonthlyPeriodType;
 import org.hisp.dhis.period.PeriodService;
-import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.period.QuarterlyPeriodType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramIndicator;
@@ -98,7 +97,7 @@ import org.hisp.dhis.programrule.ProgramRuleActionService;
 import org.hisp.dhis.programrule.ProgramRuleService;
 import org.hisp.dhis.programrule.ProgramRuleVariable;
 import org.hisp.dhis.programrule.ProgramRuleVariableService;
-import org.hisp.dhis.random.BeanRandomizer;
+import org.hisp.dhis.system.notification.Notifier;
 import org.hisp.dhis.validation.ValidationRuleService;
 import org.junit.Before;
 import org.junit.Rule;
@@ -106,6 +105,10 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.collect.Sets;
 
 /**
  * @author Lars Helge Overland
@@ -163,13 +166,29 @@ public class DataIntegrityServiceTest
     @Mock
     private ProgramRuleActionService programRuleActionService;
 
+    @Mock
+    private DataIntegrityStore dataIntegrityStore;
+
+    @Mock
+    private IdentifiableObjectManager idObjectManager;
+
+    @Mock
+    private KeyJsonValueService keyJsonValueService;
+
+    @Mock
+    private Notifier notifier;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Rule
     public MockitoRule mockitoRule = MockitoJUnit.rule();
 
     private DefaultDataIntegrityService subject;
 
-    private BeanRandomizer rnd;
-
     private DataElementGroup elementGroupA;
 
     private IndicatorType indicatorTypeA;
@@ -219,11 +238,13 @@ public class DataIntegrityServiceTest
     @Before
     public void setUp()
     {
+        when( transactionTemplate.getTransactionManager() ).thenReturn( transactionManager );
+
         subject = new DefaultDataIntegrityService( i18nManager, dataElementService, indicatorService, dataSetService,
             organisationUnitService, organisationUnitGroupService, validationRuleService, expressionService,
             dataEntryFormService, categoryService, periodService, programIndicatorService,
-            programRuleService, programRuleVariableService, programRuleActionService );
-        rnd = new BeanRandomizer();
+            programRuleService, programRuleVariableService, programRuleActionService, dataIntegrityStore,
+            idObjectManager, keyJsonValueService, notifier, transactionTemplate );
         setUpFixtures();
     }
 
@@ -345,60 +366,29 @@ public class DataIntegrityServiceTest
     @Test
     public void testGetDataElementsAssignedToDataSetsWithDifferentPeriodType()
     {
-        String seed = "abcde";
-        Map<String, DataElement> dataElements = createRandomDataElements( 6, seed );
-
-        DataSet dataSet1 = rnd.randomObject( DataSet.class, "periodType", "workflow" );
-        dataSet1.setPeriodType( PeriodType.getPeriodTypeFromIsoString( "2011" ) );
-        dataSet1.addDataSetElement( dataElements.get( seed + 1 ) );
-        dataSet1.addDataSetElement( dataElements.get( seed + 2 ) );
-        dataSet1.addDataSetElement( dataElements.get( seed + 3 ) );
-        dataSet1.addDataSetElement( dataElements.get( seed + 4 ) );
-
-        DataSet dataSet2 = rnd.randomObject( DataSet.class, "periodType", "workflow" );
-        dataSet2.setPeriodType( PeriodType.getByIndex( 5 ) );
-        dataSet2.addDataSetElement( dataElements.get( seed + 4 ) );
-        dataSet2.addDataSetElement( dataElements.get( seed + 5 ) );
-        dataSet2.addDataSetElement( dataElements.get( seed + 6 ) );
-        dataSet2.addDataSetElement( dataElements.get( seed + 1 ) );
-
-        when( dataElementService.getAllDataElements() ).thenReturn( new ArrayList<>( dataElements.values() ) );
-        when( dataSetService.getAllDataSets() ).thenReturn( newArrayList( dataSet1, dataSet2 ) );
+        when( dataIntegrityStore.getDataElementsAssignedToDataSetsWithDifferentPeriodTypes() )
+            .thenReturn( newArrayList( 1L ) );
+        when( idObjectManager.getById( DataElement.class, newArrayList( 1L ) ) )
+            .thenReturn( newArrayList( elementA ) );
 
         SortedMap<DataElement, Collection<DataSet>> result = subject
             .getDataElementsAssignedToDataSetsWithDifferentPeriodTypes();
 
-        assertThat( result.get( dataElements.get( seed + 4 ) ), hasSize( 2 ) );
-        assertThat( result.get( dataElements.get( seed + 1 ) ), hasSize( 2 ) );
-        assertThat( result.get( dataElements.get( seed + 4 ) ), containsInAnyOrder( dataSet1, dataSet2 ) );
-        assertThat( result.get( dataElements.get( seed + 1 ) ), containsInAnyOrder( dataSet1, dataSet2 ) );
+        assertThat( result.keySet(), hasSize( 1 ) );
+        assertThat( result.get( elementA ), containsInAnyOrder( dataSetA, dataSetB ) );
     }
 
     @Test
     public void testGetDataElementsAssignedToDataSetsWithDifferentPeriodTypeNoResult()
     {
-
-        String seed = "abcde";
-        Map<String, DataElement> dataElements = createRandomDataElements( 6, seed );
-
-        DataSet dataSet1 = rnd.randomObject( DataSet.class, "periodType", "workflow" );
-        dataSet1.setPeriodType( PeriodType.getPeriodTypeFromIsoString( "2011" ) );
-        dataSet1.addDataSetElement( dataElements.get( seed + 1 ) );
-        dataSet1.addDataSetElement( dataElements.get( seed + 2 ) );
-        dataSet1.addDataSetElement( dataElements.get( seed + 3 ) );
-
-        DataSet dataSet2 = rnd.randomObject( DataSet.class, "periodType", "workflow" );
-        dataSet2.setPeriodType( PeriodType.getByIndex( 5 ) );
-        dataSet2.addDataSetElement( dataElements.get( seed + 4 ) );
-        dataSet2.addDataSetElement( dataElements.get( seed + 5 ) );
-        dataSet2.addDataSetElement( dataElements.get( seed + 6 ) );
-
-        when( dataElementService.getAllDataElements() ).thenReturn( new ArrayList<>( dataElements.values() ) );
-        when( dataSetService.getAllDataSets() ).thenReturn( newArrayList( dataSet1, dataSet2 ) );
+        when( dataIntegrityStore.getDataElementsAssignedToDataSetsWithDifferentPeriodTypes() )
+            .thenReturn( new ArrayList<>() );
 
         SortedMap<DataElement, Collection<DataSet>> result = subject
             .getDataElementsAssignedToDataSetsWithDifferentPeriodTypes();
+
         assertThat( result.keySet(), hasSize( 0 ) );
+        verifyNoMoreInteractions( idObjectManager );
     }
 
     @Test
@@ -413,7 +403,13 @@ public class DataIntegrityServiceTest
     @Test
     public void testGetIndicatorsWithIdenticalFormulas()
     {
-        when( indicatorService.getAllIndicators() ).thenReturn( newArrayList( indicatorA, indicatorB, indicatorC ) );
+        List<List<Long>> ids = new ArrayList<>();
+        ids.add( newArrayList( 2L, 3L ) );
+
+        when( dataIntegrityStore.getIndicatorsWithIdenticalFormulas() ).thenReturn( ids );
+        when( idObjectManager.getById( Indicator.class, newArrayList( 2L, 3L ) ) )
+            .thenReturn( newArrayList( indicatorB, indicatorC ) );
+
         Set<Set<Indicator>> expected = subject.getIndicatorsWithIdenticalFormulas();
 
         Collection<Indicator> violation = expected.iterator().next();
@@ -434,8 +430,14 @@ public class DataIntegrityServiceTest
     @Test
     public void testGetOrganisationUnitsWithCyclicReferences()
     {
-        subject.getOrganisationUnitsWithCyclicReferences();
-        verify( organisationUnitService ).getOrganisationUnitsWithCyclicReferences();
+        when( dataIntegrityStore.getOrganisationUnitsWithCyclicReferences() )
+            .thenReturn( newArrayList( 1L, 2L, 3L ) );
+        when( idObjectManager.getById( OrganisationUnit.class, newArrayList( 1L, 2L, 3L ) ) )
+            .thenReturn( newArrayList( unitA, unitB, unitC ) );
+
+        Set<OrganisationUnit> result = subject.getOrganisationUnitsWithCyclicReferences();
+
+        assertThat( result, containsInAnyOrder( unitA, unitB, unitC ) );
         verifyNoMoreInteractions( organisationUnitService );
     }
 
@@ -566,13 +568,38 @@ public class DataIntegrityServiceTest
         assertTrue( invalidExpressions.isEmpty() );
     }
 
-    private Map<String, DataElement> createRandomDataElements( int quantity, String uidSeed )
+    @Test
+    public void testRunDataIntegrityChecks()
+    {
+        when( dataElementService.getDataElementsWithoutGroups() ).thenReturn( newArrayList( elementB ) );
+
+        FlattenedDataIntegrityReport report = subject.runDataIntegrityChecks(
+            Sets.newHashSet( DataIntegrityCheckType.DATA_ELEMENTS_WITHOUT_GROUPS ), null );
+
+        assertThat( report.getResults(), hasKey( "dataElementsWithoutGroups" ) );
+        assertThat( report.getResults().keySet(), hasSize( 1 ) );
+        verify( dataElementService ).getDataElementsWithoutGroups();
+        verifyNoMoreInteractions( dataElementService );
+        verify( keyJsonValueService ).addValue( DataIntegrityService.NAMESPACE, DataIntegrityService.REPORT_KEY,
+            report );
+    }
+
+    @Test
+    public void testRunDataIntegrityChecksMergesLastReport()
     {
+        FlattenedDataIntegrityReport lastReport = new FlattenedDataIntegrityReport();
+        lastReport.setResult( "duplicatePeriods", newArrayList( "2021" ) );
+
+        when( keyJsonValueService.getValue( DataIntegrityService.NAMESPACE, DataIntegrityService.REPORT_KEY,
+            FlattenedDataIntegrityReport.class ) ).thenReturn( lastReport );
 
-        return IntStream.range( 1, quantity + 1 ).mapToObj( i -> {
-            DataElement d = rnd.randomObject( DataElement.class );
-            d.setUid( uidSeed + i );
-            return d;
-        } ).collect( Collectors.toMap( DataElement::getUid, Function.identity() ) );
+        FlattenedDataIntegrityReport report = subject.runDataIntegrityChecks(
+            Sets.newHashSet( DataIntegrityCheckType.DATA_ELEMENTS_WITHOUT_GROUPS ), null );
+
+        assertThat( report.getResults(), hasKey( "duplicatePeriods" ) );
+        assertThat( report.getResults(), hasKey( "dataElementsWithoutGroups" ) );
+        verify( keyJsonValueService ).updateValue( DataIntegrityService.NAMESPACE, DataIntegrityService.REPORT_KEY,
+            report );
     }
+
 }
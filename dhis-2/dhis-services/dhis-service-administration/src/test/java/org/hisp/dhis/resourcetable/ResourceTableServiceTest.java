@@ -27,6 +27,8 @@
  */
 package org.hisp.dhis.resourcetable;
 
+import static org.junit.Assert.assertEquals;
+
 import org.hisp.dhis.DhisTest;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.dataelement.DataElement;
@@ -39,6 +41,7 @@ import org.hisp.dhis.period.MonthlyPeriodType;
 import org.hisp.dhis.period.PeriodType;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
  * @author Lars Helge Overland
@@ -55,6 +58,9 @@ public class ResourceTableServiceTest
     @Autowired
     private DataSetService dataSetService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Override
     public void setUpTest()
     {
@@ -131,4 +137,74 @@ public class ResourceTableServiceTest
         resourceTableService.generateDatePeriodTable();
         resourceTableService.generateCategoryOptionComboTable();
     }
+
+    @Test
+    public void testGenerateOrganisationUnitStructuresIncrementally()
+    {
+        resourceTableService.generateOrganisationUnitStructures();
+
+        assertEquals( 3, countRows( "_orgunitstructure" ) );
+
+        OrganisationUnit ouA = idObjectManager.get( OrganisationUnit.class, "ouabcdefghA" );
+        OrganisationUnit ouD = createOrganisationUnit( 'D' );
+        ouD.setParent( ouA );
+        ouA.getChildren().add( ouD );
+        idObjectManager.save( ouD );
+
+        resourceTableService.generateOrganisationUnitStructures();
+
+        assertEquals( 4, countRows( "_orgunitstructure" ) );
+        assertEquals( "OrganisationUnitA", jdbcTemplate.queryForObject(
+            "select namelevel1 from _orgunitstructure where organisationunituid = 'ouabcdefghD'", String.class ) );
+    }
+
+    @Test
+    public void testGenerateUnchangedResourceTable()
+    {
+        resourceTableService.generateDataElementTable();
+
+        assertEquals( 2, countRows( "_dataelementstructure" ) );
+
+        // A row removed behind the back of the service only reappears if the
+        // table is dropped and created again
+
+        jdbcTemplate.update( "delete from _dataelementstructure where dataelementuid = 'deabcdefghA'" );
+
+        resourceTableService.generateDataElementTable();
+
+        assertEquals( 1, countRows( "_dataelementstructure" ) );
+
+        idObjectManager.save( createDataElement( 'C' ) );
+
+        resourceTableService.generateDataElementTable();
+
+        assertEquals( 3, countRows( "_dataelementstructure" ) );
+    }
+
+    @Test
+    public void testGenerateResourceTableWithChangedJoinTable()
+    {
+        resourceTableService.generateDataElementGroupSetTable();
+
+        assertEquals( 2, countRows( "_dataelementgroupsetstructure" ) );
+
+        jdbcTemplate.update( "delete from _dataelementgroupsetstructure where dataelementname = 'DataElementA'" );
+
+        // Moving a data element to another group keeps the row count of the
+        // join table and does not change any last updated timestamp
+
+        jdbcTemplate.update( "update dataelementgroupmembers set dataelementgroupid = " +
+            "(select dataelementgroupid from dataelementgroup where name = 'DataElementGroupC') " +
+            "where dataelementgroupid = " +
+            "(select dataelementgroupid from dataelementgroup where name = 'DataElementGroupA')" );
+
+        resourceTableService.generateDataElementGroupSetTable();
+
+        assertEquals( 2, countRows( "_dataelementgroupsetstructure" ) );
+    }
+
+    private int countRows( String table )
+    {
+        return jdbcTemplate.queryForObject( "select count(*) from " + table, Integer.class );
+    }
 }
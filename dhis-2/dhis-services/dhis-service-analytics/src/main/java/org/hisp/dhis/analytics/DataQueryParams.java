@@ -59,6 +59,7 @@ import javax.annotation.Nullable;
 
 import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.analytics.profile.AnalyticsQueryProfile;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.category.Category;
 import org.hisp.dhis.category.CategoryCombo;
@@ -296,6 +297,12 @@ public class DataQueryParams
      */
     protected boolean includeMetadataDetails;
 
+    /**
+     * The parts of the meta data section to include in the response. All parts
+     * are included if empty.
+     */
+    protected Set<AnalyticsMetaDataKey> metadataParts = new HashSet<>();
+
     /**
      * Indicates which property to display for meta-data.
      */
@@ -490,6 +497,12 @@ public class DataQueryParams
      */
     protected transient boolean skipDataDimensionValidation = false;
 
+    /**
+     * Instrumentation of the request, shared by all queries derived from this
+     * query.
+     */
+    protected transient AnalyticsQueryProfile profile;
+
     // Constructors
     // -------------------------------------------------------------------------
 
@@ -558,6 +571,7 @@ public class DataQueryParams
         params.includeNumDen = this.includeNumDen;
         params.includePeriodStartEndDates = this.includePeriodStartEndDates;
         params.includeMetadataDetails = this.includeMetadataDetails;
+        params.metadataParts = new HashSet<>( this.metadataParts );
         params.displayProperty = this.displayProperty;
         params.outputIdScheme = this.outputIdScheme;
         params.outputDataElementIdScheme = this.outputDataElementIdScheme;
@@ -588,12 +602,14 @@ public class DataQueryParams
         params.dataApprovalLevels = new HashMap<>( this.dataApprovalLevels );
         params.skipDataDimensionValidation = this.skipDataDimensionValidation;
         params.userOrgUnitType = this.userOrgUnitType;
+        params.profile = this.profile;
         return params;
     }
 
     /**
      * Returns a unique key representing this query. The key is suitable for
-     * caching.
+     * caching. The API version is represented by its number so that requests
+     * to the default and the numbered version of the API share the key.
      */
     public String getKey()
     {
@@ -607,6 +623,7 @@ public class DataQueryParams
         measureCriteria.forEach( ( k, v ) -> key.add( "measureCriteria", (String.valueOf( k ) + v) ) );
         preAggregateMeasureCriteria
             .forEach( ( k, v ) -> key.add( "preAggregateMeasureCriteria", (String.valueOf( k ) + v) ) );
+        metadataParts.stream().sorted().forEach( p -> key.add( "metadataPart", p ) );
 
         return key
             .add( "aggregationType", aggregationType )
@@ -636,7 +653,7 @@ public class DataQueryParams
             .add( "timeField", timeField )
             .add( "orgUnitField", orgUnitField )
             .add( "userOrgUnitType", userOrgUnitType )
-            .addIgnoreNull( "apiVersion", apiVersion ).build();
+            .addIgnoreNull( "apiVersion", apiVersion, () -> String.valueOf( apiVersion.getVersion() ) ).build();
     }
 
     // -------------------------------------------------------------------------
@@ -2140,6 +2157,22 @@ public class DataQueryParams
         return includeMetadataDetails;
     }
 
+    public Set<AnalyticsMetaDataKey> getMetadataParts()
+    {
+        return metadataParts;
+    }
+
+    /**
+     * Indicates whether the given part of the meta data section should be
+     * included in the response.
+     *
+     * @param part the {@link AnalyticsMetaDataKey}.
+     */
+    public boolean isIncludeMetadataPart( AnalyticsMetaDataKey part )
+    {
+        return metadataParts.isEmpty() || metadataParts.contains( part );
+    }
+
     public DisplayProperty getDisplayProperty()
     {
         return displayProperty;
@@ -2674,6 +2707,16 @@ public class DataQueryParams
         return userOrgUnitType;
     }
 
+    public AnalyticsQueryProfile getProfile()
+    {
+        return profile;
+    }
+
+    public boolean hasProfile()
+    {
+        return profile != null;
+    }
+
     // -------------------------------------------------------------------------
     // Builder of immutable instances
     // -------------------------------------------------------------------------
@@ -3014,6 +3057,12 @@ public class DataQueryParams
             return this;
         }
 
+        public Builder withMetadataParts( Set<AnalyticsMetaDataKey> metadataParts )
+        {
+            this.params.metadataParts = metadataParts;
+            return this;
+        }
+
         public Builder withDisplayProperty( DisplayProperty displayProperty )
         {
             this.params.displayProperty = displayProperty;
@@ -3219,6 +3268,12 @@ public class DataQueryParams
             return this;
         }
 
+        public Builder withProfile( AnalyticsQueryProfile profile )
+        {
+            this.params.profile = profile;
+            return this;
+        }
+
         public DataQueryParams build()
         {
             return params;
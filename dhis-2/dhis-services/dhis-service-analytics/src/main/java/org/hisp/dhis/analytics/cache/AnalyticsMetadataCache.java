@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.common.DisplayProperty;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.user.UserContext;
+import org.hisp.dhis.user.UserSettingKey;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of organisation unit meta data used when building the meta data
+ * section of analytics responses. Resolving ancestors requires loading the
+ * full parent chain of every organisation unit in the query, which for large
+ * organisation unit selections takes longer than the analytics query itself.
+ * <p>
+ * Entries are keyed on the organisation unit UID, the display property, the
+ * database locale and the root organisation units of the current user.
+ */
+@Component
+public class AnalyticsMetadataCache
+{
+    private static final String SEP = ":";
+
+    private final Cache<OrgUnitMetadata> orgUnitCache;
+
+    public AnalyticsMetadataCache( CacheProvider cacheProvider )
+    {
+        checkNotNull( cacheProvider );
+
+        this.orgUnitCache = cacheProvider.createAnalyticsMetadataCache();
+    }
+
+    /**
+     * Returns the {@link OrgUnitMetadata} of the given organisation unit,
+     * loading it from the ancestors of the organisation unit if not present
+     * in the cache.
+     *
+     * @param unit the {@link OrganisationUnit}.
+     * @param displayProperty the {@link DisplayProperty}, may be null.
+     * @param roots the root organisation units of the current user.
+     * @return the {@link OrgUnitMetadata}.
+     */
+    public OrgUnitMetadata getOrgUnitMetadata( OrganisationUnit unit, DisplayProperty displayProperty,
+        Collection<OrganisationUnit> roots )
+    {
+        String key = getKey( unit, displayProperty, roots );
+
+        return orgUnitCache.get( key, k -> loadOrgUnitMetadata( unit, displayProperty, roots ) ).orElse( null );
+    }
+
+    /**
+     * Returns the {@link OrgUnitMetadata} of the given organisation units. All
+     * entries are fetched from the cache in one round trip, and the entries
+     * missing in the cache are loaded from the ancestors of the organisation
+     * units and stored in the cache in one round trip.
+     *
+     * @param units the list of {@link OrganisationUnit}.
+     * @param displayProperty the {@link DisplayProperty}, may be null.
+     * @param roots the root organisation units of the current user.
+     * @return a mapping between organisation unit UIDs and
+     *         {@link OrgUnitMetadata}.
+     */
+    public Map<String, OrgUnitMetadata> getOrgUnitMetadata( Collection<OrganisationUnit> units,
+        DisplayProperty displayProperty, Collection<OrganisationUnit> roots )
+    {
+        Map<String, OrganisationUnit> keyUnits = new LinkedHashMap<>();
+
+        for ( OrganisationUnit unit : units )
+        {
+            keyUnits.put( getKey( unit, displayProperty, roots ), unit );
+        }
+
+        Map<String, OrgUnitMetadata> cached = orgUnitCache.getAll( keyUnits.keySet() );
+
+        Map<String, OrgUnitMetadata> loaded = new HashMap<>();
+
+        Map<String, OrgUnitMetadata> metadata = new HashMap<>();
+
+        for ( Map.Entry<String, OrganisationUnit> entry : keyUnits.entrySet() )
+        {
+            OrgUnitMetadata unitMetadata = cached.get( entry.getKey() );
+
+            if ( unitMetadata == null )
+            {
+                unitMetadata = loadOrgUnitMetadata( entry.getValue(), displayProperty, roots );
+
+                loaded.put( entry.getKey(), unitMetadata );
+            }
+
+            metadata.put( entry.getValue().getUid(), unitMetadata );
+        }
+
+        if ( !loaded.isEmpty() )
+        {
+            orgUnitCache.putAll( loaded );
+        }
+
+        return metadata;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private OrgUnitMetadata loadOrgUnitMetadata( OrganisationUnit unit, DisplayProperty displayProperty,
+        Collection<OrganisationUnit> roots )
+    {
+        Map<String, String> ancestorItems = new LinkedHashMap<>();
+
+        for ( OrganisationUnit ancestor : unit.getAncestors() )
+        {
+            ancestorItems.put( ancestor.getUid(), ancestor.getDisplayProperty( displayProperty ) );
+        }
+
+        return new OrgUnitMetadata( ancestorItems, unit.getParentGraph( roots ),
+            unit.getParentNameGraph( roots, true ), unit.getAncestorNames( roots, true ) );
+    }
+
+    private String getKey( OrganisationUnit unit, DisplayProperty displayProperty,
+        Collection<OrganisationUnit> roots )
+    {
+        Locale locale = UserContext.getUserSetting( UserSettingKey.DB_LOCALE );
+
+        String rootKey = roots != null ? roots.stream()
+            .map( OrganisationUnit::getUid )
+            .sorted()
+            .collect( Collectors.joining( "," ) ) : null;
+
+        return unit.getUid() + SEP + displayProperty + SEP + locale + SEP + rootKey;
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.analytics.AnalyticsService;
+import org.hisp.dhis.analytics.DataQueryService;
+import org.hisp.dhis.common.BaseAnalyticalObject;
+import org.hisp.dhis.common.DataQueryRequest;
+import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.common.DimensionalObject;
+import org.hisp.dhis.common.DimensionalObjectUtils;
+import org.hisp.dhis.common.DisplayProperty;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.datastatistics.DataStatisticsEventType;
+import org.hisp.dhis.mapping.MapView;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.system.util.Clock;
+import org.hisp.dhis.user.UserCredentials;
+import org.hisp.dhis.user.UserService;
+import org.hisp.dhis.user.UserSettingKey;
+import org.hisp.dhis.user.UserSettingService;
+import org.hisp.dhis.visualization.Visualization;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Warms up the analytics cache by replaying the requests which the data
+ * visualizer and maps apps send to {@code /api/analytics} for the most viewed
+ * visualizations and maps, so that the cache keys match those of subsequent
+ * requests from the apps. Event reports and event charts are not warmed up,
+ * as their requests depend on paging and display options which are not part
+ * of the favorite.
+ */
+@Slf4j
+@Service( "org.hisp.dhis.analytics.cache.AnalyticsCacheWarmUpService" )
+public class DefaultAnalyticsCacheWarmUpService
+    implements AnalyticsCacheWarmUpService
+{
+    private static final Map<DataStatisticsEventType, Class<? extends IdentifiableObject>> FAVORITE_TYPES = ImmutableMap
+        .of(
+            DataStatisticsEventType.VISUALIZATION_VIEW, Visualization.class,
+            DataStatisticsEventType.MAP_VIEW, org.hisp.dhis.mapping.Map.class );
+
+    private final AnalyticsCache analyticsCache;
+
+    private final AnalyticsService analyticsService;
+
+    private final DataQueryService dataQueryService;
+
+    private final IdentifiableObjectManager idObjectManager;
+
+    private final UserService userService;
+
+    private final UserSettingService userSettingService;
+
+    private final SystemSettingManager systemSettingManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public DefaultAnalyticsCacheWarmUpService( AnalyticsCache analyticsCache, AnalyticsService analyticsService,
+        DataQueryService dataQueryService, IdentifiableObjectManager idObjectManager, UserService userService,
+        UserSettingService userSettingService, SystemSettingManager systemSettingManager, JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate )
+    {
+        checkNotNull( analyticsCache );
+        checkNotNull( analyticsService );
+        checkNotNull( dataQueryService );
+        checkNotNull( idObjectManager );
+        checkNotNull( userService );
+        checkNotNull( userSettingService );
+        checkNotNull( systemSettingManager );
+        checkNotNull( jdbcTemplate );
+        checkNotNull( transactionTemplate );
+
+        this.analyticsCache = analyticsCache;
+        this.analyticsService = analyticsService;
+        this.dataQueryService = dataQueryService;
+        this.idObjectManager = idObjectManager;
+        this.userService = userService;
+        this.userSettingService = userSettingService;
+        this.systemSettingManager = systemSettingManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate( transactionTemplate.getTransactionManager() );
+        this.transactionTemplate.setReadOnly( true );
+    }
+
+    // -------------------------------------------------------------------------
+    // AnalyticsCacheWarmUpService implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public boolean isEnabled()
+    {
+        return analyticsCache.isEnabled() && getFavoriteCount() > 0;
+    }
+
+    @Override
+    public int refreshCache()
+    {
+        analyticsCache.invalidateAll();
+
+        if ( !isEnabled() )
+        {
+            return 0;
+        }
+
+        Clock clock = new Clock( log ).startClock();
+
+        List<Runnable> tasks = new ArrayList<>();
+
+        for ( String username : getUsernames() )
+        {
+            for ( Map.Entry<DataStatisticsEventType, Class<? extends IdentifiableObject>> type : FAVORITE_TYPES
+                .entrySet() )
+            {
+                for ( String uid : getTopFavorites( type.getKey(), getFavoriteCount() ) )
+                {
+                    tasks.add( () -> warmUp( username, type.getValue(), uid ) );
+                }
+            }
+        }
+
+        int warmedUp = invokeAll( tasks );
+
+        clock.logTime( String.format( "Analytics cache warmed up for %d of %d favorites", warmedUp, tasks.size() ) );
+
+        return warmedUp;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Runs the analytics queries of the given favorite as the given user in a
+     * read-only transaction.
+     *
+     * @param username the username, null to run without a user.
+     * @param type the favorite class.
+     * @param uid the favorite identifier.
+     */
+    private void warmUp( String username, Class<? extends IdentifiableObject> type, String uid )
+    {
+        transactionTemplate.executeWithoutResult( status -> {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+
+            if ( username != null )
+            {
+                UserCredentials credentials = userService.getUserCredentialsByUsername( username );
+
+                if ( credentials == null )
+                {
+                    log.warn( String.format( "Analytics cache warm-up user does not exist: '%s'", username ) );
+                    return;
+                }
+
+                context.setAuthentication( new UsernamePasswordAuthenticationToken( credentials, null,
+                    credentials.getAuthorities() ) );
+            }
+
+            SecurityContextHolder.setContext( context );
+
+            try
+            {
+                IdentifiableObject favorite = idObjectManager.get( type, uid );
+
+                if ( favorite != null )
+                {
+                    runQueries( favorite );
+                }
+            }
+            finally
+            {
+                SecurityContextHolder.clearContext();
+            }
+        } );
+    }
+
+    /**
+     * Runs the cacheable analytics queries of the given favorite.
+     *
+     * @param favorite the favorite.
+     */
+    private void runQueries( IdentifiableObject favorite )
+    {
+        DisplayProperty displayProperty = getDisplayProperty();
+
+        if ( favorite instanceof Visualization )
+        {
+            runQuery( getDataQueryRequest( (Visualization) favorite, displayProperty, true ) );
+        }
+        else if ( favorite instanceof org.hisp.dhis.mapping.Map )
+        {
+            for ( MapView mapView : ((org.hisp.dhis.mapping.Map) favorite).getMapViews() )
+            {
+                if ( mapView.isDataLayer() )
+                {
+                    runQuery( getDataQueryRequest( mapView, displayProperty, false ) );
+                }
+            }
+        }
+    }
+
+    private void runQuery( DataQueryRequest request )
+    {
+        analyticsService.getAggregatedDataValues( dataQueryService.getFromRequest( request ) );
+    }
+
+    /**
+     * Returns the analytics request which the apps send for the given
+     * favorite. Only parameters which are part of the favorite or which the
+     * apps always send are included, as any other parameter leads to a
+     * different cache key.
+     *
+     * @param object the analytical object.
+     * @param displayProperty the display property of the current user.
+     * @param includeNumDen whether numerators and denominators are requested,
+     *        which the data visualizer app does while the maps app does not.
+     * @return a {@link DataQueryRequest}.
+     */
+    static DataQueryRequest getDataQueryRequest( BaseAnalyticalObject object, DisplayProperty displayProperty,
+        boolean includeNumDen )
+    {
+        object.populateAnalyticalProperties();
+
+        Visualization visualization = object instanceof Visualization ? (Visualization) object : null;
+
+        Stream<DimensionalObject> dimensions = Stream.concat( object.getColumns().stream(),
+            object.getRows().stream() );
+
+        return DataQueryRequest.newBuilder()
+            .dimension( getDimensionParams( dimensions ) )
+            .filter( getDimensionParams( object.getFilters().stream() ) )
+            .aggregationType( object.getAggregationType() )
+            .measureCriteria( visualization != null ? visualization.getMeasureCriteria() : null )
+            .skipRounding( visualization != null && visualization.isSkipRounding() )
+            .completedOnly( object.isCompletedOnly() )
+            .timeField( object.getTimeField() )
+            .displayProperty( displayProperty )
+            .includeNumDen( includeNumDen )
+            .apiVersion( DhisApiVersion.DEFAULT )
+            .build();
+    }
+
+    /**
+     * Returns dimension request parameters on the form
+     * {@code dimension:item;item}, in the order of the given dimensions.
+     */
+    private static LinkedHashSet<String> getDimensionParams( Stream<DimensionalObject> dimensions )
+    {
+        return dimensions
+            .map( dim -> dim.getItems().isEmpty() ? dim.getDimension()
+                : dim.getDimension() + DimensionalObject.DIMENSION_NAME_SEP + String.join(
+                    DimensionalObject.OPTION_SEP, DimensionalObjectUtils.getDimensionalItemIds( dim.getItems() ) ) )
+            .collect( Collectors.toCollection( LinkedHashSet::new ) );
+    }
+
+    private DisplayProperty getDisplayProperty()
+    {
+        Object displayProperty = userSettingService.getUserSetting( UserSettingKey.ANALYSIS_DISPLAY_PROPERTY );
+
+        return displayProperty instanceof DisplayProperty ? (DisplayProperty) displayProperty : DisplayProperty.NAME;
+    }
+
+    /**
+     * Invokes the given tasks using a bounded number of threads and waits for
+     * completion. Failing tasks are logged and skipped.
+     *
+     * @param tasks the tasks to invoke.
+     * @return the number of successfully completed tasks.
+     */
+    private int invokeAll( List<Runnable> tasks )
+    {
+        if ( tasks.isEmpty() )
+        {
+            return 0;
+        }
+
+        int threads = Math.max( 1, Math.min( tasks.size(),
+            (Integer) systemSettingManager.getSystemSetting( SettingKey.ANALYTICS_CACHE_WARM_UP_THREADS ) ) );
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+
+        int completed = 0;
+
+        try
+        {
+            List<Future<?>> futures = tasks.stream()
+                .map( executor::submit )
+                .collect( Collectors.toList() );
+
+            for ( Future<?> future : futures )
+            {
+                try
+                {
+                    future.get();
+                    completed++;
+                }
+                catch ( ExecutionException ex )
+                {
+                    log.warn( "Analytics cache warm-up query failed: " + ex.getCause().getMessage() );
+                }
+            }
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            log.warn( "Analytics cache warm-up was interrupted" );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        return completed;
+    }
+
+    /**
+     * Returns the identifiers of the most viewed favorites of the given type.
+     *
+     * @param eventType the {@link DataStatisticsEventType}.
+     * @param max the max number of favorites.
+     * @return a list of favorite identifiers.
+     */
+    private List<String> getTopFavorites( DataStatisticsEventType eventType, int max )
+    {
+        final String sql = "select favoriteuid from datastatisticsevent " +
+            "where eventtype = ? and favoriteuid is not null " +
+            "group by favoriteuid " +
+            "order by count(*) desc " +
+            "limit ?";
+
+        return jdbcTemplate.queryForList( sql, String.class, eventType.name(), max );
+    }
+
+    /**
+     * Returns the configured usernames, or a list with a single null element
+     * representing no user if no usernames are configured.
+     */
+    private List<String> getUsernames()
+    {
+        String usernames = (String) systemSettingManager.getSystemSetting( SettingKey.ANALYTICS_CACHE_WARM_UP_USERS );
+
+        List<String> list = StringUtils.isBlank( usernames ) ? new ArrayList<>()
+            : Arrays.stream( usernames.split( "," ) )
+                .map( String::trim )
+                .filter( StringUtils::isNotEmpty )
+                .collect( Collectors.toList() );
+
+        return list.isEmpty() ? Collections.singletonList( null ) : list;
+    }
+
+    private int getFavoriteCount()
+    {
+        return (Integer) systemSettingManager.getSystemSetting( SettingKey.ANALYTICS_CACHE_WARM_UP_FAVORITES );
+    }
+}
@@ -38,6 +38,7 @@ import static org.hisp.dhis.visualization.Visualization.addListIfEmpty;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
 import org.hisp.dhis.analytics.AnalyticsService;
@@ -46,6 +47,8 @@ import org.hisp.dhis.analytics.DataQueryService;
 import org.hisp.dhis.analytics.QueryValidator;
 import org.hisp.dhis.analytics.cache.AnalyticsCache;
 import org.hisp.dhis.analytics.data.handler.DataAggregator;
+import org.hisp.dhis.analytics.profile.AnalyticsQueryMetrics;
+import org.hisp.dhis.analytics.profile.AnalyticsQueryProfile;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.common.AnalyticalObject;
 import org.hisp.dhis.common.CombinationGenerator;
@@ -54,6 +57,7 @@ import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.dxf2.datavalueset.DataValueSet;
 import org.hisp.dhis.system.grid.ListGrid;
+import org.hisp.dhis.util.Timer;
 import org.hisp.dhis.visualization.Visualization;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -75,25 +79,30 @@ public class DefaultAnalyticsService
 
     private final DataAggregator dataAggregator;
 
+    private final AnalyticsQueryMetrics queryMetrics;
+
     // -------------------------------------------------------------------------
     // AnalyticsService implementation
     // -------------------------------------------------------------------------
 
     @Autowired
     public DefaultAnalyticsService( AnalyticsSecurityManager securityManager, QueryValidator queryValidator,
-        DataQueryService dataQueryService, AnalyticsCache analyticsCache, DataAggregator dataAggregator )
+        DataQueryService dataQueryService, AnalyticsCache analyticsCache, DataAggregator dataAggregator,
+        AnalyticsQueryMetrics queryMetrics )
     {
         checkNotNull( securityManager );
         checkNotNull( queryValidator );
         checkNotNull( dataQueryService );
         checkNotNull( analyticsCache );
         checkNotNull( dataAggregator );
+        checkNotNull( queryMetrics );
 
         this.securityManager = securityManager;
         this.queryValidator = queryValidator;
         this.dataQueryService = dataQueryService;
         this.analyticsCache = analyticsCache;
         this.dataAggregator = dataAggregator;
+        this.queryMetrics = queryMetrics;
     }
 
     @Override
@@ -103,15 +112,24 @@ public class DefaultAnalyticsService
 
         queryValidator.validate( params );
 
-        if ( analyticsCache.isEnabled() )
+        if ( !params.hasProfile() && !queryMetrics.isEnabled() )
         {
-            final DataQueryParams immutableParams = newBuilder( params ).build();
+            return getGrid( params );
+        }
 
-            return analyticsCache.getOrFetch( params,
-                p -> dataAggregator.getAggregatedDataValueGrid( immutableParams ) );
+        final AnalyticsQueryProfile profile = params.hasProfile() ? params.getProfile() : new AnalyticsQueryProfile();
+        final Timer timer = new Timer().start().disablePrint();
+
+        try
+        {
+            return getGrid( newBuilder( params ).withProfile( profile ).build() );
         }
+        finally
+        {
+            profile.setTime( timer.getTimeInMs() );
 
-        return dataAggregator.getAggregatedDataValueGrid( params );
+            queryMetrics.record( profile );
+        }
     }
 
     @Override
@@ -192,6 +210,36 @@ public class DefaultAnalyticsService
         return params;
     }
 
+    /**
+     * Returns a Grid with aggregated data, using the analytics cache if
+     * enabled. Records the cache access in the profile of the given params.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @return a Grid with aggregated data.
+     */
+    private Grid getGrid( DataQueryParams params )
+    {
+        if ( analyticsCache.isEnabled() )
+        {
+            final DataQueryParams immutableParams = newBuilder( params ).build();
+            final AtomicBoolean fetched = new AtomicBoolean();
+
+            Grid grid = analyticsCache.getOrFetch( params, p -> {
+                fetched.set( true );
+                return dataAggregator.getAggregatedDataValueGrid( immutableParams );
+            } );
+
+            if ( params.hasProfile() )
+            {
+                params.getProfile().setCacheHit( !fetched.get() );
+            }
+
+            return grid;
+        }
+
+        return dataAggregator.getAggregatedDataValueGrid( params );
+    }
+
     /**
      * Returns a Grid with aggregated data in table layout.
      *
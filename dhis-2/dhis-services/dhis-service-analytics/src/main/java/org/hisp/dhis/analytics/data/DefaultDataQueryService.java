@@ -61,6 +61,7 @@ import static org.hisp.dhis.organisationunit.OrganisationUnit.KEY_USER_ORGUNIT_G
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -68,6 +69,7 @@ import java.util.stream.Collectors;
 
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.AnalyticsFinancialYearStartKey;
+import org.hisp.dhis.analytics.AnalyticsMetaDataKey;
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataQueryService;
@@ -205,6 +207,11 @@ public class DefaultDataQueryService
             params.withAggregationType( AnalyticsAggregationType.fromAggregationType( request.getAggregationType() ) );
         }
 
+        if ( request.getMetadataParts() != null && !request.getMetadataParts().isEmpty() )
+        {
+            params.withMetadataParts( getMetadataParts( request.getMetadataParts() ) );
+        }
+
         return params
             .withStartDate( request.getStartDate() )
             .withEndDate( request.getEndDate() )
@@ -674,6 +681,32 @@ public class DefaultDataQueryService
             .collect( Collectors.toList() );
     }
 
+    /**
+     * Returns the meta data keys for the given meta data part parameters.
+     *
+     * @param parts the meta data part parameters.
+     * @return a set of {@link AnalyticsMetaDataKey}.
+     * @throws IllegalQueryException if a part is invalid.
+     */
+    private Set<AnalyticsMetaDataKey> getMetadataParts( Set<String> parts )
+    {
+        Set<AnalyticsMetaDataKey> metadataParts = new HashSet<>();
+
+        for ( String part : parts )
+        {
+            AnalyticsMetaDataKey key = AnalyticsMetaDataKey.fromKey( part );
+
+            if ( key == null )
+            {
+                throwIllegalQueryEx( ErrorCode.E7134, part );
+            }
+
+            metadataParts.add( key );
+        }
+
+        return metadataParts;
+    }
+
     /**
      * Returns only objects for which the user has data or metadata read access.
      *
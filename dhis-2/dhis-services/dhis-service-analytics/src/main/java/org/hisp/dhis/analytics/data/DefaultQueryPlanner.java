@@ -51,6 +51,7 @@ import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.analytics.QueryValidator;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.rollup.AnalyticsRollupService;
 import org.hisp.dhis.analytics.table.PartitionUtils;
 import org.hisp.dhis.analytics.util.PeriodOffsetUtils;
 import org.hisp.dhis.common.BaseDimensionalObject;
@@ -84,13 +85,18 @@ public class DefaultQueryPlanner
 
     private final PartitionManager partitionManager;
 
-    public DefaultQueryPlanner( QueryValidator queryValidator, PartitionManager partitionManager )
+    private final AnalyticsRollupService rollupService;
+
+    public DefaultQueryPlanner( QueryValidator queryValidator, PartitionManager partitionManager,
+        AnalyticsRollupService rollupService )
     {
         checkNotNull( queryValidator );
         checkNotNull( partitionManager );
+        checkNotNull( rollupService );
 
         this.queryValidator = queryValidator;
         this.partitionManager = partitionManager;
+        this.rollupService = rollupService;
     }
 
     // -------------------------------------------------------------------------
@@ -133,6 +139,15 @@ public class DefaultQueryPlanner
             currentQueries.forEach( query -> queries.addAll( grouper.apply( query ) ) );
         }
 
+        // ---------------------------------------------------------------------
+        // Route queries to pre-aggregated rollup tables where possible
+        // ---------------------------------------------------------------------
+
+        if ( AnalyticsTableType.DATA_VALUE == plannerParams.getTableType() )
+        {
+            queries.replaceAll( this::withRollupTable );
+        }
+
         // ---------------------------------------------------------------------
         // Split queries until optimal number
         // ---------------------------------------------------------------------
@@ -190,6 +205,24 @@ public class DefaultQueryPlanner
             .build();
     }
 
+    /**
+     * Returns the given query with the table name set to the smallest rollup
+     * table which can answer the query exactly, if any. Rollup tables are not
+     * partitioned.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @return a {@link DataQueryParams}.
+     */
+    private DataQueryParams withRollupTable( DataQueryParams params )
+    {
+        return rollupService.getRollup( params )
+            .map( rollup -> DataQueryParams.newBuilder( params )
+                .withTableName( rollup.getTableName() )
+                .withSkipPartitioning( true )
+                .build() )
+            .orElse( params );
+    }
+
     // -------------------------------------------------------------------------
     // Supportive split methods
     // -------------------------------------------------------------------------
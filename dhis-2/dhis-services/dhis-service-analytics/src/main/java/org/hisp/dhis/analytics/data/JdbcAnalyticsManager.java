@@ -57,6 +57,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
@@ -70,6 +71,7 @@ import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.MeasureFilter;
 import org.hisp.dhis.analytics.QueryPlanner;
+import org.hisp.dhis.analytics.profile.AnalyticsQueryProfile;
 import org.hisp.dhis.analytics.table.PartitionUtils;
 import org.hisp.dhis.analytics.util.AnalyticsSqlUtils;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
@@ -85,7 +87,8 @@ import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
-import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.period.PeriodDictionary;
+import org.hisp.dhis.util.Timer;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.jdbc.BadSqlGrammarException;
@@ -181,7 +184,15 @@ public class JdbcAnalyticsManager
 
             try
             {
+                Timer timer = new Timer().start().disablePrint();
+
                 map = getKeyValueMap( params, sql, maxLimit );
+
+                if ( params.hasProfile() )
+                {
+                    params.getProfile().addQuery( new AnalyticsQueryProfile.SqlQuery( tableType,
+                        params.getTableName(), getPartitions( params ), sql, timer.getTimeInMs(), map.size() ) );
+                }
             }
             catch ( BadSqlGrammarException ex )
             {
@@ -218,6 +229,13 @@ public class JdbcAnalyticsManager
                 return; // Period is filter, nothing to replace
             }
 
+            PeriodDictionary dictionary = PeriodDictionary.getInstance();
+
+            Map<Integer, List<DimensionalItemObject>> periodIdMap = new HashMap<>();
+
+            dataPeriodAggregationPeriodMap.forEach( ( dataPeriod, aggregationPeriods ) -> periodIdMap.put(
+                dictionary.getId( ((Period) dataPeriod).getIsoDate() ), aggregationPeriods ) );
+
             Set<String> keys = new HashSet<>( dataValueMap.keySet() );
 
             for ( String key : keys )
@@ -228,8 +246,7 @@ public class JdbcAnalyticsManager
 
                 Assert.notNull( periodKey, String.format( "Period key cannot be null, key: '%s'", key ) );
 
-                List<DimensionalItemObject> periods = dataPeriodAggregationPeriodMap
-                    .get( PeriodType.getPeriodFromIsoString( periodKey ) );
+                List<DimensionalItemObject> periods = periodIdMap.get( dictionary.getId( periodKey ) );
 
                 Assert.notNull( periods, String.format( "Period list cannot be null, key: '%s', map: '%s'", key,
                     dataPeriodAggregationPeriodMap.toString() ) );
@@ -667,6 +684,15 @@ public class JdbcAnalyticsManager
         return sql;
     }
 
+    /**
+     * Returns the partitions of the given query.
+     */
+    private Set<Integer> getPartitions( DataQueryParams params )
+    {
+        return params.getPartitions() != null ? new TreeSet<>( params.getPartitions().getPartitions() )
+            : new TreeSet<>();
+    }
+
     /**
      * Retrieves data from the database based on the given query and SQL and
      * puts into a value key and value mapping.
@@ -38,9 +38,12 @@ import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
 import javax.annotation.PostConstruct;
 
 import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.profile.AnalyticsQueryProfile;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.system.grid.ColumnarGrid;
 import org.hisp.dhis.system.grid.ListGrid;
+import org.hisp.dhis.util.Timer;
 import org.springframework.stereotype.Component;
 
 /**
@@ -77,11 +80,13 @@ public class DataAggregator
     {
         params = preHandleQuery( params );
 
+        final Timer timer = new Timer().start().disablePrint();
+
         // ---------------------------------------------------------------------
         // Headers
         // ---------------------------------------------------------------------
 
-        Grid grid = new ListGrid();
+        Grid grid = new ColumnarGrid();
 
         headerHandler.addHeaders( params, grid );
 
@@ -103,6 +108,8 @@ public class DataAggregator
 
         dataHandler.addValidationResultValues( params, grid );
 
+        final long dataTime = timer.getTimeInMs();
+
         // ---------------------------------------------------------------------
         // Meta-data
         // ---------------------------------------------------------------------
@@ -115,6 +122,15 @@ public class DataAggregator
 
         postHandleGrid( params, grid );
 
+        if ( params.hasProfile() )
+        {
+            final long gridTime = timer.getTimeInMs();
+
+            params.getProfile().addStageTime( AnalyticsQueryProfile.STAGE_DATA, dataTime );
+            params.getProfile().addStageTime( AnalyticsQueryProfile.STAGE_META_DATA, gridTime - dataTime );
+            params.getProfile().addStageTime( AnalyticsQueryProfile.STAGE_GRID, gridTime );
+        }
+
         return grid;
     }
 
@@ -109,6 +109,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -128,6 +129,7 @@ import org.hisp.dhis.analytics.QueryValidator;
 import org.hisp.dhis.analytics.RawAnalyticsManager;
 import org.hisp.dhis.analytics.event.EventAnalyticsService;
 import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.analytics.profile.AnalyticsQueryProfile;
 import org.hisp.dhis.analytics.resolver.ExpressionResolver;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionItemObjectValue;
@@ -147,6 +149,7 @@ import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.PeriodDictionary;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.util.Timer;
@@ -690,9 +693,11 @@ public class DataHandler
             // parameter.
             if ( hasPeriodInDimension )
             {
-                final Period period = PeriodType.getPeriodFromIsoString( dataRow.get( periodIndex ) );
+                final PeriodDictionary dictionary = PeriodDictionary.getInstance();
 
-                target = target * period.getDaysInPeriod() * timeUnits;
+                final int periodId = dictionary.getId( dataRow.get( periodIndex ) );
+
+                target = target * dictionary.getDaysInPeriod( periodId ) * timeUnits;
             }
             else
             {
@@ -1149,9 +1154,16 @@ public class DataHandler
 
         DataQueryGroups queryGroups = queryPlanner.planQuery( params, plannerParams );
 
-        timer.getSplitTime(
+        long planTime = timer.getSplitTime(
             "Planned analytics query, got: " + queryGroups.getLargestGroupSize() + " for optimal: " + optimalQueries );
 
+        if ( params.hasProfile() )
+        {
+            params.getProfile().addPlan( new AnalyticsQueryProfile.Plan( tableType,
+                queryGroups.getSequentialQueries().size(), queryGroups.getLargestGroupSize(), optimalQueries,
+                getPartitions( queryGroups ), planTime / 1000 ) );
+        }
+
         Map<String, Object> map = new HashMap<>();
 
         for ( List<DataQueryParams> queries : queryGroups.getSequentialQueries() )
@@ -1203,6 +1215,20 @@ public class DataHandler
         }
     }
 
+    /**
+     * Returns the partitions covered by the queries of the given query groups.
+     *
+     * @param queryGroups the {@link DataQueryGroups}.
+     * @return a sorted set of partitions.
+     */
+    private Set<Integer> getPartitions( DataQueryGroups queryGroups )
+    {
+        return queryGroups.getAllQueries().stream()
+            .filter( query -> query.getPartitions() != null )
+            .flatMap( query -> query.getPartitions().getPartitions().stream() )
+            .collect( Collectors.toCollection( TreeSet::new ) );
+    }
+
     /**
      * Gets the number of available cores. Uses explicit number from system
      * setting if available. Detects number of cores from current server runtime
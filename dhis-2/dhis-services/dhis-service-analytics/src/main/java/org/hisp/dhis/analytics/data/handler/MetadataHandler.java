@@ -46,8 +46,6 @@ import static org.hisp.dhis.common.DimensionalObjectUtils.asTypedList;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getDimensionalItemIds;
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getLocalPeriodIdentifiers;
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getUids;
-import static org.hisp.dhis.organisationunit.OrganisationUnit.getParentGraphMap;
-import static org.hisp.dhis.organisationunit.OrganisationUnit.getParentNameGraphMap;
 
 import java.util.Collection;
 import java.util.HashMap;
@@ -56,6 +54,8 @@ import java.util.Map;
 
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataQueryService;
+import org.hisp.dhis.analytics.cache.AnalyticsMetadataCache;
+import org.hisp.dhis.analytics.cache.OrgUnitMetadata;
 import org.hisp.dhis.calendar.Calendar;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.Grid;
@@ -75,18 +75,25 @@ public class MetadataHandler
 
     final SchemaIdResponseMapper schemaIdResponseMapper;
 
-    public MetadataHandler( DataQueryService dataQueryService, SchemaIdResponseMapper schemaIdResponseMapper )
+    final AnalyticsMetadataCache metadataCache;
+
+    public MetadataHandler( DataQueryService dataQueryService, SchemaIdResponseMapper schemaIdResponseMapper,
+        AnalyticsMetadataCache metadataCache )
     {
         checkNotNull( dataQueryService );
         checkNotNull( schemaIdResponseMapper );
+        checkNotNull( metadataCache );
 
         this.dataQueryService = dataQueryService;
         this.schemaIdResponseMapper = schemaIdResponseMapper;
+        this.metadataCache = metadataCache;
     }
 
     /**
      * Adds meta data values to the given grid based on the given data query
-     * parameters.
+     * parameters. Only the meta data parts requested through the query
+     * parameters are included. Organisation unit ancestor meta data is served
+     * from the {@link AnalyticsMetadataCache}.
      *
      * @param params the {@link DataQueryParams}.
      * @param grid the grid.
@@ -98,61 +105,73 @@ public class MetadataHandler
             Map<String, Object> metaData = new HashMap<>();
             Map<String, Object> internalMetaData = new HashMap<>();
 
+            List<OrganisationUnit> organisationUnits = asTypedList(
+                params.getDimensionOrFilterItems( ORGUNIT_DIM_ID ) );
+
+            Collection<OrganisationUnit> roots = params.isHierarchyMeta() || params.isShowHierarchy()
+                ? dataQueryService.getUserOrgUnits( params, null )
+                : null;
+
+            Map<String, OrgUnitMetadata> orgUnitMetadata = getOrgUnitMetadata( params, organisationUnits, roots );
+
             // -----------------------------------------------------------------
             // Items / names element
             // -----------------------------------------------------------------
 
-            Map<String, String> cocNameMap = getCocNameMap( params );
-
-            metaData.put( ITEMS.getKey(), getDimensionMetadataItemMap( params ) );
+            if ( params.isIncludeMetadataPart( ITEMS ) )
+            {
+                metaData.put( ITEMS.getKey(), getDimensionMetadataItemMap( params, ou -> metadataCache
+                    .getOrgUnitMetadata( ou, params.getDisplayProperty(), roots ).getAncestorItems() ) );
+            }
 
             // -----------------------------------------------------------------
             // Item order elements
             // -----------------------------------------------------------------
 
-            Map<String, Object> dimensionItems = new HashMap<>();
+            if ( params.isIncludeMetadataPart( DIMENSIONS ) )
+            {
+                Map<String, Object> dimensionItems = new HashMap<>();
 
-            Calendar calendar = PeriodType.getCalendar();
+                Calendar calendar = PeriodType.getCalendar();
 
-            List<String> periodUids = calendar.isIso8601()
-                ? getUids( params.getDimensionOrFilterItems( PERIOD_DIM_ID ) )
-                : getLocalPeriodIdentifiers( params.getDimensionOrFilterItems( PERIOD_DIM_ID ), calendar );
+                List<String> periodUids = calendar.isIso8601()
+                    ? getUids( params.getDimensionOrFilterItems( PERIOD_DIM_ID ) )
+                    : getLocalPeriodIdentifiers( params.getDimensionOrFilterItems( PERIOD_DIM_ID ), calendar );
 
-            dimensionItems.put( PERIOD_DIM_ID, periodUids );
-            dimensionItems.put( CATEGORYOPTIONCOMBO_DIM_ID, Sets.newHashSet( cocNameMap.keySet() ) );
+                dimensionItems.put( PERIOD_DIM_ID, periodUids );
+                dimensionItems.put( CATEGORYOPTIONCOMBO_DIM_ID, Sets.newHashSet( getCocNameMap( params ).keySet() ) );
 
-            for ( DimensionalObject dim : params.getDimensionsAndFilters() )
-            {
-                if ( !dimensionItems.containsKey( dim.getDimension() ) )
+                for ( DimensionalObject dim : params.getDimensionsAndFilters() )
                 {
-                    dimensionItems.put( dim.getDimension(), getDimensionalItemIds( dim.getItems() ) );
+                    if ( !dimensionItems.containsKey( dim.getDimension() ) )
+                    {
+                        dimensionItems.put( dim.getDimension(), getDimensionalItemIds( dim.getItems() ) );
+                    }
                 }
-            }
 
-            metaData.put( DIMENSIONS.getKey(), dimensionItems );
+                metaData.put( DIMENSIONS.getKey(), dimensionItems );
+            }
 
             // -----------------------------------------------------------------
             // Organisation unit hierarchy
             // -----------------------------------------------------------------
 
-            List<OrganisationUnit> organisationUnits = asTypedList(
-                params.getDimensionOrFilterItems( ORGUNIT_DIM_ID ) );
-
-            Collection<OrganisationUnit> roots = dataQueryService.getUserOrgUnits( params, null );
-
-            if ( params.isHierarchyMeta() )
+            if ( params.isHierarchyMeta() && params.isIncludeMetadataPart( ORG_UNIT_HIERARCHY ) )
             {
-                metaData.put( ORG_UNIT_HIERARCHY.getKey(), getParentGraphMap( organisationUnits, roots ) );
+                metaData.put( ORG_UNIT_HIERARCHY.getKey(), orgUnitMetadata.entrySet().stream()
+                    .collect( toMap( Map.Entry::getKey, e -> e.getValue().getParentGraph() ) ) );
             }
 
             if ( params.isShowHierarchy() )
             {
-                Map<Object, List<?>> ancestorMap = organisationUnits.stream()
-                    .collect( toMap( OrganisationUnit::getUid, ou -> ou.getAncestorNames( roots, true ) ) );
+                internalMetaData.put( ORG_UNIT_ANCESTORS.getKey(), orgUnitMetadata.entrySet().stream()
+                    .collect( toMap( Map.Entry::getKey, e -> e.getValue().getAncestorNames() ) ) );
 
-                internalMetaData.put( ORG_UNIT_ANCESTORS.getKey(), ancestorMap );
-                metaData.put( ORG_UNIT_NAME_HIERARCHY.getKey(),
-                    getParentNameGraphMap( organisationUnits, roots, true ) );
+                if ( params.isIncludeMetadataPart( ORG_UNIT_NAME_HIERARCHY ) )
+                {
+                    metaData.put( ORG_UNIT_NAME_HIERARCHY.getKey(), orgUnitMetadata.entrySet().stream()
+                        .collect( toMap( Map.Entry::getKey, e -> e.getValue().getParentNameGraph() ) ) );
+                }
             }
 
             grid.setMetaData( copyOf( metaData ) );
@@ -160,6 +179,29 @@ public class MetadataHandler
         }
     }
 
+    /**
+     * Returns a mapping between organisation unit UIDs and
+     * {@link OrgUnitMetadata} for the given organisation units. The mapping is
+     * empty if the query does not require organisation unit hierarchy meta
+     * data.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @param organisationUnits the list of {@link OrganisationUnit}.
+     * @param roots the root organisation units of the current user.
+     * @return a mapping between organisation unit UIDs and
+     *         {@link OrgUnitMetadata}.
+     */
+    private Map<String, OrgUnitMetadata> getOrgUnitMetadata( DataQueryParams params,
+        List<OrganisationUnit> organisationUnits, Collection<OrganisationUnit> roots )
+    {
+        if ( params.isHierarchyMeta() || params.isShowHierarchy() )
+        {
+            return metadataCache.getOrgUnitMetadata( organisationUnits, params.getDisplayProperty(), roots );
+        }
+
+        return new HashMap<>();
+    }
+
     /**
      * Prepares the given grid to be converted to a data value set, given that
      * the output format is of type DATA_VALUE_SET.
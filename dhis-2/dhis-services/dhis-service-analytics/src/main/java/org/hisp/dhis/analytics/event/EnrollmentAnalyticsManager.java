@@ -27,6 +27,10 @@
  */
 package org.hisp.dhis.analytics.event;
 
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
 import org.hisp.dhis.common.Grid;
 
 /**
@@ -44,6 +48,18 @@ public interface EnrollmentAnalyticsManager
      */
     Grid getAggregatedEventData( EventQueryParams params, Grid grid, int maxLimit );
 
+    /**
+     * Retrieves aggregated data based on enrollments asynchronously on the
+     * analytics executor. The given grid should not be shared with other
+     * concurrent queries.
+     *
+     * @param params the query to retrieve aggregated data for.
+     * @param grid the grid to insert data into.
+     * @param maxLimit the max number of records to retrieve.
+     * @return a future of the grid with data.
+     */
+    Future<Grid> getAggregatedEventDataAsync( EventQueryParams params, Grid grid, int maxLimit );
+
     /**
      * Retrieves aggregated data based on enrollments.
      *
@@ -54,6 +70,17 @@ public interface EnrollmentAnalyticsManager
      */
     void getEnrollments( EventQueryParams params, Grid grid, int maxLimit );
 
+    /**
+     * Retrieves enrollments using a forward-only cursor and passes each row to
+     * the given consumer as it is read, without adding rows to the grid.
+     *
+     * @param params the query to retrieve enrollments for.
+     * @param grid the grid providing the headers.
+     * @param maxLimit the max number of records to retrieve.
+     * @param rowConsumer the consumer of rows.
+     */
+    void streamEnrollments( EventQueryParams params, Grid grid, int maxLimit, Consumer<List<Object>> rowConsumer );
+
     /**
      * Retreives count of enrollments based on params.
      *
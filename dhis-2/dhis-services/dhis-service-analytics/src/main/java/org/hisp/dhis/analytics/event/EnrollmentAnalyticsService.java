@@ -28,6 +28,7 @@
 package org.hisp.dhis.analytics.event;
 
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.system.grid.StreamingGridWriter;
 
 /**
  * This interface is responsible for retrieving aggregated event data. Data will
@@ -64,4 +65,14 @@ public interface EnrollmentAnalyticsService
      * @return enrollments with event data as a Grid object.
      */
     Grid getEnrollments( EventQueryParams params );
+
+    /**
+     * Writes the enrollments matching the given query to the given writer
+     * while they are read from the database. Headers and meta data are written
+     * before the first enrollment.
+     *
+     * @param params the event query parameters.
+     * @param writer the {@link StreamingGridWriter}.
+     */
+    void streamEnrollments( EventQueryParams params, StreamingGridWriter writer );
 }
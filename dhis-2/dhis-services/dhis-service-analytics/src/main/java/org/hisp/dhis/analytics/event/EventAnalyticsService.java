@@ -33,6 +33,7 @@ import org.hisp.dhis.analytics.AnalyticsMetaDataKey;
 import org.hisp.dhis.analytics.Rectangle;
 import org.hisp.dhis.common.AnalyticalObject;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.system.grid.StreamingGridWriter;
 
 /**
  * This interface is responsible for retrieving aggregated event data. Data will
@@ -115,6 +116,16 @@ public interface EventAnalyticsService
      */
     Grid getEvents( EventQueryParams params );
 
+    /**
+     * Writes the events matching the given query to the given writer while
+     * they are read from the database. Headers and meta data are written
+     * before the first event.
+     *
+     * @param params the event query parameters.
+     * @param writer the {@link StreamingGridWriter}.
+     */
+    void streamEvents( EventQueryParams params, StreamingGridWriter writer );
+
     /**
      * Returns a list of event clusters matching the given query.
      *
@@ -43,6 +43,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
 import org.hisp.dhis.analytics.event.EventQueryParams;
@@ -52,6 +53,7 @@ import org.hisp.dhis.calendar.Calendar;
 import org.hisp.dhis.common.*;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.system.grid.StreamingGridWriter;
 import org.hisp.dhis.user.User;
 
 import com.google.common.collect.Lists;
@@ -80,20 +82,106 @@ public abstract class AbstractAnalyticsService
         // Decide access, add constraints and validate
         // ---------------------------------------------------------------------
 
+        params = getValidatedParams( params );
+
+        // ---------------------------------------------------------------------
+        // Headers
+        // ---------------------------------------------------------------------
+
+        Grid grid = createGridWithAllHeaders( params );
+
+        // ---------------------------------------------------------------------
+        // Data
+        // ---------------------------------------------------------------------
+
+        long count = addEventData( grid, params );
+
+        // ---------------------------------------------------------------------
+        // Meta-data
+        // ---------------------------------------------------------------------
+
+        addMetadata( params, grid );
+
+        // ---------------------------------------------------------------------
+        // Data ID scheme
+        // ---------------------------------------------------------------------
+
+        if ( params.hasDataIdScheme() )
+        {
+            substituteData( grid );
+        }
+
+        // ---------------------------------------------------------------------
+        // Paging
+        // ---------------------------------------------------------------------
+
+        if ( params.isPaging() )
+        {
+            Pager pager = new Pager( params.getPageWithDefault(), count, params.getPageSizeWithDefault() );
+
+            grid.getMetaData().put( PAGER.getKey(), pager );
+        }
+
+        return grid;
+    }
+
+    /**
+     * Writes the result of the given query to the given writer while rows are
+     * read from the database. As nothing is known about the rows before they
+     * are written, the meta data and the total count for paging are resolved
+     * upfront, and the data ID scheme is applied to each row individually.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @param writer the {@link StreamingGridWriter}.
+     */
+    protected void streamGrid( EventQueryParams params, StreamingGridWriter writer )
+    {
+        params = getValidatedParams( params );
+
+        Grid grid = createGridWithAllHeaders( params );
+
+        addMetadata( params, grid );
+
+        EventQueryParams plannedParams = planQuery( params );
+
+        if ( params.isPaging() )
+        {
+            Pager pager = new Pager( params.getPageWithDefault(), getEventDataCount( plannedParams ),
+                params.getPageSizeWithDefault() );
+
+            grid.getMetaData().put( PAGER.getKey(), pager );
+        }
+
+        Map<Integer, Map<String, String>> substitutions = params.hasDataIdScheme()
+            ? getDataSubstitutions( grid )
+            : new HashMap<>();
+
+        writer.writeHeaders( grid );
+
+        streamEventData( grid, plannedParams, row -> {
+            substituteData( row, substitutions );
+
+            writer.writeRow( row );
+        } );
+
+        writer.finish();
+    }
+
+    private EventQueryParams getValidatedParams( EventQueryParams params )
+    {
         securityManager.decideAccessEventQuery( params );
 
         params = securityManager.withUserConstraints( params );
 
         queryValidator.validate( params );
 
-        params = new EventQueryParams.Builder( params )
+        return new EventQueryParams.Builder( params )
             .withStartEndDatesForPeriods()
             .build();
+    }
 
-        // ---------------------------------------------------------------------
-        // Headers
-        // ---------------------------------------------------------------------
-
+    private Grid createGridWithAllHeaders( EventQueryParams params )
+    {
         Grid grid = createGridWithHeaders( params );
 
         for ( DimensionalObject dimension : params.getDimensions() )
@@ -124,38 +212,6 @@ public abstract class AbstractAnalyticsService
             }
         }
 
-        // ---------------------------------------------------------------------
-        // Data
-        // ---------------------------------------------------------------------
-
-        long count = addEventData( grid, params );
-
-        // ---------------------------------------------------------------------
-        // Meta-data
-        // ---------------------------------------------------------------------
-
-        addMetadata( params, grid );
-
-        // ---------------------------------------------------------------------
-        // Data ID scheme
-        // ---------------------------------------------------------------------
-
-        if ( params.hasDataIdScheme() )
-        {
-            substituteData( grid );
-        }
-
-        // ---------------------------------------------------------------------
-        // Paging
-        // ---------------------------------------------------------------------
-
-        if ( params.isPaging() )
-        {
-            Pager pager = new Pager( params.getPageWithDefault(), count, params.getPageSizeWithDefault() );
-
-            grid.getMetaData().put( PAGER.getKey(), pager );
-        }
-
         return grid;
     }
 
@@ -163,6 +219,33 @@ public abstract class AbstractAnalyticsService
 
     protected abstract long addEventData( Grid grid, EventQueryParams params );
 
+    /**
+     * Plans the given query for streaming with
+     * {@link #streamEventData(Grid, EventQueryParams, Consumer)}.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @return the planned {@link EventQueryParams}.
+     */
+    protected abstract EventQueryParams planQuery( EventQueryParams params );
+
+    /**
+     * Returns the total number of rows matching the given planned query.
+     *
+     * @param params the planned {@link EventQueryParams}.
+     */
+    protected abstract long getEventDataCount( EventQueryParams params );
+
+    /**
+     * Passes the rows matching the given planned query to the given consumer
+     * while they are read from the database.
+     *
+     * @param grid the grid providing the headers.
+     * @param params the planned {@link EventQueryParams}.
+     * @param rowConsumer the consumer of rows.
+     */
+    protected abstract void streamEventData( Grid grid, EventQueryParams params,
+        Consumer<List<Object>> rowConsumer );
+
     /**
      * Adds meta data values to the given grid based on the given data query
      * parameters.
@@ -307,20 +390,52 @@ public abstract class AbstractAnalyticsService
      */
     private void substituteData( Grid grid )
     {
+        getDataSubstitutions( grid ).forEach( ( index, map ) -> grid.substituteMetaData( index, index, map ) );
+    }
+
+    /**
+     * Substitutes metadata in the given row.
+     *
+     * @param row the row.
+     * @param substitutions the substitution maps by column index.
+     */
+    private void substituteData( List<Object> row, Map<Integer, Map<String, String>> substitutions )
+    {
+        substitutions.forEach( ( index, map ) -> {
+            String value = map.get( row.get( index ) );
+
+            if ( value != null )
+            {
+                row.set( index, value );
+            }
+        } );
+    }
+
+    /**
+     * Returns maps of values to substitute for columns with option sets and
+     * legend sets.
+     *
+     * @param grid the {@link Grid}.
+     * @return a mapping between column index and substitution map.
+     */
+    private Map<Integer, Map<String, String>> getDataSubstitutions( Grid grid )
+    {
+        Map<Integer, Map<String, String>> substitutions = new HashMap<>();
+
         for ( int i = 0; i < grid.getHeaders().size(); i++ )
         {
             GridHeader header = grid.getHeaders().get( i );
 
             if ( header.hasOptionSet() )
             {
-                Map<String, String> optionMap = header.getOptionSetObject().getOptionCodePropertyMap( IdScheme.NAME );
-                grid.substituteMetaData( i, i, optionMap );
+                substitutions.put( i, header.getOptionSetObject().getOptionCodePropertyMap( IdScheme.NAME ) );
             }
             else if ( header.hasLegendSet() )
             {
-                Map<String, String> legendMap = header.getLegendSetObject().getLegendUidPropertyMap( IdScheme.NAME );
-                grid.substituteMetaData( i, i, legendMap );
+                substitutions.put( i, header.getLegendSetObject().getLegendUidPropertyMap( IdScheme.NAME ) );
             }
         }
+
+        return substitutions;
     }
 }
@@ -40,8 +40,12 @@ import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quoteAlias;
 import static org.hisp.dhis.common.DimensionalObjectUtils.COMPOSITE_DIM_OBJECT_PLAIN_SEP;
 import static org.hisp.dhis.system.util.MathUtils.getRounded;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -74,7 +78,13 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.rowset.ResultSetWrappingSqlRowSet;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.AsyncResult;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 
 import com.google.common.collect.Lists;
@@ -97,6 +107,8 @@ public abstract class AbstractJdbcEventAnalyticsManager
 
     protected static final int LAST_VALUE_YEARS_OFFSET = -10;
 
+    protected static final int STREAMING_FETCH_SIZE = 1000;
+
     protected final JdbcTemplate jdbcTemplate;
 
     protected final StatementBuilder statementBuilder;
@@ -375,6 +387,12 @@ public abstract class AbstractJdbcEventAnalyticsManager
         return grid;
     }
 
+    @Async
+    public Future<Grid> getAggregatedEventDataAsync( EventQueryParams params, Grid grid, int maxLimit )
+    {
+        return new AsyncResult<>( getAggregatedEventData( params, grid, maxLimit ) );
+    }
+
     private void getAggregatedEventData( Grid grid, EventQueryParams params, String sql )
     {
         log.debug( "Analytics enrollment aggregate SQL: " + sql );
@@ -741,6 +759,33 @@ public abstract class AbstractJdbcEventAnalyticsManager
         }
     }
 
+    /**
+     * Executes the given query with a forward-only cursor which fetches
+     * {@link #STREAMING_FETCH_SIZE} rows at a time, and hands the rows to the
+     * given consumer while the cursor is open. Postgres only uses a cursor
+     * when auto-commit is disabled, hence the query runs in a read-only
+     * transaction.
+     *
+     * @param sql the SQL query.
+     * @param rowSetConsumer the consumer of the row set.
+     */
+    void withStreamingRowSet( String sql, Consumer<SqlRowSet> rowSetConsumer )
+    {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(
+            new DataSourceTransactionManager( jdbcTemplate.getDataSource() ) );
+        transactionTemplate.setReadOnly( true );
+
+        transactionTemplate.executeWithoutResult( status -> jdbcTemplate.query( connection -> {
+            PreparedStatement statement = connection.prepareStatement( sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY );
+            statement.setFetchSize( STREAMING_FETCH_SIZE );
+            return statement;
+        }, (ResultSetExtractor<Void>) rs -> {
+            rowSetConsumer.accept( new ResultSetWrappingSqlRowSet( rs ) );
+            return null;
+        } ) );
+    }
+
     /**
      * Returns a select SQL clause for the given query.
      *
@@ -32,6 +32,9 @@ import static org.hisp.dhis.common.ValueType.DATE;
 import static org.hisp.dhis.common.ValueType.NUMBER;
 import static org.hisp.dhis.common.ValueType.TEXT;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
 import org.hisp.dhis.analytics.event.EnrollmentAnalyticsManager;
 import org.hisp.dhis.analytics.event.EnrollmentAnalyticsService;
@@ -41,6 +44,7 @@ import org.hisp.dhis.analytics.event.EventQueryValidator;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
 import org.hisp.dhis.system.grid.ListGrid;
+import org.hisp.dhis.system.grid.StreamingGridWriter;
 import org.hisp.dhis.util.Timer;
 import org.springframework.stereotype.Service;
 
@@ -98,6 +102,12 @@ public class DefaultEnrollmentAnalyticsService
         return getGrid( params );
     }
 
+    @Override
+    public void streamEnrollments( EventQueryParams params, StreamingGridWriter writer )
+    {
+        streamGrid( params, writer );
+    }
+
     @Override
     protected Grid createGridWithHeaders( EventQueryParams params )
     {
@@ -146,4 +156,22 @@ public class DefaultEnrollmentAnalyticsService
 
         return count;
     }
+
+    @Override
+    protected EventQueryParams planQuery( EventQueryParams params )
+    {
+        return queryPlanner.planEnrollmentQuery( params );
+    }
+
+    @Override
+    protected long getEventDataCount( EventQueryParams params )
+    {
+        return enrollmentAnalyticsManager.getEnrollmentCount( params );
+    }
+
+    @Override
+    protected void streamEventData( Grid grid, EventQueryParams params, Consumer<List<Object>> rowConsumer )
+    {
+        enrollmentAnalyticsManager.streamEnrollments( params, grid, queryValidator.getMaxLimit(), rowConsumer );
+    }
 }
@@ -49,6 +49,7 @@ import static org.hisp.dhis.common.ValueType.BOOLEAN;
 import static org.hisp.dhis.common.ValueType.DATE;
 import static org.hisp.dhis.common.ValueType.NUMBER;
 import static org.hisp.dhis.common.ValueType.TEXT;
+import static org.hisp.dhis.commons.util.DebugUtils.getStackTrace;
 import static org.hisp.dhis.reporttable.ReportTable.COLUMN_NAMES;
 import static org.hisp.dhis.reporttable.ReportTable.DASH_PRETTY_SEPARATOR;
 import static org.hisp.dhis.reporttable.ReportTable.SPACE;
@@ -59,6 +60,9 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -94,6 +98,7 @@ import org.hisp.dhis.legend.Legend;
 import org.hisp.dhis.option.Option;
 import org.hisp.dhis.system.database.DatabaseInfo;
 import org.hisp.dhis.system.grid.ListGrid;
+import org.hisp.dhis.system.grid.StreamingGridWriter;
 import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
 import org.hisp.dhis.util.Timer;
 import org.springframework.stereotype.Service;
@@ -558,19 +563,7 @@ public class DefaultEventAnalyticsService
 
             timer.getSplitTime( "Planned event query, got partitions: " + params.getPartitions() );
 
-            for ( EventQueryParams query : queries )
-            {
-                // Each query might be either an enrollment or event indicator
-
-                if ( query.hasEnrollmentProgramIndicatorDimension() )
-                {
-                    enrollmentAnalyticsManager.getAggregatedEventData( query, grid, maxLimit );
-                }
-                else
-                {
-                    eventAnalyticsManager.getAggregatedEventData( query, grid, maxLimit );
-                }
-            }
+            executeAggregateQueries( queries, grid, maxLimit );
 
             timer.getTime( "Got aggregated events" );
 
@@ -603,6 +596,65 @@ public class DefaultEventAnalyticsService
         return grid;
     }
 
+    /**
+     * Executes the given aggregate queries concurrently on the analytics
+     * executor and adds the resulting rows to the given grid. Each query writes
+     * into its own grid in order to avoid concurrent modification of the given
+     * grid.
+     *
+     * @param queries the list of {@link EventQueryParams}.
+     * @param grid the grid to add rows to.
+     * @param maxLimit the max number of records to retrieve per query.
+     */
+    private void executeAggregateQueries( List<EventQueryParams> queries, Grid grid, int maxLimit )
+    {
+        List<Future<Grid>> futures = new ArrayList<>();
+
+        for ( EventQueryParams query : queries )
+        {
+            // Each query might be either an enrollment or event indicator
+
+            if ( query.hasEnrollmentProgramIndicatorDimension() )
+            {
+                futures.add(
+                    enrollmentAnalyticsManager.getAggregatedEventDataAsync( query, new ListGrid(), maxLimit ) );
+            }
+            else
+            {
+                futures.add( eventAnalyticsManager.getAggregatedEventDataAsync( query, new ListGrid(), maxLimit ) );
+            }
+        }
+
+        for ( Future<Grid> future : futures )
+        {
+            try
+            {
+                grid.addRows( future.get() );
+            }
+            catch ( InterruptedException ex )
+            {
+                Thread.currentThread().interrupt();
+
+                throw new RuntimeException( "Interrupted during execution of event aggregation query task", ex );
+            }
+            catch ( ExecutionException ex )
+            {
+                log.error( getStackTrace( ex.getCause() ) );
+
+                if ( ex.getCause() instanceof RuntimeException )
+                {
+                    // Throw the real exception
+
+                    throw (RuntimeException) ex.getCause();
+                }
+                else
+                {
+                    throw new RuntimeException( "Error during execution of event aggregation query task", ex );
+                }
+            }
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Query
     // -------------------------------------------------------------------------
@@ -613,6 +665,12 @@ public class DefaultEventAnalyticsService
         return getGrid( params );
     }
 
+    @Override
+    public void streamEvents( EventQueryParams params, StreamingGridWriter writer )
+    {
+        streamGrid( params, writer );
+    }
+
     @Override
     public Grid getEventClusters( EventQueryParams params )
     {
@@ -756,4 +814,25 @@ public class DefaultEventAnalyticsService
 
         return count;
     }
+
+    @Override
+    protected EventQueryParams planQuery( EventQueryParams params )
+    {
+        return queryPlanner.planEventQuery( params );
+    }
+
+    @Override
+    protected long getEventDataCount( EventQueryParams params )
+    {
+        return params.getPartitions().hasAny() ? eventAnalyticsManager.getEventCount( params ) : 0;
+    }
+
+    @Override
+    protected void streamEventData( Grid grid, EventQueryParams params, Consumer<List<Object>> rowConsumer )
+    {
+        if ( params.getPartitions().hasAny() )
+        {
+            eventAnalyticsManager.streamEvents( params, grid, queryValidator.getMaxLimit(), rowConsumer );
+        }
+    }
 }
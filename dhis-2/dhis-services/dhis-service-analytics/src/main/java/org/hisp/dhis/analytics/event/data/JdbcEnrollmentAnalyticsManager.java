@@ -39,7 +39,9 @@ import static org.hisp.dhis.commons.util.TextUtils.removeLastOr;
 import static org.hisp.dhis.util.DateUtils.getMediumDateString;
 import static org.hisp.dhis.util.DateUtils.plusOneDay;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -106,6 +108,22 @@ public class JdbcEnrollmentAnalyticsManager
         withExceptionHandling( () -> getEnrollments( params, grid, getEventsOrEnrollmentsSql( params, maxLimit ) ) );
     }
 
+    @Override
+    public void streamEnrollments( EventQueryParams params, Grid grid, int maxLimit,
+        Consumer<List<Object>> rowConsumer )
+    {
+        String sql = getEventsOrEnrollmentsSql( params, maxLimit );
+
+        log.debug( String.format( "Analytics enrollment streaming query SQL: %s", sql ) );
+
+        withExceptionHandling( () -> withStreamingRowSet( sql, rowSet -> {
+            while ( rowSet.next() )
+            {
+                rowConsumer.accept( getRow( params, grid.getHeaders(), rowSet ) );
+            }
+        } ) );
+    }
+
     /**
      * Adds enrollments to the given grid based on the given parameters and SQL
      * statement.
@@ -122,25 +140,39 @@ public class JdbcEnrollmentAnalyticsManager
 
         while ( rowSet.next() )
         {
-            grid.addRow();
+            grid.addRow().addValuesAsList( getRow( params, grid.getHeaders(), rowSet ) );
+        }
+    }
+
+    /**
+     * Returns the values of the current row of the given row set.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @param headers the list of {@link GridHeader}.
+     * @param rowSet the {@link SqlRowSet} positioned at a row.
+     */
+    private List<Object> getRow( EventQueryParams params, List<GridHeader> headers, SqlRowSet rowSet )
+    {
+        List<Object> row = new ArrayList<>( headers.size() );
 
-            int index = 1;
+        int index = 1;
 
-            for ( GridHeader header : grid.getHeaders() )
+        for ( GridHeader header : headers )
+        {
+            if ( Double.class.getName().equals( header.getType() ) && !header.hasLegendSet() )
             {
-                if ( Double.class.getName().equals( header.getType() ) && !header.hasLegendSet() )
-                {
-                    double val = rowSet.getDouble( index );
-                    grid.addValue( params.isSkipRounding() ? val : MathUtils.getRounded( val ) );
-                }
-                else
-                {
-                    grid.addValue( rowSet.getString( index ) );
-                }
-
-                index++;
+                double val = rowSet.getDouble( index );
+                row.add( params.isSkipRounding() ? val : MathUtils.getRounded( val ) );
+            }
+            else
+            {
+                row.add( rowSet.getString( index ) );
             }
+
+            index++;
         }
+
+        return row;
     }
 
     @Override
@@ -48,8 +48,10 @@ import static org.hisp.dhis.feedback.ErrorCode.E7133;
 import static org.hisp.dhis.util.DateUtils.getMediumDateString;
 import static org.postgresql.util.PSQLState.DIVISION_BY_ZERO;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -126,6 +128,30 @@ public class JdbcEventAnalyticsManager
         return grid;
     }
 
+    @Override
+    public void streamEvents( EventQueryParams params, Grid grid, int maxLimit, Consumer<List<Object>> rowConsumer )
+    {
+        String sql = getEventsOrEnrollmentsSql( params, maxLimit );
+
+        log.debug( String.format( "Analytics event streaming query SQL: %s", sql ) );
+
+        withExceptionHandling( () -> {
+            try
+            {
+                withStreamingRowSet( sql, rowSet -> {
+                    while ( rowSet.next() )
+                    {
+                        rowConsumer.accept( getRow( params, grid.getHeaders(), rowSet ) );
+                    }
+                } );
+            }
+            catch ( DataIntegrityViolationException ex )
+            {
+                ExceptionHandler.handle( ex );
+            }
+        } );
+    }
+
     /**
      * Adds event to the given grid based on the given parameters and SQL
      * statement.
@@ -142,30 +168,44 @@ public class JdbcEventAnalyticsManager
 
         while ( rowSet.next() )
         {
-            grid.addRow();
+            grid.addRow().addValuesAsList( getRow( params, grid.getHeaders(), rowSet ) );
+        }
+    }
 
-            int index = 1;
+    /**
+     * Returns the values of the current row of the given row set.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @param headers the list of {@link GridHeader}.
+     * @param rowSet the {@link SqlRowSet} positioned at a row.
+     */
+    private List<Object> getRow( EventQueryParams params, List<GridHeader> headers, SqlRowSet rowSet )
+    {
+        List<Object> row = new ArrayList<>( headers.size() );
 
-            for ( GridHeader header : grid.getHeaders() )
-            {
-                if ( ITEM_LONGITUDE.equals( header.getName() ) || ITEM_LATITUDE.equals( header.getName() ) )
-                {
-                    double val = rowSet.getDouble( index );
-                    grid.addValue( Precision.round( val, COORD_DEC ) );
-                }
-                else if ( Double.class.getName().equals( header.getType() ) && !header.hasLegendSet() )
-                {
-                    double val = rowSet.getDouble( index );
-                    grid.addValue( params.isSkipRounding() ? val : MathUtils.getRounded( val ) );
-                }
-                else
-                {
-                    grid.addValue( rowSet.getString( index ) );
-                }
+        int index = 1;
 
-                index++;
+        for ( GridHeader header : headers )
+        {
+            if ( ITEM_LONGITUDE.equals( header.getName() ) || ITEM_LATITUDE.equals( header.getName() ) )
+            {
+                double val = rowSet.getDouble( index );
+                row.add( Precision.round( val, COORD_DEC ) );
+            }
+            else if ( Double.class.getName().equals( header.getType() ) && !header.hasLegendSet() )
+            {
+                double val = rowSet.getDouble( index );
+                row.add( params.isSkipRounding() ? val : MathUtils.getRounded( val ) );
+            }
+            else
+            {
+                row.add( rowSet.getString( index ) );
             }
+
+            index++;
         }
+
+        return row;
     }
 
     @Override
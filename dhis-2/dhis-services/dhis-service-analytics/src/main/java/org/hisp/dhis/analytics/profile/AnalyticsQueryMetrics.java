@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.profile;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Aggregates {@link AnalyticsQueryProfile} instances into histograms per
+ * analytics table type. Profiles are discarded until the component is bound
+ * to a {@link MeterRegistry}, which happens when analytics monitoring is
+ * enabled.
+ */
+@Component
+public class AnalyticsQueryMetrics
+    implements MeterBinder
+{
+    private static final String PREFIX = "analytics.query.";
+
+    private static final String TAG_TABLE_TYPE = "table_type";
+
+    private volatile MeterRegistry registry;
+
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        this.registry = registry;
+    }
+
+    public boolean isEnabled()
+    {
+        return registry != null;
+    }
+
+    /**
+     * Records the given profile.
+     *
+     * @param profile the {@link AnalyticsQueryProfile}.
+     */
+    public void record( AnalyticsQueryProfile profile )
+    {
+        final MeterRegistry meterRegistry = registry;
+
+        if ( meterRegistry == null )
+        {
+            return;
+        }
+
+        timer( "time", "The total time spent serving analytics requests" )
+            .register( meterRegistry )
+            .record( profile.getTime(), TimeUnit.MILLISECONDS );
+
+        if ( profile.getCacheHit() != null )
+        {
+            Counter.builder( PREFIX + "cache" )
+                .description( "The number of analytics cache lookups" )
+                .tag( "result", profile.getCacheHit() ? "hit" : "miss" )
+                .register( meterRegistry )
+                .increment();
+        }
+
+        profile.getStages().forEach( ( stage, time ) -> timer( "stage",
+            "The time spent in the stages of the analytics grid assembly" )
+                .tag( "stage", stage )
+                .register( meterRegistry )
+                .record( time, TimeUnit.MILLISECONDS ) );
+
+        for ( AnalyticsQueryProfile.Plan plan : profile.getPlans() )
+        {
+            timer( "plan", "The time spent planning analytics queries" )
+                .tag( TAG_TABLE_TYPE, getTag( plan.getTableType() ) )
+                .register( meterRegistry )
+                .record( plan.getTime(), TimeUnit.MILLISECONDS );
+        }
+
+        for ( AnalyticsQueryProfile.SqlQuery query : profile.getQueries() )
+        {
+            timer( "sql", "The time spent executing analytics SQL queries" )
+                .tag( TAG_TABLE_TYPE, getTag( query.getTableType() ) )
+                .register( meterRegistry )
+                .record( query.getTime(), TimeUnit.MILLISECONDS );
+
+            DistributionSummary.builder( PREFIX + "sql.rows" )
+                .description( "The number of rows returned by analytics SQL queries" )
+                .tag( TAG_TABLE_TYPE, getTag( query.getTableType() ) )
+                .publishPercentileHistogram()
+                .register( meterRegistry )
+                .record( query.getRows() );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private Timer.Builder timer( String name, String description )
+    {
+        return Timer.builder( PREFIX + name )
+            .description( description )
+            .publishPercentileHistogram();
+    }
+
+    private String getTag( AnalyticsTableType tableType )
+    {
+        return tableType != null ? tableType.getTableName() : "unknown";
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.profile;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import org.hisp.dhis.analytics.AnalyticsTableType;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Instrumentation of a single aggregate analytics request. Records the query
+ * plan, the SQL queries executed with timing and number of rows returned, the
+ * cache access and the time spent in the stages of the grid assembly.
+ * <p>
+ * Instances are shared by the request thread and the threads executing the
+ * analytics queries and are thread-safe. All times are in milliseconds.
+ */
+@Getter
+public class AnalyticsQueryProfile
+{
+    public static final String STAGE_DATA = "data";
+
+    public static final String STAGE_META_DATA = "metaData";
+
+    public static final String STAGE_GRID = "grid";
+
+    /**
+     * Query plans, one for each planned analytics table query.
+     */
+    @JsonProperty
+    private final List<Plan> plans = new CopyOnWriteArrayList<>();
+
+    /**
+     * SQL queries executed against the analytics tables.
+     */
+    @JsonProperty
+    private final List<SqlQuery> queries = new CopyOnWriteArrayList<>();
+
+    /**
+     * Time spent in the stages of the grid assembly.
+     */
+    @JsonProperty
+    private final Map<String, Long> stages = Collections.synchronizedMap( new LinkedHashMap<>() );
+
+    /**
+     * Whether the response was served from the analytics cache, null if the
+     * cache was not used.
+     */
+    @JsonProperty
+    private volatile Boolean cacheHit;
+
+    /**
+     * Total time spent serving the request.
+     */
+    @JsonProperty
+    private volatile long time;
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    public void addPlan( Plan plan )
+    {
+        plans.add( plan );
+    }
+
+    public void addQuery( SqlQuery query )
+    {
+        queries.add( query );
+    }
+
+    public void addStageTime( String stage, long time )
+    {
+        stages.merge( stage, time, Long::sum );
+    }
+
+    public void setCacheHit( Boolean cacheHit )
+    {
+        this.cacheHit = cacheHit;
+    }
+
+    public void setTime( long time )
+    {
+        this.time = time;
+    }
+
+    /**
+     * Returns the sum of the time spent executing SQL queries. Queries may be
+     * executed concurrently, so the sum may exceed the total time.
+     */
+    @JsonProperty
+    public long getSqlTime()
+    {
+        return queries.stream().mapToLong( SqlQuery::getTime ).sum();
+    }
+
+    /**
+     * Returns the sum of rows returned by SQL queries.
+     */
+    @JsonProperty
+    public long getRows()
+    {
+        return queries.stream().mapToLong( SqlQuery::getRows ).sum();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive classes
+    // -------------------------------------------------------------------------
+
+    /**
+     * The outcome of planning an analytics table query.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Plan
+    {
+        @JsonProperty
+        private final AnalyticsTableType tableType;
+
+        /**
+         * Number of query groups executed in sequence.
+         */
+        @JsonProperty
+        private final int groups;
+
+        /**
+         * Number of queries in the largest group, i.e. the max number of
+         * queries executed concurrently.
+         */
+        @JsonProperty
+        private final int largestGroupSize;
+
+        /**
+         * Optimal number of concurrent queries given the available cores.
+         */
+        @JsonProperty
+        private final int optimalQueries;
+
+        /**
+         * Partitions covered by the planned queries.
+         */
+        @JsonProperty
+        private final Set<Integer> partitions;
+
+        @JsonProperty
+        private final long time;
+    }
+
+    /**
+     * A SQL query executed against an analytics table.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SqlQuery
+    {
+        @JsonProperty
+        private final AnalyticsTableType tableType;
+
+        @JsonProperty
+        private final String tableName;
+
+        @JsonProperty
+        private final Set<Integer> partitions;
+
+        @JsonProperty
+        private final String sql;
+
+        @JsonProperty
+        private final long time;
+
+        @JsonProperty
+        private final int rows;
+    }
+}
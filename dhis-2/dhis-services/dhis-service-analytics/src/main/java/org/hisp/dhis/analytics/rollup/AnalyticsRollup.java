@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.rollup;
+
+import static org.hisp.dhis.analytics.DataQueryParams.LEVEL_PREFIX;
+import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.analytics.AnalyticsAggregationType;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.DataType;
+import org.hisp.dhis.common.DimensionalObject;
+import org.hisp.dhis.period.PeriodType;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Definition of a pre-aggregated rollup of the aggregate analytics table. A
+ * rollup keeps the data dimension, the organisation unit levels up to and
+ * including the rollup level and the period type columns of the rollup period
+ * type and longer period types. All other dimensions, including category
+ * option combinations and attribute option combinations, are collapsed.
+ * <p>
+ * Rollups are declared through the {@code keyAnalyticsRollups} system setting
+ * in the format {@code <level>:<period type>}, e.g. {@code 2:Monthly}.
+ */
+public class AnalyticsRollup
+{
+    public static final String TABLE_PREFIX = AnalyticsTableType.DATA_VALUE.getTableName() + "_rollup_";
+
+    private static final String SEPARATOR = ":";
+
+    private final int orgUnitLevel;
+
+    private final PeriodType periodType;
+
+    public AnalyticsRollup( int orgUnitLevel, PeriodType periodType )
+    {
+        this.orgUnitLevel = orgUnitLevel;
+        this.periodType = periodType;
+    }
+
+    /**
+     * Parses a rollup definition in the format {@code <level>:<period type>}.
+     *
+     * @param definition the rollup definition.
+     * @return an {@link AnalyticsRollup}.
+     * @throws IllegalArgumentException if the definition is invalid.
+     */
+    public static AnalyticsRollup fromString( String definition )
+    {
+        String[] parts = StringUtils.split( StringUtils.trimToEmpty( definition ), SEPARATOR );
+
+        if ( parts.length != 2 || !StringUtils.isNumeric( parts[0].trim() ) )
+        {
+            throw new IllegalArgumentException( String.format( "Invalid rollup definition: '%s'", definition ) );
+        }
+
+        int level = Integer.parseInt( parts[0].trim() );
+
+        PeriodType periodType = PeriodType.getByNameIgnoreCase( parts[1] );
+
+        if ( level < 1 || periodType == null )
+        {
+            throw new IllegalArgumentException( String.format( "Invalid rollup definition: '%s'", definition ) );
+        }
+
+        return new AnalyticsRollup( level, periodType );
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the name of the rollup database table.
+     */
+    public String getTableName()
+    {
+        return TABLE_PREFIX + orgUnitLevel + "_" + periodType.getName().toLowerCase();
+    }
+
+    /**
+     * Returns the unquoted names of the dimension columns of this rollup.
+     */
+    public List<String> getDimensionColumns()
+    {
+        List<String> columns = new ArrayList<>();
+
+        columns.add( DATA_X_DIM_ID );
+
+        for ( int level = 1; level <= orgUnitLevel; level++ )
+        {
+            columns.add( LEVEL_PREFIX + level );
+        }
+
+        for ( PeriodType type : PeriodType.getAvailablePeriodTypes() )
+        {
+            if ( type.getFrequencyOrder() >= periodType.getFrequencyOrder() )
+            {
+                columns.add( type.getName().toLowerCase() );
+            }
+        }
+
+        return columns;
+    }
+
+    /**
+     * Indicates whether this rollup can answer the given planned query with
+     * exactly the same result as the aggregate analytics table. This requires
+     * that all dimensions and filters of the query are columns of the rollup,
+     * that the aggregation can be computed from partial sums, and that the
+     * query does not depend on columns which are collapsed in the rollup.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @return true if this rollup can answer the query.
+     */
+    public boolean canAnswer( DataQueryParams params )
+    {
+        if ( !isSummable( params ) || params.isDisaggregation() || params.hasStartEndDate() ||
+            params.isDataApproval() || params.isTimely() || params.hasPreAggregateMeasureCriteria() ||
+            params.isRestrictByOrgUnitOpeningClosedDate() || params.isRestrictByCategoryOptionStartEndDate() )
+        {
+            return false;
+        }
+
+        List<String> columns = getDimensionColumns();
+
+        for ( DimensionalObject dimension : params.getDimensionsAndFilters() )
+        {
+            if ( !columns.contains( dimension.getDimensionName() ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Indicates whether the aggregation of the given query is computed from
+     * sums of the value columns only.
+     */
+    private boolean isSummable( DataQueryParams params )
+    {
+        AnalyticsAggregationType aggType = params.getAggregationType();
+
+        if ( aggType == null || params.isDataType( DataType.TEXT ) ||
+            aggType.isFirstOrLastOrLastInPeriodAggregationType() )
+        {
+            return false;
+        }
+
+        return aggType.isAggregationType( AggregationType.SUM ) ||
+            (aggType.isAggregationType( AggregationType.AVERAGE ) && aggType.isBooleanDataType());
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    public int getOrgUnitLevel()
+    {
+        return orgUnitLevel;
+    }
+
+    public PeriodType getPeriodType()
+    {
+        return periodType;
+    }
+
+    // -------------------------------------------------------------------------
+    // equals, hashCode, toString
+    // -------------------------------------------------------------------------
+
+    @Override
+    public boolean equals( Object object )
+    {
+        if ( this == object )
+        {
+            return true;
+        }
+
+        if ( object == null || getClass() != object.getClass() )
+        {
+            return false;
+        }
+
+        return Objects.equals( getTableName(), ((AnalyticsRollup) object).getTableName() );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return getTableName().hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this )
+            .add( "orgUnitLevel", orgUnitLevel )
+            .add( "periodType", periodType.getName() ).toString();
+    }
+}
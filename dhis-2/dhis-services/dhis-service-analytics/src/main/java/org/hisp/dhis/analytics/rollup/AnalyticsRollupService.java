@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.rollup;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.hisp.dhis.analytics.DataQueryParams;
+
+/**
+ * Service for pre-aggregated rollups of the aggregate analytics table.
+ */
+public interface AnalyticsRollupService
+{
+    /**
+     * Returns the rollups declared through system settings.
+     *
+     * @return a list of {@link AnalyticsRollup}.
+     */
+    List<AnalyticsRollup> getDeclaredRollups();
+
+    /**
+     * Generates the declared rollup tables from the aggregate analytics table
+     * and drops rollup tables which are no longer declared.
+     */
+    void generateRollups();
+
+    /**
+     * Returns the smallest generated rollup which can answer the given planned
+     * query exactly. The lookup is counted towards the hit rate statistics.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @return the smallest {@link AnalyticsRollup} which can answer the query,
+     *         or an empty optional if none.
+     */
+    Optional<AnalyticsRollup> getRollup( DataQueryParams params );
+
+    /**
+     * Returns statistics for the declared rollups.
+     *
+     * @return a list of {@link AnalyticsRollupStatistics}.
+     */
+    List<AnalyticsRollupStatistics> getStatistics();
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.rollup;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.hisp.dhis.system.util.SqlUtils.quote;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.jdbc.StatementBuilder;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.system.util.Clock;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Default implementation of {@link AnalyticsRollupService}. Rollup tables are
+ * generated from the aggregate analytics table by collapsing the dimensions
+ * which are not part of the rollup and summing the value columns.
+ */
+@Slf4j
+@Service( "org.hisp.dhis.analytics.rollup.AnalyticsRollupService" )
+public class DefaultAnalyticsRollupService
+    implements AnalyticsRollupService
+{
+    private static final String DEFINITION_SEPARATOR = ",";
+
+    private static final String TEMP_TABLE_SUFFIX = "_temp";
+
+    private final SystemSettingManager systemSettingManager;
+
+    private final PartitionManager partitionManager;
+
+    private final StatementBuilder statementBuilder;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Row counts of generated rollup tables, used to select the smallest
+     * rollup which can answer a query.
+     */
+    private final Map<String, Long> rollupRows = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> rollupHits = new ConcurrentHashMap<>();
+
+    private final AtomicLong queries = new AtomicLong();
+
+    public DefaultAnalyticsRollupService( SystemSettingManager systemSettingManager,
+        PartitionManager partitionManager, StatementBuilder statementBuilder, JdbcTemplate jdbcTemplate )
+    {
+        checkNotNull( systemSettingManager );
+        checkNotNull( partitionManager );
+        checkNotNull( statementBuilder );
+        checkNotNull( jdbcTemplate );
+
+        this.systemSettingManager = systemSettingManager;
+        this.partitionManager = partitionManager;
+        this.statementBuilder = statementBuilder;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // -------------------------------------------------------------------------
+    // AnalyticsRollupService implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public List<AnalyticsRollup> getDeclaredRollups()
+    {
+        String definitions = (String) systemSettingManager.getSystemSetting( SettingKey.ANALYTICS_ROLLUPS );
+
+        List<AnalyticsRollup> rollups = new ArrayList<>();
+
+        for ( String definition : StringUtils.split( StringUtils.trimToEmpty( definitions ), DEFINITION_SEPARATOR ) )
+        {
+            try
+            {
+                AnalyticsRollup rollup = AnalyticsRollup.fromString( definition );
+
+                if ( !rollups.contains( rollup ) )
+                {
+                    rollups.add( rollup );
+                }
+            }
+            catch ( IllegalArgumentException ex )
+            {
+                log.warn( ex.getMessage() );
+            }
+        }
+
+        return rollups;
+    }
+
+    @Override
+    public void generateRollups()
+    {
+        List<AnalyticsRollup> rollups = getDeclaredRollups();
+
+        dropUndeclaredRollups( rollups );
+
+        String sourceTable = AnalyticsTableType.DATA_VALUE.getTableName();
+
+        if ( rollups.isEmpty() || !partitionManager.tableExists( sourceTable ) )
+        {
+            return;
+        }
+
+        for ( AnalyticsRollup rollup : rollups )
+        {
+            try
+            {
+                generateRollup( rollup, sourceTable );
+            }
+            catch ( DataAccessException ex )
+            {
+                log.warn( String.format( "Failed to generate analytics rollup: %s", rollup ), ex );
+
+                dropRollup( rollup );
+            }
+        }
+    }
+
+    @Override
+    public Optional<AnalyticsRollup> getRollup( DataQueryParams params )
+    {
+        List<AnalyticsRollup> rollups = getDeclaredRollups();
+
+        if ( rollups.isEmpty() )
+        {
+            return Optional.empty();
+        }
+
+        queries.incrementAndGet();
+
+        AnalyticsRollup smallest = null;
+        long smallestRows = Long.MAX_VALUE;
+
+        for ( AnalyticsRollup rollup : rollups )
+        {
+            if ( rollup.canAnswer( params ) )
+            {
+                Optional<Long> rows = getRows( rollup );
+
+                if ( rows.isPresent() && rows.get() < smallestRows )
+                {
+                    smallest = rollup;
+                    smallestRows = rows.get();
+                }
+            }
+        }
+
+        if ( smallest != null )
+        {
+            rollupHits.computeIfAbsent( smallest.getTableName(), table -> new AtomicLong() ).incrementAndGet();
+        }
+
+        return Optional.ofNullable( smallest );
+    }
+
+    @Override
+    public List<AnalyticsRollupStatistics> getStatistics()
+    {
+        return getDeclaredRollups().stream()
+            .map( rollup -> new AnalyticsRollupStatistics( rollup.getTableName(),
+                rollupRows.get( rollup.getTableName() ),
+                rollupHits.getOrDefault( rollup.getTableName(), new AtomicLong() ).get(), queries.get() ) )
+            .collect( Collectors.toList() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Generates the given rollup table into a temporary table, then swaps the
+     * temporary table with the existing rollup table in one statement.
+     */
+    private void generateRollup( AnalyticsRollup rollup, String sourceTable )
+    {
+        final Clock clock = new Clock().startClock();
+        final String tableName = rollup.getTableName();
+        final String tempTableName = tableName + TEMP_TABLE_SUFFIX;
+        final String columns = rollup.getDimensionColumns().stream()
+            .map( column -> quote( column ) )
+            .collect( Collectors.joining( "," ) );
+
+        jdbcTemplate.execute( "drop table if exists " + tempTableName );
+
+        jdbcTemplate.execute( "create table " + tempTableName + " as select " + columns + ", " +
+            "sum(" + quote( "daysxvalue" ) + ") as " + quote( "daysxvalue" ) + ", " +
+            "sum(" + quote( "daysno" ) + ") as " + quote( "daysno" ) + ", " +
+            "sum(" + quote( "value" ) + ") as " + quote( "value" ) + " " +
+            "from " + sourceTable + " " +
+            "where " + quote( "value" ) + " is not null " +
+            "group by " + columns );
+
+        jdbcTemplate.execute( "create index in_" + tempTableName + "_dx_" + CodeGenerator.generateCode( 5 ) +
+            " on " + tempTableName + " (" + quote( "dx" ) + ")" );
+
+        String analyzeSql = statementBuilder.getAnalyze( tempTableName );
+
+        if ( analyzeSql != null )
+        {
+            jdbcTemplate.execute( analyzeSql );
+        }
+
+        jdbcTemplate.execute( "drop table if exists " + tableName + "; " +
+            "alter table " + tempTableName + " rename to " + tableName + ";" );
+
+        Long rows = jdbcTemplate.queryForObject( "select count(*) from " + tableName, Long.class );
+
+        rollupRows.put( tableName, rows );
+
+        log.info( String.format( "Generated analytics rollup: '%s', rows: %d, time: '%s'",
+            tableName, rows, clock.time() ) );
+    }
+
+    /**
+     * Drops the given rollup table and its temporary table, so that queries
+     * are not routed to a rollup built from a previous analytics table.
+     */
+    private void dropRollup( AnalyticsRollup rollup )
+    {
+        final String tableName = rollup.getTableName();
+
+        rollupRows.remove( tableName );
+
+        try
+        {
+            jdbcTemplate.execute( "drop table if exists " + tableName + TEMP_TABLE_SUFFIX );
+            jdbcTemplate.execute( "drop table if exists " + tableName );
+
+            log.info( String.format( "Dropped analytics rollup: '%s'", tableName ) );
+        }
+        catch ( DataAccessException ex )
+        {
+            log.error( String.format( "Failed to drop analytics rollup: '%s'", tableName ), ex );
+        }
+    }
+
+    /**
+     * Drops rollup tables which are no longer declared.
+     */
+    private void dropUndeclaredRollups( List<AnalyticsRollup> rollups )
+    {
+        List<String> declared = rollups.stream()
+            .map( AnalyticsRollup::getTableName )
+            .collect( Collectors.toList() );
+
+        List<String> existing = jdbcTemplate.queryForList( "select table_name from information_schema.tables " +
+            "where table_name like '" + AnalyticsRollup.TABLE_PREFIX + "%' " +
+            "and table_type = 'BASE TABLE'", String.class );
+
+        for ( String table : existing )
+        {
+            if ( !declared.contains( table ) )
+            {
+                jdbcTemplate.execute( "drop table if exists " + table );
+
+                rollupRows.remove( table );
+
+                log.info( String.format( "Dropped undeclared analytics rollup: '%s'", table ) );
+            }
+        }
+    }
+
+    /**
+     * Returns the number of rows of the given rollup table, or an empty
+     * optional if the rollup table does not exist.
+     */
+    private Optional<Long> getRows( AnalyticsRollup rollup )
+    {
+        String tableName = rollup.getTableName();
+
+        if ( !partitionManager.tableExists( tableName ) )
+        {
+            rollupRows.remove( tableName );
+
+            return Optional.empty();
+        }
+
+        return Optional.of( rollupRows.computeIfAbsent( tableName,
+            table -> jdbcTemplate.queryForObject( "select count(*) from " + table, Long.class ) ) );
+    }
+}
@@ -35,7 +35,12 @@ import static org.hisp.dhis.util.DateUtils.getLongDateString;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -43,8 +48,11 @@ import org.hisp.dhis.analytics.AnalyticsTableGenerator;
 import org.hisp.dhis.analytics.AnalyticsTableService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.cache.AnalyticsCacheWarmUpService;
+import org.hisp.dhis.analytics.rollup.AnalyticsRollupService;
 import org.hisp.dhis.commons.collection.CollectionUtils;
 import org.hisp.dhis.commons.util.DebugUtils;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.message.MessageService;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.scheduling.JobConfiguration;
@@ -72,21 +80,30 @@ public class DefaultAnalyticsTableGenerator
 
     private Notifier notifier;
 
+    private AnalyticsRollupService rollupService;
+
+    private AnalyticsCacheWarmUpService cacheWarmUpService;
+
     public DefaultAnalyticsTableGenerator( List<AnalyticsTableService> analyticsTableServices,
         ResourceTableService resourceTableService, MessageService messageService,
-        SystemSettingManager systemSettingManager, Notifier notifier )
+        SystemSettingManager systemSettingManager, Notifier notifier, AnalyticsRollupService rollupService,
+        AnalyticsCacheWarmUpService cacheWarmUpService )
     {
         checkNotNull( analyticsTableServices );
         checkNotNull( resourceTableService );
         checkNotNull( messageService );
         checkNotNull( systemSettingManager );
         checkNotNull( notifier );
+        checkNotNull( rollupService );
+        checkNotNull( cacheWarmUpService );
 
         this.analyticsTableServices = analyticsTableServices;
         this.resourceTableService = resourceTableService;
         this.messageService = messageService;
         this.systemSettingManager = systemSettingManager;
         this.notifier = notifier;
+        this.rollupService = rollupService;
+        this.cacheWarmUpService = cacheWarmUpService;
     }
 
     // -------------------------------------------------------------------------
@@ -135,9 +152,23 @@ public class DefaultAnalyticsTableGenerator
                     notifier.notify( jobId, "Updating tables: " + tableType );
 
                     service.update( params );
+
+                    if ( AnalyticsTableType.DATA_VALUE == tableType )
+                    {
+                        notifier.notify( jobId, "Updating analytics rollup tables" );
+
+                        rollupService.generateRollups();
+                    }
                 }
             }
 
+            if ( cacheWarmUpService.isEnabled() )
+            {
+                notifier.notify( jobId, "Warming up analytics cache" );
+            }
+
+            cacheWarmUpService.refreshCache();
+
             clock.logTime( "Analytics tables updated" );
 
             notifier.notify( jobId, INFO, "Analytics tables updated: " + clock.time(), true );
@@ -210,19 +241,66 @@ public class DefaultAnalyticsTableGenerator
         final Date startTime = new Date();
 
         resourceTableService.dropAllSqlViews();
-        resourceTableService.generateOrganisationUnitStructures();
-        resourceTableService.generateDataSetOrganisationUnitCategoryTable();
-        resourceTableService.generateCategoryOptionComboNames();
-        resourceTableService.generateDataElementGroupSetTable();
-        resourceTableService.generateIndicatorGroupSetTable();
-        resourceTableService.generateOrganisationUnitGroupSetTable();
-        resourceTableService.generateCategoryTable();
-        resourceTableService.generateDataElementTable();
-        resourceTableService.generatePeriodTable();
-        resourceTableService.generateDatePeriodTable();
-        resourceTableService.generateCategoryOptionComboTable();
+
+        invokeInParallel(
+            resourceTableService::generateOrganisationUnitStructures,
+            resourceTableService::generateDataSetOrganisationUnitCategoryTable,
+            resourceTableService::generateCategoryOptionComboNames,
+            resourceTableService::generateDataElementGroupSetTable,
+            resourceTableService::generateIndicatorGroupSetTable,
+            resourceTableService::generateDataElementTable,
+            resourceTableService::generatePeriodTable,
+            resourceTableService::generateDatePeriodTable,
+            resourceTableService::generateCategoryOptionComboTable );
+
+        // Depend on organisation unit structure and category option combo names
+
+        invokeInParallel(
+            resourceTableService::generateOrganisationUnitGroupSetTable,
+            resourceTableService::generateCategoryTable );
+
         resourceTableService.createAllSqlViews();
 
         systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_RESOURCE_TABLES_UPDATE, startTime );
     }
+
+    /**
+     * Invokes the given tasks in parallel and waits for completion. Exceptions
+     * thrown by any of the tasks are rethrown.
+     *
+     * @param tasks the tasks to invoke.
+     */
+    private void invokeInParallel( Runnable... tasks )
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(
+            Math.max( 1, Math.min( tasks.length, SystemUtils.getCpuCores() ) ) );
+
+        try
+        {
+            List<Future<?>> futures = Stream.of( tasks )
+                .map( executor::submit )
+                .collect( Collectors.toList() );
+
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException( "Resource table generation was interrupted", ex );
+        }
+        catch ( ExecutionException ex )
+        {
+            throw ex.getCause() instanceof RuntimeException
+                ? (RuntimeException) ex.getCause()
+                : new IllegalStateException( ex.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
 }
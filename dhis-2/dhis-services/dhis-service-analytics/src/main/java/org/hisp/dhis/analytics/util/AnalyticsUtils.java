@@ -45,6 +45,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -86,6 +87,7 @@ import org.hisp.dhis.indicator.Indicator;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.FinancialPeriodType;
 import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.PeriodDictionary;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramIndicator;
@@ -673,6 +675,23 @@ public class AnalyticsUtils
      * @return a mapping between identifiers and meta data items.
      */
     public static Map<String, MetadataItem> getDimensionMetadataItemMap( DataQueryParams params )
+    {
+        return getDimensionMetadataItemMap( params, null );
+    }
+
+    /**
+     * Returns a mapping between identifiers and meta data items for the given
+     * query.
+     *
+     * @param params the data query parameters.
+     * @param ancestorItemProvider function returning a mapping between
+     *        ancestor identifiers and display properties for an organisation
+     *        unit, used instead of loading the ancestors when meta data
+     *        details are not included, can be null.
+     * @return a mapping between identifiers and meta data items.
+     */
+    public static Map<String, MetadataItem> getDimensionMetadataItemMap( DataQueryParams params,
+        Function<OrganisationUnit, Map<String, String>> ancestorItemProvider )
     {
         List<DimensionalObject> dimensions = params.getDimensionsAndFilters();
 
@@ -705,11 +724,19 @@ public class AnalyticsUtils
                 {
                     OrganisationUnit unit = (OrganisationUnit) item;
 
-                    for ( OrganisationUnit ancestor : unit.getAncestors() )
+                    if ( ancestorItemProvider != null && !includeMetadataDetails )
+                    {
+                        ancestorItemProvider.apply( unit ).forEach( ( uid, name ) -> map.put( uid,
+                            new MetadataItem( name ) ) );
+                    }
+                    else
                     {
-                        map.put( ancestor.getUid(),
-                            new MetadataItem( ancestor.getDisplayProperty( params.getDisplayProperty() ),
-                                includeMetadataDetails ? ancestor : null ) );
+                        for ( OrganisationUnit ancestor : unit.getAncestors() )
+                        {
+                            map.put( ancestor.getUid(),
+                                new MetadataItem( ancestor.getDisplayProperty( params.getDisplayProperty() ),
+                                    includeMetadataDetails ? ancestor : null ) );
+                        }
                     }
                 }
 
@@ -982,6 +1009,6 @@ public class AnalyticsUtils
     public static boolean hasPeriod( List<Object> row, int periodIndex )
     {
         return periodIndex < row.size() && row.get( periodIndex ) instanceof String
-            && PeriodType.getPeriodFromIsoString( (String) row.get( periodIndex ) ) != null;
+            && PeriodDictionary.getInstance().isValid( (String) row.get( periodIndex ) );
     }
 }
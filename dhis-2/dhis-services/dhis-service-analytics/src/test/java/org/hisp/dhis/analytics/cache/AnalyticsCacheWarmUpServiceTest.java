@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.hisp.dhis.DhisSpringTest;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.DataQueryService;
+import org.hisp.dhis.common.DataQueryRequest;
+import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.common.DimensionalObject;
+import org.hisp.dhis.common.DisplayProperty;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.mapping.MapView;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.RelativePeriods;
+import org.hisp.dhis.visualization.Visualization;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Verifies that the queries replayed by the analytics cache warm-up have the
+ * same cache key as the corresponding requests of the apps.
+ */
+public class AnalyticsCacheWarmUpServiceTest
+    extends DhisSpringTest
+{
+    @Autowired
+    private DataQueryService dataQueryService;
+
+    @Autowired
+    private IdentifiableObjectManager idObjectManager;
+
+    private DataElement deA;
+
+    private OrganisationUnit ouA;
+
+    @Override
+    public void setUpTest()
+    {
+        deA = createDataElement( 'A' );
+        idObjectManager.save( deA );
+
+        ouA = createOrganisationUnit( 'A' );
+        idObjectManager.save( ouA );
+    }
+
+    @Test
+    public void testWarmedUpVisualizationMatchesApiRequest()
+    {
+        Visualization visualization = createVisualization( 'A' );
+        visualization.addDataDimensionItem( deA );
+        visualization.setRelatives( new RelativePeriods().setLast12Months( true ) );
+        visualization.getOrganisationUnits().add( ouA );
+        visualization.getColumnDimensions().add( DimensionalObject.DATA_X_DIM_ID );
+        visualization.getRowDimensions().add( DimensionalObject.PERIOD_DIM_ID );
+        visualization.getFilterDimensions().add( DimensionalObject.ORGUNIT_DIM_ID );
+
+        DataQueryParams warmedUp = dataQueryService.getFromRequest( DefaultAnalyticsCacheWarmUpService
+            .getDataQueryRequest( visualization, DisplayProperty.NAME, true ) );
+
+        // GET /api/36/analytics?dimension=dx:deA&dimension=pe:LAST_12_MONTHS
+        // &filter=ou:ouA&displayProperty=NAME&includeNumDen=true
+
+        DataQueryRequest request = DataQueryRequest.newBuilder()
+            .dimension( Sets.newLinkedHashSet( Lists.newArrayList( "dx:" + deA.getUid(), "pe:LAST_12_MONTHS" ) ) )
+            .filter( Sets.newHashSet( "ou:" + ouA.getUid() ) )
+            .displayProperty( DisplayProperty.NAME )
+            .includeNumDen( true )
+            .apiVersion( DhisApiVersion.V36 )
+            .build();
+
+        assertEquals( dataQueryService.getFromRequest( request ).getKey(), warmedUp.getKey() );
+
+        DataQueryRequest shortNameRequest = DataQueryRequest.newBuilder()
+            .dimension( Sets.newLinkedHashSet( Lists.newArrayList( "dx:" + deA.getUid(), "pe:LAST_12_MONTHS" ) ) )
+            .filter( Sets.newHashSet( "ou:" + ouA.getUid() ) )
+            .displayProperty( DisplayProperty.SHORTNAME )
+            .includeNumDen( true )
+            .apiVersion( DhisApiVersion.V36 )
+            .build();
+
+        assertNotEquals( dataQueryService.getFromRequest( shortNameRequest ).getKey(), warmedUp.getKey() );
+    }
+
+    @Test
+    public void testWarmedUpMapViewMatchesApiRequest()
+    {
+        MapView mapView = new MapView( MapView.LAYER_THEMATIC1 );
+        mapView.setAutoFields();
+        mapView.addDataDimensionItem( deA );
+        mapView.setRelatives( new RelativePeriods().setLast12Months( true ) );
+        mapView.getOrganisationUnits().add( ouA );
+        mapView.getColumnDimensions().add( DimensionalObject.DATA_X_DIM_ID );
+        mapView.getFilterDimensions().add( DimensionalObject.PERIOD_DIM_ID );
+
+        DataQueryParams warmedUp = dataQueryService.getFromRequest( DefaultAnalyticsCacheWarmUpService
+            .getDataQueryRequest( mapView, DisplayProperty.NAME, false ) );
+
+        // GET /api/analytics?dimension=dx:deA&dimension=ou:ouA
+        // &filter=pe:LAST_12_MONTHS&displayProperty=NAME
+
+        DataQueryRequest request = DataQueryRequest.newBuilder()
+            .dimension( Sets.newLinkedHashSet( Lists.newArrayList( "dx:" + deA.getUid(), "ou:" + ouA.getUid() ) ) )
+            .filter( Sets.newHashSet( "pe:LAST_12_MONTHS" ) )
+            .displayProperty( DisplayProperty.NAME )
+            .apiVersion( DhisApiVersion.DEFAULT )
+            .build();
+
+        assertEquals( dataQueryService.getFromRequest( request ).getKey(), warmedUp.getKey() );
+    }
+}
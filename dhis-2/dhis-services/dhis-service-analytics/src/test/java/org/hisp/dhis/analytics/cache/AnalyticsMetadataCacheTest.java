@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.junit.MockitoJUnit.rule;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.hisp.dhis.DhisConvenienceTest;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.cache.LocalCache;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoRule;
+
+import com.google.common.collect.Lists;
+
+public class AnalyticsMetadataCacheTest
+    extends DhisConvenienceTest
+{
+    @Mock
+    private CacheProvider cacheProvider;
+
+    @Rule
+    public MockitoRule mockitoRule = rule();
+
+    private Cache<OrgUnitMetadata> cache;
+
+    private AnalyticsMetadataCache metadataCache;
+
+    private OrganisationUnit ouA;
+
+    private OrganisationUnit ouB;
+
+    private OrganisationUnit ouC;
+
+    @Before
+    public void setUp()
+    {
+        cache = spy( new LocalCache<>( new SimpleCacheBuilder<OrgUnitMetadata>().forRegion( "analyticsMetadata" ) ) );
+
+        when( cacheProvider.<OrgUnitMetadata> createAnalyticsMetadataCache() ).thenReturn( cache );
+
+        metadataCache = new AnalyticsMetadataCache( cacheProvider );
+
+        ouA = createOrganisationUnit( 'A' );
+        ouB = createOrganisationUnit( 'B', ouA );
+        ouC = createOrganisationUnit( 'C', ouB );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testGetOrgUnitMetadataLoadsMissingEntriesInBulk()
+    {
+        List<OrganisationUnit> roots = Lists.newArrayList( ouA );
+
+        OrgUnitMetadata metadataB = metadataCache.getOrgUnitMetadata( ouB, null, roots );
+
+        Map<String, OrgUnitMetadata> metadata = metadataCache.getOrgUnitMetadata( Lists.newArrayList( ouB, ouC ),
+            null, roots );
+
+        assertEquals( 2, metadata.size() );
+        assertSame( metadataB, metadata.get( ouB.getUid() ) );
+        assertEquals( Lists.newArrayList( ouA.getUid(), ouB.getUid() ),
+            Lists.newArrayList( metadata.get( ouC.getUid() ).getAncestorItems().keySet() ) );
+
+        // Only the entry missing in the cache is loaded and stored
+
+        ArgumentCaptor<Map<String, OrgUnitMetadata>> captor = ArgumentCaptor.forClass( Map.class );
+
+        verify( cache ).putAll( captor.capture() );
+
+        assertEquals( 1, captor.getValue().size() );
+        assertSame( metadata.get( ouC.getUid() ), captor.getValue().values().iterator().next() );
+    }
+
+    @Test
+    public void testGetOrgUnitMetadataServedFromCache()
+    {
+        List<OrganisationUnit> roots = Lists.newArrayList( ouA );
+
+        Map<String, OrgUnitMetadata> first = metadataCache.getOrgUnitMetadata( Lists.newArrayList( ouB, ouC ),
+            null, roots );
+
+        Map<String, OrgUnitMetadata> second = metadataCache.getOrgUnitMetadata( Lists.newArrayList( ouB, ouC ),
+            null, roots );
+
+        assertSame( first.get( ouB.getUid() ), second.get( ouB.getUid() ) );
+        assertSame( first.get( ouC.getUid() ), second.get( ouC.getUid() ) );
+        assertSame( first.get( ouC.getUid() ), metadataCache.getOrgUnitMetadata( ouC, null, roots ) );
+    }
+
+    @Test
+    public void testGetOrgUnitMetadataWithNoOrgUnits()
+    {
+        assertEquals( Collections.emptyMap(), metadataCache.getOrgUnitMetadata( Lists.newArrayList(), null,
+            Lists.newArrayList( ouA ) ) );
+
+        verify( cache, never() ).putAll( anyMap() );
+    }
+}
@@ -41,6 +41,7 @@ import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.analytics.RawAnalyticsManager;
 import org.hisp.dhis.analytics.cache.AnalyticsCache;
 import org.hisp.dhis.analytics.cache.AnalyticsCacheSettings;
+import org.hisp.dhis.analytics.cache.AnalyticsMetadataCache;
 import org.hisp.dhis.analytics.data.handler.DataAggregator;
 import org.hisp.dhis.analytics.data.handler.DataHandler;
 import org.hisp.dhis.analytics.data.handler.HeaderHandler;
@@ -48,6 +49,8 @@ import org.hisp.dhis.analytics.data.handler.MetadataHandler;
 import org.hisp.dhis.analytics.data.handler.SchemaIdResponseMapper;
 import org.hisp.dhis.analytics.event.EventAnalyticsService;
 import org.hisp.dhis.analytics.resolver.ExpressionResolver;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.cache.NoOpCache;
 import org.hisp.dhis.constant.ConstantService;
 import org.hisp.dhis.expression.ExpressionService;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
@@ -112,6 +115,9 @@ public abstract class AnalyticsServiceBaseTest
     @Mock
     private AnalyticsCacheSettings analyticsCacheSettings;
 
+    @Mock
+    private CacheProvider cacheProvider;
+
     @Mock
     private ExpressionResolver resolver;
 
@@ -126,7 +132,10 @@ public abstract class AnalyticsServiceBaseTest
         DefaultQueryValidator queryValidator = new DefaultQueryValidator( systemSettingManager );
 
         HeaderHandler headerHandler = new HeaderHandler();
-        MetadataHandler metadataHandler = new MetadataHandler( dataQueryService, schemaIdResponseMapper );
+        when( cacheProvider.createAnalyticsMetadataCache() ).thenReturn( new NoOpCache<>() );
+
+        MetadataHandler metadataHandler = new MetadataHandler( dataQueryService, schemaIdResponseMapper,
+            new AnalyticsMetadataCache( cacheProvider ) );
         DataHandler dataHandler = new DataHandler( eventAnalyticsService, rawAnalyticsManager, constantService,
             resolver, expressionService, queryPlanner, queryValidator, systemSettingManager, analyticsManager,
             organisationUnitService );
@@ -37,6 +37,7 @@ import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
 import static org.hisp.dhis.analytics.DataQueryParams.DISPLAY_NAME_DATA_X;
 import static org.hisp.dhis.analytics.DataQueryParams.DISPLAY_NAME_ORGUNIT;
 import static org.hisp.dhis.period.RelativePeriodEnum.THIS_QUARTER;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -45,6 +46,7 @@ import static org.mockito.Mockito.when;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
+import org.hisp.dhis.analytics.AnalyticsMetaDataKey;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.category.CategoryCombo;
@@ -63,6 +65,7 @@ import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 /**
  * @author Luciano Fiandesio
@@ -251,6 +254,59 @@ public class AnalyticsServiceMetadataTest extends AnalyticsServiceBaseTest
         assertTrue( items.containsKey( THIS_QUARTER.name() ) );
     }
 
+    @Test
+    public void metadataContainsRequestedPartsOnly()
+    {
+        List<DimensionalItemObject> periods = new ArrayList<>();
+        periods.add( new MonthlyPeriodType().createPeriod( new DateTime( 2014, 4, 1, 0, 0 ).toDate() ) );
+
+        DataQueryParams params = DataQueryParams.newBuilder()
+            .withDimensions( Lists.newArrayList(
+                new BaseDimensionalObject( "pe", DimensionType.PERIOD, periods ),
+                new BaseDimensionalObject( "dx", DimensionType.DATA_X, DISPLAY_NAME_DATA_X, "display name",
+                    Lists.newArrayList( createDataElement( 'A', new CategoryCombo() ) ) ) ) )
+            .withMetadataParts( Sets.newHashSet( AnalyticsMetaDataKey.ITEMS ) )
+            .withSkipData( true ).build();
+
+        initMock( params );
+
+        Grid grid = target.getAggregatedDataValueGrid( params );
+
+        assertTrue( grid.getMetaData().containsKey( AnalyticsMetaDataKey.ITEMS.getKey() ) );
+        assertFalse( grid.getMetaData().containsKey( AnalyticsMetaDataKey.DIMENSIONS.getKey() ) );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void metadataContainsOuHierarchy()
+    {
+        OrganisationUnit ouA = new OrganisationUnit( "aaa", "aaa", "OU_1", null, null, "c1" );
+        ouA.setUid( "ouabcdefghA" );
+        OrganisationUnit ouB = new OrganisationUnit( "bbb", "bbb", "OU_2", null, null, "c2" );
+        ouB.setUid( "ouabcdefghB" );
+        ouB.setParent( ouA );
+
+        DataQueryParams params = DataQueryParams.newBuilder()
+            .withPeriod( new Period( YearlyPeriodType.getPeriodFromIsoString( "2017W10" ) ) )
+            .withDataElements( newArrayList( createDataElement( 'A', new CategoryCombo() ) ) )
+            .withFilters( Collections.singletonList(
+                new BaseDimensionalObject( "ou", DimensionType.ORGANISATION_UNIT, null, DISPLAY_NAME_ORGUNIT,
+                    ImmutableList.of( ouB ) ) ) )
+            .withHierarchyMeta( true )
+            .withIgnoreLimit( true )
+            .build();
+
+        initMock( params );
+
+        Grid grid = target.getAggregatedDataValueGrid( params );
+
+        Map<String, Object> items = (Map<String, Object>) grid.getMetaData().get( "items" );
+        Map<String, String> hierarchy = (Map<String, String>) grid.getMetaData().get( "ouHierarchy" );
+
+        assertThat( items.get( "ouabcdefghA" ), hasProperty( "name", is( "aaa" ) ) );
+        assertThat( hierarchy.get( "ouabcdefghB" ), is( "ouabcdefghA" ) );
+    }
+
     private OrganisationUnitLevel buildOrgUnitLevel( int level, String uid, String name, String code )
     {
         OrganisationUnitLevel oul = new OrganisationUnitLevel( level, name );
@@ -39,6 +39,7 @@ import java.util.List;
 
 import org.hisp.dhis.analytics.*;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.rollup.AnalyticsRollupService;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
@@ -71,13 +72,16 @@ public class DefaultQueryPlannerGroupByAggregationTypeTest
     @Mock
     private PartitionManager partitionManager;
 
+    @Mock
+    private AnalyticsRollupService rollupService;
+
     @Rule
     public MockitoRule mockitoRule = MockitoJUnit.rule();
 
     @Before
     public void setUp()
     {
-        subject = new DefaultQueryPlanner( queryValidator, partitionManager );
+        subject = new DefaultQueryPlanner( queryValidator, partitionManager, rollupService );
     }
 
     @Test
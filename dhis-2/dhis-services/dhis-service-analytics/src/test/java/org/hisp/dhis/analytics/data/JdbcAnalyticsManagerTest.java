@@ -36,6 +36,7 @@ import static org.mockito.Mockito.when;
 
 import org.hisp.dhis.analytics.*;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.rollup.AnalyticsRollupService;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.ValueType;
@@ -72,6 +73,9 @@ public class JdbcAnalyticsManagerTest
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Mock
+    private AnalyticsRollupService rollupService;
+
     @Mock
     private SqlRowSet rowSet;
 
@@ -88,7 +92,7 @@ public class JdbcAnalyticsManagerTest
     {
         QueryPlanner queryPlanner = new DefaultQueryPlanner(
             new DefaultQueryValidator( this.systemSettingManager ),
-            partitionManager );
+            partitionManager, rollupService );
 
         mockRowSet();
 
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.event.data;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import org.hisp.dhis.analytics.AnalyticsSecurityManager;
+import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.analytics.event.EnrollmentAnalyticsManager;
+import org.hisp.dhis.analytics.event.EventAnalyticsManager;
+import org.hisp.dhis.analytics.event.EventDataQueryService;
+import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.analytics.event.EventQueryPlanner;
+import org.hisp.dhis.analytics.event.EventQueryValidator;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.system.database.DatabaseInfo;
+import org.hisp.dhis.system.grid.ListGrid;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests the concurrent execution of the partial aggregate queries in
+ * {@link DefaultEventAnalyticsService}.
+ */
+public class DefaultEventAnalyticsServiceTest
+{
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private DataElementService dataElementService;
+
+    @Mock
+    private TrackedEntityAttributeService trackedEntityAttributeService;
+
+    @Mock
+    private EventAnalyticsManager eventAnalyticsManager;
+
+    @Mock
+    private EventDataQueryService eventDataQueryService;
+
+    @Mock
+    private AnalyticsSecurityManager securityManager;
+
+    @Mock
+    private EventQueryPlanner queryPlanner;
+
+    @Mock
+    private EventQueryValidator queryValidator;
+
+    @Mock
+    private DatabaseInfo databaseInfo;
+
+    @Mock
+    private AnalyticsCache analyticsCache;
+
+    @Mock
+    private EnrollmentAnalyticsManager enrollmentAnalyticsManager;
+
+    private DefaultEventAnalyticsService subject;
+
+    private EventQueryParams params;
+
+    @Before
+    public void setUp()
+    {
+        subject = new DefaultEventAnalyticsService( dataElementService, trackedEntityAttributeService,
+            eventAnalyticsManager, eventDataQueryService, securityManager, queryPlanner, queryValidator,
+            databaseInfo, analyticsCache, enrollmentAnalyticsManager );
+
+        params = new EventQueryParams.Builder()
+            .withSkipMeta( true )
+            .build();
+
+        when( securityManager.withUserConstraints( any( EventQueryParams.class ) ) ).thenReturn( params );
+        when( analyticsCache.isEnabled() ).thenReturn( false );
+        when( queryValidator.getMaxLimit() ).thenReturn( 0 );
+    }
+
+    @Test
+    public void verifyPartialQueryRowsAreMergedInQueryOrder()
+    {
+        EventQueryParams queryA = mockQuery( false );
+        EventQueryParams queryB = mockQuery( true );
+        EventQueryParams queryC = mockQuery( false );
+
+        when( queryPlanner.planAggregateQuery( params ) ).thenReturn( Lists.newArrayList( queryA, queryB, queryC ) );
+
+        CompletableFuture<Grid> futureA = new CompletableFuture<>();
+        CompletableFuture<Grid> futureB = new CompletableFuture<>();
+        CompletableFuture<Grid> futureC = new CompletableFuture<>();
+
+        when( eventAnalyticsManager.getAggregatedEventDataAsync( eq( queryA ), any( Grid.class ), anyInt() ) )
+            .thenReturn( futureA );
+        when( enrollmentAnalyticsManager.getAggregatedEventDataAsync( eq( queryB ), any( Grid.class ), anyInt() ) )
+            .thenReturn( futureB );
+        when( eventAnalyticsManager.getAggregatedEventDataAsync( eq( queryC ), any( Grid.class ), anyInt() ) )
+            .thenReturn( futureC );
+
+        Grid gridA = createGrid( "A", 2 );
+        Grid gridB = createGrid( "B", 1 );
+        Grid gridC = createGrid( "C", 3 );
+
+        // Complete the partial queries in reverse order
+
+        new Thread( () -> {
+            futureC.complete( gridC );
+            futureB.complete( gridB );
+            futureA.complete( gridA );
+        } ).start();
+
+        Grid grid = subject.getAggregatedEventData( params );
+
+        // Rows must be identical to adding each partial grid sequentially
+
+        Grid expected = new ListGrid();
+        expected.addRows( gridA );
+        expected.addRows( gridB );
+        expected.addRows( gridC );
+
+        assertThat( grid.getRows(), is( expected.getRows() ) );
+        assertThat( grid.getHeight(), is( 6 ) );
+    }
+
+    @Test
+    public void verifyPartialQueryFailureIsPropagated()
+    {
+        EventQueryParams queryA = mockQuery( false );
+        EventQueryParams queryB = mockQuery( false );
+
+        when( queryPlanner.planAggregateQuery( params ) ).thenReturn( Lists.newArrayList( queryA, queryB ) );
+
+        IllegalQueryException failure = new IllegalQueryException( "Query failed" );
+
+        CompletableFuture<Grid> futureB = new CompletableFuture<>();
+        futureB.completeExceptionally( failure );
+
+        when( eventAnalyticsManager.getAggregatedEventDataAsync( eq( queryA ), any( Grid.class ), anyInt() ) )
+            .thenReturn( CompletableFuture.completedFuture( createGrid( "A", 1 ) ) );
+        when( eventAnalyticsManager.getAggregatedEventDataAsync( eq( queryB ), any( Grid.class ), anyInt() ) )
+            .thenReturn( futureB );
+
+        try
+        {
+            subject.getAggregatedEventData( params );
+
+            fail( "Expected the partial query failure to be propagated" );
+        }
+        catch ( IllegalQueryException ex )
+        {
+            assertThat( ex, is( sameInstance( failure ) ) );
+        }
+
+        verify( enrollmentAnalyticsManager, never() ).getAggregatedEventDataAsync( any(), any(), anyInt() );
+    }
+
+    @Test
+    public void verifyPartialQueryCheckedFailureIsWrapped()
+    {
+        EventQueryParams queryA = mockQuery( true );
+
+        when( queryPlanner.planAggregateQuery( params ) ).thenReturn( Lists.newArrayList( queryA ) );
+
+        IOException failure = new IOException( "Connection lost" );
+
+        CompletableFuture<Grid> futureA = new CompletableFuture<>();
+        futureA.completeExceptionally( failure );
+
+        when( enrollmentAnalyticsManager.getAggregatedEventDataAsync( eq( queryA ), any( Grid.class ), anyInt() ) )
+            .thenReturn( futureA );
+
+        try
+        {
+            subject.getAggregatedEventData( params );
+
+            fail( "Expected the partial query failure to be propagated" );
+        }
+        catch ( RuntimeException ex )
+        {
+            assertThat( ex.getCause().getCause(), is( sameInstance( failure ) ) );
+        }
+    }
+
+    private EventQueryParams mockQuery( boolean enrollment )
+    {
+        EventQueryParams query = mock( EventQueryParams.class );
+
+        when( query.hasEnrollmentProgramIndicatorDimension() ).thenReturn( enrollment );
+
+        return query;
+    }
+
+    private Grid createGrid( String prefix, int rows )
+    {
+        Grid grid = new ListGrid();
+
+        for ( int i = 0; i < rows; i++ )
+        {
+            grid.addRow()
+                .addValue( prefix + i )
+                .addValue( i );
+        }
+
+        return grid;
+    }
+}
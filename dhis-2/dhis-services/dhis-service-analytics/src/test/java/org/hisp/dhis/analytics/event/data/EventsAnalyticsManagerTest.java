@@ -41,9 +41,12 @@ import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.concurrent.Future;
+
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.DataQueryParams;
@@ -282,6 +285,29 @@ public class EventsAnalyticsManagerTest extends EventAnalyticsTest
         assertThat( sql.getValue(), is( expected ) );
     }
 
+    @Test
+    public void verifyGetAggregatedEventDataAsyncMatchesSequentialQuery()
+        throws Exception
+    {
+        EventQueryParams params = createRequestParams( programStage, ValueType.INTEGER );
+
+        mockRowSet();
+        when( rowSet.getString( "fWIAEtYVEGk" ) ).thenReturn( "2000" );
+
+        Grid expected = subject.getAggregatedEventData( params, createGrid(), 200000 );
+
+        mockRowSet();
+
+        Future<Grid> future = subject.getAggregatedEventDataAsync( params, createGrid(), 200000 );
+
+        assertThat( future.isDone(), is( true ) );
+        assertThat( future.get().getRows(), is( expected.getRows() ) );
+
+        verify( jdbcTemplate, times( 2 ) ).queryForRowSet( sql.capture() );
+
+        assertThat( sql.getAllValues().get( 1 ), is( sql.getAllValues().get( 0 ) ) );
+    }
+
     @Test
     public void verifyGetAggregatedEventQueryWithFilter()
     {
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.profile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AnalyticsQueryMetricsTest
+{
+    @Test
+    public void testRecordProfile()
+    {
+        MeterRegistry registry = new SimpleMeterRegistry();
+
+        AnalyticsQueryMetrics metrics = new AnalyticsQueryMetrics();
+
+        assertFalse( metrics.isEnabled() );
+
+        metrics.bindTo( registry );
+
+        assertTrue( metrics.isEnabled() );
+
+        metrics.record( getProfile() );
+        metrics.record( getProfile() );
+
+        assertEquals( 2, registry.get( "analytics.query.time" ).timer().count() );
+        assertEquals( 4, registry.get( "analytics.query.sql" ).tag( "table_type", "analytics" ).timer().count() );
+        assertEquals( 2, registry.get( "analytics.query.plan" ).tag( "table_type", "analytics" ).timer().count() );
+        assertEquals( 540d, registry.get( "analytics.query.sql.rows" ).summary().totalAmount(), 0.01 );
+        assertEquals( 2d, registry.get( "analytics.query.cache" ).tag( "result", "miss" ).counter().count(), 0.01 );
+        assertEquals( 2, registry.get( "analytics.query.stage" ).tag( "stage", "grid" ).timer().count() );
+    }
+
+    @Test
+    public void testProfile()
+    {
+        AnalyticsQueryProfile profile = getProfile();
+
+        assertEquals( 2, profile.getQueries().size() );
+        assertEquals( 270, profile.getRows() );
+        assertEquals( 60, profile.getSqlTime() );
+        assertEquals( Long.valueOf( 70 ), profile.getStages().get( AnalyticsQueryProfile.STAGE_GRID ) );
+
+        assertNull( new AnalyticsQueryProfile().getCacheHit() );
+    }
+
+    private AnalyticsQueryProfile getProfile()
+    {
+        AnalyticsQueryProfile profile = new AnalyticsQueryProfile();
+
+        profile.addPlan( new AnalyticsQueryProfile.Plan( AnalyticsTableType.DATA_VALUE, 1, 2, 4,
+            Sets.newHashSet( 2019, 2020 ), 5 ) );
+        profile.addQuery( new AnalyticsQueryProfile.SqlQuery( AnalyticsTableType.DATA_VALUE, "analytics_2019",
+            Sets.newHashSet( 2019 ), "select 1", 20, 120 ) );
+        profile.addQuery( new AnalyticsQueryProfile.SqlQuery( AnalyticsTableType.DATA_VALUE, "analytics_2020",
+            Sets.newHashSet( 2020 ), "select 1", 40, 150 ) );
+        profile.addStageTime( AnalyticsQueryProfile.STAGE_DATA, 50 );
+        profile.addStageTime( AnalyticsQueryProfile.STAGE_GRID, 70 );
+        profile.setCacheHit( false );
+        profile.setTime( 80 );
+
+        return profile;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.rollup;
+
+import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.hisp.dhis.DhisConvenienceTest;
+import org.hisp.dhis.analytics.AnalyticsAggregationType;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.common.BaseDimensionalObject;
+import org.hisp.dhis.common.DimensionType;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.MonthlyPeriodType;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.QuarterlyPeriodType;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class AnalyticsRollupTest
+    extends DhisConvenienceTest
+{
+    private DataElement deA;
+
+    private OrganisationUnit ouA;
+
+    private Period peA;
+
+    @Before
+    public void before()
+    {
+        deA = createDataElement( 'A', new CategoryCombo() );
+        ouA = createOrganisationUnit( 'A' );
+        peA = createPeriod( "2000Q1" );
+    }
+
+    @Test
+    public void testFromString()
+    {
+        AnalyticsRollup rollup = AnalyticsRollup.fromString( " 2:monthly " );
+
+        assertEquals( 2, rollup.getOrgUnitLevel() );
+        assertEquals( MonthlyPeriodType.NAME, rollup.getPeriodType().getName() );
+        assertEquals( "analytics_rollup_2_monthly", rollup.getTableName() );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testFromStringInvalidPeriodType()
+    {
+        AnalyticsRollup.fromString( "2:Hourly" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testFromStringInvalidLevel()
+    {
+        AnalyticsRollup.fromString( "two:Monthly" );
+    }
+
+    @Test
+    public void testGetDimensionColumns()
+    {
+        List<String> columns = AnalyticsRollup.fromString( "2:Quarterly" ).getDimensionColumns();
+
+        assertTrue( columns.containsAll( Lists.newArrayList( "dx", "uidlevel1", "uidlevel2", "quarterly",
+            "yearly" ) ) );
+        assertFalse( columns.contains( "uidlevel3" ) );
+        assertFalse( columns.contains( "monthly" ) );
+    }
+
+    @Test
+    public void testCanAnswer()
+    {
+        AnalyticsRollup rollup = new AnalyticsRollup( 2, new QuarterlyPeriodType() );
+
+        assertTrue( rollup.canAnswer( getParams( 2, AnalyticsAggregationType.SUM ) ) );
+        assertTrue( rollup.canAnswer( getParams( 1, AnalyticsAggregationType.SUM ) ) );
+        assertFalse( rollup.canAnswer( getParams( 3, AnalyticsAggregationType.SUM ) ) );
+        assertFalse( rollup.canAnswer( getParams( 2, AnalyticsAggregationType.AVERAGE ) ) );
+        assertFalse( rollup.canAnswer( getParams( 2, AnalyticsAggregationType.LAST ) ) );
+    }
+
+    @Test
+    public void testCanAnswerFinerPeriodType()
+    {
+        AnalyticsRollup rollup = new AnalyticsRollup( 2, new QuarterlyPeriodType() );
+
+        DataQueryParams params = DataQueryParams.newBuilder( getParams( 2, AnalyticsAggregationType.SUM ) )
+            .withPeriods( Lists.newArrayList( createPeriod( "200001" ) ), MonthlyPeriodType.NAME )
+            .build();
+
+        assertFalse( rollup.canAnswer( params ) );
+    }
+
+    private DataQueryParams getParams( int level, AnalyticsAggregationType aggregationType )
+    {
+        return DataQueryParams.newBuilder()
+            .withDataElements( Lists.newArrayList( deA ) )
+            .withPeriods( Lists.newArrayList( peA ), QuarterlyPeriodType.NAME )
+            .addDimension( new BaseDimensionalObject( ORGUNIT_DIM_ID, DimensionType.ORGANISATION_UNIT,
+                DataQueryParams.LEVEL_PREFIX + level, null, Lists.newArrayList( ouA ) ) )
+            .withAggregationType( aggregationType )
+            .build();
+    }
+}
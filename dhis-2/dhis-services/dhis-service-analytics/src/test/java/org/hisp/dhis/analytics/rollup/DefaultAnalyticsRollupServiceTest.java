@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.rollup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.junit.MockitoJUnit.rule;
+
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.jdbc.StatementBuilder;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoRule;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class DefaultAnalyticsRollupServiceTest
+{
+    private static final String ROLLUP_TABLE = "analytics_rollup_2_monthly";
+
+    @Mock
+    private SystemSettingManager systemSettingManager;
+
+    @Mock
+    private PartitionManager partitionManager;
+
+    @Mock
+    private StatementBuilder statementBuilder;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Rule
+    public MockitoRule mockitoRule = rule();
+
+    private DefaultAnalyticsRollupService subject;
+
+    @Before
+    public void setUp()
+    {
+        subject = new DefaultAnalyticsRollupService( systemSettingManager, partitionManager, statementBuilder,
+            jdbcTemplate );
+
+        when( systemSettingManager.getSystemSetting( SettingKey.ANALYTICS_ROLLUPS ) ).thenReturn( "2:Monthly" );
+        when( partitionManager.tableExists( AnalyticsTableType.DATA_VALUE.getTableName() ) ).thenReturn( true );
+    }
+
+    @Test
+    public void testGenerateRollups()
+    {
+        when( jdbcTemplate.queryForObject( "select count(*) from " + ROLLUP_TABLE, Long.class ) ).thenReturn( 10L );
+
+        subject.generateRollups();
+
+        verify( jdbcTemplate ).execute( startsWith( "create table " + ROLLUP_TABLE + "_temp as select " ) );
+        verify( jdbcTemplate ).execute( "drop table if exists " + ROLLUP_TABLE + "; " +
+            "alter table " + ROLLUP_TABLE + "_temp rename to " + ROLLUP_TABLE + ";" );
+
+        assertEquals( Long.valueOf( 10L ), subject.getStatistics().get( 0 ).getRows() );
+    }
+
+    @Test
+    public void testGenerateRollupsFailureDropsRollup()
+    {
+        when( jdbcTemplate.queryForObject( "select count(*) from " + ROLLUP_TABLE, Long.class ) ).thenReturn( 10L );
+
+        subject.generateRollups();
+
+        assertEquals( Long.valueOf( 10L ), subject.getStatistics().get( 0 ).getRows() );
+
+        doThrow( new DataRetrievalFailureException( "Out of disk space" ) )
+            .when( jdbcTemplate ).execute( startsWith( "create table" ) );
+
+        subject.generateRollups();
+
+        // The rollup of the previous analytics table and the partially
+        // generated temporary table must both be dropped, the temporary table
+        // is also dropped before each generation
+
+        verify( jdbcTemplate, times( 3 ) ).execute( "drop table if exists " + ROLLUP_TABLE + "_temp" );
+        verify( jdbcTemplate ).execute( "drop table if exists " + ROLLUP_TABLE );
+
+        assertNull( subject.getStatistics().get( 0 ).getRows() );
+    }
+
+    @Test
+    public void testGenerateRollupsFailureWhenDropFails()
+    {
+        doThrow( new DataRetrievalFailureException( "Out of disk space" ) )
+            .when( jdbcTemplate ).execute( startsWith( "create table" ) );
+        doThrow( new DataRetrievalFailureException( "Connection lost" ) )
+            .when( jdbcTemplate ).execute( "drop table if exists " + ROLLUP_TABLE + "_temp" );
+
+        subject.generateRollups();
+
+        assertNull( subject.getStatistics().get( 0 ).getRows() );
+    }
+}
@@ -681,6 +681,12 @@ public class DefaultDataApprovalService
 
         ListMap<String, DataApproval> listMap = getIndexedListMap( dataApprovalList );
 
+        User currentUser = currentUserService.getCurrentUser();
+
+        Map<Integer, DataApprovalLevel> levelMap = dataApprovalLevelService.getDataApprovalLevelMap();
+
+        Map<DataApprovalWorkflow, List<DataApprovalLevel>> userLevelsMap = new HashMap<>();
+
         for ( Map.Entry<String, List<DataApproval>> entry : listMap.entrySet() )
         {
             List<DataApproval> dataApprovals = entry.getValue();
@@ -690,11 +696,12 @@ public class DefaultDataApprovalService
 
             DataApproval da = dataApprovals.get( 0 );
 
+            List<DataApprovalLevel> userLevels = userLevelsMap.computeIfAbsent( da.getWorkflow(),
+                workflow -> dataApprovalLevelService.getUserDataApprovalLevelsOrLowestLevel( currentUser, workflow ) );
+
             List<DataApprovalStatus> statuses = dataApprovalStore.getDataApprovalStatuses( da.getWorkflow(),
                 da.getPeriod(), orgUnits, da.getOrganisationUnit().getHierarchyLevel(), null,
-                getCategoryOptionCombos( dataApprovals ), dataApprovalLevelService
-                    .getUserDataApprovalLevelsOrLowestLevel( currentUserService.getCurrentUser(), da.getWorkflow() ),
-                dataApprovalLevelService.getDataApprovalLevelMap() );
+                getCategoryOptionCombos( dataApprovals ), userLevels, levelMap );
 
             for ( DataApprovalStatus status : statuses )
             {
@@ -712,9 +719,10 @@ public class DefaultDataApprovalService
      * Returns an indexed map where the key is based on each distinct
      * combination of organisation unit level, period, and workflow.
      *
-     * If multiple attributeOptionCombo values are needed for the same
-     * combination of organisation unit level, period, and workflow, then these
-     * are fetched at the same time time, for better performance.
+     * If multiple organisation units or attributeOptionCombo values are needed
+     * for the same combination of organisation unit level, period, and
+     * workflow, then these are fetched at the same time, for better
+     * performance.
      */
     private ListMap<String, DataApproval> getIndexedListMap( List<DataApproval> dataApprovalList )
     {
@@ -729,15 +737,16 @@ public class DefaultDataApprovalService
     }
 
     /**
-     * Returns a key consisting of organisation unit, period, and workflow.
-     * Approval status with these three values in common can be fetched in one
-     * call for many values of attributeOptionCombo.
+     * Returns a key consisting of organisation unit level, period, and
+     * workflow. Approval status with these three values in common can be
+     * fetched in one call for many organisation units and many values of
+     * attributeOptionCombo.
      */
     private String statusKey( DataApproval approval )
     {
         return approval == null ? null
-            : approval.getOrganisationUnit().getId() +
-                IdentifiableObjectUtils.SEPARATOR + approval.getPeriod().getId() +
+            : approval.getOrganisationUnit().getHierarchyLevel() +
+                IdentifiableObjectUtils.SEPARATOR + approval.getPeriod().getIsoDate() +
                 IdentifiableObjectUtils.SEPARATOR + approval.getWorkflow().getId();
     }
 
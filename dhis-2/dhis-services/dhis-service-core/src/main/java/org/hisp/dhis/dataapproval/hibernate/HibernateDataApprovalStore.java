@@ -79,6 +79,8 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * @author Jim Grace
@@ -154,7 +156,7 @@ public class HibernateDataApprovalStore
     @Override
     public void addDataApproval( DataApproval dataApproval )
     {
-        isApprovedCache.invalidateAll();
+        invalidateIsApprovedCache( dataApproval );
 
         dataApproval.setPeriod( periodService.reloadPeriod( dataApproval.getPeriod() ) );
 
@@ -164,7 +166,7 @@ public class HibernateDataApprovalStore
     @Override
     public void updateDataApproval( DataApproval dataApproval )
     {
-        isApprovedCache.invalidateAll();
+        invalidateIsApprovedCache( dataApproval );
 
         dataApproval.setPeriod( periodService.reloadPeriod( dataApproval.getPeriod() ) );
 
@@ -174,7 +176,7 @@ public class HibernateDataApprovalStore
     @Override
     public void deleteDataApproval( DataApproval dataApproval )
     {
-        isApprovedCache.invalidateAll();
+        invalidateIsApprovedCache( dataApproval );
 
         dataApproval.setPeriod( periodService.reloadPeriod( dataApproval.getPeriod() ) );
 
@@ -320,15 +322,26 @@ public class HibernateDataApprovalStore
 
         if ( orgUnits != null )
         {
+            List<OrganisationUnit> visibleOrgUnits = new ArrayList<>();
+
             for ( OrganisationUnit orgUnit : orgUnits )
             {
-                if ( !orgUnit.isDescendant( userOrgUnits ) )
+                if ( orgUnit.isDescendant( userOrgUnits ) )
+                {
+                    visibleOrgUnits.add( orgUnit );
+                }
+                else
                 {
                     log.debug( "User " + user.getUsername() + " can't see orgUnit " + orgUnit.getName() );
-
-                    return new ArrayList<>(); // Unapprovable.
                 }
             }
+
+            if ( visibleOrgUnits.isEmpty() )
+            {
+                return new ArrayList<>(); // Unapprovable.
+            }
+
+            orgUnits = visibleOrgUnits;
         }
 
         // ---------------------------------------------------------------------
@@ -343,6 +356,11 @@ public class HibernateDataApprovalStore
         final String startDate = DateUtils.getMediumDateString( period.getStartDate() );
         final String endDate = DateUtils.getMediumDateString( period.getEndDate() );
 
+        // Approvals are always stored for the workflow period type, so all
+        // approvals relevant for this period are stored for the workflow period
+
+        final int workflowPeriodId = getWorkflowPeriodId( workflow, endDate );
+
         DataApprovalLevel highestApprovalLevel = approvalLevels.get( 0 );
         DataApprovalLevel highestUserApprovalLevel = userApprovalLevels.get( 0 );
 
@@ -427,7 +445,7 @@ public class HibernateDataApprovalStore
         {
             orgUnitIds = StringUtils.join( IdentifiableObjectUtils.getIdentifiers( orgUnits ), "," );
 
-            highestApprovedOrgUnitCompare = "da.organisationunitid in (" + orgUnitIds + ") ";
+            highestApprovedOrgUnitCompare = "da.organisationunitid = o.organisationunitid ";
         }
         else
         {
@@ -460,11 +478,9 @@ public class HibernateDataApprovalStore
             approvedAboveSubquery = "exists ( " +
                 "select 1 " +
                 "from dataapproval da " +
-                "join period p on p.periodid = da.periodid " +
                 "join organisationunit dao on dao.organisationunitid = da.organisationunitid " +
-                "where " + statementBuilder.position( "dao.uid", "o.path" ) + " = "
-                + pathPositionAtLevel( approvedAboveLevel ) + " " +
-                "and '" + endDate + "' >= p.startdate and '" + endDate + "' <= p.enddate " +
+                "where dao.uid = substring(o.path, " + pathPositionAtLevel( approvedAboveLevel ) + ", 11) " +
+                "and da.periodid = " + workflowPeriodId + " " +
                 "and da.dataapprovallevelid = " + approvedAboveLevel.getId() + " " +
                 "and da.workflowid = " + workflow.getId() + " " +
                 "and da.attributeoptioncomboid = coc.categoryoptioncomboid " +
@@ -484,13 +500,12 @@ public class HibernateDataApprovalStore
                 "from organisationunit dao " + // Lower-level Data Approval
                                                // OrgUnit (DAO) where approval
                                                // is needed to be ready.
-                "where " + statementBuilder.position( "o.uid", "dao.path" ) + " = "
-                + pathPositionAtLevel( orgUnitLevel ) + " " +
+                "where dao.path like o.path || '%' " +
                 "and dao.hierarchylevel = " + approvalLevelBelowOrgUnit.getOrgUnitLevel() + " " +
                 "and exists ( " + // Data for this workflow is collected
                                   // somewhere at or below DAO
                 "select 1 from organisationunit child " +
-                "where " + statementBuilder.position( "dao.uid", "child.path" ) + " <> 0 " +
+                "where child.path like dao.path || '%' " +
                 "and child.organisationunitid in ( " +
                 "select distinct sourceid " +
                 "from datasetsource dss " +
@@ -525,10 +540,9 @@ public class HibernateDataApprovalStore
                 "and not exists (" + // Data not approved(/accepted) below where
                                      // it needs to be if ready.
                 "select 1 from dataapproval da " +
-                "join period p on p.periodid = da.periodid " +
                 "where da.organisationunitid = dao.organisationunitid " +
                 "and da.dataapprovallevelid = " + approvalLevelBelowOrgUnit.getId() + " " +
-                "and '" + endDate + "' >= p.startdate and '" + endDate + "' <= p.enddate " +
+                "and da.periodid = " + workflowPeriodId + " " +
                 "and da.workflowid = " + workflow.getId() + " " +
                 "and da.attributeoptioncomboid = coc.categoryoptioncomboid " +
                 (acceptanceRequiredForApproval ? "and da.accepted " : "") +
@@ -545,7 +559,7 @@ public class HibernateDataApprovalStore
             "join dataapprovallevel dal on dal.dataapprovallevelid = da.dataapprovallevelid " +
             highestApprovedOrgUnitJoin +
             "where da.workflowid = " + workflow.getId() + " " +
-            "and da.periodid = " + getWorkflowPeriodId( workflow, endDate ) + " " +
+            "and da.periodid = " + workflowPeriodId + " " +
             "and da.attributeoptioncomboid = coc.categoryoptioncomboid " +
             "and " + highestApprovedOrgUnitCompare + userApprovalLevelRestrictions +
             ") as highest_approved, " +
@@ -678,6 +692,33 @@ public class HibernateDataApprovalStore
         return statusList;
     }
 
+    /**
+     * Invalidates the cached existence of the given data approval, both
+     * immediately and once the current transaction completes, so that the
+     * state of the approval is not cached from before the transaction commits.
+     *
+     * @param dataApproval the data approval which is added, updated or
+     *        deleted.
+     */
+    private void invalidateIsApprovedCache( DataApproval dataApproval )
+    {
+        final String key = dataApproval.getCacheKey();
+
+        isApprovedCache.invalidate( key );
+
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization()
+            {
+                @Override
+                public void afterCompletion( int status )
+                {
+                    isApprovedCache.invalidate( key );
+                }
+            } );
+        }
+    }
+
     /**
      * Get the id for the workflow period that spans the given end date. The
      * workflow period may or may not be the same as the period for which we are
@@ -33,13 +33,16 @@ import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
+import org.hisp.dhis.dataintegrity.DataIntegrityService;
 import org.hisp.dhis.metadata.version.MetadataVersionService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * @author Stian Sandvold
@@ -48,6 +51,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class DefaultKeyJsonValueService
     implements KeyJsonValueService
 {
+    /**
+     * Namespaces which are managed by the system and which can only be read by
+     * super users and not be modified through the generic datastore API.
+     */
+    private static final Set<String> PROTECTED_NAMESPACES = ImmutableSet.of(
+        MetadataVersionService.METADATASTORE, DataIntegrityService.NAMESPACE );
+
     private final KeyJsonValueStore keyJsonValueStore;
 
     private final ObjectMapper jsonMapper;
@@ -71,7 +81,7 @@ public class DefaultKeyJsonValueService
         List<String> namespaces = keyJsonValueStore.getNamespaces();
         if ( !isAdmin )
         {
-            namespaces.remove( MetadataVersionService.METADATASTORE );
+            namespaces.removeAll( PROTECTED_NAMESPACES );
         }
 
         return namespaces;
@@ -81,7 +91,7 @@ public class DefaultKeyJsonValueService
     @Transactional( readOnly = true )
     public List<String> getKeysInNamespace( String namespace, Date lastUpdated, boolean isAdmin )
     {
-        if ( !isAdmin && MetadataVersionService.METADATASTORE.equals( namespace ) )
+        if ( !isAdmin && isProtectedNamespace( namespace ) )
         {
             return Collections.emptyList();
         }
@@ -93,7 +103,7 @@ public class DefaultKeyJsonValueService
     @Transactional( readOnly = true )
     public KeyJsonValue getKeyJsonValue( String namespace, String key, boolean isAdmin )
     {
-        if ( !isAdmin && MetadataVersionService.METADATASTORE.equals( namespace ) )
+        if ( !isAdmin && isProtectedNamespace( namespace ) )
         {
             return null;
         }
@@ -105,7 +115,7 @@ public class DefaultKeyJsonValueService
     @Transactional( readOnly = true )
     public List<KeyJsonValue> getKeyJsonValuesInNamespace( String namespace, boolean isAdmin )
     {
-        if ( !isAdmin && MetadataVersionService.METADATASTORE.equals( namespace ) )
+        if ( !isAdmin && isProtectedNamespace( namespace ) )
         {
             return Collections.emptyList();
         }
@@ -113,11 +123,58 @@ public class DefaultKeyJsonValueService
         return keyJsonValueStore.getKeyJsonValueByNamespace( namespace );
     }
 
+    @Override
+    @Transactional( readOnly = true )
+    public List<KeyJsonValueEntry> getEntries( KeyJsonValueQuery query, boolean isAdmin )
+    {
+        if ( !isAdmin && isProtectedNamespace( query.getNamespace() ) )
+        {
+            return Collections.emptyList();
+        }
+
+        return keyJsonValueStore.getEntries( query );
+    }
+
+    @Override
+    @Transactional( readOnly = true )
+    public long countEntries( KeyJsonValueQuery query, boolean isAdmin )
+    {
+        if ( !isAdmin && isProtectedNamespace( query.getNamespace() ) )
+        {
+            return 0;
+        }
+
+        return keyJsonValueStore.countEntries( query );
+    }
+
+    /**
+     * Not transactional, indexes are created concurrently which is not
+     * possible within a transaction block.
+     */
+    @Override
+    public void createIndex( String namespace, String path )
+    {
+        keyJsonValueStore.createIndex( namespace, path );
+    }
+
+    @Override
+    public void dropIndex( String namespace, String path )
+    {
+        keyJsonValueStore.dropIndex( namespace, path );
+    }
+
+    @Override
+    @Transactional( readOnly = true )
+    public List<String> getIndexes( String namespace )
+    {
+        return keyJsonValueStore.getIndexes( namespace );
+    }
+
     @Override
     @Transactional
     public Long addKeyJsonValue( KeyJsonValue keyJsonValue )
     {
-        if ( MetadataVersionService.METADATASTORE.equals( keyJsonValue.getNamespace() ) )
+        if ( isProtectedNamespace( keyJsonValue.getNamespace() ) )
         {
             return null;
         }
@@ -131,7 +188,7 @@ public class DefaultKeyJsonValueService
     @Transactional
     public void updateKeyJsonValue( KeyJsonValue keyJsonValue )
     {
-        if ( MetadataVersionService.METADATASTORE.equals( keyJsonValue.getNamespace() ) )
+        if ( isProtectedNamespace( keyJsonValue.getNamespace() ) )
         {
             return;
         }
@@ -143,7 +200,7 @@ public class DefaultKeyJsonValueService
     @Transactional
     public void deleteNamespace( String namespace )
     {
-        if ( MetadataVersionService.METADATASTORE.equals( namespace ) )
+        if ( isProtectedNamespace( namespace ) )
         {
             return;
         }
@@ -155,7 +212,7 @@ public class DefaultKeyJsonValueService
     @Transactional
     public void deleteKeyJsonValue( KeyJsonValue keyJsonValue )
     {
-        if ( MetadataVersionService.METADATASTORE.equals( keyJsonValue.getNamespace() ) )
+        if ( isProtectedNamespace( keyJsonValue.getNamespace() ) )
         {
             return;
         }
@@ -223,4 +280,13 @@ public class DefaultKeyJsonValueService
             throw new UncheckedIOException( ex );
         }
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private boolean isProtectedNamespace( String namespace )
+    {
+        return PROTECTED_NAMESPACES.contains( namespace );
+    }
 }
@@ -27,8 +27,12 @@
  */
 package org.hisp.dhis.keyjsonvalue.hibernate;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import javax.persistence.criteria.CriteriaBuilder;
 
@@ -36,13 +40,22 @@ import org.hibernate.SessionFactory;
 import org.hibernate.query.Query;
 import org.hisp.dhis.common.hibernate.HibernateIdentifiableObjectStore;
 import org.hisp.dhis.keyjsonvalue.KeyJsonValue;
-import org.hisp.dhis.keyjsonvalue.KeyJsonValueStore;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueEntry;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQuery;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQuery.Filter;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQuery.Order;
+import org.hisp.dhis.query.JpaQueryUtils;
 import org.hisp.dhis.security.acl.AclService;
 import org.hisp.dhis.user.CurrentUserService;
+import org.hisp.dhis.user.User;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 /**
  * @author Stian Sandvold
  */
@@ -51,6 +64,14 @@ public class HibernateKeyJsonValueStore
     extends HibernateIdentifiableObjectStore<KeyJsonValue>
     implements KeyJsonValueStore
 {
+    private static final Pattern NUMBER = Pattern.compile( "-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?" );
+
+    private static final Pattern INDEX = Pattern.compile( "\\d+" );
+
+    private static final String INDEX_PREFIX = "in_keyjsonvalue_";
+
+    private static final String INDEX_PATTERN = INDEX_PREFIX.replace( "_", "\\_" ) + "%";
+
     public HibernateKeyJsonValueStore( SessionFactory sessionFactory, JdbcTemplate jdbcTemplate,
         ApplicationEventPublisher publisher, CurrentUserService currentUserService, AclService aclService )
     {
@@ -113,4 +134,354 @@ public class HibernateKeyJsonValueStore
             .addPredicate( root -> builder.equal( root.get( "namespace" ), namespace ) )
             .addPredicate( root -> builder.equal( root.get( "key" ), key ) ) );
     }
+
+    @Override
+    public List<KeyJsonValueEntry> getEntries( KeyJsonValueQuery query )
+    {
+        List<Object> args = new ArrayList<>();
+
+        String sql = "select namespacekey, " + getValueExpression( query ) + "::text from keyjsonvalue "
+            + getWhereClause( query, args )
+            + getOrderClause( query )
+            + " limit ? offset ?";
+
+        args.add( query.getPageSize() );
+        args.add( query.getOffset() );
+
+        return jdbcTemplate.query( sql, args.toArray(),
+            ( rs, rowNum ) -> new KeyJsonValueEntry( rs.getString( 1 ), rs.getString( 2 ) ) );
+    }
+
+    @Override
+    public long countEntries( KeyJsonValueQuery query )
+    {
+        List<Object> args = new ArrayList<>();
+
+        String sql = "select count(*) from keyjsonvalue " + getWhereClause( query, args );
+
+        Long count = jdbcTemplate.queryForObject( sql, args.toArray(), Long.class );
+
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Index names are derived from hashes of the namespace and path, which
+     * may collide. The namespace and path an index was created for are
+     * therefore recorded as a JSON comment on the index, and indexes are
+     * always looked up by that comment rather than by name.
+     * <p>
+     * A path is indexed by two expression indexes. The jsonb expression
+     * serves equality, numeric comparison and sorting, the text expression
+     * serves text comparison. Like filters match anywhere in the value and
+     * can therefore not be served by either.
+     */
+    @Override
+    public void createIndex( String namespace, String path )
+    {
+        if ( !getIndexNames( namespace, path ).isEmpty() )
+        {
+            return;
+        }
+
+        if ( path == null )
+        {
+            createIndex( namespace, null, "using gin (jbvalue jsonb_path_ops)" );
+        }
+        else
+        {
+            createIndex( namespace, path, "((" + toPath( path ) + "))" );
+            createIndex( namespace, path, "((" + toTextPath( path ) + "))" );
+        }
+    }
+
+    @Override
+    public void dropIndex( String namespace, String path )
+    {
+        for ( String name : getIndexNames( namespace, path ) )
+        {
+            jdbcTemplate.execute( "drop index concurrently if exists " + name );
+        }
+    }
+
+    @Override
+    public List<String> getIndexes( String namespace )
+    {
+        String sql = "select i.indexdef from pg_indexes i " + getIndexJoin()
+            + "and obj_description(c.oid, 'pg_class')::jsonb ->> 'namespace' = ? order by i.indexname";
+
+        return jdbcTemplate.queryForList( sql, String.class, INDEX_PATTERN, namespace );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private String getValueExpression( KeyJsonValueQuery query )
+    {
+        if ( !query.isProjection() )
+        {
+            return "jbvalue";
+        }
+
+        return query.getFields().stream()
+            .map( field -> "'" + field + "', " + toPath( field ) )
+            .collect( Collectors.joining( ", ", "jsonb_build_object(", ")" ) );
+    }
+
+    private String getWhereClause( KeyJsonValueQuery query, List<Object> args )
+    {
+        StringBuilder sql = new StringBuilder( "where namespace = ? and encrypted is not true" );
+        args.add( query.getNamespace() );
+
+        User user = currentUserService.getCurrentUser();
+
+        if ( user != null && !user.isSuper() )
+        {
+            sql.append( " and (" )
+                .append( JpaQueryUtils.generateSQlQueryForSharingCheck( "sharing", user,
+                    AclService.LIKE_READ_METADATA ) )
+                .append( ")" );
+        }
+
+        for ( Filter filter : query.getFilters() )
+        {
+            sql.append( " and " ).append( getFilterCondition( filter, args ) );
+        }
+
+        return sql.toString();
+    }
+
+    /**
+     * Equality is expressed as jsonb containment where possible, as that is
+     * the operator supported by the GIN index created by
+     * {@link #createIndex(String, String)}. Equality and comparisons are also
+     * expressed on the path expressions themselves, so that they can be served
+     * by the path indexes.
+     */
+    static String getFilterCondition( Filter filter, List<Object> args )
+    {
+        String path = toPath( filter.getPath() );
+        String textPath = toTextPath( filter.getPath() );
+        String value = filter.getValue();
+
+        switch ( filter.getOperator() )
+        {
+        case EQ:
+            String json = toJson( value ).toString();
+
+            if ( filter.getSegments().stream().anyMatch( s -> INDEX.matcher( s ).matches() ) )
+            {
+                args.add( json );
+                return path + " = ?::jsonb";
+            }
+
+            args.add( toContainment( filter.getSegments(), toJson( value ) ).toString() );
+            args.add( json );
+            return "jbvalue @> ?::jsonb and " + path + " = ?::jsonb";
+        case NEQ:
+            if ( filter.getSegments().stream().anyMatch( s -> INDEX.matcher( s ).matches() ) )
+            {
+                args.add( toJson( value ).toString() );
+                return "not coalesce(" + path + " = ?::jsonb, false)";
+            }
+
+            args.add( toContainment( filter.getSegments(), toJson( value ) ).toString() );
+            return "not jbvalue @> ?::jsonb";
+        case GT:
+        case GE:
+        case LT:
+        case LE:
+            String operator = getComparisonOperator( filter.getOperator() );
+
+            // jsonb orders numbers numerically, but booleans, arrays and
+            // objects after numbers, hence the type check
+
+            if ( NUMBER.matcher( value ).matches() )
+            {
+                args.add( new BigDecimal( value ).toString() );
+                return "jsonb_typeof(" + path + ") = 'number' and " + path + " " + operator + " ?::jsonb";
+            }
+
+            args.add( value );
+            return textPath + " " + operator + " ?";
+        case LIKE:
+        case NLIKE:
+        case ILIKE:
+        case NILIKE:
+            args.add( "%" + value + "%" );
+            return textPath + " " + getComparisonOperator( filter.getOperator() ) + " ?";
+        case NULL:
+            return "coalesce(jsonb_typeof(" + path + "), 'null') = 'null'";
+        case NNULL:
+            return "coalesce(jsonb_typeof(" + path + "), 'null') <> 'null'";
+        default:
+            throw new IllegalArgumentException( "Unsupported operator: " + filter.getOperator() );
+        }
+    }
+
+    private static String getComparisonOperator( KeyJsonValueQuery.Operator operator )
+    {
+        switch ( operator )
+        {
+        case GT:
+            return ">";
+        case GE:
+            return ">=";
+        case LT:
+            return "<";
+        case LE:
+            return "<=";
+        case LIKE:
+            return "like";
+        case NLIKE:
+            return "not like";
+        case ILIKE:
+            return "ilike";
+        default:
+            return "not ilike";
+        }
+    }
+
+    private String getOrderClause( KeyJsonValueQuery query )
+    {
+        StringBuilder sql = new StringBuilder( " order by " );
+
+        for ( Order order : query.getOrders() )
+        {
+            sql.append( toPath( order.getPath() ) ).append( order.isAscending() ? " asc, " : " desc, " );
+        }
+
+        return sql.append( "namespacekey" ).toString();
+    }
+
+    /**
+     * Path segments are validated by {@link KeyJsonValueQuery#toSegments} and
+     * can therefore be inlined. Postgres only uses an expression index for
+     * conditions and sort orders on the identical expression, which would
+     * not be the case for a bound path.
+     */
+    private static String toPath( String path )
+    {
+        return "jbvalue #> '" + toPathLiteral( path ) + "'";
+    }
+
+    /**
+     * @see #toPath(String)
+     */
+    private static String toTextPath( String path )
+    {
+        return "jbvalue #>> '" + toPathLiteral( path ) + "'";
+    }
+
+    private static String toPathLiteral( String path )
+    {
+        return "{" + String.join( ",", KeyJsonValueQuery.toSegments( path ) ) + "}";
+    }
+
+    /**
+     * Interprets a filter value as JSON. Numbers, booleans and null are
+     * matched by their JSON type, anything else as a string. Values in double
+     * quotes are always matched as strings.
+     */
+    private static JsonNode toJson( String value )
+    {
+        JsonNodeFactory factory = JsonNodeFactory.instance;
+
+        if ( value.length() > 1 && value.startsWith( "\"" ) && value.endsWith( "\"" ) )
+        {
+            return factory.textNode( value.substring( 1, value.length() - 1 ) );
+        }
+        else if ( "true".equals( value ) || "false".equals( value ) )
+        {
+            return factory.booleanNode( Boolean.parseBoolean( value ) );
+        }
+        else if ( "null".equals( value ) )
+        {
+            return factory.nullNode();
+        }
+        else if ( NUMBER.matcher( value ).matches() )
+        {
+            return factory.numberNode( new BigDecimal( value ) );
+        }
+
+        return factory.textNode( value );
+    }
+
+    private static JsonNode toContainment( List<String> segments, JsonNode value )
+    {
+        JsonNode node = value;
+
+        for ( int i = segments.size() - 1; i >= 0; i-- )
+        {
+            ObjectNode parent = JsonNodeFactory.instance.objectNode();
+            parent.set( segments.get( i ), node );
+            node = parent;
+        }
+
+        return node;
+    }
+
+    private void createIndex( String namespace, String path, String expression )
+    {
+        String name = getIndexName( namespace, path );
+
+        for ( int i = 1; isRelationExisting( name ); i++ )
+        {
+            name = getIndexName( namespace, path ) + "_" + i;
+        }
+
+        jdbcTemplate.execute( "create index concurrently " + name + " on keyjsonvalue " + expression
+            + " where namespace = " + toLiteral( namespace ) );
+
+        jdbcTemplate.execute( "comment on index " + name + " is " + toLiteral( getIndexComment( namespace, path ) ) );
+    }
+
+    private List<String> getIndexNames( String namespace, String path )
+    {
+        String sql = "select i.indexname from pg_indexes i " + getIndexJoin()
+            + "and obj_description(c.oid, 'pg_class')::jsonb ->> 'namespace' = ? "
+            + "and obj_description(c.oid, 'pg_class')::jsonb ->> 'path' is not distinct from ?::text";
+
+        return jdbcTemplate.queryForList( sql, String.class, INDEX_PATTERN, namespace, path );
+    }
+
+    private boolean isRelationExisting( String name )
+    {
+        Long count = jdbcTemplate.queryForObject( "select count(*) from pg_class where relname = ?", Long.class,
+            name );
+
+        return count != null && count > 0;
+    }
+
+    /**
+     * Only indexes named with {@link #INDEX_PREFIX} are considered, as only
+     * those carry a JSON comment. The underscores of the prefix are escaped
+     * so that they are not treated as single character wildcards.
+     */
+    private static String getIndexJoin()
+    {
+        return "inner join pg_namespace n on n.nspname = i.schemaname "
+            + "inner join pg_class c on c.relname = i.indexname and c.relnamespace = n.oid "
+            + "where i.tablename = 'keyjsonvalue' and i.indexname like ? ";
+    }
+
+    private static String getIndexName( String namespace, String path )
+    {
+        String name = INDEX_PREFIX + Integer.toHexString( namespace.hashCode() ) + "_";
+
+        return path == null ? name + "gin" : name + Integer.toHexString( path.hashCode() );
+    }
+
+    private static String getIndexComment( String namespace, String path )
+    {
+        return JsonNodeFactory.instance.objectNode()
+            .put( "namespace", namespace )
+            .put( "path", path )
+            .toString();
+    }
+
+    private static String toLiteral( String value )
+    {
+        return "'" + value.replace( "'", "''" ) + "'";
+    }
 }
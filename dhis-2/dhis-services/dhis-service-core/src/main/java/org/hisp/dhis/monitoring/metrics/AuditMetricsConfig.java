@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.monitoring.metrics;
+
+import static org.hisp.dhis.external.conf.ConfigurationKey.MONITORING_AUDIT_ENABLED;
+
+import java.util.function.ToDoubleFunction;
+
+import org.hisp.dhis.artemis.audit.AuditScheduler;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Exposes the statistics of the in-memory Audit queue
+ * ({@link AuditScheduler}).
+ */
+@Configuration
+@Conditional( AuditMetricsConfig.AuditMetricsEnabledCondition.class )
+public class AuditMetricsConfig
+{
+    private static final String PREFIX = "audit.queue.";
+
+    @Autowired
+    public void bindToRegistry( MeterRegistry registry, AuditScheduler auditScheduler )
+    {
+        Gauge.builder( PREFIX + "size", auditScheduler, AuditScheduler::getQueueSize )
+            .description( "The number of Audit messages waiting to be dispatched" )
+            .register( registry );
+
+        Gauge.builder( PREFIX + "latency.max", auditScheduler, AuditScheduler::getMaxLatency )
+            .description( "The longest time an Audit message spent in the queue" )
+            .baseUnit( "milliseconds" )
+            .register( registry );
+
+        counter( registry, "enqueued", auditScheduler, AuditScheduler::getEnqueuedCount,
+            "The number of Audit messages added to the queue" );
+        counter( registry, "deduplicated", auditScheduler, AuditScheduler::getDeduplicatedCount,
+            "The number of Audit messages discarded as duplicates of a queued message" );
+        counter( registry, "dropped", auditScheduler, AuditScheduler::getDroppedCount,
+            "The number of Audit messages dropped because the queue was full" );
+        counter( registry, "published", auditScheduler, AuditScheduler::getPublishedCount,
+            "The number of Audit messages sent to the message broker" );
+        counter( registry, "failed", auditScheduler, AuditScheduler::getFailedCount,
+            "The number of Audit messages that could not be sent to the message broker" );
+        counter( registry, "latency.total", auditScheduler, AuditScheduler::getTotalLatency,
+            "The total time in milliseconds dispatched Audit messages spent in the queue" );
+    }
+
+    private void counter( MeterRegistry registry, String name, AuditScheduler auditScheduler,
+        ToDoubleFunction<AuditScheduler> function, String description )
+    {
+        FunctionCounter.builder( PREFIX + name, auditScheduler, function )
+            .description( description )
+            .register( registry );
+    }
+
+    static class AuditMetricsEnabledCondition
+        extends
+        MetricsEnabler
+    {
+        @Override
+        protected ConfigurationKey getConfigKey()
+        {
+            return MONITORING_AUDIT_ENABLED;
+        }
+    }
+}
@@ -72,6 +72,8 @@ public class DefaultReservedValueService
 
     private final ValueGeneratorService valueGeneratorService;
 
+    private final ReservedValuePool reservedValuePool;
+
     @Override
     @Transactional
     public List<ReservedValue> reserve( TrackedEntityAttribute trackedEntityAttribute, int numberOfReservations,
@@ -126,6 +128,13 @@ public class DefaultReservedValueService
 
             reservedValue.setTrackedEntityAttributeId( trackedEntityAttribute.getId() );
 
+            if ( isPersistable && reservedValuePool.isEnabled() )
+            {
+                resultList.addAll( reservedValuePool.reserve( reservedValue, numberOfReservations ) );
+
+                numberOfValuesLeftToGenerate = numberOfReservations - resultList.size();
+            }
+
             try
             {
                 List<String> generatedValues = new ArrayList<>();
@@ -141,8 +150,8 @@ public class DefaultReservedValueService
                     List<String> resolvedPatterns = getResolvedPatterns( values, textPattern,
                         generatedSegment, generatedValues );
 
-                    saveGeneratedValues( numberOfReservations, resultList, textPattern, reservedValue, isPersistable,
-                        resolvedPatterns );
+                    saveGeneratedValues( numberOfValuesLeftToGenerate, resultList, textPattern, reservedValue,
+                        isPersistable, resolvedPatterns );
 
                     numberOfValuesLeftToGenerate = numberOfReservations - resultList.size();
 
@@ -273,4 +282,11 @@ public class DefaultReservedValueService
     {
         reservedValueStore.removeUsedOrExpiredReservations();
     }
+
+    @Override
+    @Transactional
+    public void refillReservedValuePools()
+    {
+        reservedValuePool.refill();
+    }
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.reservedvalue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.textpattern.TextPattern;
+import org.hisp.dhis.textpattern.TextPatternSegment;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.joda.time.DateTime;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool of pre-generated, pre-verified unique values for tracked entity
+ * attributes with a generated (RANDOM) text pattern, per attribute and
+ * resolved pattern key. Reservations take values from the pool in a single
+ * statement, so that reservation latency does not grow with the collision rate
+ * of the pattern. Pools are topped up to the configured size (config key:
+ * reserved.value.pool.size) by {@link RefillReservedValuePoolsJob}, the pool is
+ * disabled when the size is 0.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservedValuePool
+{
+    /**
+     * Number of days after which pools which have not been requested are
+     * removed.
+     */
+    private static final int IDLE_POOL_DAYS = 7;
+
+    private final ReservedValueStore reservedValueStore;
+
+    private final ValueGeneratorService valueGeneratorService;
+
+    private final IdentifiableObjectManager manager;
+
+    private final DhisConfigurationProvider config;
+
+    public boolean isEnabled()
+    {
+        return getTargetSize() > 0;
+    }
+
+    /**
+     * Reserves up to the given number of values from the pool of the owner and
+     * key of the given reserved value, and registers the key for refills.
+     *
+     * @param reservedValue the reserved value holding owner, key, tracked
+     *        entity attribute id and expiry date.
+     * @param numberOfValues the max number of values to reserve.
+     * @return the reserved values, which might be fewer than requested.
+     */
+    public List<ReservedValue> reserve( ReservedValue reservedValue, int numberOfValues )
+    {
+        if ( !isEnabled() )
+        {
+            return Collections.emptyList();
+        }
+
+        reservedValueStore.registerPoolKey( reservedValue );
+
+        return reservedValueStore.reserveValuesFromPool( reservedValue, numberOfValues );
+    }
+
+    /**
+     * Tops up all pools requested recently to the configured size, and removes
+     * pools which have not been requested for a while.
+     */
+    public void refill()
+    {
+        if ( !isEnabled() )
+        {
+            return;
+        }
+
+        Date requestedSince = new DateTime().minusDays( IDLE_POOL_DAYS ).toDate();
+
+        reservedValueStore.removeIdlePools( requestedSince );
+
+        for ( ReservedValue poolKey : reservedValueStore.getPoolKeys( requestedSince ) )
+        {
+            try
+            {
+                refill( poolKey );
+            }
+            catch ( ReserveValueException | ExecutionException ex )
+            {
+                log.warn( String.format( "Could not refill reserved value pool for %s with uid %s and key %s: %s",
+                    poolKey.getOwnerObject(), poolKey.getOwnerUid(), poolKey.getKey(), ex.getMessage() ) );
+            }
+            catch ( InterruptedException ex )
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void refill( ReservedValue poolKey )
+        throws ReserveValueException,
+        ExecutionException,
+        InterruptedException
+    {
+        TrackedEntityAttribute attribute = manager.get( TrackedEntityAttribute.class, poolKey.getOwnerUid() );
+
+        if ( attribute == null || !Boolean.TRUE.equals( attribute.isGenerated() )
+            || attribute.getTextPattern() == null )
+        {
+            return;
+        }
+
+        TextPattern textPattern = attribute.getTextPattern();
+
+        TextPatternSegment generatedSegment = textPattern.getSegments().stream()
+            .filter( segment -> segment.getMethod().isGenerated() && segment.getMethod().isPersistable() )
+            .findFirst()
+            .orElse( null );
+
+        if ( generatedSegment == null || !poolKey.getKey().contains( generatedSegment.getRawSegment() ) )
+        {
+            return;
+        }
+
+        int missing = getTargetSize() - reservedValueStore.getPoolSize( poolKey.getOwnerUid(), poolKey.getKey() );
+
+        if ( missing <= 0 )
+        {
+            return;
+        }
+
+        List<String> candidates = valueGeneratorService
+            .generateValues( generatedSegment, textPattern, poolKey.getKey(), missing ).stream()
+            .map( value -> resolve( poolKey.getKey(), generatedSegment, value ) )
+            .distinct()
+            .collect( Collectors.toCollection( ArrayList::new ) );
+
+        ReservedValue template = poolKey.toBuilder()
+            .trackedEntityAttributeId( attribute.getId() )
+            .build();
+
+        List<String> available = reservedValueStore
+            .getAvailableValues( template, candidates, template.getOwnerObject() ).stream()
+            .map( ReservedValue::getValue )
+            .collect( Collectors.toList() );
+
+        reservedValueStore.addValuesToPool( template, available );
+
+        log.debug( String.format( "Added %d values to reserved value pool for uid %s and key %s",
+            available.size(), poolKey.getOwnerUid(), poolKey.getKey() ) );
+    }
+
+    /**
+     * Resolves the given generated value into the key, the same way the text
+     * pattern service resolves the generated segment.
+     */
+    private String resolve( String key, TextPatternSegment generatedSegment, String value )
+    {
+        String formatted = generatedSegment.getMethod().getType()
+            .getFormattedText( generatedSegment.getParameter(), value );
+
+        return key.replaceFirst( Pattern.quote( generatedSegment.getRawSegment() ),
+            Matcher.quoteReplacement( formatted ) );
+    }
+
+    private int getTargetSize()
+    {
+        return Integer.parseInt( config.getProperty( ConfigurationKey.RESERVED_VALUE_POOL_SIZE ) );
+    }
+}
@@ -30,6 +30,7 @@ package org.hisp.dhis.reservedvalue.hibernate;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.hisp.dhis.common.Objects.TRACKEDENTITYATTRIBUTE;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -169,6 +170,9 @@ public class HibernateReservedValueStore
         getQuery( "DELETE FROM ReservedValue WHERE owneruid = :uid" )
             .setParameter( "uid", uid )
             .executeUpdate();
+
+        jdbcTemplate.update( "delete from reservedvaluepool where owneruid = ?", uid );
+        jdbcTemplate.update( "delete from reservedvaluepoolkey where owneruid = ?", uid );
     }
 
     @Override
@@ -200,4 +204,83 @@ public class HibernateReservedValueStore
 
         log.info( "... Completed deleting expired or used reserved values" );
     }
+
+    @Override
+    public List<ReservedValue> reserveValuesFromPool( ReservedValue reservedValue, int numberOfValues )
+    {
+        final String sql = "with pooled as (" +
+            "delete from reservedvaluepool where reservedvaluepoolid in (" +
+            "select reservedvaluepoolid from reservedvaluepool where owneruid = ? and key = ? " +
+            "order by reservedvaluepoolid limit ? for update skip locked) " +
+            "returning value), " +
+            "unused as (" +
+            "select p.value from pooled p where not exists (" +
+            "select 1 from trackedentityattributevalue teav " +
+            "where teav.trackedentityattributeid = ? and lower(teav.value) = lower(p.value))) " +
+            "insert into reservedvalue (reservedvalueid, ownerobject, owneruid, key, value, expirydate, created) " +
+            "select nextval('reservedvalue_sequence'), ?, ?, ?, value, ?, now() from unused " +
+            "on conflict do nothing " +
+            "returning value";
+
+        List<String> values = jdbcTemplate.queryForList( sql, String.class,
+            reservedValue.getOwnerUid(), reservedValue.getKey(), numberOfValues,
+            reservedValue.getTrackedEntityAttributeId(),
+            reservedValue.getOwnerObject(), reservedValue.getOwnerUid(), reservedValue.getKey(),
+            reservedValue.getExpiryDate() );
+
+        return values.stream()
+            .map( value -> reservedValue.toBuilder().value( value ).build() ).collect( Collectors.toList() );
+    }
+
+    @Override
+    public void addValuesToPool( ReservedValue reservedValue, List<String> values )
+    {
+        final String sql = "insert into reservedvaluepool (owneruid, key, value, created) values (?, ?, ?, now()) " +
+            "on conflict do nothing";
+
+        jdbcTemplate.batchUpdate( sql, values.stream()
+            .map( value -> new Object[] { reservedValue.getOwnerUid(), reservedValue.getKey(), value } )
+            .collect( Collectors.toList() ) );
+    }
+
+    @Override
+    public int getPoolSize( String ownerUid, String key )
+    {
+        Integer count = jdbcTemplate.queryForObject(
+            "select count(*) from reservedvaluepool where owneruid = ? and key = ?", Integer.class, ownerUid, key );
+
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public void registerPoolKey( ReservedValue reservedValue )
+    {
+        final String sql = "insert into reservedvaluepoolkey (ownerobject, owneruid, key, lastrequested) " +
+            "values (?, ?, ?, now()) " +
+            "on conflict (owneruid, key) do update set lastrequested = excluded.lastrequested";
+
+        jdbcTemplate.update( sql, reservedValue.getOwnerObject(), reservedValue.getOwnerUid(),
+            reservedValue.getKey() );
+    }
+
+    @Override
+    public List<ReservedValue> getPoolKeys( Date requestedSince )
+    {
+        return jdbcTemplate.query(
+            "select ownerobject, owneruid, key from reservedvaluepoolkey where lastrequested >= ?",
+            ( rs, rowNum ) -> ReservedValue.builder()
+                .ownerObject( rs.getString( "ownerobject" ) )
+                .ownerUid( rs.getString( "owneruid" ) )
+                .key( rs.getString( "key" ) )
+                .build(),
+            requestedSince );
+    }
+
+    @Override
+    public void removeIdlePools( Date requestedSince )
+    {
+        jdbcTemplate.update( "delete from reservedvaluepool p using reservedvaluepoolkey k " +
+            "where p.owneruid = k.owneruid and p.key = k.key and k.lastrequested < ?", requestedSince );
+        jdbcTemplate.update( "delete from reservedvaluepoolkey where lastrequested < ?", requestedSince );
+    }
 }
@@ -61,6 +61,10 @@ public class SchedulerStart extends AbstractStartupRoutine
 
     private final String CRON_DAILY_7AM = "0 0 7 ? * *";
 
+    private final String CRON_EVERY_5_MINUTES = "0 0/5 * * * *";
+
+    private final String CRON_HOURLY = "0 0 * ? * *";
+
     private final String LEADER_JOB_CRON_FORMAT = "0 0/%s * * * *";
 
     private final String DEFAULT_FILE_RESOURCE_CLEANUP_UID = "pd6O228pqr0";
@@ -87,6 +91,18 @@ public class SchedulerStart extends AbstractStartupRoutine
 
     private final String DEFAULT_REMOVE_EXPIRED_OR_USED_RESERVED_VALUES = "Remove expired or used reserved values";
 
+    private final String DEFAULT_REFILL_RESERVED_VALUE_POOLS_UID = "Rv8pQzLh3Ke";
+
+    private final String DEFAULT_REFILL_RESERVED_VALUE_POOLS = "Refill reserved value pools";
+
+    private final String DEFAULT_OUTLIER_STATISTICS_UID = "Hw7Qk1Lm2sZ";
+
+    private final String DEFAULT_OUTLIER_STATISTICS = "Outlier statistics";
+
+    private final String DEFAULT_TRACKED_ENTITY_ATTRIBUTE_SEARCH_INDEX_UID = "Tq4Xs8Nb1Wd";
+
+    private final String DEFAULT_TRACKED_ENTITY_ATTRIBUTE_SEARCH_INDEX = "Tracked entity attribute search index";
+
     private final String DEFAULT_LEADER_ELECTION_UID = "MoUd5BTQ3lY";
 
     private final String DEFAULT_LEADER_ELECTION = "Leader election in cluster";
@@ -227,6 +243,34 @@ public class SchedulerStart extends AbstractStartupRoutine
             addAndScheduleJob( removeExpiredReservedValues );
         }
 
+        if ( verifyNoJobExist( DEFAULT_REFILL_RESERVED_VALUE_POOLS, jobConfigurations ) )
+        {
+            JobConfiguration refillReservedValuePools = new JobConfiguration(
+                DEFAULT_REFILL_RESERVED_VALUE_POOLS,
+                REFILL_RESERVED_VALUE_POOLS, CRON_EVERY_5_MINUTES, null );
+            refillReservedValuePools.setLeaderOnlyJob( true );
+            refillReservedValuePools.setUid( DEFAULT_REFILL_RESERVED_VALUE_POOLS_UID );
+            addAndScheduleJob( refillReservedValuePools );
+        }
+
+        if ( verifyNoJobExist( DEFAULT_OUTLIER_STATISTICS, jobConfigurations ) )
+        {
+            JobConfiguration outlierStatistics = new JobConfiguration( DEFAULT_OUTLIER_STATISTICS,
+                OUTLIER_STATISTICS, CRON_HOURLY, null );
+            outlierStatistics.setLeaderOnlyJob( true );
+            outlierStatistics.setUid( DEFAULT_OUTLIER_STATISTICS_UID );
+            addAndScheduleJob( outlierStatistics );
+        }
+
+        if ( verifyNoJobExist( DEFAULT_TRACKED_ENTITY_ATTRIBUTE_SEARCH_INDEX, jobConfigurations ) )
+        {
+            JobConfiguration searchIndex = new JobConfiguration( DEFAULT_TRACKED_ENTITY_ATTRIBUTE_SEARCH_INDEX,
+                TRACKED_ENTITY_ATTRIBUTE_SEARCH_INDEX, CRON_DAILY_2AM, null );
+            searchIndex.setLeaderOnlyJob( true );
+            searchIndex.setUid( DEFAULT_TRACKED_ENTITY_ATTRIBUTE_SEARCH_INDEX_UID );
+            addAndScheduleJob( searchIndex );
+        }
+
         if ( verifyNoJobExist( DEFAULT_LEADER_ELECTION, jobConfigurations ) && "true".equalsIgnoreCase( redisEnabled ) )
         {
             JobConfiguration leaderElectionJobConfiguration = new JobConfiguration( DEFAULT_LEADER_ELECTION,
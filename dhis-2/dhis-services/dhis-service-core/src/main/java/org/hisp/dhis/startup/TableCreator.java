@@ -63,9 +63,6 @@ public class TableCreator
         createSilently(
             "create index in_datavalueaudit on datavalueaudit(dataelementid,periodid,organisationunitid,categoryoptioncomboid,attributeoptioncomboid)",
             "in_datavalueaudit" );
-        createSilently(
-            "create index in_trackedentityattributevalue_attributeid on trackedentityattributevalue(trackedentityattributeid)",
-            "in_trackedentityattributevalue_attributeid" );
     }
 
     private void createSilently( final String sql, final String name )
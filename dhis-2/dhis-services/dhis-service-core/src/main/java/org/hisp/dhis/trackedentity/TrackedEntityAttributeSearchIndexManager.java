@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.trackedentity;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.common.ValueType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maintains a partial trigram GIN index on {@code lower(value)} of the
+ * tracked entity attribute value table for each searchable tracked entity
+ * attribute. An attribute is searchable when it has a text value type, is not
+ * confidential and is marked as searchable for a program or tracked entity
+ * type. The indexes serve the {@code LIKE} and regular expression conditions
+ * of tracked entity instance searches, and are kept up to date by the database
+ * as attribute values are written.
+ * <p>
+ * Also maintains the btree index on attribute and {@code lower(value)}, which
+ * serves exact matches and unique attribute value lookups, and replaces the
+ * index on the attribute column only.
+ * <p>
+ * Indexes are created and dropped concurrently, hence methods of this class
+ * must not be invoked within a transaction. Requires the {@code pg_trgm}
+ * extension.
+ */
+@Slf4j
+@Component
+public class TrackedEntityAttributeSearchIndexManager
+{
+    private static final String INDEX_PREFIX = "in_gin_trackedentityattributevalue_";
+
+    private static final String VALUE_INDEX = "in_trackedentity_attribute_value";
+
+    private static final String ATTRIBUTE_INDEX = "in_trackedentityattributevalue_attributeid";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TrackedEntityAttributeSearchIndexManager( NamedParameterJdbcTemplate jdbcTemplate )
+    {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Indicates whether the {@code pg_trgm} extension is installed.
+     *
+     * @return true if trigram indexes are supported.
+     */
+    public boolean isTrigramIndexSupported()
+    {
+        final String sql = "select exists (select 1 from pg_extension where extname = 'pg_trgm')";
+
+        return jdbcTemplate.getJdbcTemplate().queryForObject( sql, Boolean.class );
+    }
+
+    /**
+     * Creates the btree index on attribute and value if missing or invalid,
+     * creates missing and invalid trigram indexes for searchable attributes and
+     * drops trigram indexes of attributes which are no longer searchable.
+     *
+     * @return the number of created and dropped indexes.
+     */
+    public int updateSearchIndexes()
+    {
+        int changes = updateValueIndex();
+
+        if ( !isTrigramIndexSupported() )
+        {
+            log.warn( "Extension pg_trgm is not installed, skipping tracked entity attribute search indexes" );
+            return changes;
+        }
+
+        Set<Long> searchableAttributes = getSearchableAttributes();
+        Set<Long> validIndexes = new HashSet<>();
+
+        for ( IndexInfo index : getIndexes() )
+        {
+            if ( index.valid && searchableAttributes.contains( index.attributeId ) )
+            {
+                validIndexes.add( index.attributeId );
+            }
+            else
+            {
+                log.info( String.format( "Dropping search index for tracked entity attribute: %d",
+                    index.attributeId ) );
+
+                dropIndex( INDEX_PREFIX + index.attributeId );
+                changes++;
+            }
+        }
+
+        for ( Long attributeId : searchableAttributes )
+        {
+            if ( !validIndexes.contains( attributeId ) )
+            {
+                createIndex( attributeId );
+                changes++;
+            }
+        }
+
+        log.info( String.format( "Updated search indexes for %d tracked entity attributes with %d changes",
+            searchableAttributes.size(), changes ) );
+
+        return changes;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Creates the btree index on attribute and value if missing or invalid. The
+     * index on the attribute column only is dropped once the former is valid,
+     * as the btree index covers it.
+     *
+     * @return the number of created and dropped indexes.
+     */
+    private int updateValueIndex()
+    {
+        int changes = 0;
+
+        Boolean valid = getIndexValidity( VALUE_INDEX );
+
+        if ( !Boolean.TRUE.equals( valid ) )
+        {
+            if ( valid != null )
+            {
+                dropIndex( VALUE_INDEX );
+                changes++;
+            }
+
+            log.info( "Creating value index for tracked entity attribute values" );
+
+            jdbcTemplate.getJdbcTemplate().execute( "create index concurrently if not exists " + VALUE_INDEX + " " +
+                "on trackedentityattributevalue using btree (trackedentityattributeid, lower(value))" );
+            changes++;
+        }
+
+        if ( getIndexValidity( ATTRIBUTE_INDEX ) != null )
+        {
+            dropIndex( ATTRIBUTE_INDEX );
+            changes++;
+        }
+
+        return changes;
+    }
+
+    /**
+     * Returns whether the index with the given name on the tracked entity
+     * attribute value table is valid, or null if it does not exist.
+     */
+    private Boolean getIndexValidity( String indexName )
+    {
+        final SqlParameterSource params = new MapSqlParameterSource()
+            .addValue( "index_name", indexName );
+
+        // @formatter:off
+        final String sql =
+            "select i.indisvalid " +
+            "from pg_index i " +
+            "inner join pg_class ic on i.indexrelid = ic.oid " +
+            "inner join pg_class tc on i.indrelid = tc.oid " +
+            "where tc.relname = 'trackedentityattributevalue' " +
+            "and ic.relname = :index_name";
+        // @formatter:on
+
+        List<Boolean> validity = jdbcTemplate.queryForList( sql, params, Boolean.class );
+
+        return validity.isEmpty() ? null : validity.get( 0 );
+    }
+
+    private Set<Long> getSearchableAttributes()
+    {
+        final SqlParameterSource params = new MapSqlParameterSource()
+            .addValue( "value_types", ValueType.TEXT_TYPES.stream()
+                .map( ValueType::name ).collect( Collectors.toList() ) );
+
+        // @formatter:off
+        final String sql =
+            "select tea.trackedentityattributeid " +
+            "from trackedentityattribute tea " +
+            "where tea.valuetype in (:value_types) " +
+            "and tea.confidential is not true " +
+            "and (exists (" +
+                "select 1 from program_attributes pa " +
+                "where pa.trackedentityattributeid = tea.trackedentityattributeid " +
+                "and pa.searchable is true) " +
+            "or exists (" +
+                "select 1 from trackedentitytypeattribute tta " +
+                "where tta.trackedentityattributeid = tea.trackedentityattributeid " +
+                "and tta.searchable is true))";
+        // @formatter:on
+
+        return new HashSet<>( jdbcTemplate.queryForList( sql, params, Long.class ) );
+    }
+
+    private List<IndexInfo> getIndexes()
+    {
+        final SqlParameterSource params = new MapSqlParameterSource()
+            .addValue( "index_regexp", "^" + INDEX_PREFIX + "[0-9]+$" );
+
+        // @formatter:off
+        final String sql =
+            "select ic.relname as indexname, i.indisvalid as valid " +
+            "from pg_index i " +
+            "inner join pg_class ic on i.indexrelid = ic.oid " +
+            "inner join pg_class tc on i.indrelid = tc.oid " +
+            "where tc.relname = 'trackedentityattributevalue' " +
+            "and ic.relname ~ :index_regexp";
+        // @formatter:on
+
+        return jdbcTemplate.query( sql, params, ( rs, rowNum ) -> new IndexInfo(
+            Long.parseLong( rs.getString( "indexname" ).substring( INDEX_PREFIX.length() ) ),
+            rs.getBoolean( "valid" ) ) );
+    }
+
+    private void createIndex( long attributeId )
+    {
+        final String sql = "create index concurrently if not exists " + INDEX_PREFIX + attributeId + " " +
+            "on trackedentityattributevalue using gin (lower(value) gin_trgm_ops) " +
+            "where trackedentityattributeid = " + attributeId;
+
+        log.info( String.format( "Creating search index for tracked entity attribute: %d", attributeId ) );
+
+        jdbcTemplate.getJdbcTemplate().execute( sql );
+    }
+
+    private void dropIndex( String indexName )
+    {
+        jdbcTemplate.getJdbcTemplate().execute( "drop index concurrently if exists " + indexName );
+    }
+
+    private static class IndexInfo
+    {
+        private final long attributeId;
+
+        private final boolean valid;
+
+        IndexInfo( long attributeId, boolean valid )
+        {
+            this.attributeId = attributeId;
+            this.valid = valid;
+        }
+    }
+}
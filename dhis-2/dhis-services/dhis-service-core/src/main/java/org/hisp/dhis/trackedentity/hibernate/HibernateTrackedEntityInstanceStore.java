@@ -350,7 +350,10 @@ public class HibernateTrackedEntityInstanceStore
      * information for knowing what teis to return and how to order them
      * attribute_constraints: We inner join the attributes, and add 3
      * conditions: tei id, tea id and value. This uses a (tei, tea,
-     * lower(value)) index. For each attribute constraints, we add subsequent
+     * lower(value)) index, a (tea, lower(value)) index for exact matches and
+     * the trigram index of searchable attributes maintained by
+     * {@link org.hisp.dhis.trackedentity.TrackedEntityAttributeSearchIndexManager}
+     * for partial matches. For each attribute constraints, we add subsequent
      * inner joins. program_owner: Only included when a program is specified. If
      * included, it will join on 3 columns: tei, program and ou. We have an
      * index for this (program, ou, tei) which allows a scan only lookup
@@ -675,25 +678,21 @@ public class HibernateTrackedEntityInstanceStore
         final String anyChar = "\\.*?";
         final String start = params.getQuery().isOperator( QueryOperator.LIKE ) ? anyChar : wordStart;
         final String end = params.getQuery().isOperator( QueryOperator.LIKE ) ? anyChar : wordEnd;
-        SqlHelper orHlp = new SqlHelper( true );
+        SqlHelper attributeOrHlp = new SqlHelper( true );
 
         List<Long> itemIds = params.getAttributesAndFilters().stream()
             .map( QueryItem::getItem )
             .map( DimensionalItemObject::getId )
             .collect( Collectors.toList() );
 
-        attributes
-            .append( "INNER JOIN trackedentityattributevalue Q " )
-            .append( "ON Q.trackedentityinstanceid = TEI.trackedentityinstanceid " )
-            .append( "AND Q.trackedentityattributeid IN (" )
-            .append( getCommaDelimitedString( itemIds ) )
-            .append( ") AND (" );
+        StringBuilder queryConditions = new StringBuilder();
+        SqlHelper orHlp = new SqlHelper( true );
 
         for ( String queryToken : getTokens( params.getQuery().getFilter() ) )
         {
             final String query = statementBuilder.encode( queryToken, false );
 
-            attributes
+            queryConditions
                 .append( orHlp.or() )
                 .append( "lower(Q.value) " )
                 .append( regexp )
@@ -704,6 +703,25 @@ public class HibernateTrackedEntityInstanceStore
                 .append( SINGLE_QUOTE );
         }
 
+        attributes
+            .append( "INNER JOIN trackedentityattributevalue Q " )
+            .append( "ON Q.trackedentityinstanceid = TEI.trackedentityinstanceid " )
+            .append( "AND (" );
+
+        // Condition per attribute so that the partial search index of each
+        // attribute can be used
+
+        for ( Long itemId : itemIds )
+        {
+            attributes
+                .append( attributeOrHlp.or() )
+                .append( "(Q.trackedentityattributeid = " )
+                .append( itemId )
+                .append( " AND (" )
+                .append( queryConditions )
+                .append( "))" );
+        }
+
         attributes.append( ")" );
     }
 
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.trackedentity.job;
+
+import lombok.AllArgsConstructor;
+
+import org.hisp.dhis.scheduling.AbstractJob;
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.system.notification.NotificationLevel;
+import org.hisp.dhis.system.notification.Notifier;
+import org.hisp.dhis.system.util.Clock;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeSearchIndexManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates and drops the trigram search indexes of searchable tracked entity
+ * attributes.
+ */
+@AllArgsConstructor
+@Component( "trackedEntityAttributeSearchIndexJob" )
+public class TrackedEntityAttributeSearchIndexJob extends AbstractJob
+{
+    private final TrackedEntityAttributeSearchIndexManager searchIndexManager;
+
+    private final Notifier notifier;
+
+    @Override
+    public JobType getJobType()
+    {
+        return JobType.TRACKED_ENTITY_ATTRIBUTE_SEARCH_INDEX;
+    }
+
+    @Override
+    public void execute( JobConfiguration jobConfiguration )
+    {
+        final Clock clock = new Clock().startClock();
+
+        notifier.notify( jobConfiguration, "Updating tracked entity attribute search indexes" );
+
+        int changes = searchIndexManager.updateSearchIndexes();
+
+        notifier.notify( jobConfiguration, NotificationLevel.INFO, String.format(
+            "Updated tracked entity attribute search indexes with %d changes: %s", changes, clock.time() ), true );
+    }
+}
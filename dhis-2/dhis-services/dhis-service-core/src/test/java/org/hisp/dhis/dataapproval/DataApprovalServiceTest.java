@@ -804,6 +804,51 @@ public class DataApprovalServiceTest
                 .getState().isApproved() );
     }
 
+    @Test
+    public void testIsApprovedWithinTransaction()
+    {
+        Date date = new Date();
+        DataApproval dataApproval = new DataApproval( level2, workflow12, periodA, organisationUnitB,
+            defaultOptionCombo, NOT_ACCEPTED, date, userA );
+
+        transactionTemplate.execute( status -> {
+            createUserAndInjectSecurityContext( singleton( organisationUnitA ), false,
+                DataApproval.AUTH_APPROVE, DataApproval.AUTH_APPROVE_LOWER_LEVELS );
+
+            // Caches the unapproved state before approving
+
+            assertFalse( dataApprovalService.isApproved( workflow12, periodA, organisationUnitB, defaultOptionCombo ) );
+
+            dataApprovalService.approveData( newArrayList( dataApproval ) );
+
+            assertTrue( dataApprovalService.isApproved( workflow12, periodA, organisationUnitB, defaultOptionCombo ) );
+
+            dataApprovalService.unapproveData( newArrayList( dataApproval ) );
+
+            assertFalse( dataApprovalService.isApproved( workflow12, periodA, organisationUnitB, defaultOptionCombo ) );
+
+            dataApprovalService.approveData( newArrayList( dataApproval ) );
+
+            assertTrue( dataApprovalService.isApproved( workflow12, periodA, organisationUnitB, defaultOptionCombo ) );
+
+            dbmsManager.flushSession();
+            return null;
+        } );
+
+        assertTrue( dataApprovalService.isApproved( workflow12, periodA, organisationUnitB, defaultOptionCombo ) );
+
+        transactionTemplate.execute( status -> {
+            dataApprovalService.unapproveData( newArrayList( dataApproval ) );
+
+            assertFalse( dataApprovalService.isApproved( workflow12, periodA, organisationUnitB, defaultOptionCombo ) );
+
+            dbmsManager.flushSession();
+            return null;
+        } );
+
+        assertFalse( dataApprovalService.isApproved( workflow12, periodA, organisationUnitB, defaultOptionCombo ) );
+    }
+
     @Test
     public void testGetDataApprovalState()
     {
@@ -2209,6 +2254,45 @@ public class DataApprovalServiceTest
             statusString( map.get( dataApprovalF ) ) );
     }
 
+    @Test
+    public void testGetDataApprovalStatusesWithOrgUnitsOutsideUserHierarchy()
+    {
+        Date date = new Date();
+
+        DataApproval dataApprovalC = new DataApproval( level3, workflow1234, periodA, organisationUnitC,
+            defaultOptionCombo, NOT_ACCEPTED, date, userA );
+        DataApproval dataApprovalD = new DataApproval( level4, workflow1234, periodA, organisationUnitD,
+            defaultOptionCombo, NOT_ACCEPTED, date, userA );
+        DataApproval dataApprovalE = new DataApproval( level3, workflow1234, periodA, organisationUnitE,
+            defaultOptionCombo, NOT_ACCEPTED, date, userA );
+
+        transactionTemplate.execute( status -> {
+            createUserAndInjectSecurityContext( singleton( organisationUnitC ), false, AUTH_APPR_LEVEL );
+
+            dataApprovalStore.addDataApproval( dataApprovalD );
+
+            dbmsManager.flushSession();
+            return null;
+        } );
+
+        // Organisation unit E is outside the user hierarchy, but must not
+        // prevent the status of organisation unit C from being returned
+
+        List<DataApproval> approvals = newArrayList( dataApprovalC, dataApprovalE );
+
+        Map<DataApproval, DataApprovalStatus> map = dataApprovalService.getDataApprovalStatuses( approvals );
+
+        assertEquals( "UNAPPROVED_READY level=null approve=F unapprove=F accept=F unaccept=F read=T",
+            statusString( map.get( dataApprovalC ) ) );
+        assertEquals( "null", statusString( map.get( dataApprovalE ) ) );
+
+        approvals = newArrayList( dataApprovalE );
+
+        map = dataApprovalService.getDataApprovalStatuses( approvals );
+
+        assertEquals( "null", statusString( map.get( dataApprovalE ) ) );
+    }
+
     // -------------------------------------------------------------------------
     // Test with Categories
     // -------------------------------------------------------------------------
@@ -2442,6 +2526,57 @@ public class DataApprovalServiceTest
             statusAndPermissions( workflow12A_H, periodA, organisationUnitB, optionComboAF ) );
     }
 
+    @Test
+    public void testGetDataApprovalStatusesWithCategories()
+    {
+        Date date = new Date();
+
+        DataApproval dataApprovalCAE = new DataApproval( level3, workflow1234, periodA, organisationUnitC,
+            optionComboAE, NOT_ACCEPTED, date, userA );
+        DataApproval dataApprovalCBF = new DataApproval( level3, workflow1234, periodA, organisationUnitC,
+            optionComboBF, NOT_ACCEPTED, date, userA );
+        DataApproval dataApprovalEAE = new DataApproval( level3, workflow1234, periodA, organisationUnitE,
+            optionComboAE, NOT_ACCEPTED, date, userA );
+        DataApproval dataApprovalEBF = new DataApproval( level3, workflow1234, periodA, organisationUnitE,
+            optionComboBF, NOT_ACCEPTED, date, userA );
+
+        transactionTemplate.execute( status -> {
+            setUpCategories();
+
+            createUserAndInjectSecurityContext( singleton( organisationUnitB ), false, AUTH_APPR_LEVEL );
+
+            dataApprovalStore.addDataApproval( dataApprovalCAE );
+            dataApprovalStore.addDataApproval( dataApprovalEBF );
+
+            dbmsManager.flushSession();
+            return null;
+        } );
+
+        // All combinations of organisation unit and attribute option combo at
+        // the same level are fetched together, and each status must be mapped
+        // back to its own organisation unit and attribute option combo
+
+        List<DataApproval> approvals = newArrayList( dataApprovalCAE, dataApprovalCBF, dataApprovalEAE,
+            dataApprovalEBF );
+
+        Map<DataApproval, DataApprovalStatus> map = dataApprovalService.getDataApprovalStatuses( approvals );
+
+        assertEquals( 4, map.size() );
+        assertEquals( "APPROVED_HERE level=level3 approve=F unapprove=F accept=F unaccept=F read=T",
+            statusString( map.get( dataApprovalCAE ) ) );
+        assertEquals( "UNAPPROVED_WAITING level=null approve=F unapprove=F accept=F unaccept=F read=T",
+            statusString( map.get( dataApprovalCBF ) ) );
+        assertEquals( "UNAPPROVED_WAITING level=null approve=F unapprove=F accept=F unaccept=F read=T",
+            statusString( map.get( dataApprovalEAE ) ) );
+        assertEquals( "APPROVED_HERE level=level3 approve=F unapprove=F accept=F unaccept=F read=T",
+            statusString( map.get( dataApprovalEBF ) ) );
+
+        assertEquals( organisationUnitC.getUid(), map.get( dataApprovalCAE ).getOrganisationUnitUid() );
+        assertEquals( optionComboAE.getUid(), map.get( dataApprovalCAE ).getAttributeOptionComboUid() );
+        assertEquals( organisationUnitE.getUid(), map.get( dataApprovalEBF ).getOrganisationUnitUid() );
+        assertEquals( optionComboBF.getUid(), map.get( dataApprovalEBF ).getAttributeOptionComboUid() );
+    }
+
     @Test
     public void testWorkflows()
     {
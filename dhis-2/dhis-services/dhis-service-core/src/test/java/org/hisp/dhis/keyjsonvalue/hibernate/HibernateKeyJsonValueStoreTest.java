@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.keyjsonvalue.hibernate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValue;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueEntry;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQuery;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQuery.Filter;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueService;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+
+public class HibernateKeyJsonValueStoreTest
+    extends IntegrationTestBase
+{
+    private static final String NAMESPACE = "storetest";
+
+    @Autowired
+    private KeyJsonValueService keyJsonValueService;
+
+    @Override
+    public void setUpTest()
+    {
+        addValue( "A", "{\"age\": 42, \"name\": \"b\"}" );
+        addValue( "B", "{\"age\": \"50\", \"name\": \"c\"}" );
+        addValue( "C", "{\"age\": true, \"tags\": [42]}" );
+        addValue( "D", "{\"age\": 7, \"tags\": [7, 42]}" );
+    }
+
+    @Override
+    public void tearDownTest()
+    {
+        keyJsonValueService.dropIndex( NAMESPACE, null );
+        keyJsonValueService.dropIndex( NAMESPACE, "age" );
+        keyJsonValueService.dropIndex( NAMESPACE, "name" );
+    }
+
+    @Test
+    public void testGetFilterCondition()
+    {
+        List<Object> args = new ArrayList<>();
+
+        assertEquals( "jbvalue @> ?::jsonb and jbvalue #> '{age}' = ?::jsonb",
+            HibernateKeyJsonValueStore.getFilterCondition( Filter.parse( "age:eq:42" ), args ) );
+        assertEquals( Arrays.asList( "{\"age\":42}", "42" ), args );
+
+        args.clear();
+
+        assertEquals( "jbvalue #> '{tags,0}' = ?::jsonb",
+            HibernateKeyJsonValueStore.getFilterCondition( Filter.parse( "tags.0:eq:b" ), args ) );
+        assertEquals( Arrays.asList( "\"b\"" ), args );
+
+        args.clear();
+
+        assertEquals( "jsonb_typeof(jbvalue #> '{age}') = 'number' and jbvalue #> '{age}' > ?::jsonb",
+            HibernateKeyJsonValueStore.getFilterCondition( Filter.parse( "age:gt:40" ), args ) );
+        assertEquals( Arrays.asList( "40" ), args );
+
+        args.clear();
+
+        assertEquals( "jbvalue #>> '{name}' >= ?",
+            HibernateKeyJsonValueStore.getFilterCondition( Filter.parse( "name:ge:b" ), args ) );
+        assertEquals( Arrays.asList( "b" ), args );
+    }
+
+    @Test
+    public void testGetEntriesWithFilters()
+    {
+        assertThat( getKeys( "age:eq:42" ), containsInAnyOrder( "A" ) );
+        assertThat( getKeys( "age:eq:\"50\"" ), containsInAnyOrder( "B" ) );
+        assertThat( getKeys( "tags.1:eq:42" ), containsInAnyOrder( "D" ) );
+        assertThat( getKeys( "age:gt:40" ), containsInAnyOrder( "A" ) );
+        assertThat( getKeys( "age:le:42" ), containsInAnyOrder( "A", "D" ) );
+        assertThat( getKeys( "name:ge:b" ), containsInAnyOrder( "A", "B" ) );
+    }
+
+    @Test
+    public void testGinIndexServesEqualityFilter()
+    {
+        keyJsonValueService.createIndex( NAMESPACE, null );
+
+        assertIndexScan( explain( "age:eq:42" ), getIndexName( "jsonb_path_ops" ) );
+    }
+
+    @Test
+    public void testPathIndexServesFilters()
+    {
+        keyJsonValueService.createIndex( NAMESPACE, "age" );
+        keyJsonValueService.createIndex( NAMESPACE, "name" );
+
+        assertIndexScan( explain( "age:eq:42" ), getIndexName( "#> '{age}'" ) );
+        assertIndexScan( explain( "age:gt:40" ), getIndexName( "#> '{age}'" ) );
+        assertIndexScan( explain( "name:lt:c" ), getIndexName( "#>> '{name}'" ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void addValue( String key, String value )
+    {
+        keyJsonValueService.addKeyJsonValue( new KeyJsonValue( NAMESPACE, key, value, false ) );
+    }
+
+    private List<String> getKeys( String filter )
+    {
+        KeyJsonValueQuery query = new KeyJsonValueQuery( NAMESPACE ).withFilters( Arrays.asList( filter ) );
+
+        return keyJsonValueService.getEntries( query, true ).stream()
+            .map( KeyJsonValueEntry::getKey )
+            .collect( Collectors.toList() );
+    }
+
+    private String getIndexName( String definition )
+    {
+        return jdbcTemplate.queryForObject( "select indexname from pg_indexes where tablename = 'keyjsonvalue' "
+            + "and indexname like 'in\\_keyjsonvalue\\_%' and strpos(indexdef, ?) > 0", String.class, definition );
+    }
+
+    /**
+     * Explains the query of a filter with sequential scans disabled, so that
+     * the plan uses an index whenever an index can serve the filter.
+     */
+    private String explain( String filter )
+    {
+        List<Object> args = new ArrayList<>();
+
+        String sql = "explain select namespacekey from keyjsonvalue where namespace = '" + NAMESPACE + "' and "
+            + HibernateKeyJsonValueStore.getFilterCondition( Filter.parse( filter ), args );
+
+        return jdbcTemplate.execute( (ConnectionCallback<String>) connection -> {
+            try ( Statement statement = connection.createStatement() )
+            {
+                statement.execute( "set enable_seqscan = off" );
+
+                try ( PreparedStatement query = connection.prepareStatement( sql ) )
+                {
+                    for ( int i = 0; i < args.size(); i++ )
+                    {
+                        query.setObject( i + 1, args.get( i ) );
+                    }
+
+                    StringBuilder plan = new StringBuilder();
+
+                    try ( ResultSet rs = query.executeQuery() )
+                    {
+                        while ( rs.next() )
+                        {
+                            plan.append( rs.getString( 1 ) ).append( '\n' );
+                        }
+                    }
+
+                    return plan.toString();
+                }
+                finally
+                {
+                    statement.execute( "reset enable_seqscan" );
+                }
+            }
+        } );
+    }
+
+    private static void assertIndexScan( String plan, String index )
+    {
+        assertThat( plan, containsString( index ) );
+        assertThat( plan, not( containsString( "Seq Scan" ) ) );
+    }
+}
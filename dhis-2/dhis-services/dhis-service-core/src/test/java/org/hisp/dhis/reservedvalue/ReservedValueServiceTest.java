@@ -32,14 +32,17 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.concurrent.ExecutionException;
@@ -72,6 +75,9 @@ public class ReservedValueServiceTest
     @Mock
     private ValueGeneratorService valueGeneratorService;
 
+    @Mock
+    private ReservedValuePool reservedValuePool;
+
     @Captor
     private ArgumentCaptor<ReservedValue> reservedValue;
 
@@ -89,7 +95,7 @@ public class ReservedValueServiceTest
     public void setUpClass()
     {
         reservedValueService = new DefaultReservedValueService( textPatternService, reservedValueStore,
-            valueGeneratorService );
+            valueGeneratorService, reservedValuePool );
 
         Calendar calendar = Calendar.getInstance();
         calendar.add( DATE, 1 );
@@ -197,6 +203,53 @@ public class ReservedValueServiceTest
         verify( reservedValueStore, times( 1 ) ).bulkInsertReservedValues( argThat( list -> list.size() == 2 ) );
     }
 
+    @Test
+    public void shouldReserveValuesRandomPatternFromPool()
+        throws TextPatternParser.TextPatternParsingException,
+        TextPatternGenerationException,
+        ReserveValueException,
+        ExecutionException,
+        InterruptedException
+    {
+        when( reservedValuePool.isEnabled() ).thenReturn( true );
+        when( reservedValuePool.reserve( any(), anyInt() ) )
+            .thenReturn( Arrays.asList( ReservedValue.builder().value( "TEST-AAA" ).build(),
+                ReservedValue.builder().value( "TEST-BBB" ).build() ) );
+
+        assertEquals( 2,
+            reservedValueService
+                .reserve( createTrackedEntityAttribute( Objects.TRACKEDENTITYATTRIBUTE, ownerUid, randomText ), 2,
+                    new HashMap<>(), futureDate )
+                .size() );
+
+        verify( valueGeneratorService, never() ).generateValues( any(), any(), any(), anyInt() );
+        verify( reservedValueStore, never() ).bulkInsertReservedValues( anyList() );
+    }
+
+    @Test
+    public void shouldGenerateValuesMissingFromPool()
+        throws TextPatternParser.TextPatternParsingException,
+        TextPatternGenerationException,
+        ReserveValueException,
+        ExecutionException,
+        InterruptedException
+    {
+        when( reservedValuePool.isEnabled() ).thenReturn( true );
+        when( reservedValuePool.reserve( any(), anyInt() ) )
+            .thenReturn( Collections.singletonList( ReservedValue.builder().value( "TEST-AAA" ).build() ) );
+        when( reservedValueStore.getAvailableValues( any(), any(), any() ) )
+            .thenReturn( Arrays.asList( ReservedValue.builder().build(), ReservedValue.builder().build() ) );
+
+        assertEquals( 2,
+            reservedValueService
+                .reserve( createTrackedEntityAttribute( Objects.TRACKEDENTITYATTRIBUTE, ownerUid, randomText ), 2,
+                    new HashMap<>(), futureDate )
+                .size() );
+
+        verify( valueGeneratorService, times( 1 ) ).generateValues( any(), any(), any(), eq( 1 ) );
+        verify( reservedValueStore, times( 1 ) ).bulkInsertReservedValues( argThat( list -> list.size() == 1 ) );
+    }
+
     @Test
     public void shouldDeleteUsedOrExpiredReservedValues()
     {
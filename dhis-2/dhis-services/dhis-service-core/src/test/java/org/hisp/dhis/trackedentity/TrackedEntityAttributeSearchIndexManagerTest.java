@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.trackedentity;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.common.ValueType;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.google.common.collect.Lists;
+
+public class TrackedEntityAttributeSearchIndexManagerTest
+    extends IntegrationTestBase
+{
+    private static final String INDEX_PREFIX = "in_gin_trackedentityattributevalue_";
+
+    private static final String VALUE_INDEX = "in_trackedentity_attribute_value";
+
+    private static final String ATTRIBUTE_INDEX = "in_trackedentityattributevalue_attributeid";
+
+    @Autowired
+    private TrackedEntityAttributeSearchIndexManager searchIndexManager;
+
+    @Autowired
+    private TrackedEntityAttributeService attributeService;
+
+    @Autowired
+    private TrackedEntityTypeService trackedEntityTypeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TrackedEntityAttribute attributeA;
+
+    private TrackedEntityAttribute attributeB;
+
+    private TrackedEntityAttribute attributeC;
+
+    private TrackedEntityAttribute attributeD;
+
+    @Override
+    public void setUpTest()
+    {
+        jdbcTemplate.execute( "create extension if not exists pg_trgm" );
+
+        // Searchable text attribute
+
+        attributeA = createTrackedEntityAttribute( 'A' );
+
+        // Text attribute which is not searchable
+
+        attributeB = createTrackedEntityAttribute( 'B' );
+
+        // Confidential attribute
+
+        attributeC = createTrackedEntityAttribute( 'C' );
+        attributeC.setConfidential( true );
+
+        // Numeric attribute
+
+        attributeD = createTrackedEntityAttribute( 'D', ValueType.INTEGER );
+
+        attributeService.addTrackedEntityAttribute( attributeA );
+        attributeService.addTrackedEntityAttribute( attributeB );
+        attributeService.addTrackedEntityAttribute( attributeC );
+        attributeService.addTrackedEntityAttribute( attributeD );
+
+        TrackedEntityType trackedEntityType = createTrackedEntityType( 'A' );
+        trackedEntityType.setTrackedEntityTypeAttributes( Lists.newArrayList(
+            createTypeAttribute( trackedEntityType, attributeA, true ),
+            createTypeAttribute( trackedEntityType, attributeB, false ),
+            createTypeAttribute( trackedEntityType, attributeC, true ),
+            createTypeAttribute( trackedEntityType, attributeD, true ) ) );
+
+        trackedEntityTypeService.addTrackedEntityType( trackedEntityType );
+    }
+
+    @Test
+    public void testUpdateSearchIndexes()
+    {
+        searchIndexManager.updateSearchIndexes();
+
+        List<String> indexes = getIndexes();
+
+        assertThat( indexes, hasItem( INDEX_PREFIX + attributeA.getId() ) );
+        assertThat( indexes, not( hasItem( INDEX_PREFIX + attributeB.getId() ) ) );
+        assertThat( indexes, not( hasItem( INDEX_PREFIX + attributeC.getId() ) ) );
+        assertThat( indexes, not( hasItem( INDEX_PREFIX + attributeD.getId() ) ) );
+        assertThat( indexes, hasItem( VALUE_INDEX ) );
+        assertThat( indexes, not( hasItem( ATTRIBUTE_INDEX ) ) );
+
+        assertEquals( 0, searchIndexManager.updateSearchIndexes() );
+    }
+
+    @Test
+    public void testDropSearchIndexOfAttributeNoLongerSearchable()
+    {
+        searchIndexManager.updateSearchIndexes();
+
+        assertThat( getIndexes(), hasItem( INDEX_PREFIX + attributeA.getId() ) );
+
+        jdbcTemplate.update( "update trackedentitytypeattribute set searchable = false" );
+
+        assertEquals( 1, searchIndexManager.updateSearchIndexes() );
+        assertThat( getIndexes(), not( hasItem( INDEX_PREFIX + attributeA.getId() ) ) );
+    }
+
+    @Test
+    public void testCreateMissingValueIndex()
+    {
+        searchIndexManager.updateSearchIndexes();
+
+        jdbcTemplate.execute( "drop index if exists " + VALUE_INDEX );
+
+        assertEquals( 1, searchIndexManager.updateSearchIndexes() );
+        assertThat( getIndexes(), hasItem( VALUE_INDEX ) );
+    }
+
+    private TrackedEntityTypeAttribute createTypeAttribute( TrackedEntityType trackedEntityType,
+        TrackedEntityAttribute attribute, boolean searchable )
+    {
+        TrackedEntityTypeAttribute typeAttribute = new TrackedEntityTypeAttribute( trackedEntityType, attribute );
+        typeAttribute.setSearchable( searchable );
+
+        return typeAttribute;
+    }
+
+    private List<String> getIndexes()
+    {
+        return jdbcTemplate.queryForList(
+            "select indexname from pg_indexes where tablename = 'trackedentityattributevalue'", String.class );
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.trackedentity.hibernate;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hisp.dhis.DhisConvenienceTest.createTrackedEntityAttribute;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hibernate.SessionFactory;
+import org.hisp.dhis.common.QueryFilter;
+import org.hisp.dhis.common.QueryItem;
+import org.hisp.dhis.common.QueryOperator;
+import org.hisp.dhis.jdbc.statementbuilder.PostgreSQLStatementBuilder;
+import org.hisp.dhis.organisationunit.OrganisationUnitStore;
+import org.hisp.dhis.security.acl.AclService;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams;
+import org.hisp.dhis.user.CurrentUserService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests the SQL generated by {@link HibernateTrackedEntityInstanceStore}.
+ */
+public class HibernateTrackedEntityInstanceStoreTest
+{
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher publisher;
+
+    @Mock
+    private CurrentUserService currentUserService;
+
+    @Mock
+    private AclService aclService;
+
+    @Mock
+    private OrganisationUnitStore organisationUnitStore;
+
+    @Mock
+    private SqlRowSet rowSet;
+
+    @Captor
+    private ArgumentCaptor<String> sql;
+
+    private HibernateTrackedEntityInstanceStore subject;
+
+    @Before
+    public void setUp()
+    {
+        subject = new HibernateTrackedEntityInstanceStore( sessionFactory, jdbcTemplate, publisher,
+            currentUserService, aclService, organisationUnitStore, new PostgreSQLStatementBuilder() );
+
+        when( jdbcTemplate.queryForRowSet( anyString() ) ).thenReturn( rowSet );
+        when( rowSet.next() ).thenReturn( false );
+    }
+
+    @Test
+    public void verifyQueryParameterJoinHasConditionPerAttribute()
+    {
+        TrackedEntityAttribute attributeA = createTrackedEntityAttribute( 'A' );
+        attributeA.setId( 11L );
+        TrackedEntityAttribute attributeB = createTrackedEntityAttribute( 'B' );
+        attributeB.setId( 12L );
+
+        TrackedEntityInstanceQueryParams params = new TrackedEntityInstanceQueryParams();
+        params.setQuery( new QueryFilter( QueryOperator.EQ, "John Doe" ) );
+        params.setAttributes( Lists.newArrayList( new QueryItem( attributeA ), new QueryItem( attributeB ) ) );
+
+        subject.getTrackedEntityInstanceIds( params );
+
+        verify( jdbcTemplate ).queryForRowSet( sql.capture() );
+
+        String queryConditions = "(  lower(Q.value) ~* '\\mjohn\\M' or lower(Q.value) ~* '\\mdoe\\M')";
+
+        assertThat( sql.getValue(), containsString( "INNER JOIN trackedentityattributevalue Q " +
+            "ON Q.trackedentityinstanceid = TEI.trackedentityinstanceid AND (" +
+            "  (Q.trackedentityattributeid = 11 AND " + queryConditions + ")" +
+            " or (Q.trackedentityattributeid = 12 AND " + queryConditions + "))" ) );
+        assertThat( sql.getValue(), not( containsString( "Q.trackedentityattributeid IN" ) ) );
+    }
+
+    @Test
+    public void verifyAttributeFilterJoinComparesAttributeAndLowerValue()
+    {
+        TrackedEntityAttribute attributeA = createTrackedEntityAttribute( 'A' );
+        attributeA.setId( 11L );
+
+        QueryItem item = new QueryItem( attributeA );
+        item.addFilter( new QueryFilter( QueryOperator.LIKE, "John" ) );
+
+        TrackedEntityInstanceQueryParams params = new TrackedEntityInstanceQueryParams();
+        params.setFilters( Lists.newArrayList( item ) );
+
+        subject.getTrackedEntityInstanceIds( params );
+
+        verify( jdbcTemplate ).queryForRowSet( sql.capture() );
+
+        String col = "\"" + attributeA.getUid() + "\"";
+
+        assertThat( sql.getValue(), containsString( "INNER JOIN trackedentityattributevalue " + col +
+            " ON " + col + ".trackedentityattributeid = 11 AND " + col +
+            ".trackedentityinstanceid = TEI.trackedentityinstanceid AND lower(" + col + ".value) like '%john%'" ) );
+    }
+}
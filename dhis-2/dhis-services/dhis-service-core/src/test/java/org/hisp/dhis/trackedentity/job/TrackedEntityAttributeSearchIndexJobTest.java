@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.trackedentity.job;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.system.notification.NotificationLevel;
+import org.hisp.dhis.system.notification.Notifier;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeSearchIndexManager;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class TrackedEntityAttributeSearchIndexJobTest
+{
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private TrackedEntityAttributeSearchIndexManager searchIndexManager;
+
+    @Mock
+    private Notifier notifier;
+
+    @Captor
+    private ArgumentCaptor<String> message;
+
+    private TrackedEntityAttributeSearchIndexJob subject;
+
+    @Before
+    public void setUp()
+    {
+        subject = new TrackedEntityAttributeSearchIndexJob( searchIndexManager, notifier );
+    }
+
+    @Test
+    public void verifyJobType()
+    {
+        assertThat( subject.getJobType(), is( JobType.TRACKED_ENTITY_ATTRIBUTE_SEARCH_INDEX ) );
+    }
+
+    @Test
+    public void verifyExecuteUpdatesSearchIndexes()
+    {
+        JobConfiguration jobConfiguration = new JobConfiguration( "Search index",
+            JobType.TRACKED_ENTITY_ATTRIBUTE_SEARCH_INDEX, null, null );
+
+        when( searchIndexManager.updateSearchIndexes() ).thenReturn( 3 );
+
+        subject.execute( jobConfiguration );
+
+        verify( searchIndexManager ).updateSearchIndexes();
+        verify( notifier ).notify( eq( jobConfiguration ), anyString() );
+        verify( notifier ).notify( eq( jobConfiguration ), eq( NotificationLevel.INFO ), message.capture(),
+            eq( true ) );
+
+        assertThat( message.getValue(),
+            startsWith( "Updated tracked entity attribute search indexes with 3 changes" ) );
+    }
+}
@@ -29,6 +29,7 @@ package org.hisp.dhis.dxf2.datavalueset;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.apache.commons.lang3.StringUtils.trimToNull;
+import static org.hisp.dhis.datasource.ReadOnlyRoutingDataSource.READ_REPLICA;
 import static org.hisp.dhis.external.conf.ConfigurationKey.CHANGELOG_AGGREGATE;
 import static org.hisp.dhis.system.notification.NotificationLevel.ERROR;
 import static org.hisp.dhis.system.notification.NotificationLevel.INFO;
@@ -441,7 +442,7 @@ public class DefaultDataValueSetService
     // -------------------------------------------------------------------------
 
     @Override
-    @Transactional
+    @Transactional( readOnly = true, label = READ_REPLICA )
     public void writeDataValueSetXml( DataExportParams params, OutputStream out )
     {
         decideAccess( params );
@@ -451,7 +452,7 @@ public class DefaultDataValueSetService
     }
 
     @Override
-    @Transactional
+    @Transactional( readOnly = true, label = READ_REPLICA )
     public void writeDataValueSetJson( DataExportParams params, OutputStream out )
     {
         decideAccess( params );
@@ -461,14 +462,14 @@ public class DefaultDataValueSetService
     }
 
     @Override
-    @Transactional
+    @Transactional( readOnly = true )
     public void writeDataValueSetJson( Date lastUpdated, OutputStream outputStream, IdSchemes idSchemes )
     {
         dataValueSetStore.writeDataValueSetJson( lastUpdated, outputStream, idSchemes );
     }
 
     @Override
-    @Transactional
+    @Transactional( readOnly = true )
     public void writeDataValueSetJson( Date lastUpdated, OutputStream outputStream, IdSchemes idSchemes, int pageSize,
         int page )
     {
@@ -476,7 +477,7 @@ public class DefaultDataValueSetService
     }
 
     @Override
-    @Transactional
+    @Transactional( readOnly = true, label = READ_REPLICA )
     public void writeDataValueSetCsv( DataExportParams params, Writer writer )
     {
         decideAccess( params );
@@ -32,6 +32,7 @@ import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.lang3.ObjectUtils.defaultIfNull;
 import static org.hisp.dhis.common.Pager.DEFAULT_PAGE_SIZE;
 import static org.hisp.dhis.common.SlimPager.FIRST_PAGE;
+import static org.hisp.dhis.datasource.ReadOnlyRoutingDataSource.READ_REPLICA;
 import static org.hisp.dhis.dxf2.events.event.EventSearchParams.EVENT_ATTRIBUTE_OPTION_COMBO_ID;
 import static org.hisp.dhis.dxf2.events.event.EventSearchParams.EVENT_COMPLETED_BY_ID;
 import static org.hisp.dhis.dxf2.events.event.EventSearchParams.EVENT_COMPLETED_DATE_ID;
@@ -281,7 +282,7 @@ public abstract class AbstractEventService implements EventService
     // READ
     // -------------------------------------------------------------------------
 
-    @Transactional( readOnly = true )
+    @Transactional( readOnly = true, label = READ_REPLICA )
     @Override
     public Events getEvents( EventSearchParams params )
     {
@@ -325,7 +326,7 @@ public abstract class AbstractEventService implements EventService
         return events;
     }
 
-    @Transactional( readOnly = true )
+    @Transactional( readOnly = true, label = READ_REPLICA )
     @Override
     public Grid getEventsGrid( EventSearchParams params )
     {
@@ -467,7 +468,7 @@ public abstract class AbstractEventService implements EventService
         return anonymousEvents;
     }
 
-    @Transactional( readOnly = true )
+    @Transactional( readOnly = true, label = READ_REPLICA )
     @Override
     public EventRows getEventRows( EventSearchParams params )
     {
@@ -27,13 +27,22 @@
  */
 package org.hisp.dhis.dxf2.metadata;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.PreDestroy;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -47,8 +56,10 @@ import org.hisp.dhis.chart.Chart;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.InterpretableObject;
 import org.hisp.dhis.common.SetMap;
+import org.hisp.dhis.common.UserContext;
 import org.hisp.dhis.commons.timer.SystemTimer;
 import org.hisp.dhis.commons.timer.Timer;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dashboard.Dashboard;
 import org.hisp.dhis.dashboard.DashboardItem;
 import org.hisp.dhis.dataelement.DataElement;
@@ -103,13 +114,20 @@ import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
 import org.hisp.dhis.trackedentity.TrackedEntityType;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserService;
+import org.hisp.dhis.user.UserSettingKey;
 import org.hisp.dhis.visualization.Visualization;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.google.common.base.Enums;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -118,6 +136,16 @@ import com.google.common.collect.Sets;
 @Service( "org.hisp.dhis.dxf2.metadata.MetadataExportService" )
 public class DefaultMetadataExportService implements MetadataExportService
 {
+    /**
+     * Number of classes fetched concurrently by the streaming export.
+     */
+    private static final int EXPORT_THREADS = Math.max( 1, Math.min( 4, SystemUtils.getCpuCores() / 2 ) );
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
+        .setNameFormat( "METADATA-EXPORT-%d" )
+        .setDaemon( true )
+        .build();
+
     @Autowired
     private SchemaService schemaService;
 
@@ -142,59 +170,37 @@ public class DefaultMetadataExportService implements MetadataExportService
     @Autowired
     private AttributeService attributeService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool( EXPORT_THREADS, THREAD_FACTORY );
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
     @Override
-    @SuppressWarnings( "unchecked" )
     public Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> getMetadata(
         MetadataExportParams params )
     {
         Timer timer = new SystemTimer().start();
-        Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> metadata = new HashMap<>();
+        Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> metadata = new LinkedHashMap<>();
 
-        if ( params.getUser() == null )
-        {
-            params.setUser( currentUserService.getCurrentUser() );
-        }
-
-        if ( params.getClasses().isEmpty() )
-        {
-            schemaService.getMetadataSchemas().stream()
-                .filter( schema -> schema.isIdentifiableObject() && schema.isPersisted() )
-                .filter( s -> !s.isSecondaryMetadata() )
-                .forEach(
-                    schema -> params.getClasses().add( (Class<? extends IdentifiableObject>) schema.getKlass() ) );
-        }
+        setDefaults( params );
 
         log.info( "(" + params.getUsername() + ") Export:Start" );
 
         for ( Class<? extends IdentifiableObject> klass : params.getClasses() )
         {
-            Query query;
-
-            if ( params.getQuery( klass ) != null )
-            {
-                query = params.getQuery( klass );
-            }
-            else
-            {
-                OrderParams orderParams = new OrderParams( Sets.newHashSet( params.getDefaultOrder() ) );
-                query = queryService.getQueryFromUrl( klass, params.getDefaultFilter(),
-                    orderParams.getOrders( schemaService.getDynamicSchema( klass ) ) );
-            }
-
-            if ( query.getUser() == null )
-            {
-                query.setUser( params.getUser() );
-            }
-
-            query.setDefaultOrder();
-            query.setDefaults( params.getDefaults() );
-
-            List<? extends IdentifiableObject> objects = queryService.query( query );
+            List<? extends IdentifiableObject> objects = getObjects( params, klass );
 
             if ( !objects.isEmpty() )
             {
-                log.info( "(" + params.getUsername() + ") Exported " + objects.size() + " objects of type "
-                    + klass.getSimpleName() );
                 metadata.put( klass, objects );
             }
         }
@@ -207,26 +213,13 @@ public class DefaultMetadataExportService implements MetadataExportService
     @Override
     public RootNode getMetadataAsNode( MetadataExportParams params )
     {
-        RootNode rootNode = NodeUtils.createMetadata();
-        rootNode.getConfig().setInclusionStrategy( params.getInclusionStrategy() );
-
-        SystemInfo systemInfo = systemService.getSystemInfo();
-
-        ComplexNode system = rootNode.addChild( new ComplexNode( "system" ) );
-        system.addChild( new SimpleNode( "id", systemInfo.getSystemId() ) );
-        system.addChild( new SimpleNode( "rev", systemInfo.getRevision() ) );
-        system.addChild( new SimpleNode( "version", systemInfo.getVersion() ) );
-        system.addChild( new SimpleNode( "date", systemInfo.getServerDate() ) );
+        RootNode rootNode = createRootNode( params );
 
         Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> metadata = getMetadata( params );
 
         for ( Class<? extends IdentifiableObject> klass : metadata.keySet() )
         {
-            FieldFilterParams fieldFilterParams = new FieldFilterParams( metadata.get( klass ),
-                params.getFields( klass ), params.getDefaults(), params.getSkipSharing() );
-            fieldFilterParams.setUser( params.getUser() );
-
-            CollectionNode collectionNode = fieldFilterService.toCollectionNode( klass, fieldFilterParams );
+            CollectionNode collectionNode = getCollectionNode( params, klass, metadata.get( klass ) );
 
             if ( !collectionNode.getChildren().isEmpty() )
             {
@@ -237,6 +230,58 @@ public class DefaultMetadataExportService implements MetadataExportService
         return rootNode;
     }
 
+    @Override
+    public RootNode getMetadataAsStreamingNode( MetadataExportParams params )
+    {
+        RootNode rootNode = createRootNode( params );
+
+        setDefaults( params );
+
+        log.info( "(" + params.getUsername() + ") Export:Start" );
+
+        List<Class<? extends IdentifiableObject>> classes = new ArrayList<>( params.getClasses() );
+        List<Future<CollectionNode>> futures = new ArrayList<>( classes.size() );
+
+        // Worker threads get their own copy of the request state and reload
+        // the users in their own transaction, as entities must not be shared
+        // between sessions
+
+        String userUid = getUid( params.getUser() );
+        String contextUserUid = getUid( UserContext.getUser() );
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Serializable dbLocale = UserContext.getUserSetting( UserSettingKey.DB_LOCALE );
+
+        for ( int i = 0; i < classes.size(); i++ )
+        {
+            final int index = i;
+
+            rootNode.addDeferredChild( () -> {
+                // Keep the following classes in progress while this class is
+                // written, and no more, to bound memory usage
+
+                while ( futures.size() < Math.min( classes.size(), index + EXPORT_THREADS + 1 ) )
+                {
+                    Class<? extends IdentifiableObject> klass = classes.get( futures.size() );
+                    MetadataExportParams classParams = getClassParams( params, klass );
+                    String queryUserUid = params.getQuery( klass ) != null
+                        ? getUid( params.getQuery( klass ).getUser() )
+                        : null;
+
+                    futures.add( executor.submit( () -> getCollectionNode( classParams, klass, userUid, queryUserUid,
+                        contextUserUid, authentication, dbLocale ) ) );
+                }
+
+                return getResult( futures.set( index, null ) );
+            } );
+        }
+
+        rootNode.addDeferredChildrenDiscardHandler( () -> futures.stream()
+            .filter( Objects::nonNull )
+            .forEach( future -> future.cancel( true ) ) );
+
+        return rootNode;
+    }
+
     @Override
     public void validate( MetadataExportParams params )
     {
@@ -1020,6 +1065,198 @@ public class DefaultMetadataExportService implements MetadataExportService
         return metadata;
     }
 
+    @SuppressWarnings( "unchecked" )
+    private void setDefaults( MetadataExportParams params )
+    {
+        if ( params.getUser() == null )
+        {
+            params.setUser( currentUserService.getCurrentUser() );
+        }
+
+        if ( params.getClasses().isEmpty() )
+        {
+            schemaService.getMetadataSchemas().stream()
+                .filter( schema -> schema.isIdentifiableObject() && schema.isPersisted() )
+                .filter( s -> !s.isSecondaryMetadata() )
+                .forEach(
+                    schema -> params.getClasses().add( (Class<? extends IdentifiableObject>) schema.getKlass() ) );
+        }
+    }
+
+    private RootNode createRootNode( MetadataExportParams params )
+    {
+        RootNode rootNode = NodeUtils.createMetadata();
+        rootNode.getConfig().setInclusionStrategy( params.getInclusionStrategy() );
+
+        SystemInfo systemInfo = systemService.getSystemInfo();
+
+        ComplexNode system = rootNode.addChild( new ComplexNode( "system" ) );
+        system.addChild( new SimpleNode( "id", systemInfo.getSystemId() ) );
+        system.addChild( new SimpleNode( "rev", systemInfo.getRevision() ) );
+        system.addChild( new SimpleNode( "version", systemInfo.getVersion() ) );
+        system.addChild( new SimpleNode( "date", systemInfo.getServerDate() ) );
+
+        return rootNode;
+    }
+
+    private List<? extends IdentifiableObject> getObjects( MetadataExportParams params,
+        Class<? extends IdentifiableObject> klass )
+    {
+        Query query;
+
+        if ( params.getQuery( klass ) != null )
+        {
+            query = params.getQuery( klass );
+        }
+        else
+        {
+            OrderParams orderParams = new OrderParams( Sets.newHashSet( params.getDefaultOrder() ) );
+            query = queryService.getQueryFromUrl( klass, params.getDefaultFilter(),
+                orderParams.getOrders( schemaService.getDynamicSchema( klass ) ) );
+        }
+
+        if ( query.getUser() == null )
+        {
+            query.setUser( params.getUser() );
+        }
+
+        query.setDefaultOrder();
+        query.setDefaults( params.getDefaults() );
+
+        List<? extends IdentifiableObject> objects = queryService.query( query );
+
+        if ( !objects.isEmpty() )
+        {
+            log.info( "(" + params.getUsername() + ") Exported " + objects.size() + " objects of type "
+                + klass.getSimpleName() );
+        }
+
+        return objects;
+    }
+
+    private CollectionNode getCollectionNode( MetadataExportParams params, Class<? extends IdentifiableObject> klass,
+        List<? extends IdentifiableObject> objects )
+    {
+        FieldFilterParams fieldFilterParams = new FieldFilterParams( objects,
+            params.getFields( klass ), params.getDefaults(), params.getSkipSharing() );
+        fieldFilterParams.setUser( params.getUser() );
+
+        return fieldFilterService.toCollectionNode( klass, fieldFilterParams );
+    }
+
+    /**
+     * Creates a copy of the given export parameters which only exports the
+     * given class, so that it can be used by a worker thread. The copy has no
+     * user, as the user is reloaded by the worker thread.
+     */
+    private MetadataExportParams getClassParams( MetadataExportParams params,
+        Class<? extends IdentifiableObject> klass )
+    {
+        MetadataExportParams classParams = new MetadataExportParams();
+        classParams.addClass( klass );
+        classParams.addFields( klass, new ArrayList<>( params.getFields( klass ) ) );
+        classParams.setDefaultFilter( new ArrayList<>( params.getDefaultFilter() ) );
+        classParams.setDefaultOrder( new ArrayList<>( params.getDefaultOrder() ) );
+        classParams.setDefaults( params.getDefaults() );
+        classParams.setInclusionStrategy( params.getInclusionStrategy() );
+        classParams.setSkipSharing( params.getSkipSharing() );
+
+        if ( params.getQuery( klass ) != null )
+        {
+            Query query = Query.from( params.getQuery( klass ) );
+            query.setUser( null );
+
+            classParams.addQuery( query );
+        }
+
+        return classParams;
+    }
+
+    /**
+     * Fetches the objects of the given class and converts them to a
+     * collection node in a read-only transaction, with the authentication and
+     * user context of the requesting thread, so that no lazy associations are
+     * resolved outside of the transaction. The users are reloaded by uid
+     * within the transaction.
+     *
+     * @return the collection node, or null if no objects were exported.
+     */
+    private CollectionNode getCollectionNode( MetadataExportParams params, Class<? extends IdentifiableObject> klass,
+        String userUid, String queryUserUid, String contextUserUid, Authentication authentication,
+        Serializable dbLocale )
+    {
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication( authentication );
+        SecurityContextHolder.setContext( securityContext );
+
+        TransactionTemplate readOnlyTemplate = new TransactionTemplate( transactionTemplate.getTransactionManager() );
+        readOnlyTemplate.setReadOnly( true );
+
+        try
+        {
+            return readOnlyTemplate.execute( status -> {
+                params.setUser( getUser( userUid ) );
+
+                if ( queryUserUid != null )
+                {
+                    params.getQuery( klass ).setUser( getUser( queryUserUid ) );
+                }
+
+                UserContext.setUser( getUser( contextUserUid ) );
+                UserContext.setUserSetting( UserSettingKey.DB_LOCALE, dbLocale );
+
+                List<? extends IdentifiableObject> objects = getObjects( params, klass );
+
+                if ( objects.isEmpty() )
+                {
+                    return null;
+                }
+
+                CollectionNode collectionNode = getCollectionNode( params, klass, objects );
+
+                return collectionNode.getChildren().isEmpty() ? null : collectionNode;
+            } );
+        }
+        finally
+        {
+            UserContext.reset();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private User getUser( String uid )
+    {
+        return uid != null ? userService.getUser( uid ) : null;
+    }
+
+    private static String getUid( User user )
+    {
+        return user != null ? user.getUid() : null;
+    }
+
+    private CollectionNode getResult( Future<CollectionNode> future )
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new MetadataExportException( "Metadata export was interrupted" );
+        }
+        catch ( ExecutionException ex )
+        {
+            if ( ex.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) ex.getCause();
+            }
+
+            throw new MetadataExportException( "Metadata export failed: " + ex.getCause().getMessage() );
+        }
+    }
+
     private <T extends Enum<T>> T getEnumWithDefault( Class<T> enumKlass, Map<String, List<String>> parameters,
         String key, T defaultValue )
     {
@@ -41,4 +41,10 @@ public enum FlushMode
      * Let the importer decide the flushing.
      */
     AUTO,
+
+    /**
+     * Flush in batches of objects and group db writes into JDBC batches,
+     * intended for high-throughput imports of large metadata packages.
+     */
+    BATCH,
 }
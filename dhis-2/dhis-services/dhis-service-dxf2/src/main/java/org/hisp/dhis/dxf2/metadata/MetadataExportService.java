@@ -59,6 +59,21 @@ public interface MetadataExportService
      */
     RootNode getMetadataAsNode( MetadataExportParams params );
 
+    /**
+     * Returns same result as getMetadataAsNode, but the collection node of each
+     * class is added as a deferred child of the root node. Classes are fetched
+     * concurrently in read-only transactions, a few classes ahead of the class
+     * being serialized, and each collection node is written to the output as
+     * soon as it is ready when serialized with a streaming serializer. Only
+     * the collection nodes of classes in progress are kept in memory. Classes
+     * which are still being fetched are cancelled if serialization fails.
+     *
+     * @param params Export parameters
+     * @return RootNode instance with deferred children containing all exported
+     *         objects
+     */
+    RootNode getMetadataAsStreamingNode( MetadataExportParams params );
+
     /**
      * Validates the import params. Not currently implemented.
      *
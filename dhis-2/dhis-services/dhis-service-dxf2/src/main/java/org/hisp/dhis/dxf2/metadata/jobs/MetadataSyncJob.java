@@ -29,6 +29,9 @@ package org.hisp.dhis.dxf2.metadata.jobs;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import static java.util.stream.Collectors.toList;
+
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -182,7 +185,24 @@ public class MetadataSyncJob extends SynchronizationJob
         List<MetadataVersion> metadataVersionList = metadataSyncPreProcessor.handleMetadataVersionsList( context,
             metadataVersion );
 
-        if ( metadataVersionList != null )
+        if ( canSyncAsDelta( metadataVersionList ) )
+        {
+            List<MetadataVersion> versions = metadataVersionList.stream()
+                .sorted( Comparator.comparing( MetadataVersion::getCreated ) )
+                .collect( toList() );
+            MetadataVersion lastVersion = versions.get( versions.size() - 1 );
+
+            MetadataSyncSummary metadataSyncSummary = handleMetadataDeltaSync( context, metadataVersion, versions );
+
+            boolean abortStatus = metadataSyncPostProcessor
+                .handleSyncNotificationsAndAbortStatus( metadataSyncSummary, context, lastVersion );
+
+            if ( !abortStatus )
+            {
+                clearFailedVersionSettings();
+            }
+        }
+        else if ( metadataVersionList != null )
         {
             for ( MetadataVersion dataVersion : metadataVersionList )
             {
@@ -245,6 +265,43 @@ public class MetadataSyncJob extends SynchronizationJob
 
     }
 
+    /**
+     * Several versions are synced with a single merged snapshot if none of
+     * them exists yet and they are all of the same type, as the type
+     * determines the import mode.
+     */
+    private boolean canSyncAsDelta( List<MetadataVersion> metadataVersionList )
+    {
+        return metadataVersionList != null && metadataVersionList.size() > 1
+            && metadataVersionList.stream().map( MetadataVersion::getType ).distinct().count() == 1
+            && metadataVersionList.stream().allMatch( version -> metadataSyncService
+                .isSyncRequired( new MetadataSyncParams( new MetadataImportParams(), version ) ) );
+    }
+
+    private MetadataSyncSummary handleMetadataDeltaSync( MetadataRetryContext context, MetadataVersion baseline,
+        List<MetadataVersion> versions )
+        throws DhisVersionMismatchException
+    {
+        MetadataVersion lastVersion = versions.get( versions.size() - 1 );
+        MetadataSyncParams syncParams = new MetadataSyncParams( new MetadataImportParams(), lastVersion );
+
+        try
+        {
+            return metadataSyncService.doMetadataDeltaSync( syncParams, baseline, versions );
+        }
+        catch ( MetadataSyncServiceException e )
+        {
+            log.error( "Exception happened  while trying to do metadata sync  " + e.getMessage(), e );
+            context.updateRetryContext( METADATA_SYNC, e.getMessage(), lastVersion );
+            throw e;
+        }
+        catch ( DhisVersionMismatchException e )
+        {
+            context.updateRetryContext( METADATA_SYNC, e.getMessage(), lastVersion );
+            throw e;
+        }
+    }
+
     private void updateMetadataVersionFailureDetails( MetadataRetryContext retryContext )
     {
         Object version = retryContext.getRetryContext().getAttribute( VERSION_KEY );
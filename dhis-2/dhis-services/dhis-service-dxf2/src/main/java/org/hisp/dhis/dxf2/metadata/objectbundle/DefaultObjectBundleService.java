@@ -68,6 +68,21 @@ import org.springframework.stereotype.Service;
 @Service( "org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleService" )
 public class DefaultObjectBundleService implements ObjectBundleService
 {
+    /**
+     * JDBC batch size used for the session when committing with
+     * {@link FlushMode#BATCH}. Hibernate only supports ordering of inserts
+     * and updates for the whole session factory, so instead the session is
+     * flushed after each type, which keeps the statements of a flush grouped
+     * by entity without affecting other writers.
+     */
+    static final int JDBC_BATCH_SIZE = 100;
+
+    /**
+     * Number of objects written between flushes when committing with
+     * {@link FlushMode#BATCH}.
+     */
+    static final int FLUSH_BATCH_SIZE = 1000;
+
     private final CurrentUserService currentUserService;
 
     private final PreheatService preheatService;
@@ -153,6 +168,36 @@ public class DefaultObjectBundleService implements ObjectBundleService
         List<Class<? extends IdentifiableObject>> klasses = getSortedClasses( bundle );
         Session session = sessionFactory.getCurrentSession();
 
+        Integer jdbcBatchSize = session.getJdbcBatchSize();
+
+        if ( FlushMode.BATCH == bundle.getFlushMode() )
+        {
+            session.setJdbcBatchSize( JDBC_BATCH_SIZE );
+        }
+
+        try
+        {
+            commitTypes( session, klasses, bundle, typeReports );
+        }
+        finally
+        {
+            session.setJdbcBatchSize( jdbcBatchSize );
+        }
+
+        dbmsManager.clearSession();
+        cacheManager.clearCache();
+        bundle.setObjectBundleStatus( ObjectBundleStatus.COMMITTED );
+
+        return commitReport;
+    }
+
+    // -----------------------------------------------------------------------------------
+    // Utility Methods
+    // -----------------------------------------------------------------------------------
+
+    private void commitTypes( Session session, List<Class<? extends IdentifiableObject>> klasses,
+        ObjectBundle bundle, Map<Class<?>, TypeReport> typeReports )
+    {
         objectBundleHooks.forEach( hook -> hook.preCommit( bundle ) );
 
         for ( Class<? extends IdentifiableObject> klass : klasses )
@@ -185,7 +230,7 @@ public class DefaultObjectBundleService implements ObjectBundleService
 
             objectBundleHooks.forEach( hook -> hook.postTypeImport( klass, persistedObjects, bundle ) );
 
-            if ( FlushMode.AUTO == bundle.getFlushMode() )
+            if ( FlushMode.AUTO == bundle.getFlushMode() || FlushMode.BATCH == bundle.getFlushMode() )
             {
                 session.flush();
             }
@@ -195,18 +240,8 @@ public class DefaultObjectBundleService implements ObjectBundleService
         {
             objectBundleHooks.forEach( hook -> hook.postCommit( bundle ) );
         }
-
-        dbmsManager.clearSession();
-        cacheManager.clearCache();
-        bundle.setObjectBundleStatus( ObjectBundleStatus.COMMITTED );
-
-        return commitReport;
     }
 
-    // -----------------------------------------------------------------------------------
-    // Utility Methods
-    // -----------------------------------------------------------------------------------
-
     private TypeReport handleCreates( Session session, Class<? extends IdentifiableObject> klass,
         List<IdentifiableObject> objects, ObjectBundle bundle )
     {
@@ -231,6 +266,8 @@ public class DefaultObjectBundleService implements ObjectBundleService
 
         session.flush();
 
+        int count = 0;
+
         for ( IdentifiableObject object : objects )
         {
             ObjectReport objectReport = new ObjectReport( object, bundle );
@@ -260,10 +297,7 @@ public class DefaultObjectBundleService implements ObjectBundleService
                 log.debug( msg );
             }
 
-            if ( FlushMode.OBJECT == bundle.getFlushMode() )
-            {
-                session.flush();
-            }
+            flushObject( session, bundle, ++count );
         }
 
         session.flush();
@@ -300,6 +334,8 @@ public class DefaultObjectBundleService implements ObjectBundleService
 
         session.flush();
 
+        int count = 0;
+
         for ( IdentifiableObject object : objects )
         {
             IdentifiableObject persistedObject = bundle.getPreheat().get( bundle.getPreheatIdentifier(), object );
@@ -339,10 +375,7 @@ public class DefaultObjectBundleService implements ObjectBundleService
                 log.debug( msg );
             }
 
-            if ( FlushMode.OBJECT == bundle.getFlushMode() )
-            {
-                session.flush();
-            }
+            flushObject( session, bundle, ++count );
         }
 
         session.flush();
@@ -378,6 +411,8 @@ public class DefaultObjectBundleService implements ObjectBundleService
         List<IdentifiableObject> persistedObjects = bundle.getPreheat().getAll( bundle.getPreheatIdentifier(),
             objects );
 
+        int count = 0;
+
         for ( IdentifiableObject object : persistedObjects )
         {
             ObjectReport objectReport = new ObjectReport( object, bundle );
@@ -396,15 +431,29 @@ public class DefaultObjectBundleService implements ObjectBundleService
                 log.debug( msg );
             }
 
-            if ( FlushMode.OBJECT == bundle.getFlushMode() )
-            {
-                session.flush();
-            }
+            flushObject( session, bundle, ++count );
         }
 
         return typeReport;
     }
 
+    /**
+     * Flushes the session after an object has been written according to the
+     * flush mode of the bundle.
+     *
+     * @param session the {@link Session}.
+     * @param bundle the {@link ObjectBundle}.
+     * @param count the number of objects written so far for the current type.
+     */
+    private void flushObject( Session session, ObjectBundle bundle, int count )
+    {
+        if ( FlushMode.OBJECT == bundle.getFlushMode()
+            || (FlushMode.BATCH == bundle.getFlushMode() && count % FLUSH_BATCH_SIZE == 0) )
+        {
+            session.flush();
+        }
+    }
+
     @SuppressWarnings( "unchecked" )
     private List<Class<? extends IdentifiableObject>> getSortedClasses( ObjectBundle bundle )
     {
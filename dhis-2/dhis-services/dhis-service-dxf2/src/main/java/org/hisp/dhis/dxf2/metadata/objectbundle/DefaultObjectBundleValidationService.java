@@ -82,21 +82,20 @@ public class DefaultObjectBundleValidationService
 
         for ( Class<? extends IdentifiableObject> klass : klasses )
         {
-            List<IdentifiableObject> nonPersistedObjects = bundle.getObjects( klass, false );
-            List<IdentifiableObject> persistedObjects = bundle.getObjects( klass, true );
+            cleanDefaults( bundle.getPreheat(), bundle.getObjects( klass, false ) );
+            cleanDefaults( bundle.getPreheat(), bundle.getObjects( klass, true ) );
+        }
 
-            cleanDefaults( bundle.getPreheat(), nonPersistedObjects );
-            cleanDefaults( bundle.getPreheat(), persistedObjects );
+        // Validate the bundle by running the validation checks chain
 
-            // Validate the bundle by running the validation checks chain
-            validation.addTypeReport( validationFactory.validateBundle( bundle, klass, persistedObjects,
-                nonPersistedObjects ) );
-        }
+        validationFactory.validateBundle( bundle, klasses, validation );
 
         validateAtomicity( bundle, validation );
         bundle.setObjectBundleStatus( ObjectBundleStatus.VALIDATED );
 
         log.info( "(" + bundle.getUsername() + ") Import:Validation took " + timer.toString() );
+        log.debug( "(" + bundle.getUsername() + ") Import:Validation check timings in ms: "
+            + validation.getCheckTimings() );
 
         return validation;
     }
@@ -303,8 +303,10 @@ public class ObjectBundle implements ObjectIndexProvider
 
     @Nonnull
     @Override
-    public Integer mergeObjectIndex( @Nonnull IdentifiableObject object )
+    public synchronized Integer mergeObjectIndex( @Nonnull IdentifiableObject object )
     {
+        // Synchronized as object reports are created by concurrent validation
+        // checks
         return typedIndexedObjectContainer.mergeObjectIndex( object );
     }
 
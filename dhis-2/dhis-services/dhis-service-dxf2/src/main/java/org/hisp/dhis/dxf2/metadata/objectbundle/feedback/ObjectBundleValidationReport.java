@@ -29,6 +29,7 @@ package org.hisp.dhis.dxf2.metadata.objectbundle.feedback;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +47,12 @@ public class ObjectBundleValidationReport
 {
     private Map<Class<?>, TypeReport> typeReportMap = new HashMap<>();
 
+    /**
+     * Accumulated time in milliseconds spent per validation check, keyed on
+     * the simple name of the check.
+     */
+    private Map<String, Long> checkTimings = new LinkedHashMap<>();
+
     public ObjectBundleValidationReport()
     {
     }
@@ -93,6 +100,11 @@ public class ObjectBundleValidationReport
         typeReport.merge( report );
     }
 
+    public void addCheckTiming( String check, long millis )
+    {
+        checkTimings.merge( check, millis, Long::sum );
+    }
+
     // -----------------------------------------------------------------------------------
     // Getters and Setters
     // -----------------------------------------------------------------------------------
@@ -117,6 +129,11 @@ public class ObjectBundleValidationReport
         return typeReportMap.get( klass );
     }
 
+    public Map<String, Long> getCheckTimings()
+    {
+        return checkTimings;
+    }
+
     public List<ObjectReport> getObjectReports( Class<?> klass )
     {
         if ( !typeReportMap.containsKey( klass ) )
@@ -150,6 +167,7 @@ public class ObjectBundleValidationReport
     {
         return MoreObjects.toStringHelper( this )
             .add( "typeReportMap", typeReportMap )
+            .add( "checkTimings", checkTimings )
             .toString();
     }
 }
@@ -43,6 +43,12 @@ public class CreationCheck
     implements
     ValidationCheck
 {
+    @Override
+    public boolean isConcurrent()
+    {
+        return true;
+    }
+
     @Override
     public TypeReport check( ObjectBundle bundle, Class<? extends IdentifiableObject> klass,
         List<IdentifiableObject> persistedObjects, List<IdentifiableObject> nonPersistedObjects,
@@ -46,6 +46,11 @@ public class DuplicateIdsCheck
     implements
     ValidationCheck
 {
+    @Override
+    public boolean isConcurrent()
+    {
+        return true;
+    }
 
     @Override
     public TypeReport check( ObjectBundle bundle, Class<? extends IdentifiableObject> klass,
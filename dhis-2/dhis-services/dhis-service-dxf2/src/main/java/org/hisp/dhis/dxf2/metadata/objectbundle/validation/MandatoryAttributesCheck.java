@@ -52,6 +52,18 @@ public class MandatoryAttributesCheck
     implements
     ValidationCheck
 {
+    @Override
+    public boolean isConcurrent()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean isPartitionable()
+    {
+        return true;
+    }
+
     @Override
     public TypeReport check( ObjectBundle bundle, Class<? extends IdentifiableObject> klass,
         List<IdentifiableObject> persistedObjects, List<IdentifiableObject> nonPersistedObjects,
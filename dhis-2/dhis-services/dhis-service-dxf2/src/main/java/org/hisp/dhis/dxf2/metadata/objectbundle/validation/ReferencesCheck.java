@@ -58,6 +58,12 @@ public class ReferencesCheck
     implements
     ValidationCheck
 {
+    @Override
+    public boolean isModifying()
+    {
+        return true;
+    }
+
     @Override
     public TypeReport check( ObjectBundle bundle, Class<? extends IdentifiableObject> klass,
         List<IdentifiableObject> persistedObjects, List<IdentifiableObject> nonPersistedObjects,
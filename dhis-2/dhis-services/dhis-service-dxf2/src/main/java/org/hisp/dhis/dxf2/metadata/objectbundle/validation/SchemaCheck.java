@@ -44,6 +44,18 @@ public class SchemaCheck
     implements
     ValidationCheck
 {
+    @Override
+    public boolean isConcurrent()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean isPartitionable()
+    {
+        return true;
+    }
+
     @Override
     public TypeReport check( ObjectBundle bundle, Class<? extends IdentifiableObject> klass,
         List<IdentifiableObject> persistedObjects, List<IdentifiableObject> nonPersistedObjects,
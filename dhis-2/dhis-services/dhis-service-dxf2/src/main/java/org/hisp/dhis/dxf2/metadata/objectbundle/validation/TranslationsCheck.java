@@ -53,6 +53,12 @@ import org.springframework.stereotype.Component;
 @Component
 public class TranslationsCheck implements ValidationCheck
 {
+    @Override
+    public boolean isConcurrent()
+    {
+        return true;
+    }
+
     public <T extends IdentifiableObject> void run( IdentifiableObject object, Class<T> klass,
         Schema schema, int index, Consumer<ObjectReport> addReports )
     {
@@ -48,6 +48,12 @@ import org.hisp.dhis.schema.Schema;
 
 public class UniqueMultiPropertiesCheck implements ValidationCheck
 {
+    @Override
+    public boolean isConcurrent()
+    {
+        return true;
+    }
+
     @Override
     public TypeReport check( ObjectBundle bundle, Class<? extends IdentifiableObject> klass,
         List<IdentifiableObject> persistedObjects, List<IdentifiableObject> nonPersistedObjects,
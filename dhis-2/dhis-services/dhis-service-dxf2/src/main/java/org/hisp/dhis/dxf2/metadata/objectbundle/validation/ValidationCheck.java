@@ -60,6 +60,52 @@ public interface ValidationCheck
         List<IdentifiableObject> persistedObjects, List<IdentifiableObject> nonPersistedObjects,
         ImportStrategy importStrategy, ValidationContext context );
 
+    /**
+     * Indicates whether this check only reads the {@link ObjectBundle} and its
+     * preheat, and can hence run on a worker thread concurrently with other
+     * checks. Checks which use services backed by the Hibernate session, run
+     * object bundle hooks, or modify the preheat or the validated objects must
+     * return false.
+     * <p>
+     * A concurrent check may only read the validated objects of its class and
+     * look up objects in the preheat. It must not navigate the objects it gets
+     * from the preheat, as these are attached to the Hibernate session of the
+     * calling thread, nor depend on objects which checks of other classes
+     * remove from the bundle. It runs ahead of the checks before it in the
+     * chain, unless one of them is modifying, see {@link #isModifying()}.
+     *
+     * @return true if the check can run concurrently.
+     */
+    default boolean isConcurrent()
+    {
+        return false;
+    }
+
+    /**
+     * Indicates whether this check modifies the validated objects, for
+     * instance by replacing their references. Checks which come after a
+     * modifying check in the chain must see its modifications, so they run on
+     * the calling thread after it even if they are concurrent.
+     *
+     * @return true if the check modifies the validated objects.
+     */
+    default boolean isModifying()
+    {
+        return false;
+    }
+
+    /**
+     * Indicates whether this check validates each object independently of the
+     * other objects of the class, so that large classes can be validated in
+     * partitions.
+     *
+     * @return true if the objects can be validated in partitions.
+     */
+    default boolean isPartitionable()
+    {
+        return false;
+    }
+
     default List<IdentifiableObject> selectObjects( List<IdentifiableObject> persistedObjects,
         List<IdentifiableObject> nonPersistedObjects, ImportStrategy importStrategy )
     {
@@ -28,6 +28,7 @@
 package org.hisp.dhis.dxf2.metadata.objectbundle.validation;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.hisp.dhis.common.IdentifiableObject;
@@ -53,7 +54,7 @@ public class ValidationContext
 
     private SchemaService schemaService;
 
-    private List<IdentifiableObject> markedForRemoval = new ArrayList<>();
+    private List<IdentifiableObject> markedForRemoval = Collections.synchronizedList( new ArrayList<>() );
 
     public ValidationContext( List<ObjectBundleHook> objectBundleHooks, SchemaValidator schemaValidator,
         AclService aclService, UserService userService, SchemaService schemaService )
@@ -97,6 +98,9 @@ public class ValidationContext
 
     public List<IdentifiableObject> getMarkedForRemoval()
     {
-        return markedForRemoval;
+        synchronized ( markedForRemoval )
+        {
+            return new ArrayList<>( markedForRemoval );
+        }
     }
 }
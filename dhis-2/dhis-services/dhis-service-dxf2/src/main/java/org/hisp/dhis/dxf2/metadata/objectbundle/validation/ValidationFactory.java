@@ -27,15 +27,29 @@
  */
 package org.hisp.dhis.dxf2.metadata.objectbundle.validation;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.annotation.PreDestroy;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundle;
 import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleHook;
+import org.hisp.dhis.dxf2.metadata.objectbundle.feedback.ObjectBundleValidationReport;
 import org.hisp.dhis.feedback.TypeReport;
 import org.hisp.dhis.importexport.ImportStrategy;
 import org.hisp.dhis.schema.SchemaService;
@@ -44,6 +58,9 @@ import org.hisp.dhis.security.acl.AclService;
 import org.hisp.dhis.user.UserService;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * @author Luciano Fiandesio
  */
@@ -51,6 +68,23 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class ValidationFactory
 {
+    /**
+     * Minimum number of objects in a bundle for validation checks to be run
+     * concurrently. Smaller bundles are validated on the calling thread.
+     */
+    static final int CONCURRENCY_THRESHOLD = 1000;
+
+    /**
+     * Number of objects per partition for checks which validate objects
+     * independently of each other.
+     */
+    static final int PARTITION_SIZE = 5000;
+
+    private final static ThreadFactory threadFactory = new ThreadFactoryBuilder()
+        .setNameFormat( "METADATA-VALIDATION-%d" )
+        .setDaemon( true )
+        .build();
+
     private final SchemaValidator schemaValidator;
 
     private final SchemaService schemaService;
@@ -63,6 +97,8 @@ public class ValidationFactory
 
     private List<ObjectBundleHook> objectBundleHooks;
 
+    private final ExecutorService executor;
+
     public ValidationFactory( SchemaValidator schemaValidator, SchemaService schemaService, AclService aclService,
         UserService userService, List<ObjectBundleHook> objectBundleHooks,
         Map<ImportStrategy, List<Class<? extends ValidationCheck>>> validatorMap )
@@ -73,6 +109,13 @@ public class ValidationFactory
         this.userService = userService;
         this.validatorMap = validatorMap;
         this.objectBundleHooks = objectBundleHooks == null ? Collections.emptyList() : objectBundleHooks;
+        this.executor = Executors.newFixedThreadPool( Math.max( 1, SystemUtils.getCpuCores() - 1 ), threadFactory );
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
     }
 
     /**
@@ -88,14 +131,78 @@ public class ValidationFactory
     public TypeReport validateBundle( ObjectBundle bundle, Class<? extends IdentifiableObject> klass,
         List<IdentifiableObject> persistedObjects, List<IdentifiableObject> nonPersistedObjects )
     {
-        ValidationContext ctx = getContext();
-        TypeReport typeReport = new ValidationRunner( validatorMap.get( bundle.getImportMode() ) )
-            .executeValidationChain( bundle, klass, persistedObjects, nonPersistedObjects, ctx );
+        ObjectBundleValidationReport report = new ObjectBundleValidationReport();
 
-        // Remove invalid objects from the bundle
-        removeFromBundle( klass, ctx, bundle );
+        validateBundle( bundle, Collections.singletonList( klass ), report );
 
-        return addStatistics( typeReport, bundle, persistedObjects, nonPersistedObjects );
+        return report.getTypeReportMap( klass );
+    }
+
+    /**
+     * Run the validation checks against the objects of the given classes in the
+     * bundle. Checks which only read the bundle run concurrently, across
+     * classes and within large classes. The remaining checks may modify the
+     * preheat or the validated objects, so they run on the calling thread only
+     * once every concurrent check has completed, class by class, each class
+     * being followed by the removal of its invalid objects from the bundle.
+     * Checks which come after a modifying check in the chain depend on it and
+     * run on the calling thread too.
+     * <p>
+     * Objects marked for removal are only removed once every check of their
+     * class has run, as in a sequential run of the chain, so concurrent checks
+     * see the same objects as they would if run in chain order. Type reports
+     * are merged in class and check order, so the outcome does not depend on
+     * the order in which checks complete.
+     *
+     * @param bundle an {@see ObjectBundle}
+     * @param klasses the Class types to validate, in order
+     * @param report the {@see ObjectBundleValidationReport} to add type reports
+     *        and check timings to
+     */
+    public void validateBundle( ObjectBundle bundle, List<Class<? extends IdentifiableObject>> klasses,
+        ObjectBundleValidationReport report )
+    {
+        List<Class<? extends ValidationCheck>> validators = validatorMap.get( bundle.getImportMode() );
+
+        boolean concurrent = klasses.stream()
+            .mapToInt( klass -> bundle.getObjects( klass, true ).size() + bundle.getObjects( klass, false ).size() )
+            .sum() >= CONCURRENCY_THRESHOLD;
+
+        Map<Class<? extends IdentifiableObject>, ValidationContext> contexts = new LinkedHashMap<>();
+        Map<Class<? extends IdentifiableObject>, List<CheckTask>> tasks = new LinkedHashMap<>();
+
+        for ( Class<? extends IdentifiableObject> klass : klasses )
+        {
+            ValidationContext ctx = getContext();
+            contexts.put( klass, ctx );
+            tasks.put( klass, new ValidationRunner( validators ).createTasks( bundle, klass,
+                bundle.getObjects( klass, true ), bundle.getObjects( klass, false ), ctx,
+                concurrent ? executor : null ) );
+        }
+
+        // Wait for all concurrent checks before running the other checks
+
+        tasks.values().forEach( klassTasks -> klassTasks.stream()
+            .filter( CheckTask::isConcurrent )
+            .forEach( CheckTask::getResult ) );
+
+        for ( Class<? extends IdentifiableObject> klass : klasses )
+        {
+            TypeReport typeReport = new TypeReport( klass );
+
+            for ( CheckTask task : tasks.get( klass ) )
+            {
+                CheckResult result = task.getResult();
+                typeReport.merge( result.typeReport );
+                report.addCheckTiming( task.name, result.millis );
+            }
+
+            // Remove invalid objects from the bundle
+            removeFromBundle( klass, contexts.get( klass ), bundle );
+
+            report.addTypeReport( addStatistics( typeReport, bundle, bundle.getObjects( klass, true ),
+                bundle.getObjects( klass, false ) ) );
+        }
     }
 
     private TypeReport addStatistics( TypeReport typeReport, ObjectBundle bundle,
@@ -134,11 +241,18 @@ public class ValidationFactory
     private void removeFromBundle( Class<? extends IdentifiableObject> klass, ValidationContext ctx,
         ObjectBundle bundle )
     {
+        Set<IdentifiableObject> markedForRemoval = new HashSet<>( ctx.getMarkedForRemoval() );
+
+        if ( markedForRemoval.isEmpty() )
+        {
+            return;
+        }
+
         List<IdentifiableObject> persisted = bundle.getObjects( klass, true );
-        persisted.removeAll( ctx.getMarkedForRemoval() );
+        persisted.removeAll( markedForRemoval );
 
         List<IdentifiableObject> nonPersisted = bundle.getObjects( klass, false );
-        nonPersisted.removeAll( ctx.getMarkedForRemoval() );
+        nonPersisted.removeAll( markedForRemoval );
     }
 
     private ValidationContext getContext()
@@ -147,6 +261,89 @@ public class ValidationFactory
             this.schemaService );
     }
 
+    /**
+     * Outcome of running a validation check over a set of objects.
+     */
+    static class CheckResult
+    {
+        private final TypeReport typeReport;
+
+        private final long millis;
+
+        CheckResult( TypeReport typeReport, long millis )
+        {
+            this.typeReport = typeReport;
+            this.millis = millis;
+        }
+    }
+
+    /**
+     * A validation check over a set of objects, which is either submitted to
+     * an executor or run on the calling thread when its result is requested.
+     */
+    static class CheckTask
+    {
+        private final String name;
+
+        private final Callable<CheckResult> callable;
+
+        private final Future<CheckResult> future;
+
+        private CheckResult result;
+
+        CheckTask( String name, Callable<CheckResult> callable, ExecutorService executor )
+        {
+            this.name = name;
+            this.callable = callable;
+            this.future = executor != null ? executor.submit( callable ) : null;
+        }
+
+        boolean isConcurrent()
+        {
+            return future != null;
+        }
+
+        /**
+         * Returns the result of the check, waiting for it to complete or
+         * running it on the calling thread the first time it is requested.
+         */
+        CheckResult getResult()
+        {
+            if ( result == null )
+            {
+                result = computeResult();
+            }
+
+            return result;
+        }
+
+        private CheckResult computeResult()
+        {
+            try
+            {
+                return future != null ? future.get() : callable.call();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( "Metadata import validation was interrupted", e );
+            }
+            catch ( ExecutionException e )
+            {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                    : new IllegalStateException( e.getCause() );
+            }
+            catch ( RuntimeException e )
+            {
+                throw e;
+            }
+            catch ( Exception e )
+            {
+                throw new IllegalStateException( e );
+            }
+        }
+    }
+
     static class ValidationRunner
     {
         private List<Class<? extends ValidationCheck>> validators;
@@ -161,20 +358,87 @@ public class ValidationFactory
             ValidationContext ctx )
         {
             TypeReport typeReport = new TypeReport( klass );
+
+            createTasks( bundle, klass, persistedObjects, nonPersistedObjects, ctx, null )
+                .forEach( task -> typeReport.merge( task.getResult().typeReport ) );
+
+            return typeReport;
+        }
+
+        /**
+         * Creates the tasks of the validation chain in check order. Checks
+         * which are concurrent are submitted to the given executor, if any,
+         * and partitionable checks are split into partitions of objects.
+         * Checks which come after a modifying check are never submitted, as
+         * they must see the modifications of the objects.
+         */
+        List<CheckTask> createTasks( ObjectBundle bundle, Class<? extends IdentifiableObject> klass,
+            List<IdentifiableObject> persistedObjects, List<IdentifiableObject> nonPersistedObjects,
+            ValidationContext ctx, ExecutorService executor )
+        {
+            List<CheckTask> tasks = new ArrayList<>();
+
+            boolean afterModifyingCheck = false;
+
             for ( Class<? extends ValidationCheck> validator : validators )
             {
+                ValidationCheck validationCheck;
+
                 try
                 {
-                    ValidationCheck validationCheck = validator.newInstance();
-                    typeReport.merge( validationCheck.check( bundle, klass, persistedObjects, nonPersistedObjects,
-                        bundle.getImportMode(), ctx ) );
+                    validationCheck = validator.newInstance();
                 }
                 catch ( InstantiationException | IllegalAccessException e )
                 {
                     log.error( "An error occurred during metadata import validation", e );
+                    continue;
+                }
+
+                String name = validator.getSimpleName();
+
+                if ( executor == null || !validationCheck.isConcurrent() || afterModifyingCheck )
+                {
+                    tasks.add( new CheckTask( name, () -> runCheck( validationCheck, bundle, klass, ctx,
+                        persistedObjects, nonPersistedObjects ), null ) );
                 }
+                else if ( validationCheck.isPartitionable()
+                    && persistedObjects.size() + nonPersistedObjects.size() > PARTITION_SIZE )
+                {
+                    for ( List<IdentifiableObject> partition : Lists.partition( persistedObjects, PARTITION_SIZE ) )
+                    {
+                        tasks.add( new CheckTask( name, () -> runCheck( validationCheck, bundle, klass, ctx, partition,
+                            Collections.emptyList() ), executor ) );
+                    }
+
+                    for ( List<IdentifiableObject> partition : Lists.partition( nonPersistedObjects,
+                        PARTITION_SIZE ) )
+                    {
+                        tasks.add( new CheckTask( name, () -> runCheck( validationCheck, bundle, klass, ctx,
+                            Collections.emptyList(), partition ), executor ) );
+                    }
+                }
+                else
+                {
+                    tasks.add( new CheckTask( name, () -> runCheck( validationCheck, bundle, klass, ctx,
+                        persistedObjects, nonPersistedObjects ), executor ) );
+                }
+
+                afterModifyingCheck |= validationCheck.isModifying();
             }
-            return typeReport;
+
+            return tasks;
+        }
+
+        private CheckResult runCheck( ValidationCheck validationCheck, ObjectBundle bundle,
+            Class<? extends IdentifiableObject> klass, ValidationContext ctx, List<IdentifiableObject> persistedObjects,
+            List<IdentifiableObject> nonPersistedObjects )
+        {
+            long start = System.currentTimeMillis();
+
+            TypeReport typeReport = validationCheck.check( bundle, klass, persistedObjects, nonPersistedObjects,
+                bundle.getImportMode(), ctx );
+
+            return new CheckResult( typeReport, System.currentTimeMillis() - start );
         }
     }
 }
@@ -143,6 +143,45 @@ public class DefaultMetadataSyncService
         return metadataSyncSummary;
     }
 
+    @Override
+    public synchronized MetadataSyncSummary doMetadataDeltaSync( MetadataSyncParams syncParams,
+        MetadataVersion baseline, List<MetadataVersion> versions )
+        throws MetadataSyncServiceException,
+        DhisVersionMismatchException
+    {
+        MetadataVersion version = getMetadataVersion( syncParams );
+
+        setMetadataImportMode( syncParams, version );
+        String metadataVersionsDelta = getMetadataVersionsDeltaFromRemote( baseline, version );
+
+        if ( metadataSyncDelegate.shouldStopSync( metadataVersionsDelta ) )
+        {
+            throw new DhisVersionMismatchException(
+                "Metadata sync failed because your version of DHIS does not match the master version" );
+        }
+
+        // The merged snapshot holds the state of all merged versions and is
+        // kept as the snapshot of the last version
+
+        saveMetadataVersionSnapshotLocally( version, metadataVersionsDelta );
+        MetadataSyncSummary metadataSyncSummary = metadataSyncImportHandler.importMetadata( syncParams,
+            metadataVersionsDelta );
+
+        // The import handler adds the last version if the import succeeded,
+        // the versions merged into it are added along with it
+
+        if ( metadataVersionService.getVersionByName( version.getName() ) != null )
+        {
+            versions.stream()
+                .filter( mergedVersion -> !mergedVersion.getName().equals( version.getName() ) )
+                .forEach( metadataVersionDelegate::addNewMetadataVersion );
+        }
+
+        log.info( "Metadata Sync Summary: " + metadataSyncSummary );
+
+        return metadataSyncSummary;
+    }
+
     @Override
     public boolean isSyncRequired( MetadataSyncParams syncParams )
     {
@@ -200,6 +239,27 @@ public class DefaultMetadataSyncService
         return metadataVersionSnapshot;
     }
 
+    private String getMetadataVersionsDeltaFromRemote( MetadataVersion baseline, MetadataVersion version )
+    {
+        String metadataVersionsDelta;
+
+        try
+        {
+            metadataVersionsDelta = metadataVersionDelegate.downloadMetadataVersionsDelta( baseline, version );
+        }
+        catch ( MetadataVersionServiceException | RemoteServerUnavailableException e )
+        {
+            throw new MetadataSyncServiceException( e.getMessage(), e );
+        }
+
+        if ( metadataVersionsDelta == null )
+        {
+            throw new MetadataSyncServiceException( "Metadata versions delta can't be null." );
+        }
+
+        return metadataVersionsDelta;
+    }
+
     private void setMetadataImportMode( MetadataSyncParams syncParams, MetadataVersion version )
     {
         if ( VersionType.BEST_EFFORT.equals( version.getType() ) )
@@ -27,34 +27,62 @@
  */
 package org.hisp.dhis.dxf2.metadata.sync;
 
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.commons.config.JacksonObjectMapperConfig;
+import org.hisp.dhis.dxf2.common.HashCodeGenerator;
+import org.hisp.dhis.dxf2.metadata.AtomicMode;
 import org.hisp.dhis.dxf2.metadata.MetadataImportParams;
 import org.hisp.dhis.dxf2.metadata.MetadataImportService;
 import org.hisp.dhis.dxf2.metadata.feedback.ImportReport;
+import org.hisp.dhis.dxf2.metadata.sync.MetadataSyncObjectHashStore.ObjectHash;
 import org.hisp.dhis.dxf2.metadata.sync.exception.MetadataSyncImportException;
 import org.hisp.dhis.dxf2.metadata.sync.exception.MetadataSyncServiceException;
 import org.hisp.dhis.dxf2.metadata.version.MetadataVersionDelegate;
 import org.hisp.dhis.dxf2.metadata.version.exception.MetadataVersionServiceException;
 import org.hisp.dhis.feedback.Status;
+import org.hisp.dhis.importexport.ImportStrategy;
 import org.hisp.dhis.metadata.version.MetadataVersion;
+import org.hisp.dhis.metadata.version.MetadataVersionService;
 import org.hisp.dhis.metadata.version.VersionType;
 import org.hisp.dhis.render.RenderFormat;
 import org.hisp.dhis.render.RenderService;
 import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.schema.Schema;
+import org.hisp.dhis.schema.SchemaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
+
 /**
- * Import handler for metadata sync service
+ * Import handler for metadata sync service. Objects whose content hash matches
+ * the hash stored when they were last imported by metadata sync, and which are
+ * unchanged locally since then, are skipped. Objects listed as deleted in the
+ * snapshot are removed.
  *
  * @author anilkumk
  */
@@ -63,6 +91,14 @@ import org.springframework.stereotype.Component;
 @Scope( "prototype" )
 public class MetadataSyncImportHandler
 {
+    private static final ObjectMapper JSON_MAPPER = JacksonObjectMapperConfig.staticJsonMapper();
+
+    /**
+     * Properties which change without a change of the object content and are
+     * hence excluded from the content hash.
+     */
+    private static final Set<String> VOLATILE_PROPERTIES = ImmutableSet.of( "lastUpdated", "lastUpdatedBy" );
+
     @Autowired
     private MetadataVersionDelegate metadataVersionDelegate;
 
@@ -72,6 +108,15 @@ public class MetadataSyncImportHandler
     @Autowired
     private MetadataImportService metadataImportService;
 
+    @Autowired
+    private MetadataSyncObjectHashStore metadataSyncObjectHashStore;
+
+    @Autowired
+    private SchemaService schemaService;
+
+    @Autowired
+    private IdentifiableObjectManager manager;
+
     public MetadataSyncSummary importMetadata( MetadataSyncParams syncParams, String versionSnapShot )
     {
         MetadataVersion version = getMetadataVersion( syncParams );
@@ -83,8 +128,12 @@ public class MetadataSyncImportHandler
             throw new MetadataSyncServiceException( "MetadataImportParams for the Sync cant be null." );
         }
 
+        ObjectNode snapshot = readSnapshot( versionSnapShot );
+        JsonNode deletedObjects = snapshot.remove( MetadataVersionService.DELETED_OBJECTS );
+        Map<String, Map<String, String>> changedObjectHashes = removeUnchangedObjects( snapshot );
+
         Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> classListMap = parseClassListMap(
-            versionSnapShot );
+            snapshot.toString() );
 
         if ( classListMap == null )
         {
@@ -114,6 +163,16 @@ public class MetadataSyncImportHandler
 
         if ( addNewVersion )
         {
+            deleteObjects( deletedObjects, importParams );
+
+            // Hashes are only stored if all objects were imported, as objects
+            // which failed to import must not be skipped by the next sync
+
+            if ( Status.OK.equals( importReport.getStatus() ) )
+            {
+                saveHashes( changedObjectHashes );
+            }
+
             try
             {
                 metadataVersionDelegate.addNewMetadataVersion( version );
@@ -151,6 +210,212 @@ public class MetadataSyncImportHandler
         return importStatus.equals( Status.WARNING ) && VersionType.BEST_EFFORT.equals( version.getType() );
     }
 
+    private ObjectNode readSnapshot( String metadataVersionSnapshot )
+    {
+        try
+        {
+            return (ObjectNode) JSON_MAPPER.readTree( metadataVersionSnapshot );
+        }
+        catch ( IOException | ClassCastException ex )
+        {
+            String message = "Exception occurred while trying to read the metadata version snapshot";
+            log.error( message );
+            throw new MetadataSyncServiceException( message, ex );
+        }
+    }
+
+    /**
+     * Removes the objects from the snapshot whose content hash matches the
+     * stored hash, and which exist locally with the same last updated
+     * timestamp as when the hash was stored. Objects which were changed or
+     * deleted locally since the last sync are hence imported again.
+     *
+     * @return the hashes of the remaining objects, keyed by collection name
+     *         and uid.
+     */
+    private Map<String, Map<String, String>> removeUnchangedObjects( ObjectNode snapshot )
+    {
+        Map<String, Map<String, String>> changedObjectHashes = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = snapshot.fields();
+        int skipped = 0;
+
+        while ( fields.hasNext() )
+        {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String tableName = field.getValue().isArray() ? getTableName( field.getKey() ) : null;
+
+            if ( tableName == null )
+            {
+                continue;
+            }
+
+            Map<String, ObjectHash> storedHashes = metadataSyncObjectHashStore.getHashes( field.getKey() );
+            Map<String, String> hashes = new HashMap<>();
+
+            for ( JsonNode object : field.getValue() )
+            {
+                if ( object.isObject() && object.hasNonNull( "id" ) )
+                {
+                    hashes.put( object.get( "id" ).asText(), getObjectHash( (ObjectNode) object ) );
+                }
+            }
+
+            Set<String> sameHashUids = hashes.keySet().stream()
+                .filter( uid -> storedHashes.containsKey( uid )
+                    && storedHashes.get( uid ).getHash().equals( hashes.get( uid ) ) )
+                .collect( toSet() );
+
+            Map<String, Date> lastUpdated = sameHashUids.isEmpty() ? new HashMap<>()
+                : metadataSyncObjectHashStore.getLastUpdated( tableName, sameHashUids );
+
+            Map<String, String> changedHashes = new HashMap<>();
+            ArrayNode changedObjects = JSON_MAPPER.createArrayNode();
+
+            for ( JsonNode object : field.getValue() )
+            {
+                if ( !object.isObject() || !object.hasNonNull( "id" ) )
+                {
+                    changedObjects.add( object );
+                    continue;
+                }
+
+                String uid = object.get( "id" ).asText();
+
+                if ( isUnchanged( storedHashes.get( uid ), hashes.get( uid ), lastUpdated.get( uid ) ) )
+                {
+                    skipped++;
+                    continue;
+                }
+
+                changedObjects.add( object );
+                changedHashes.put( uid, hashes.get( uid ) );
+            }
+
+            field.setValue( changedObjects );
+            changedObjectHashes.put( field.getKey(), changedHashes );
+        }
+
+        log.info( "Skipping " + skipped + " metadata objects which are unchanged since the last sync" );
+
+        return changedObjectHashes;
+    }
+
+    /**
+     * Indicates whether the object has the stored hash, and the local object
+     * still has the last updated timestamp stored along with the hash.
+     */
+    private boolean isUnchanged( ObjectHash storedHash, String hash, Date lastUpdated )
+    {
+        return storedHash != null && storedHash.getHash().equals( hash )
+            && storedHash.getLastUpdated() != null && lastUpdated != null
+            && storedHash.getLastUpdated().getTime() == lastUpdated.getTime();
+    }
+
+    /**
+     * Stores the given hashes along with the last updated timestamp of the
+     * imported objects.
+     */
+    private void saveHashes( Map<String, Map<String, String>> changedObjectHashes )
+    {
+        changedObjectHashes.forEach( ( type, hashes ) -> {
+            String tableName = getTableName( type );
+
+            if ( tableName != null && !hashes.isEmpty() )
+            {
+                metadataSyncObjectHashStore.saveHashes( type, hashes,
+                    metadataSyncObjectHashStore.getLastUpdated( tableName, hashes.keySet() ) );
+            }
+        } );
+    }
+
+    /**
+     * Returns the table name of the identifiable objects of the given snapshot
+     * collection, or null if the collection does not hold identifiable
+     * objects.
+     */
+    private String getTableName( String collectionName )
+    {
+        Schema schema = schemaService.getSchemaByPluralName( collectionName );
+
+        return schema != null && schema.isIdentifiableObject() ? schema.getTableName() : null;
+    }
+
+    private String getObjectHash( ObjectNode object )
+    {
+        ObjectNode content = object.deepCopy();
+        content.remove( VOLATILE_PROPERTIES );
+
+        try
+        {
+            return HashCodeGenerator.getHashCode( content.toString() );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new MetadataSyncServiceException( "Algorithm to hash metadata is not found in the system", e );
+        }
+    }
+
+    /**
+     * Deletes the given objects which were deleted on the remote server, if
+     * they exist in this instance.
+     */
+    @SuppressWarnings( "unchecked" )
+    private void deleteObjects( JsonNode deletedObjects, MetadataImportParams importParams )
+    {
+        if ( deletedObjects == null || deletedObjects.size() == 0 )
+        {
+            return;
+        }
+
+        Map<String, Schema> schemas = schemaService.getMetadataSchemas().stream()
+            .collect( toMap( schema -> schema.getKlass().getSimpleName(), identity(), ( a, b ) -> a ) );
+
+        Map<Class<? extends IdentifiableObject>, List<String>> uids = new HashMap<>();
+
+        for ( JsonNode deletedObject : deletedObjects )
+        {
+            Schema schema = schemas.get( deletedObject.path( "klass" ).asText() );
+
+            if ( schema == null || !schema.isIdentifiableObject() )
+            {
+                log.info( "Skipping deletion of unknown metadata type '" + deletedObject.path( "klass" ) + "'." );
+                continue;
+            }
+
+            uids.computeIfAbsent( (Class<? extends IdentifiableObject>) schema.getKlass(), k -> new ArrayList<>() )
+                .add( deletedObject.path( "uid" ).asText() );
+        }
+
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> objects = new HashMap<>();
+
+        uids.forEach( ( klass, klassUids ) -> {
+            List<IdentifiableObject> existingObjects = new ArrayList<>( manager.getByUid( klass, klassUids ) );
+
+            if ( !existingObjects.isEmpty() )
+            {
+                objects.put( klass, existingObjects );
+            }
+
+            metadataSyncObjectHashStore.deleteHashes( klassUids );
+        } );
+
+        if ( objects.isEmpty() )
+        {
+            return;
+        }
+
+        MetadataImportParams deleteParams = new MetadataImportParams()
+            .setUser( importParams.getUser() )
+            .setImportStrategy( ImportStrategy.DELETE )
+            .setAtomicMode( AtomicMode.NONE )
+            .setObjects( objects );
+        deleteParams.setMetadataSyncImport( true );
+
+        ImportReport deleteReport = metadataImportService.importMetadata( deleteParams );
+        log.info( "Deletion of metadata objects deleted on the remote server completed. Import Status: "
+            + deleteReport.getStatus() );
+    }
+
     private Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> parseClassListMap(
         String metadataVersionSnapshot )
     {
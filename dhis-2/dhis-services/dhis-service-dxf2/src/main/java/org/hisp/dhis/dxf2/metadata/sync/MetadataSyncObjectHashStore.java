@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.metadata.sync;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.google.common.collect.Iterables;
+
+/**
+ * Store for the content hashes of metadata objects imported by metadata sync.
+ * Objects are identified by the name of the snapshot collection they belong
+ * to and their uid. Along with the hash, the last updated timestamp of the
+ * local object after the import is stored, so that objects changed locally
+ * since the sync can be detected.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MetadataSyncObjectHashStore
+{
+    private static final String UPSERT_SQL = "insert into metadatasyncobjecthash (type, uid, hash, lastupdated) "
+        + "values (?, ?, ?, ?) "
+        + "on conflict (type, uid) do update set hash = excluded.hash, lastupdated = excluded.lastupdated";
+
+    private static final int UID_PARTITION_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the stored hashes of the given collection, keyed by uid.
+     *
+     * @param type the name of the snapshot collection.
+     * @return a map of uids to hashes.
+     */
+    public Map<String, ObjectHash> getHashes( String type )
+    {
+        Map<String, ObjectHash> hashes = new HashMap<>();
+
+        jdbcTemplate.query( "select uid, hash, lastupdated from metadatasyncobjecthash where type = ?",
+            rs -> {
+                hashes.put( rs.getString( "uid" ),
+                    new ObjectHash( rs.getString( "hash" ), rs.getTimestamp( "lastupdated" ) ) );
+            }, type );
+
+        return hashes;
+    }
+
+    /**
+     * Stores the given hashes of the given collection, replacing any hash
+     * already stored for the same object. Hashes of objects without a last
+     * updated timestamp, i.e. which do not exist locally, are not stored.
+     *
+     * @param type the name of the snapshot collection.
+     * @param hashes a map of uids to hashes.
+     * @param lastUpdated a map of uids to the last updated timestamp of the
+     *        local objects.
+     */
+    public void saveHashes( String type, Map<String, String> hashes, Map<String, Date> lastUpdated )
+    {
+        List<Object[]> batchArgs = new ArrayList<>();
+
+        hashes.forEach( ( uid, hash ) -> {
+            if ( lastUpdated.containsKey( uid ) )
+            {
+                batchArgs.add( new Object[] { type, uid, hash, lastUpdated.get( uid ) } );
+            }
+        } );
+
+        jdbcTemplate.batchUpdate( UPSERT_SQL, batchArgs );
+    }
+
+    /**
+     * Removes the stored hashes of the objects with the given uids.
+     *
+     * @param uids the uids of the objects.
+     */
+    public void deleteHashes( Collection<String> uids )
+    {
+        List<Object[]> batchArgs = new ArrayList<>();
+
+        uids.forEach( uid -> batchArgs.add( new Object[] { uid } ) );
+
+        jdbcTemplate.batchUpdate( "delete from metadatasyncobjecthash where uid = ?", batchArgs );
+    }
+
+    /**
+     * Returns the last updated timestamp of the local objects with the given
+     * uids. Objects which do not exist are not included.
+     *
+     * @param tableName the name of the table of the objects.
+     * @param uids the uids of the objects.
+     * @return a map of uids to last updated timestamps.
+     */
+    public Map<String, Date> getLastUpdated( String tableName, Collection<String> uids )
+    {
+        Map<String, Date> lastUpdated = new HashMap<>();
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate( jdbcTemplate );
+        String sql = "select uid, lastupdated from " + tableName + " where uid in (:uids)";
+
+        for ( List<String> partition : Iterables.partition( uids, UID_PARTITION_SIZE ) )
+        {
+            namedJdbcTemplate.query( sql, new MapSqlParameterSource( "uids", partition ),
+                rs -> {
+                    lastUpdated.put( rs.getString( "uid" ), rs.getTimestamp( "lastupdated" ) );
+                } );
+        }
+
+        return lastUpdated;
+    }
+
+    /**
+     * Hash of an object and the last updated timestamp of the local object
+     * when the hash was stored.
+     */
+    @Value
+    public static class ObjectHash
+    {
+        String hash;
+
+        Date lastUpdated;
+    }
+}
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.hisp.dhis.dxf2.metadata.sync.exception.DhisVersionMismatchException;
+import org.hisp.dhis.metadata.version.MetadataVersion;
 
 /**
  * MetadataSyncService defines the methods available for initiating sync related
@@ -68,4 +69,21 @@ public interface MetadataSyncService
      */
     MetadataSyncSummary doMetadataSync( MetadataSyncParams syncParams )
         throws DhisVersionMismatchException;
+
+    /**
+     * Imports the merged snapshot of several versions, downloaded from the
+     * remote server in a single request and verified against the hash code
+     * returned with it. The merged snapshot is stored as the snapshot of the
+     * last version, and all versions are added to this instance if the import
+     * succeeds.
+     *
+     * @param syncParams the sync parameters holding the last version to sync.
+     * @param baseline the current version of this instance, or null if there
+     *        is none.
+     * @param versions the versions to sync, ordered by their created date.
+     * @return the summary of the import.
+     */
+    MetadataSyncSummary doMetadataDeltaSync( MetadataSyncParams syncParams, MetadataVersion baseline,
+        List<MetadataVersion> versions )
+        throws DhisVersionMismatchException;
 }
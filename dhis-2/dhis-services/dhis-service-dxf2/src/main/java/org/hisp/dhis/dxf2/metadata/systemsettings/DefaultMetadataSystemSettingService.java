@@ -72,6 +72,14 @@ public class DefaultMetadataSystemSettingService
             + "/data.gz";
     }
 
+    public String getDownloadVersionsDeltaURL( String baselineVersionName, String versionName )
+    {
+        String url = systemSettingManager.getSystemSetting( SettingKey.REMOTE_INSTANCE_URL ) + API_URL + "/"
+            + versionName + "/delta.gz";
+
+        return baselineVersionName != null ? url + "?baseline=" + baselineVersionName : url;
+    }
+
     public String getMetaDataDifferenceURL( String versionName )
     {
         return systemSettingManager.getSystemSetting( SettingKey.REMOTE_INSTANCE_URL ) + BASELINE_URL + versionName;
@@ -43,6 +43,8 @@ public interface MetadataSystemSettingService
 
     String getDownloadVersionSnapshotURL( String versionName );
 
+    String getDownloadVersionsDeltaURL( String baselineVersionName, String versionName );
+
     String getMetaDataDifferenceURL( String versionName );
 
     String getEntireVersionHistory();
@@ -27,6 +27,9 @@
  */
 package org.hisp.dhis.dxf2.metadata.version;
 
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
@@ -34,12 +37,21 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang.StringUtils;
+import org.hisp.dhis.commons.config.JacksonObjectMapperConfig;
+import org.hisp.dhis.deletedobject.DeletedObject;
+import org.hisp.dhis.deletedobject.DeletedObjectQuery;
+import org.hisp.dhis.deletedobject.DeletedObjectService;
 import org.hisp.dhis.dxf2.common.HashCodeGenerator;
 import org.hisp.dhis.dxf2.metadata.MetadataExportParams;
 import org.hisp.dhis.dxf2.metadata.MetadataExportService;
@@ -55,10 +67,15 @@ import org.hisp.dhis.metadata.version.VersionType;
 import org.hisp.dhis.node.NodeService;
 import org.hisp.dhis.node.types.RootNode;
 import org.hisp.dhis.render.RenderService;
+import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.util.DateUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.Lists;
 
 /**
@@ -71,6 +88,8 @@ import com.google.common.collect.Lists;
 public class DefaultMetadataVersionService
     implements MetadataVersionService
 {
+    private static final ObjectMapper JSON_MAPPER = JacksonObjectMapperConfig.staticJsonMapper();
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -87,10 +106,14 @@ public class DefaultMetadataVersionService
 
     private final RenderService renderService;
 
+    private final DeletedObjectService deletedObjectService;
+
+    private final SchemaService schemaService;
+
     public DefaultMetadataVersionService( MetadataVersionStore metadataVersionStore,
         MetadataExportService metadataExportService, MetadataKeyJsonService metaDataKeyJsonService,
         NodeService nodeService, MetadataSystemSettingService metadataSystemSettingService,
-        RenderService renderService )
+        RenderService renderService, DeletedObjectService deletedObjectService, SchemaService schemaService )
     {
         this.versionStore = metadataVersionStore;
         this.metadataExportService = metadataExportService;
@@ -98,6 +121,8 @@ public class DefaultMetadataVersionService
         this.nodeService = nodeService;
         this.metadataSystemSettingService = metadataSystemSettingService;
         this.renderService = renderService;
+        this.deletedObjectService = deletedObjectService;
+        this.schemaService = schemaService;
     }
 
     // -------------------------------------------------------------------------
@@ -211,7 +236,9 @@ public class DefaultMetadataVersionService
     /**
      * This method is taking care of 3 steps: 1. Generating a metadata snapshot
      * (using the ExportService) 2. Saving that snapshot to the DataStore 3.
-     * Creating the actual MetadataVersion entry.
+     * Creating the actual MetadataVersion entry. Snapshots after the initial
+     * version only contain the objects created or updated since the current
+     * version, together with the objects deleted since then.
      */
     @Override
     @Transactional
@@ -236,6 +263,12 @@ public class DefaultMetadataVersionService
 
         // 2. Save the metadata snapshot in DHIS Data Store
         String value = getBodyAsString( StandardCharsets.UTF_8, os );
+
+        if ( minDate != null )
+        {
+            value = addDeletedObjects( value, minDate );
+        }
+
         createMetadataVersionInDataStore( versionName, value );
 
         // 3. Create an entry for the MetadataVersion
@@ -291,6 +324,65 @@ public class DefaultMetadataVersionService
         return null;
     }
 
+    @Override
+    @Transactional( readOnly = true )
+    public String getVersionsDelta( String baselineVersionName, String versionName )
+    {
+        MetadataVersion version = getVersionByName( versionName );
+
+        if ( version == null )
+        {
+            return null;
+        }
+
+        MetadataVersion baseline = null;
+
+        if ( baselineVersionName != null )
+        {
+            baseline = getVersionByName( baselineVersionName );
+
+            if ( baseline == null )
+            {
+                throw new MetadataVersionServiceException(
+                    "No metadata version with name " + baselineVersionName + " exists." );
+            }
+        }
+
+        Date startDate = baseline != null ? baseline.getCreated() : null;
+
+        List<MetadataVersion> versions = getAllVersions().stream()
+            .filter( v -> startDate == null || v.getCreated().after( startDate ) )
+            .filter( v -> !v.getCreated().after( version.getCreated() ) )
+            .sorted( Comparator.comparing( MetadataVersion::getCreated ) )
+            .collect( toList() );
+
+        ObjectNode delta = JSON_MAPPER.createObjectNode();
+        Map<String, Map<String, JsonNode>> collections = new LinkedHashMap<>();
+        Map<String, JsonNode> deletedObjects = new LinkedHashMap<>();
+
+        for ( MetadataVersion mergedVersion : versions )
+        {
+            String versionData = getVersionData( mergedVersion.getName() );
+
+            if ( versionData == null )
+            {
+                throw new MetadataVersionServiceException(
+                    "No metadata version snapshot found for the given version " + mergedVersion.getName() );
+            }
+
+            mergeSnapshot( readSnapshot( versionData ), delta, collections, deletedObjects );
+        }
+
+        collections.forEach( ( name, objects ) -> delta.putArray( name ).addAll( objects.values() ) );
+
+        if ( !deletedObjects.isEmpty() )
+        {
+            delta.putArray( DELETED_OBJECTS ).addAll( deletedObjects.values() );
+        }
+
+        return delta.toString();
+    }
+
     @Override
     @Transactional
     public void createMetadataVersionInDataStore( String versionName, String versionSnapshot )
@@ -404,6 +496,105 @@ public class DefaultMetadataVersionService
         return os;
     }
 
+    /**
+     * Adds the metadata objects deleted since the given date to the snapshot,
+     * so that child instances can remove them as part of the sync.
+     */
+    private String addDeletedObjects( String versionSnapshot, Date minDate )
+    {
+        Set<String> metadataClasses = schemaService.getMetadataSchemas().stream()
+            .map( schema -> schema.getKlass().getSimpleName() )
+            .collect( toSet() );
+
+        DeletedObjectQuery query = new DeletedObjectQuery();
+        query.setDeletedAt( minDate );
+        query.setSkipPaging( true );
+
+        List<DeletedObject> deletedObjects = deletedObjectService.getDeletedObjects( query ).stream()
+            .filter( deletedObject -> metadataClasses.contains( deletedObject.getKlass() ) )
+            .collect( toList() );
+
+        if ( deletedObjects.isEmpty() )
+        {
+            return versionSnapshot;
+        }
+
+        ObjectNode snapshot = readSnapshot( versionSnapshot );
+        ArrayNode deletedObjectsNode = snapshot.putArray( DELETED_OBJECTS );
+
+        for ( DeletedObject deletedObject : deletedObjects )
+        {
+            ObjectNode deletedObjectNode = deletedObjectsNode.addObject()
+                .put( "klass", deletedObject.getKlass() )
+                .put( "uid", deletedObject.getUid() );
+
+            if ( deletedObject.getCode() != null )
+            {
+                deletedObjectNode.put( "code", deletedObject.getCode() );
+            }
+        }
+
+        return snapshot.toString();
+    }
+
+    /**
+     * Merges the given snapshot into the delta. Objects are identified by
+     * their id, and later snapshots replace the state of earlier ones.
+     */
+    private void mergeSnapshot( ObjectNode snapshot, ObjectNode delta, Map<String, Map<String, JsonNode>> collections,
+        Map<String, JsonNode> deletedObjects )
+    {
+        Iterator<Map.Entry<String, JsonNode>> fields = snapshot.fields();
+
+        while ( fields.hasNext() )
+        {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode node = field.getValue();
+
+            if ( DELETED_OBJECTS.equals( field.getKey() ) )
+            {
+                for ( JsonNode deletedObject : node )
+                {
+                    String uid = deletedObject.path( "uid" ).asText();
+
+                    collections.values().forEach( objects -> objects.remove( uid ) );
+                    deletedObjects.put( uid, deletedObject );
+                }
+            }
+            else if ( node.isArray() )
+            {
+                Map<String, JsonNode> objects = collections.computeIfAbsent( field.getKey(),
+                    key -> new LinkedHashMap<>() );
+
+                for ( JsonNode object : node )
+                {
+                    String uid = object.hasNonNull( "id" ) ? object.get( "id" ).asText() : object.toString();
+
+                    objects.put( uid, object );
+                    deletedObjects.remove( uid );
+                }
+            }
+            else
+            {
+                delta.set( field.getKey(), node );
+            }
+        }
+    }
+
+    private ObjectNode readSnapshot( String versionSnapshot )
+    {
+        try
+        {
+            return (ObjectNode) JSON_MAPPER.readTree( versionSnapshot );
+        }
+        catch ( IOException | ClassCastException ex )
+        {
+            String message = "Exception occurred while reading the metadata version snapshot " + ex.getMessage();
+            log.error( message, ex );
+            throw new MetadataVersionServiceException( message, ex );
+        }
+    }
+
     private String getBodyAsString( Charset charset, ByteArrayOutputStream os )
     {
         if ( os != null )
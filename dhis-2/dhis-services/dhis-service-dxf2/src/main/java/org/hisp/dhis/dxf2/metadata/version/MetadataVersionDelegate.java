@@ -31,12 +31,16 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.hisp.dhis.dxf2.common.HashCodeGenerator;
 import org.hisp.dhis.dxf2.metadata.sync.exception.RemoteServerUnavailableException;
 import org.hisp.dhis.dxf2.metadata.systemsettings.DefaultMetadataSystemSettingService;
 import org.hisp.dhis.dxf2.metadata.version.exception.MetadataVersionServiceException;
@@ -165,6 +169,40 @@ public class MetadataVersionDelegate
         return null;
     }
 
+    /**
+     * Downloads the merged snapshot of all versions after the given baseline
+     * version up to and including the given version.
+     *
+     * @param baseline the version the delta is relative to, or null to get the
+     *        delta of all versions up to the given version.
+     * @param version the last version to include.
+     * @return the merged snapshot, or null if the remote server returned none.
+     * @throws MetadataVersionServiceException if the merged snapshot does not
+     *         match the hash code returned by the remote server.
+     */
+    public String downloadMetadataVersionsDelta( MetadataVersion baseline, MetadataVersion version )
+        throws MetadataVersionServiceException
+    {
+        String downloadVersionsDeltaURL = metadataSystemSettingService
+            .getDownloadVersionsDeltaURL( baseline != null ? baseline.getName() : null, version.getName() );
+        DhisHttpResponse dhisHttpResponse = getDhisHttpResponse( downloadVersionsDeltaURL, DOWNLOAD_TIMEOUT );
+
+        if ( isValidDhisHttpResponse( dhisHttpResponse ) )
+        {
+            String versionsDelta = dhisHttpResponse.getResponse();
+
+            if ( !isVersionsDeltaPassingIntegrity( dhisHttpResponse.getHttpResponse(), versionsDelta ) )
+            {
+                throw new MetadataVersionServiceException(
+                    "Metadata versions delta is corrupted. Hash code does not match the remote server." );
+            }
+
+            return versionsDelta;
+        }
+
+        return null;
+    }
+
     public synchronized void addNewMetadataVersion( MetadataVersion version )
     {
         version.setImportDate( new Date() );
@@ -215,6 +253,29 @@ public class MetadataVersionDelegate
         return dhisHttpResponse;
     }
 
+    private boolean isVersionsDeltaPassingIntegrity( HttpResponse httpResponse, String versionsDelta )
+    {
+        Header hashHeader = httpResponse != null
+            ? httpResponse.getFirstHeader( MetadataVersionService.VERSIONS_DELTA_HASH_HEADER )
+            : null;
+
+        if ( hashHeader == null )
+        {
+            log.warn( "Remote server did not return a hash code for the metadata versions delta" );
+            return false;
+        }
+
+        try
+        {
+            return hashHeader.getValue().equals( HashCodeGenerator.getHashCode( versionsDelta ) );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new MetadataVersionServiceException(
+                "Algorithm to hash metadata is not found in the system", e );
+        }
+    }
+
     private boolean isValidDhisHttpResponse( DhisHttpResponse dhisHttpResponse )
     {
         if ( dhisHttpResponse == null || dhisHttpResponse.getResponse().isEmpty() )
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementGroup;
+import org.hisp.dhis.indicator.Indicator;
+import org.hisp.dhis.node.serializers.Jackson2JsonNodeSerializer;
+import org.hisp.dhis.node.types.RootNode;
+import org.hisp.dhis.query.Query;
+import org.hisp.dhis.query.Restrictions;
+import org.hisp.dhis.schema.SchemaService;
+import org.hisp.dhis.security.acl.AccessStringHelper;
+import org.hisp.dhis.user.UserService;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Lists;
+
+/**
+ * Tests that {@link MetadataExportService#getMetadataAsStreamingNode} exports
+ * the same metadata in the same order as
+ * {@link MetadataExportService#getMetadataAsNode}. Not transactional, as the
+ * streaming export reads each class in its own transaction.
+ */
+public class MetadataExportServiceStreamingTest
+    extends IntegrationTestBase
+{
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private MetadataExportService metadataExportService;
+
+    @Autowired
+    private IdentifiableObjectManager manager;
+
+    @Autowired
+    private SchemaService schemaService;
+
+    @Autowired
+    private UserService _userService;
+
+    private DataElement deA;
+
+    private DataElement deB;
+
+    private DataElement deC;
+
+    @Override
+    public void setUpTest()
+    {
+        userService = _userService;
+
+        deA = createDataElement( 'A' );
+        deB = createDataElement( 'B' );
+        deC = createDataElement( 'C' );
+        deC.setPublicAccess( AccessStringHelper.DEFAULT );
+
+        manager.save( deA );
+        manager.save( deB );
+        manager.save( deC );
+
+        DataElementGroup degA = createDataElementGroup( 'A' );
+        degA.addDataElement( deA );
+        degA.addDataElement( deB );
+
+        manager.save( degA );
+
+        createUserAndInjectSecurityContext( false );
+    }
+
+    @Test
+    public void testStreamingExportMatchesExport()
+        throws Exception
+    {
+        List<Class<? extends IdentifiableObject>> classes = Lists.newArrayList( DataElement.class,
+            DataElementGroup.class, Indicator.class );
+
+        JsonNode expected = export( metadataExportService.getMetadataAsNode( createParams( classes ) ) );
+        JsonNode actual = export( metadataExportService.getMetadataAsStreamingNode( createParams( classes ) ) );
+
+        assertEquals( Lists.newArrayList( expected.fieldNames() ), Lists.newArrayList( actual.fieldNames() ) );
+        assertEquals( expected, actual );
+
+        assertEquals( Arrays.asList( "dataElements", "dataElementGroups" ),
+            Lists.newArrayList( actual.fieldNames() ) );
+        assertEquals( 2, actual.get( "dataElements" ).size() );
+        assertEquals( 1, actual.get( "dataElementGroups" ).size() );
+    }
+
+    @Test
+    public void testStreamingExportWithQuery()
+        throws Exception
+    {
+        Query query = Query.from( schemaService.getDynamicSchema( DataElement.class ) );
+        query.add( Restrictions.in( "id", Arrays.asList( deA.getUid(), deC.getUid() ) ) );
+
+        MetadataExportParams params = new MetadataExportParams();
+        params.addQuery( query );
+
+        JsonNode actual = export( metadataExportService.getMetadataAsStreamingNode( params ) );
+
+        assertEquals( 1, actual.get( "dataElements" ).size() );
+        assertEquals( deA.getUid(), actual.get( "dataElements" ).get( 0 ).get( "id" ).asText() );
+        assertNull( "Workers must not modify the shared query", params.getQuery( DataElement.class ).getUser() );
+        assertFalse( actual.has( "dataElementGroups" ) );
+    }
+
+    private MetadataExportParams createParams( List<Class<? extends IdentifiableObject>> classes )
+    {
+        MetadataExportParams params = new MetadataExportParams();
+        classes.forEach( params::addClass );
+
+        return params;
+    }
+
+    /**
+     * Serializes the given root node to JSON without the system information,
+     * which contains the server date.
+     */
+    private JsonNode export( RootNode rootNode )
+        throws Exception
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        new Jackson2JsonNodeSerializer( objectMapper ).serialize( rootNode, outputStream );
+
+        ObjectNode metadata = (ObjectNode) objectMapper.readTree( outputStream.toByteArray() );
+        metadata.remove( "system" );
+
+        return metadata;
+    }
+}
@@ -33,6 +33,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -41,6 +43,8 @@ import org.hisp.dhis.attribute.Attribute;
 import org.hisp.dhis.attribute.AttributeService;
 import org.hisp.dhis.attribute.AttributeValue;
 import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.CodeGenerator;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.ValueType;
@@ -87,6 +91,9 @@ public class ObjectBundleServiceAttributesTest
     @Autowired
     private AttributeService attributeService;
 
+    @Autowired
+    private CategoryService _categoryService;
+
     @Override
     public void setUpTest()
     {
@@ -262,6 +269,51 @@ public class ObjectBundleServiceAttributesTest
         assertEquals( 2, validationReport.getErrorReportsByCode( DataElement.class, ErrorCode.E4009 ).size() );
     }
 
+    @Test
+    public void testValidateLargeMetadataWithDuplicateCodesAndUniqueAttributeValues()
+    {
+        Attribute attribute = new Attribute( "AttributeA", ValueType.TEXT );
+        attribute.setUid( "d9vw7V9Mw8W" );
+        attribute.setUnique( true );
+        attribute.setDataElementAttribute( true );
+
+        manager.save( attribute );
+
+        CategoryCombo categoryCombo = _categoryService.getDefaultCategoryCombo();
+
+        // Enough objects for the validation checks to run concurrently
+
+        int size = 1500;
+
+        List<IdentifiableObject> dataElements = new ArrayList<>();
+
+        for ( int i = 0; i < size; i++ )
+        {
+            DataElement dataElement = createDataElement( 'A', categoryCombo );
+            dataElement.setUid( CodeGenerator.generateUid() );
+            dataElement.setName( "DataElement" + i );
+            dataElement.setShortName( "DataElementShort" + i );
+            dataElement.setCode( "DataElementCode" + (i == 1 ? 0 : i) );
+            dataElement.getAttributeValues().add( new AttributeValue( "Value" + (i == 3 ? 2 : i), attribute ) );
+
+            dataElements.add( dataElement );
+        }
+
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> metadata = new HashMap<>();
+        metadata.put( DataElement.class, dataElements );
+
+        ObjectBundleParams params = new ObjectBundleParams();
+        params.setObjectBundleMode( ObjectBundleMode.VALIDATE );
+        params.setObjects( metadata );
+
+        ObjectBundle bundle = objectBundleService.create( params );
+        ObjectBundleValidationReport validationReport = objectBundleValidationService.validate( bundle );
+
+        assertEquals( 1, validationReport.getErrorReportsByCode( DataElement.class, ErrorCode.E5003 ).size() );
+        assertEquals( 1, validationReport.getErrorReportsByCode( DataElement.class, ErrorCode.E4009 ).size() );
+        assertEquals( size - 2, bundle.getObjects( DataElement.class, false ).size() );
+    }
+
     private void defaultSetupWithAttributes()
     {
         Attribute attribute = new Attribute( "AttributeA", ValueType.TEXT );
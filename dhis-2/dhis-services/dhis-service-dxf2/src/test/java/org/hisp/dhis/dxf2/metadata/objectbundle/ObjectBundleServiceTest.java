@@ -36,13 +36,20 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
 import org.hisp.dhis.TransactionalIntegrationTest;
 import org.hisp.dhis.category.Category;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryOption;
+import org.hisp.dhis.common.CodeGenerator;
 import org.hisp.dhis.common.IdScheme;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
@@ -55,6 +62,7 @@ import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.dataset.DataSetElement;
 import org.hisp.dhis.dataset.Section;
 import org.hisp.dhis.dxf2.metadata.AtomicMode;
+import org.hisp.dhis.dxf2.metadata.FlushMode;
 import org.hisp.dhis.dxf2.metadata.objectbundle.feedback.ObjectBundleValidationReport;
 import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.feedback.ErrorReport;
@@ -103,6 +111,9 @@ public class ObjectBundleServiceTest extends TransactionalIntegrationTest
     @Autowired
     private UserService _userService;
 
+    @Autowired
+    private SessionFactory sessionFactory;
+
     @Override
     protected void setUpTest()
         throws Exception
@@ -474,6 +485,114 @@ public class ObjectBundleServiceTest extends TransactionalIntegrationTest
         assertEquals( "DataElementCodeD", dataElements.get( 0 ).getCode() );
     }
 
+    @Test
+    public void testCreateSimpleMetadataWithBatchFlushMode()
+        throws IOException
+    {
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> metadata = renderService.fromMetadata(
+            new ClassPathResource( "dxf2/simple_metadata.json" ).getInputStream(), RenderFormat.JSON );
+
+        ObjectBundleParams params = new ObjectBundleParams();
+        params.setObjectBundleMode( ObjectBundleMode.COMMIT );
+        params.setImportStrategy( ImportStrategy.CREATE );
+        params.setFlushMode( FlushMode.BATCH );
+        params.setObjects( metadata );
+
+        ObjectBundle bundle = objectBundleService.create( params );
+        objectBundleValidationService.validate( bundle );
+        objectBundleService.commit( bundle );
+
+        List<DataElement> dataElements = manager.getAll( DataElement.class );
+        List<DataSet> dataSets = manager.getAll( DataSet.class );
+
+        assertFalse( dataElements.isEmpty() );
+        assertFalse( dataSets.isEmpty() );
+
+        DataSet dataSet = dataSets.get( 0 );
+
+        assertEquals( 1, dataSet.getSources().size() );
+        assertEquals( 2, dataSet.getDataSetElements().size() );
+        assertEquals( PeriodType.getPeriodTypeByName( "Monthly" ), dataSet.getPeriodType() );
+    }
+
+    @Test
+    public void testBatchFlushModeSendsStatementsInBatches()
+    {
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled( true );
+
+        try
+        {
+            long statements = commitDataElements( statistics, FlushMode.AUTO, "A" );
+            long batchedStatements = commitDataElements( statistics, FlushMode.BATCH, "B" );
+
+            assertTrue( batchedStatements < statements );
+        }
+        finally
+        {
+            statistics.setStatisticsEnabled( false );
+        }
+    }
+
+    @Test
+    public void testBatchFlushModeDoesNotAffectOtherWriters()
+    {
+        SessionFactoryOptions options = sessionFactory.unwrap( SessionFactoryImplementor.class )
+            .getSessionFactoryOptions();
+
+        assertFalse( options.isOrderInsertsEnabled() );
+        assertFalse( options.isOrderUpdatesEnabled() );
+
+        Integer jdbcBatchSize = sessionFactory.getCurrentSession().getJdbcBatchSize();
+
+        Statistics statistics = sessionFactory.getStatistics();
+        commitDataElements( statistics, FlushMode.BATCH, "C" );
+
+        assertEquals( jdbcBatchSize, sessionFactory.getCurrentSession().getJdbcBatchSize() );
+    }
+
+    /**
+     * Commits data elements with the given flush mode and returns the number
+     * of statements prepared during the commit.
+     */
+    private long commitDataElements( Statistics statistics, FlushMode flushMode, String prefix )
+    {
+        int size = 200;
+
+        List<IdentifiableObject> dataElements = new ArrayList<>();
+
+        for ( int i = 0; i < size; i++ )
+        {
+            DataElement dataElement = createDataElement( 'A' );
+            dataElement.setUid( CodeGenerator.generateUid() );
+            dataElement.setName( "DataElement" + prefix + i );
+            dataElement.setShortName( "DataElementShort" + prefix + i );
+            dataElement.setCode( "DataElementCode" + prefix + i );
+
+            dataElements.add( dataElement );
+        }
+
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> metadata = new HashMap<>();
+        metadata.put( DataElement.class, dataElements );
+
+        ObjectBundleParams params = new ObjectBundleParams();
+        params.setObjectBundleMode( ObjectBundleMode.COMMIT );
+        params.setImportStrategy( ImportStrategy.CREATE );
+        params.setFlushMode( flushMode );
+        params.setObjects( metadata );
+
+        ObjectBundle bundle = objectBundleService.create( params );
+        assertTrue( objectBundleValidationService.validate( bundle ).getErrorReports().isEmpty() );
+
+        statistics.clear();
+
+        objectBundleService.commit( bundle );
+
+        assertTrue( statistics.getEntityInsertCount() >= size );
+
+        return statistics.getPrepareStatementCount();
+    }
+
     @Test
     public void testCreateSimpleMetadataUID()
         throws IOException
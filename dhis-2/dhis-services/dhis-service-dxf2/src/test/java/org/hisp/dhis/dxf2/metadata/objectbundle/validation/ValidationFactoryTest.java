@@ -28,6 +28,7 @@
 package org.hisp.dhis.dxf2.metadata.objectbundle.validation;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hisp.dhis.importexport.ImportStrategy.CREATE_AND_UPDATE;
@@ -38,13 +39,18 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.hisp.dhis.attribute.Attribute;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.commons.collection.ListUtils;
 import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundle;
 import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleParams;
+import org.hisp.dhis.dxf2.metadata.objectbundle.feedback.ObjectBundleValidationReport;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.feedback.ErrorReport;
 import org.hisp.dhis.feedback.TypeReport;
+import org.hisp.dhis.importexport.ImportStrategy;
 import org.hisp.dhis.preheat.Preheat;
 import org.hisp.dhis.preheat.PreheatIdentifier;
 import org.hisp.dhis.schema.SchemaService;
@@ -107,6 +113,208 @@ public class ValidationFactoryTest
         assertThat( typeReport.getObjectReports(), hasSize( 1 ) );
     }
 
+    @Test
+    public void verifyValidationFactoryProcessConcurrentValidationCheck()
+    {
+        validationFactory = new ValidationFactory( schemaValidator, schemaService, aclService, userService,
+            Collections.emptyList(), ImmutableMap.of( CREATE_AND_UPDATE,
+                ListUtils.newList( DummyCheck.class, ConcurrentDummyCheck.class ) ) );
+
+        int size = ValidationFactory.PARTITION_SIZE * 2 + 1;
+
+        List<IdentifiableObject> attributes = new ArrayList<>();
+
+        for ( int i = 0; i < size; i++ )
+        {
+            Attribute attribute = new Attribute();
+            attribute.setUid( (i % 2 == 0 ? "u" : "a") + i );
+            attributes.add( attribute );
+        }
+
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> objectMap = new HashMap<>();
+        objectMap.put( Attribute.class, attributes );
+
+        ObjectBundle bundle = new ObjectBundle( new ObjectBundleParams(), new Preheat(), objectMap );
+
+        ObjectBundleValidationReport report = new ObjectBundleValidationReport();
+
+        validationFactory.validateBundle( bundle, ListUtils.newList( Attribute.class ), report );
+
+        TypeReport typeReport = report.getTypeReportMap( Attribute.class );
+
+        assertThat( bundle.getObjects( Attribute.class, false ), hasSize( size / 2 ) );
+        assertThat( typeReport.getStats().getCreated(), is( size / 2 ) );
+        assertThat( typeReport.getObjectReports(), hasSize( size / 2 + 1 ) );
+        assertThat( report.getCheckTimings(), hasKey( "DummyCheck" ) );
+        assertThat( report.getCheckTimings(), hasKey( "ConcurrentDummyCheck" ) );
+    }
+
+    @Test
+    public void verifyConcurrentCheckSeesObjectsMarkedForRemovalByEarlierCheck()
+    {
+        List<Class<? extends ValidationCheck>> validators = ListUtils.newList( DummyCheck.class,
+            ConcurrentCountingCheck.class );
+
+        validationFactory = new ValidationFactory( schemaValidator, schemaService, aclService, userService,
+            Collections.emptyList(), ImmutableMap.of( CREATE_AND_UPDATE, validators ) );
+
+        int size = ValidationFactory.CONCURRENCY_THRESHOLD * 2;
+
+        ObjectBundle bundle = createObjectBundle( size );
+        ObjectBundle sequentialBundle = createObjectBundle( size );
+
+        ObjectBundleValidationReport report = new ObjectBundleValidationReport();
+
+        validationFactory.validateBundle( bundle, ListUtils.newList( Attribute.class ), report );
+
+        // Objects marked for removal by the dummy check are only removed once
+        // every check has run, so the concurrent check sees all of them, as in
+        // a sequential run of the chain
+
+        assertThat( ConcurrentCountingCheck.COUNT.getAndSet( 0 ), is( size ) );
+
+        TypeReport sequentialReport = new ValidationFactory.ValidationRunner( validators ).executeValidationChain(
+            sequentialBundle, Attribute.class, sequentialBundle.getObjects( Attribute.class, true ),
+            sequentialBundle.getObjects( Attribute.class, false ), new ValidationContext( Collections.emptyList(),
+                schemaValidator, aclService, userService, schemaService ) );
+
+        assertThat( ConcurrentCountingCheck.COUNT.getAndSet( 0 ), is( size ) );
+
+        TypeReport typeReport = report.getTypeReportMap( Attribute.class );
+
+        assertThat( typeReport.getErrorReports(), hasSize( sequentialReport.getErrorReports().size() ) );
+        assertThat( bundle.getObjects( Attribute.class, false ), hasSize( size / 2 ) );
+        assertThat( typeReport.getStats().getCreated(), is( size / 2 ) );
+    }
+
+    @Test
+    public void verifyConcurrentCheckRunsAfterModifyingCheck()
+    {
+        validationFactory = new ValidationFactory( schemaValidator, schemaService, aclService, userService,
+            Collections.emptyList(), ImmutableMap.of( CREATE_AND_UPDATE,
+                ListUtils.newList( ModifyingDummyCheck.class, ConcurrentModifiedCheck.class ) ) );
+
+        int size = ValidationFactory.CONCURRENCY_THRESHOLD * 2;
+
+        ObjectBundle bundle = createObjectBundle( size );
+
+        ObjectBundleValidationReport report = new ObjectBundleValidationReport();
+
+        validationFactory.validateBundle( bundle, ListUtils.newList( Attribute.class ), report );
+
+        TypeReport typeReport = report.getTypeReportMap( Attribute.class );
+
+        assertThat( typeReport.getErrorReports(), hasSize( 0 ) );
+        assertThat( bundle.getObjects( Attribute.class, false ), hasSize( size ) );
+    }
+
+    public static class ConcurrentCountingCheck
+        implements
+        ValidationCheck
+    {
+        static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public boolean isConcurrent()
+        {
+            return true;
+        }
+
+        @Override
+        public TypeReport check( ObjectBundle bundle, Class<? extends IdentifiableObject> klass,
+            List<IdentifiableObject> persistedObjects, List<IdentifiableObject> nonPersistedObjects,
+            ImportStrategy importStrategy, ValidationContext context )
+        {
+            COUNT.addAndGet( persistedObjects.size() + nonPersistedObjects.size() );
+
+            return new TypeReport( klass );
+        }
+    }
+
+    public static class ModifyingDummyCheck
+        implements
+        ValidationCheck
+    {
+        @Override
+        public boolean isModifying()
+        {
+            return true;
+        }
+
+        @Override
+        public TypeReport check( ObjectBundle bundle, Class<? extends IdentifiableObject> klass,
+            List<IdentifiableObject> persistedObjects, List<IdentifiableObject> nonPersistedObjects,
+            ImportStrategy importStrategy, ValidationContext context )
+        {
+            nonPersistedObjects.forEach( object -> ((Attribute) object).setName( "Modified" ) );
+
+            return new TypeReport( klass );
+        }
+    }
+
+    public static class ConcurrentModifiedCheck
+        implements
+        ValidationCheck
+    {
+        @Override
+        public boolean isConcurrent()
+        {
+            return true;
+        }
+
+        @Override
+        public TypeReport check( ObjectBundle bundle, Class<? extends IdentifiableObject> klass,
+            List<IdentifiableObject> persistedObjects, List<IdentifiableObject> nonPersistedObjects,
+            ImportStrategy importStrategy, ValidationContext context )
+        {
+            TypeReport typeReport = new TypeReport( klass );
+
+            for ( IdentifiableObject object : nonPersistedObjects )
+            {
+                if ( !"Modified".equals( object.getName() ) )
+                {
+                    ErrorReport errorReport = new ErrorReport( klass, ErrorCode.E4000, "name" )
+                        .setMainId( object.getUid() );
+                    ValidationUtils.addObjectReport( errorReport, typeReport, object, bundle );
+                }
+            }
+
+            return typeReport;
+        }
+    }
+
+    public static class ConcurrentDummyCheck extends DummyCheck
+    {
+        @Override
+        public boolean isConcurrent()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean isPartitionable()
+        {
+            return true;
+        }
+    }
+
+    private ObjectBundle createObjectBundle( int size )
+    {
+        List<IdentifiableObject> attributes = new ArrayList<>();
+
+        for ( int i = 0; i < size; i++ )
+        {
+            Attribute attribute = new Attribute();
+            attribute.setUid( (i % 2 == 0 ? "u" : "a") + i );
+            attributes.add( attribute );
+        }
+
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> objectMap = new HashMap<>();
+        objectMap.put( Attribute.class, attributes );
+
+        return new ObjectBundle( new ObjectBundleParams(), new Preheat(), objectMap );
+    }
+
     private ObjectBundle createObjectBundle()
     {
 
@@ -30,6 +30,7 @@ package org.hisp.dhis.dxf2.metadata.sync;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
@@ -47,6 +48,7 @@ import org.hisp.dhis.dxf2.metadata.MetadataImportParams;
 import org.hisp.dhis.dxf2.metadata.sync.exception.DhisVersionMismatchException;
 import org.hisp.dhis.dxf2.metadata.sync.exception.MetadataSyncServiceException;
 import org.hisp.dhis.dxf2.metadata.version.MetadataVersionDelegate;
+import org.hisp.dhis.dxf2.metadata.version.exception.MetadataVersionServiceException;
 import org.hisp.dhis.metadata.version.MetadataVersion;
 import org.hisp.dhis.metadata.version.MetadataVersionService;
 import org.hisp.dhis.metadata.version.VersionType;
@@ -58,6 +60,8 @@ import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
+import com.google.common.collect.Lists;
+
 /**
  * @author sultanm
  */
@@ -360,4 +364,69 @@ public class DefaultMetadataSyncServiceTest
         verify( metadataVersionDelegate, never() ).downloadMetadataVersionSnapshot( metadataVersion );
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testShouldStoreMetadataVersionsDeltaAndAddMergedVersions()
+        throws DhisVersionMismatchException
+    {
+        MetadataVersion baseline = new MetadataVersion( "Version_1", VersionType.ATOMIC );
+        MetadataVersion versionA = new MetadataVersion( "Version_2", VersionType.ATOMIC );
+        MetadataVersion versionB = new MetadataVersion( "Version_3", VersionType.ATOMIC );
+        MetadataSyncParams syncParams = new MetadataSyncParams( new MetadataImportParams(), versionB );
+        MetadataSyncSummary metadataSyncSummary = new MetadataSyncSummary();
+        metadataSyncSummary.setMetadataVersion( versionB );
+        String versionsDelta = "{\"dataElements\":[{\"id\":\"deabcdef0a1\"}]}";
+
+        when( metadataVersionDelegate.downloadMetadataVersionsDelta( baseline, versionB ) )
+            .thenReturn( versionsDelta );
+        when( metadataSyncImportHandler.importMetadata( syncParams, versionsDelta ) )
+            .thenReturn( metadataSyncSummary );
+        when( metadataVersionService.getVersionByName( "Version_3" ) ).thenReturn( versionB );
+
+        MetadataSyncSummary actualSummary = metadataSyncService.doMetadataDeltaSync( syncParams, baseline,
+            Lists.newArrayList( versionA, versionB ) );
+
+        assertEquals( versionB, actualSummary.getMetadataVersion() );
+        verify( metadataVersionService ).createMetadataVersionInDataStore( "Version_3", versionsDelta );
+        verify( metadataVersionDelegate ).addNewMetadataVersion( versionA );
+        verify( metadataVersionDelegate, never() ).addNewMetadataVersion( versionB );
+    }
+
+    @Test
+    public void testShouldNotAddMergedVersionsWhenMetadataVersionsDeltaImportFails()
+        throws DhisVersionMismatchException
+    {
+        MetadataVersion versionA = new MetadataVersion( "Version_1", VersionType.ATOMIC );
+        MetadataVersion versionB = new MetadataVersion( "Version_2", VersionType.ATOMIC );
+        MetadataSyncParams syncParams = new MetadataSyncParams( new MetadataImportParams(), versionB );
+        String versionsDelta = "{\"dataElements\":[{\"id\":\"deabcdef0a1\"}]}";
+
+        when( metadataVersionDelegate.downloadMetadataVersionsDelta( null, versionB ) )
+            .thenReturn( versionsDelta );
+        when( metadataSyncImportHandler.importMetadata( syncParams, versionsDelta ) )
+            .thenReturn( new MetadataSyncSummary() );
+        when( metadataVersionService.getVersionByName( "Version_2" ) ).thenReturn( null );
+
+        metadataSyncService.doMetadataDeltaSync( syncParams, null, Lists.newArrayList( versionA, versionB ) );
+
+        verify( metadataVersionDelegate, never() ).addNewMetadataVersion( any() );
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenMetadataVersionsDeltaIsCorrupted()
+    {
+        MetadataVersion versionA = new MetadataVersion( "Version_1", VersionType.ATOMIC );
+        MetadataVersion versionB = new MetadataVersion( "Version_2", VersionType.ATOMIC );
+        MetadataSyncParams syncParams = new MetadataSyncParams( new MetadataImportParams(), versionB );
+
+        when( metadataVersionDelegate.downloadMetadataVersionsDelta( null, versionB ) )
+            .thenThrow( new MetadataVersionServiceException( "Metadata versions delta is corrupted." ) );
+
+        assertThrows( MetadataSyncServiceException.class,
+            () -> metadataSyncService.doMetadataDeltaSync( syncParams, null,
+                Lists.newArrayList( versionA, versionB ) ) );
+
+        verify( metadataVersionService, never() ).createMetadataVersionInDataStore( any(), any() );
+        verify( metadataSyncImportHandler, never() ).importMetadata( any(), any() );
+    }
+}
@@ -28,20 +28,34 @@
 package org.hisp.dhis.dxf2.metadata.sync;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.apache.commons.io.IOUtils;
+
+import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dxf2.metadata.MetadataImportParams;
 import org.hisp.dhis.dxf2.metadata.MetadataImportService;
 import org.hisp.dhis.dxf2.metadata.feedback.ImportReport;
+import org.hisp.dhis.dxf2.metadata.sync.MetadataSyncObjectHashStore.ObjectHash;
 import org.hisp.dhis.dxf2.metadata.sync.exception.MetadataSyncImportException;
 import org.hisp.dhis.dxf2.metadata.sync.exception.MetadataSyncServiceException;
 import org.hisp.dhis.dxf2.metadata.version.MetadataVersionDelegate;
@@ -50,14 +64,19 @@ import org.hisp.dhis.metadata.version.MetadataVersion;
 import org.hisp.dhis.metadata.version.VersionType;
 import org.hisp.dhis.render.RenderFormat;
 import org.hisp.dhis.render.RenderService;
+import org.hisp.dhis.schema.Schema;
+import org.hisp.dhis.schema.SchemaService;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
+import com.google.common.collect.ImmutableMap;
+
 /**
  * @author anilkumk
  */
@@ -72,6 +91,12 @@ public class MetadataSyncImportHandlerTest
     @Mock
     private RenderService renderService;
 
+    @Mock
+    private MetadataSyncObjectHashStore metadataSyncObjectHashStore;
+
+    @Mock
+    private SchemaService schemaService;
+
     @InjectMocks
     private MetadataSyncImportHandler metadataSyncImportHandler;
 
@@ -93,6 +118,11 @@ public class MetadataSyncImportHandlerTest
         expectedMetadataSnapshot = "{\"date\":\"2016-05-24T05:27:25.128+0000\"}";
         syncParams = new MetadataSyncParams();
         importReport = new ImportReport();
+
+        Schema schema = new Schema( DataElement.class, "dataElement", "dataElements" );
+        schema.setTableName( "dataelement" );
+
+        when( schemaService.getSchemaByPluralName( "dataElements" ) ).thenReturn( schema );
     }
 
     @Test
@@ -243,4 +273,125 @@ public class MetadataSyncImportHandlerTest
         assertEquals( metadataSyncSummary.getImportSummary(), actualMetadataSyncSummary.getImportSummary() );
         assertEquals( metadataSyncSummary.getMetadataVersion(), actualMetadataSyncSummary.getMetadataVersion() );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testShouldSkipObjectsWithUnchangedHash()
+        throws IOException
+    {
+        syncParams.setImportParams( new MetadataImportParams() );
+        syncParams.setVersion( metadataVersion );
+        importReport.setStatus( Status.OK );
+
+        String snapshot = "{\"dataElements\":[{\"id\":\"deabcdef0a1\",\"name\":\"A\",\"lastUpdated\":\"1\"},"
+            + "{\"id\":\"deabcdef0a2\",\"name\":\"B\"}]}";
+        Map<String, Date> lastUpdated = ImmutableMap.of( "deabcdef0a1", new Date( 1000L ),
+            "deabcdef0a2", new Date( 2000L ) );
+
+        when( metadataImportService.importMetadata( syncParams.getImportParams() ) ).thenReturn( importReport );
+        when( metadataSyncObjectHashStore.getHashes( "dataElements" ) ).thenReturn( Collections.emptyMap() );
+        when( metadataSyncObjectHashStore.getLastUpdated( eq( "dataelement" ), anyCollection() ) )
+            .thenReturn( lastUpdated );
+
+        metadataSyncImportHandler.importMetadata( syncParams, snapshot );
+
+        ArgumentCaptor<Map<String, String>> hashes = hashesCaptor();
+        verify( metadataSyncObjectHashStore ).saveHashes( eq( "dataElements" ), hashes.capture(),
+            eq( lastUpdated ) );
+        assertEquals( 2, hashes.getValue().size() );
+
+        // Second sync of the same objects with only lastUpdated changed
+
+        snapshot = snapshot.replace( "\"lastUpdated\":\"1\"", "\"lastUpdated\":\"2\"" )
+            .replace( "\"name\":\"B\"", "\"name\":\"C\"" );
+
+        when( metadataSyncObjectHashStore.getHashes( "dataElements" ) )
+            .thenReturn( getObjectHashes( hashes.getValue(), lastUpdated ) );
+
+        String json = importAndGetParsedSnapshot( snapshot, 2 );
+
+        assertFalse( json.contains( "deabcdef0a1" ) );
+        assertTrue( json.contains( "deabcdef0a2" ) );
+    }
+
+    @Test
+    public void testShouldNotSkipObjectsChangedOrDeletedLocally()
+        throws IOException
+    {
+        syncParams.setImportParams( new MetadataImportParams() );
+        syncParams.setVersion( metadataVersion );
+        importReport.setStatus( Status.OK );
+
+        String snapshot = "{\"dataElements\":[{\"id\":\"deabcdef0a1\",\"name\":\"A\"},"
+            + "{\"id\":\"deabcdef0a2\",\"name\":\"B\"},{\"id\":\"deabcdef0a3\",\"name\":\"C\"}]}";
+        Map<String, Date> lastUpdated = ImmutableMap.of( "deabcdef0a1", new Date( 1000L ),
+            "deabcdef0a2", new Date( 2000L ), "deabcdef0a3", new Date( 3000L ) );
+
+        when( metadataImportService.importMetadata( syncParams.getImportParams() ) ).thenReturn( importReport );
+        when( metadataSyncObjectHashStore.getHashes( "dataElements" ) ).thenReturn( Collections.emptyMap() );
+        when( metadataSyncObjectHashStore.getLastUpdated( eq( "dataelement" ), anyCollection() ) )
+            .thenReturn( lastUpdated );
+
+        metadataSyncImportHandler.importMetadata( syncParams, snapshot );
+
+        ArgumentCaptor<Map<String, String>> hashes = hashesCaptor();
+        verify( metadataSyncObjectHashStore ).saveHashes( eq( "dataElements" ), hashes.capture(), anyMap() );
+
+        // A is unchanged, B was updated and C was deleted locally
+
+        when( metadataSyncObjectHashStore.getHashes( "dataElements" ) )
+            .thenReturn( getObjectHashes( hashes.getValue(), lastUpdated ) );
+        when( metadataSyncObjectHashStore.getLastUpdated( eq( "dataelement" ), anyCollection() ) )
+            .thenReturn( ImmutableMap.of( "deabcdef0a1", new Date( 1000L ), "deabcdef0a2", new Date( 2500L ) ) );
+
+        String json = importAndGetParsedSnapshot( snapshot, 2 );
+
+        assertFalse( json.contains( "deabcdef0a1" ) );
+        assertTrue( json.contains( "deabcdef0a2" ) );
+        assertTrue( json.contains( "deabcdef0a3" ) );
+    }
+
+    @Test
+    public void testShouldNotSaveHashesWhenImportHasWarnings()
+    {
+        syncParams.setImportParams( new MetadataImportParams() );
+        syncParams.setVersion( metadataVersion );
+        importReport.setStatus( Status.WARNING );
+        metadataVersion.setType( VersionType.BEST_EFFORT );
+
+        when( metadataImportService.importMetadata( syncParams.getImportParams() ) ).thenReturn( importReport );
+
+        metadataSyncImportHandler.importMetadata( syncParams,
+            "{\"dataElements\":[{\"id\":\"deabcdef0a1\",\"name\":\"A\"}]}" );
+
+        verify( metadataVersionDelegate ).addNewMetadataVersion( metadataVersion );
+        verify( metadataSyncObjectHashStore, never() ).saveHashes( any(), anyMap(), anyMap() );
+    }
+
+    private String importAndGetParsedSnapshot( String snapshot, int invocations )
+        throws IOException
+    {
+        ArgumentCaptor<InputStream> parsedSnapshot = ArgumentCaptor.forClass( InputStream.class );
+
+        metadataSyncImportHandler.importMetadata( syncParams, snapshot );
+
+        verify( renderService, times( invocations ) ).fromMetadata( parsedSnapshot.capture(),
+            eq( RenderFormat.JSON ) );
+
+        return IOUtils.toString( parsedSnapshot.getValue(), StandardCharsets.UTF_8 );
+    }
+
+    private Map<String, ObjectHash> getObjectHashes( Map<String, String> hashes, Map<String, Date> lastUpdated )
+    {
+        Map<String, ObjectHash> objectHashes = new HashMap<>();
+
+        hashes.forEach( ( uid, hash ) -> objectHashes.put( uid, new ObjectHash( hash, lastUpdated.get( uid ) ) ) );
+
+        return objectHashes;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private ArgumentCaptor<Map<String, String>> hashesCaptor()
+    {
+        return ArgumentCaptor.forClass( Map.class );
+    }
+}
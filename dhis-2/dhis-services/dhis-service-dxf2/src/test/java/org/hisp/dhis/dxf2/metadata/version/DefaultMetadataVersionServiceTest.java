@@ -28,10 +28,13 @@
 package org.hisp.dhis.dxf2.metadata.version;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.List;
@@ -53,12 +56,19 @@ import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * @author sultanm
  */
 public class DefaultMetadataVersionServiceTest
     extends TransactionalIntegrationTest
 {
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private static final Date BASE_DATE = new Date( 1609459200000L );
+
     @Autowired
     private MetadataVersionService versionService;
 
@@ -305,6 +315,68 @@ public class DefaultMetadataVersionServiceTest
         versionService.isMetadataPassingIntegrity( null, null );
     }
 
+    @Test
+    public void testGetVersionsDeltaMergesLatestState()
+        throws IOException
+    {
+        addVersion( "Version_1", 1, "{\"dataElements\":[" + object( "deabcdef0a1", "A1" ) + ","
+            + object( "deabcdef0a3", "C1" ) + "]}" );
+        addVersion( "Version_2", 2, "{\"dataElements\":[" + object( "deabcdef0a1", "A2" ) + ","
+            + object( "deabcdef0a2", "B2" ) + "]}" );
+        addVersion( "Version_3", 3, "{\"dataElements\":[" + object( "deabcdef0a1", "A3" ) + "]}" );
+
+        JsonNode delta = JSON_MAPPER.readTree( versionService.getVersionsDelta( "Version_1", "Version_3" ) );
+
+        assertEquals( 2, delta.get( "dataElements" ).size() );
+        assertEquals( "A3", getObject( delta, "dataElements", "deabcdef0a1" ).get( "name" ).asText() );
+        assertEquals( "B2", getObject( delta, "dataElements", "deabcdef0a2" ).get( "name" ).asText() );
+        assertNull( getObject( delta, "dataElements", "deabcdef0a3" ) );
+        assertFalse( delta.has( MetadataVersionService.DELETED_OBJECTS ) );
+    }
+
+    @Test
+    public void testGetVersionsDeltaCarriesDeletionsForward()
+        throws IOException
+    {
+        addVersion( "Version_1", 1, "{\"dataElements\":[" + object( "deabcdef0a1", "A1" ) + ","
+            + object( "deabcdef0a2", "B1" ) + "]}" );
+        addVersion( "Version_2", 2, "{\"deletedObjects\":[" + deletedObject( "deabcdef0a1" ) + "]}" );
+        addVersion( "Version_3", 3, "{\"dataElements\":[" + object( "deabcdef0a2", "B3" ) + "]}" );
+
+        JsonNode delta = JSON_MAPPER.readTree( versionService.getVersionsDelta( null, "Version_3" ) );
+
+        assertEquals( 1, delta.get( "dataElements" ).size() );
+        assertEquals( "B3", getObject( delta, "dataElements", "deabcdef0a2" ).get( "name" ).asText() );
+        assertEquals( 1, delta.get( MetadataVersionService.DELETED_OBJECTS ).size() );
+        assertEquals( "deabcdef0a1", delta.get( MetadataVersionService.DELETED_OBJECTS ).get( 0 )
+            .get( "uid" ).asText() );
+    }
+
+    @Test
+    public void testGetVersionsDeltaIncludesObjectRecreatedAfterDelete()
+        throws IOException
+    {
+        addVersion( "Version_1", 1, "{\"dataElements\":[" + object( "deabcdef0a1", "A1" ) + "]}" );
+        addVersion( "Version_2", 2, "{\"deletedObjects\":[" + deletedObject( "deabcdef0a1" ) + "]}" );
+        addVersion( "Version_3", 3, "{\"dataElements\":[" + object( "deabcdef0a1", "A3" ) + "]}" );
+
+        JsonNode delta = JSON_MAPPER.readTree( versionService.getVersionsDelta( null, "Version_3" ) );
+
+        assertEquals( 1, delta.get( "dataElements" ).size() );
+        assertEquals( "A3", getObject( delta, "dataElements", "deabcdef0a1" ).get( "name" ).asText() );
+        assertFalse( delta.has( MetadataVersionService.DELETED_OBJECTS ) );
+    }
+
+    @Test
+    public void testGetVersionsDeltaForUnknownVersion()
+    {
+        addVersion( "Version_1", 1, "{\"dataElements\":[" + object( "deabcdef0a1", "A1" ) + "]}" );
+
+        assertNull( versionService.getVersionsDelta( null, "Version_2" ) );
+        assertThrows( MetadataVersionServiceException.class,
+            () -> versionService.getVersionsDelta( "Version_0", "Version_1" ) );
+    }
+
     // --------------------------------------------------------------------------
     // Supportive methods
     // --------------------------------------------------------------------------
@@ -320,4 +392,37 @@ public class DefaultMetadataVersionServiceTest
             e.printStackTrace();
         }
     }
+
+    private void addVersion( String name, int minutes, String snapshot )
+    {
+        MetadataVersion version = new MetadataVersion( name, VersionType.BEST_EFFORT );
+        version.setHashCode( name );
+        version.setCreated( DateUtils.addMinutes( BASE_DATE, minutes ) );
+
+        versionService.addVersion( version );
+        versionService.createMetadataVersionInDataStore( name, snapshot );
+    }
+
+    private String object( String uid, String name )
+    {
+        return "{\"id\":\"" + uid + "\",\"name\":\"" + name + "\"}";
+    }
+
+    private String deletedObject( String uid )
+    {
+        return "{\"klass\":\"DataElement\",\"uid\":\"" + uid + "\"}";
+    }
+
+    private JsonNode getObject( JsonNode snapshot, String collection, String uid )
+    {
+        for ( JsonNode object : snapshot.get( collection ) )
+        {
+            if ( uid.equals( object.get( "id" ).asText() ) )
+            {
+                return object;
+            }
+        }
+
+        return null;
+    }
 }
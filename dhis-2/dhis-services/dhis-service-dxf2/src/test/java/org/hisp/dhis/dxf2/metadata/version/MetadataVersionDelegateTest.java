@@ -44,6 +44,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.http.HttpResponse;
+import org.apache.http.message.BasicHeader;
+import org.hisp.dhis.dxf2.common.HashCodeGenerator;
 import org.hisp.dhis.dxf2.metadata.sync.exception.RemoteServerUnavailableException;
 import org.hisp.dhis.dxf2.metadata.systemsettings.DefaultMetadataSystemSettingService;
 import org.hisp.dhis.dxf2.metadata.version.exception.MetadataVersionServiceException;
@@ -102,6 +104,8 @@ public class MetadataVersionDelegateTest
 
     private String downloadUrl = "http://localhost:9080/api/metadata/version/testVersion/data.gz";
 
+    private String deltaUrl = "http://localhost:9080/api/metadata/version/testVersion/delta.gz";
+
     private String response = "{\"name\":\"testVersion\",\"created\":\"2016-05-26T11:43:59.787+0000\",\"type\":\"BEST_EFFORT\",\"id\":\"ktwh8PHNwtB\",\"hashCode\":\"12wa32d4f2et3tyt5yu6i\"}";
 
     @Before
@@ -464,6 +468,42 @@ public class MetadataVersionDelegateTest
         }
     }
 
+    @Test
+    public void testShouldDownloadMetadataVersionsDelta()
+        throws Exception
+    {
+        String versionsDelta = "{\"dataElements\":[{\"id\":\"deabcdef0a1\"}]}";
+
+        mockDownloadMetadataVersionsDelta( HashCodeGenerator.getHashCode( versionsDelta ) );
+
+        try ( MockedStatic<HttpUtils> mocked = mockStatic( HttpUtils.class ) )
+        {
+            mocked
+                .when( () -> HttpUtils.httpGET( deltaUrl, true, username, password, null, DOWNLOAD_TIMEOUT, true ) )
+                .thenReturn( new DhisHttpResponse( httpResponse, versionsDelta, HttpStatus.OK.value() ) );
+
+            assertEquals( versionsDelta, target.downloadMetadataVersionsDelta( null, metadataVersion ) );
+        }
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenMetadataVersionsDeltaHashDoesNotMatch()
+    {
+        String versionsDelta = "{\"dataElements\":[{\"id\":\"deabcdef0a1\"}]}";
+
+        mockDownloadMetadataVersionsDelta( "12wa32d4f2et3tyt5yu6i" );
+
+        try ( MockedStatic<HttpUtils> mocked = mockStatic( HttpUtils.class ) )
+        {
+            mocked
+                .when( () -> HttpUtils.httpGET( deltaUrl, true, username, password, null, DOWNLOAD_TIMEOUT, true ) )
+                .thenReturn( new DhisHttpResponse( httpResponse, versionsDelta, HttpStatus.OK.value() ) );
+
+            assertThrows( MetadataVersionServiceException.class,
+                () -> target.downloadMetadataVersionsDelta( null, metadataVersion ) );
+        }
+    }
+
     @Test
     public void testShouldAddNewMetadataVersion()
     {
@@ -471,4 +511,16 @@ public class MetadataVersionDelegateTest
 
         verify( metadataVersionService, times( 1 ) ).addVersion( metadataVersion );
     }
-}
\ No newline at end of file
+
+    private void mockDownloadMetadataVersionsDelta( String hashCode )
+    {
+        when( metadataSystemSettingService.getDownloadVersionsDeltaURL( null, "testVersion" ) )
+            .thenReturn( deltaUrl );
+        when( synchronizationManager.isRemoteServerAvailable() )
+            .thenReturn( new AvailabilityStatus( true, "test_message", null ) );
+        when( metadataSystemSettingService.getRemoteInstanceUserName() ).thenReturn( username );
+        when( metadataSystemSettingService.getRemoteInstancePassword() ).thenReturn( password );
+        when( httpResponse.getFirstHeader( MetadataVersionService.VERSIONS_DELTA_HASH_HEADER ) )
+            .thenReturn( new BasicHeader( MetadataVersionService.VERSIONS_DELTA_HASH_HEADER, hashCode ) );
+    }
+}
@@ -28,6 +28,7 @@
 package org.hisp.dhis.node;
 
 import java.io.OutputStream;
+import java.util.function.Supplier;
 
 import org.hisp.dhis.node.config.Config;
 import org.hisp.dhis.node.types.CollectionNode;
@@ -58,6 +59,20 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
     protected abstract void flushStream()
         throws Exception;
 
+    /**
+     * Indicates whether this serializer writes the children of the root node
+     * one at a time, so that deferred children of the root node can be created
+     * and discarded as they are written. Serializers which inspect all children
+     * of the root node before writing must return false, in which case the
+     * deferred children are resolved before serialization starts.
+     *
+     * @return true if deferred children are streamed.
+     */
+    protected boolean isStreaming()
+    {
+        return false;
+    }
+
     protected Config config;
 
     @Override
@@ -65,10 +80,23 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
         throws Exception
     {
         this.config = rootNode.getConfig();
-        startSerialize( rootNode, outputStream );
-        writeRootNode( rootNode );
-        endSerialize( rootNode, outputStream );
-        this.config = null;
+
+        try
+        {
+            if ( !isStreaming() )
+            {
+                rootNode.resolveDeferredChildren();
+            }
+
+            startSerialize( rootNode, outputStream );
+            writeRootNode( rootNode );
+            endSerialize( rootNode, outputStream );
+        }
+        finally
+        {
+            rootNode.discardDeferredChildren();
+            this.config = null;
+        }
     }
 
     protected abstract void startWriteRootNode( RootNode rootNode )
@@ -85,6 +113,19 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
             flushStream();
         }
 
+        for ( Supplier<? extends Node> deferredChild : rootNode.getDeferredChildren() )
+        {
+            Node node = deferredChild.get();
+
+            if ( node != null )
+            {
+                rootNode.addChild( node );
+                dispatcher( node );
+                flushStream();
+                rootNode.removeChild( node );
+            }
+        }
+
         endWriteRootNode( rootNode );
         flushStream();
     }
@@ -79,6 +79,12 @@ public class Jackson2JsonNodeSerializer extends AbstractNodeSerializer
         generator.flush();
     }
 
+    @Override
+    protected boolean isStreaming()
+    {
+        return true;
+    }
+
     @Override
     protected void startSerialize( RootNode rootNode, OutputStream outputStream )
         throws Exception
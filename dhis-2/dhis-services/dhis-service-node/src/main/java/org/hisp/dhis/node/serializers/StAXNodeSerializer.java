@@ -106,6 +106,12 @@ public class StAXNodeSerializer extends AbstractNodeSerializer
         writer.flush();
     }
 
+    @Override
+    protected boolean isStreaming()
+    {
+        return true;
+    }
+
     @Override
     protected void startWriteRootNode( RootNode rootNode )
         throws Exception
@@ -27,7 +27,10 @@
  */
 package org.hisp.dhis.node.types;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import org.hisp.dhis.node.Node;
 import org.hisp.dhis.node.config.Config;
@@ -41,6 +44,10 @@ public class RootNode extends ComplexNode
 
     private final Config config = new Config();
 
+    private final List<Supplier<? extends Node>> deferredChildren = new ArrayList<>();
+
+    private final List<Runnable> deferredChildrenDiscardHandlers = new ArrayList<>();
+
     public RootNode( String name )
     {
         super( name );
@@ -69,6 +76,72 @@ public class RootNode extends ComplexNode
         return config;
     }
 
+    /**
+     * Adds a child which is created by the given supplier when the root node
+     * is serialized. Deferred children are written after the regular children
+     * in the order they were added. Streaming serializers write and discard
+     * each deferred child before the next one is created. The supplier may
+     * return null, in which case no child is written.
+     *
+     * @param child the supplier of the child node.
+     */
+    public void addDeferredChild( Supplier<? extends Node> child )
+    {
+        deferredChildren.add( child );
+    }
+
+    public List<Supplier<? extends Node>> getDeferredChildren()
+    {
+        return deferredChildren;
+    }
+
+    /**
+     * Creates all deferred children and adds them as regular children.
+     */
+    public void resolveDeferredChildren()
+    {
+        for ( Supplier<? extends Node> deferredChild : deferredChildren )
+        {
+            Node child = deferredChild.get();
+
+            if ( child != null )
+            {
+                addChild( child );
+            }
+        }
+
+        deferredChildren.clear();
+    }
+
+    /**
+     * Adds a handler which is run when the deferred children are discarded,
+     * i.e. after serialization has completed or failed. Suppliers which
+     * prepare children in the background can use it to cancel work which is
+     * no longer needed.
+     *
+     * @param handler the handler to run.
+     */
+    public void addDeferredChildrenDiscardHandler( Runnable handler )
+    {
+        deferredChildrenDiscardHandlers.add( handler );
+    }
+
+    /**
+     * Removes all deferred children which have not been created yet and runs
+     * the discard handlers.
+     */
+    public void discardDeferredChildren()
+    {
+        deferredChildren.clear();
+
+        for ( Runnable handler : deferredChildrenDiscardHandlers )
+        {
+            handler.run();
+        }
+
+        deferredChildrenDiscardHandlers.clear();
+    }
+
     @Override
     public boolean equals( Object o )
     {
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.node.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hisp.dhis.node.Node;
+import org.hisp.dhis.node.serializers.Jackson2JsonNodeSerializer;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for {@link RootNode}.
+ */
+public class RootNodeTest
+{
+    @Test
+    public void resolveDeferredChildren()
+    {
+        RootNode rootNode = new RootNode( "metadata" );
+        rootNode.addChild( new SimpleNode( "system", "A" ) );
+        rootNode.addDeferredChild( () -> createCollectionNode( "dataElements", "deA" ) );
+        rootNode.addDeferredChild( () -> null );
+        rootNode.addDeferredChild( () -> createCollectionNode( "indicators", "inA" ) );
+
+        rootNode.resolveDeferredChildren();
+
+        assertTrue( rootNode.getDeferredChildren().isEmpty() );
+        assertEquals( 3, rootNode.getUnorderedChildren().size() );
+        assertEquals( "system", rootNode.getUnorderedChildren().get( 0 ).getName() );
+        assertEquals( "dataElements", rootNode.getUnorderedChildren().get( 1 ).getName() );
+        assertEquals( "indicators", rootNode.getUnorderedChildren().get( 2 ).getName() );
+    }
+
+    @Test
+    public void serializeDeferredChildren()
+        throws Exception
+    {
+        RootNode rootNode = new RootNode( "metadata" );
+        rootNode.addChild( new SimpleNode( "system", "A" ) );
+        rootNode.addDeferredChild( () -> createCollectionNode( "dataElements", "deA" ) );
+        rootNode.addDeferredChild( () -> null );
+        rootNode.addDeferredChild( () -> createCollectionNode( "indicators", "inA" ) );
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        new Jackson2JsonNodeSerializer( new ObjectMapper() ).serialize( rootNode, outputStream );
+
+        assertEquals( "{\"system\":\"A\",\"dataElements\":[{\"id\":\"deA\"}],\"indicators\":[{\"id\":\"inA\"}]}",
+            new String( outputStream.toByteArray(), StandardCharsets.UTF_8 ) );
+        assertTrue( rootNode.getDeferredChildren().isEmpty() );
+        assertEquals( 1, rootNode.getUnorderedChildren().size() );
+    }
+
+    @Test
+    public void discardDeferredChildrenWhenSerializationFails()
+    {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger discarded = new AtomicInteger();
+
+        RootNode rootNode = new RootNode( "metadata" );
+        rootNode.addDeferredChild( () -> {
+            throw new IllegalStateException( "Writer aborted" );
+        } );
+        rootNode.addDeferredChild( () -> {
+            created.incrementAndGet();
+            return createCollectionNode( "indicators", "inA" );
+        } );
+        rootNode.addDeferredChildrenDiscardHandler( discarded::incrementAndGet );
+
+        try
+        {
+            new Jackson2JsonNodeSerializer( new ObjectMapper() ).serialize( rootNode, new ByteArrayOutputStream() );
+            fail( "Expected serialization to fail" );
+        }
+        catch ( Exception ex )
+        {
+            assertEquals( "Writer aborted", ex.getMessage() );
+        }
+
+        assertEquals( 0, created.get() );
+        assertEquals( 1, discarded.get() );
+        assertTrue( rootNode.getDeferredChildren().isEmpty() );
+    }
+
+    @Test
+    public void discardDeferredChildrenAfterSerialization()
+        throws Exception
+    {
+        AtomicInteger discarded = new AtomicInteger();
+
+        RootNode rootNode = new RootNode( "metadata" );
+        rootNode.addDeferredChild( () -> createCollectionNode( "dataElements", "deA" ) );
+        rootNode.addDeferredChildrenDiscardHandler( discarded::incrementAndGet );
+
+        new Jackson2JsonNodeSerializer( new ObjectMapper() ).serialize( rootNode, new ByteArrayOutputStream() );
+
+        assertEquals( 1, discarded.get() );
+    }
+
+    private Node createCollectionNode( String name, String id )
+    {
+        CollectionNode collectionNode = new CollectionNode( name );
+        ComplexNode complexNode = collectionNode.addChild( new ComplexNode( "object" ) );
+        complexNode.addChild( new SimpleNode( "id", id ) );
+
+        return collectionNode;
+    }
+}
@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -264,7 +265,7 @@ public class DefaultSchemaService
 
     private final Map<String, Schema> pluralSchemaMap = new HashMap<>();
 
-    private final Map<Class<?>, Schema> dynamicClassSchemaMap = new HashMap<>();
+    private final Map<Class<?>, Schema> dynamicClassSchemaMap = new ConcurrentHashMap<>();
 
     private final PropertyIntrospectorService propertyIntrospectorService;
 
@@ -117,6 +117,12 @@ public enum SettingKey
     CUSTOM_LOGIN_PAGE_LOGO( "keyCustomLoginPageLogo", Boolean.FALSE, Boolean.class ),
     CUSTOM_TOP_MENU_LOGO( "keyCustomTopMenuLogo", Boolean.FALSE, Boolean.class ),
     ANALYTICS_MAINTENANCE_MODE( "keyAnalyticsMaintenanceMode", Boolean.FALSE, Boolean.class ),
+    /**
+     * Pre-aggregated analytics rollup tables, as a comma separated list of
+     * organisation unit level and period type name pairs, e.g.
+     * "2:Monthly,3:Yearly".
+     */
+    ANALYTICS_ROLLUPS( "keyAnalyticsRollups", "", String.class ),
     DATABASE_SERVER_CPUS( "keyDatabaseServerCpus", 0, Integer.class ),
     LAST_SUCCESSFUL_ANALYTICS_TABLES_RUNTIME( "keyLastSuccessfulAnalyticsTablesRuntime" ),
     LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_RUNTIME( "keyLastSuccessfulLatestAnalyticsPartitionRuntime" ),
@@ -131,6 +137,7 @@ public enum SettingKey
     LAST_SUCCESSFUL_RESOURCE_TABLES_UPDATE( "keyLastSuccessfulResourceTablesUpdate", Date.class ),
     LAST_SUCCESSFUL_SYSTEM_MONITORING_PUSH( "keyLastSuccessfulSystemMonitoringPush", Date.class ),
     LAST_SUCCESSFUL_MONITORING( "keyLastSuccessfulMonitoring", Date.class ),
+    LAST_SUCCESSFUL_OUTLIER_STATISTICS_UPDATE( "keyLastSuccessfulOutlierStatisticsUpdate", Date.class ),
     NEXT_ANALYTICS_TABLE_UPDATE( "keyNextAnalyticsTableUpdate", Date.class ),
     HELP_PAGE_LINK( "helpPageLink", "https://dhis2.github.io/dhis2-docs/master/en/user/html/dhis2_user_manual_en.html",
         String.class ),
@@ -211,7 +218,26 @@ public enum SettingKey
     /**
      * The caching strategy enabled
      */
-    ANALYTICS_CACHE_TTL_MODE( "keyAnalyticsCacheTtlMode", AnalyticsCacheTtlMode.FIXED, AnalyticsCacheTtlMode.class );
+    ANALYTICS_CACHE_TTL_MODE( "keyAnalyticsCacheTtlMode", AnalyticsCacheTtlMode.FIXED, AnalyticsCacheTtlMode.class ),
+
+    /**
+     * Number of most viewed favorites per favorite type for which the
+     * analytics cache is warmed up after analytics table generation. Zero
+     * disables the warm-up.
+     */
+    ANALYTICS_CACHE_WARM_UP_FAVORITES( "keyAnalyticsCacheWarmUpFavorites", 0, Integer.class ),
+
+    /**
+     * Comma separated list of usernames of representative users for which the
+     * analytics cache is warmed up. The warm-up runs without a user if empty.
+     */
+    ANALYTICS_CACHE_WARM_UP_USERS( "keyAnalyticsCacheWarmUpUsers", "", String.class ),
+
+    /**
+     * Max number of analytics queries run concurrently during the analytics
+     * cache warm-up.
+     */
+    ANALYTICS_CACHE_WARM_UP_THREADS( "keyAnalyticsCacheWarmUpThreads", 2, Integer.class );
 
     private final String name;
 
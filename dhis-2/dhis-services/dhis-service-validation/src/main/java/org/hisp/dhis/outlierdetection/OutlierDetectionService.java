@@ -86,4 +86,11 @@ public interface OutlierDetectionService
     void getOutlierValuesAsCsv( OutlierDetectionRequest request, OutputStream out )
         throws IllegalQueryException,
         IOException;
+
+    /**
+     * Updates the outlier statistics of all data value series with data values
+     * changed since the last update, or of all series if the statistics have
+     * never been generated.
+     */
+    void updateOutlierStatistics();
 }
@@ -30,6 +30,7 @@ package org.hisp.dhis.outlierdetection.service;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -49,6 +50,8 @@ import org.hisp.dhis.outlierdetection.OutlierDetectionRequest;
 import org.hisp.dhis.outlierdetection.OutlierDetectionResponse;
 import org.hisp.dhis.outlierdetection.OutlierDetectionService;
 import org.hisp.dhis.outlierdetection.OutlierValue;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.util.JacksonCsvUtils;
 import org.springframework.stereotype.Service;
 
@@ -68,13 +71,21 @@ public class DefaultOutlierDetectionService
 
     private final MinMaxOutlierDetectionManager minMaxOutlierDetection;
 
+    private final OutlierStatisticsManager outlierStatisticsManager;
+
+    private final SystemSettingManager systemSettingManager;
+
     public DefaultOutlierDetectionService( IdentifiableObjectManager idObjectManager,
         ZScoreOutlierDetectionManager zScoreOutlierDetection,
-        MinMaxOutlierDetectionManager minMaxOutlierDetection )
+        MinMaxOutlierDetectionManager minMaxOutlierDetection,
+        OutlierStatisticsManager outlierStatisticsManager,
+        SystemSettingManager systemSettingManager )
     {
         this.idObjectManager = idObjectManager;
         this.zScoreOutlierDetection = zScoreOutlierDetection;
         this.minMaxOutlierDetection = minMaxOutlierDetection;
+        this.outlierStatisticsManager = outlierStatisticsManager;
+        this.systemSettingManager = systemSettingManager;
     }
 
     @Override
@@ -206,6 +217,18 @@ public class DefaultOutlierDetectionService
         JacksonCsvUtils.toCsv( getOutlierValues( request ).getOutlierValues(), OutlierValue.class, out );
     }
 
+    @Override
+    public void updateOutlierStatistics()
+    {
+        final Date startTime = new Date();
+        final Date lastUpdated = (Date) systemSettingManager.getSystemSetting(
+            SettingKey.LAST_SUCCESSFUL_OUTLIER_STATISTICS_UPDATE );
+
+        outlierStatisticsManager.updateStatistics( lastUpdated );
+
+        systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_OUTLIER_STATISTICS_UPDATE, startTime );
+    }
+
     /**
      * Returns metadata for the given request.
      *
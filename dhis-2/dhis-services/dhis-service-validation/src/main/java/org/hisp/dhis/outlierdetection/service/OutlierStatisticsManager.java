@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.outlierdetection.service;
+
+import static org.hisp.dhis.system.util.MathUtils.NUMERIC_LENIENT_REGEXP;
+
+import java.util.Date;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.common.ValueType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Manager for the outlier statistics table, which holds the count, mean and
+ * sum of squared deviations from the mean (M2) of the numeric data values of
+ * each data value series, i.e. combination of data element, org unit, category
+ * option combo and attribute option combo. The population standard deviation
+ * of a series is {@code sqrt(m2 / count)}.
+ * <p>
+ * Data values carry no previous value when updated or deleted, so the
+ * statistics of a series with changed data values are recomputed from the
+ * data values of that series only.
+ */
+@Slf4j
+@Repository
+public class OutlierStatisticsManager
+{
+    private static final String SERIES_COLUMNS = "dataelementid, sourceid, categoryoptioncomboid, " +
+        "attributeoptioncomboid";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public OutlierStatisticsManager( NamedParameterJdbcTemplate jdbcTemplate )
+    {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Updates the statistics of all series with data values updated since the
+     * given date. Rebuilds the statistics of all series if the date is null.
+     *
+     * @param lastUpdated the date of the last update, can be null.
+     * @return the number of series with updated statistics.
+     */
+    @Transactional
+    public int updateStatistics( Date lastUpdated )
+    {
+        final SqlParameterSource params = new MapSqlParameterSource()
+            .addValue( "last_updated", lastUpdated )
+            .addValue( "value_types", ValueType.NUMERIC_TYPES.stream()
+                .map( ValueType::name ).collect( Collectors.toList() ) )
+            .addValue( "numeric_regexp", NUMERIC_LENIENT_REGEXP );
+
+        // @formatter:off
+        final String changedSeries =
+            "(select distinct " + SERIES_COLUMNS + " " +
+            "from datavalue " +
+            "where lastupdated >= :last_updated) as cs ";
+
+        final String deleteSql = lastUpdated == null ?
+            "delete from outlierstatistics;" :
+            "delete from outlierstatistics os " +
+            "using " + changedSeries +
+            "where os.dataelementid = cs.dataelementid " +
+            "and os.sourceid = cs.sourceid " +
+            "and os.categoryoptioncomboid = cs.categoryoptioncomboid " +
+            "and os.attributeoptioncomboid = cs.attributeoptioncomboid;";
+
+        final String insertSql =
+            "insert into outlierstatistics (" + SERIES_COLUMNS + ", count, mean, m2, lastupdated) " +
+            "select dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid, " +
+            "count(*) as count, " +
+            "avg(dv.value::double precision) as mean, " +
+            "var_pop(dv.value::double precision) * count(*) as m2, " +
+            "now() as lastupdated " +
+            "from datavalue dv " +
+            "inner join dataelement de on dv.dataelementid = de.dataelementid " +
+            ( lastUpdated == null ? "" :
+            "inner join " + changedSeries +
+            "on dv.dataelementid = cs.dataelementid " +
+            "and dv.sourceid = cs.sourceid " +
+            "and dv.categoryoptioncomboid = cs.categoryoptioncomboid " +
+            "and dv.attributeoptioncomboid = cs.attributeoptioncomboid " ) +
+            "where de.valuetype in (:value_types) " +
+            "and dv.value ~* :numeric_regexp " +
+            "and dv.deleted is false " +
+            "group by dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid;";
+        // @formatter:on
+
+        jdbcTemplate.update( deleteSql, params );
+
+        int series = jdbcTemplate.update( insertSql, params );
+
+        log.info( String.format( "Updated outlier statistics for %d series, last updated: %s",
+            series, lastUpdated ) );
+
+        return series;
+    }
+}
@@ -42,6 +42,8 @@ import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.outlierdetection.OutlierDetectionRequest;
 import org.hisp.dhis.outlierdetection.OutlierValue;
 import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -61,14 +63,23 @@ public class ZScoreOutlierDetectionManager
 {
     private final NamedParameterJdbcTemplate jdbcTemplate;
 
-    public ZScoreOutlierDetectionManager( NamedParameterJdbcTemplate jdbcTemplate )
+    private final SystemSettingManager systemSettingManager;
+
+    public ZScoreOutlierDetectionManager( NamedParameterJdbcTemplate jdbcTemplate,
+        SystemSettingManager systemSettingManager )
     {
         this.jdbcTemplate = jdbcTemplate;
+        this.systemSettingManager = systemSettingManager;
     }
 
     /**
      * Returns a list of outlier data values based on z-score for the given
-     * request.
+     * request. The mean and standard deviation of each series are read from
+     * the outlier statistics table when the statistics have been generated and
+     * the request does not restrict the data start and end date, and are
+     * otherwise computed from the data values. Series without a row in the
+     * statistics table, such as series created since the last statistics
+     * update, are computed from the data values as well.
      *
      * @param request the {@link OutlierDetectionRequest}.
      * @return a list of {@link OutlierValue}.
@@ -76,8 +87,8 @@ public class ZScoreOutlierDetectionManager
     public List<OutlierValue> getOutlierValues( OutlierDetectionRequest request )
     {
         final String ouPathClause = getOrgUnitPathClause( request.getOrgUnits() );
-        final String dataStartDateClause = getDataStartDateClause( request.getDataStartDate() );
-        final String dataEndDateClause = getDataEndDateClause( request.getDataEndDate() );
+        final String statsSql = useStatistics( request ) ? getStatisticsSql( request )
+            : getDataValueStatisticsSql( request );
 
         // @formatter:off
         final String sql =
@@ -112,21 +123,7 @@ public class ZScoreOutlierDetectionManager
                 "and dv.deleted is false" +
             ") as dvs " +
             // Mean and std dev mapping query
-            "inner join (" +
-                "select dv.dataelementid as dataelementid, dv.sourceid as sourceid, " +
-                "dv.categoryoptioncomboid as categoryoptioncomboid, " +
-                "dv.attributeoptioncomboid as attributeoptioncomboid, " +
-                "avg(dv.value::double precision) as mean, " +
-                "stddev_pop(dv.value::double precision) as std_dev " +
-                "from datavalue dv " +
-                "inner join period pe on dv.periodid = pe.periodid " +
-                "inner join organisationunit ou on dv.sourceid = ou.organisationunitid " +
-                "where dv.dataelementid in (:data_element_ids) " +
-                dataStartDateClause +
-                dataEndDateClause +
-                "and " + ouPathClause + " " +
-                "and dv.deleted is false " +
-                "group by dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid" +
+            "inner join (" + statsSql +
             ") as stats " +
             // Query join
             "on dvs.dataelementid = stats.dataelementid " +
@@ -167,6 +164,102 @@ public class ZScoreOutlierDetectionManager
         }
     }
 
+    /**
+     * Indicates whether the outlier statistics table can be used for the given
+     * request.
+     *
+     * @param request the {@link OutlierDetectionRequest}.
+     * @return true if the outlier statistics table can be used.
+     */
+    private boolean useStatistics( OutlierDetectionRequest request )
+    {
+        return request.getDataStartDate() == null && request.getDataEndDate() == null &&
+            systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_OUTLIER_STATISTICS_UPDATE ) != null;
+    }
+
+    /**
+     * Returns a query for the mean and standard deviation of each series read
+     * from the outlier statistics table. Series without statistics are
+     * computed from the data values.
+     *
+     * @param request the {@link OutlierDetectionRequest}.
+     * @return a SQL query.
+     */
+    private String getStatisticsSql( OutlierDetectionRequest request )
+    {
+        // @formatter:off
+        return
+            "select os.dataelementid as dataelementid, os.sourceid as sourceid, " +
+            "os.categoryoptioncomboid as categoryoptioncomboid, " +
+            "os.attributeoptioncomboid as attributeoptioncomboid, " +
+            "os.mean as mean, " +
+            "sqrt(os.m2 / os.count) as std_dev " +
+            "from outlierstatistics os " +
+            "where os.dataelementid in (:data_element_ids) " +
+            "union all " +
+            getDataValueStatisticsSql( request, true );
+        // @formatter:on
+    }
+
+    /**
+     * Returns a query for the mean and standard deviation of each series
+     * computed from the data values within the data start and end date of the
+     * given request.
+     *
+     * @param request the {@link OutlierDetectionRequest}.
+     * @return a SQL query.
+     */
+    private String getDataValueStatisticsSql( OutlierDetectionRequest request )
+    {
+        return getDataValueStatisticsSql( request, false );
+    }
+
+    /**
+     * Returns a query for the mean and standard deviation of each series
+     * computed from the data values within the data start and end date of the
+     * given request.
+     *
+     * @param request the {@link OutlierDetectionRequest}.
+     * @param withoutStatistics whether to include only series without a row
+     *        in the outlier statistics table.
+     * @return a SQL query.
+     */
+    private String getDataValueStatisticsSql( OutlierDetectionRequest request, boolean withoutStatistics )
+    {
+        final String ouPathClause = getOrgUnitPathClause( request.getOrgUnits() );
+        final String dataStartDateClause = getDataStartDateClause( request.getDataStartDate() );
+        final String dataEndDateClause = getDataEndDateClause( request.getDataEndDate() );
+
+        // @formatter:off
+        final String statisticsJoin = !withoutStatistics ? "" :
+            "left join outlierstatistics os on dv.dataelementid = os.dataelementid " +
+            "and dv.sourceid = os.sourceid " +
+            "and dv.categoryoptioncomboid = os.categoryoptioncomboid " +
+            "and dv.attributeoptioncomboid = os.attributeoptioncomboid ";
+
+        final String statisticsClause = !withoutStatistics ? "" :
+            "and os.dataelementid is null ";
+
+        return
+            "select dv.dataelementid as dataelementid, dv.sourceid as sourceid, " +
+            "dv.categoryoptioncomboid as categoryoptioncomboid, " +
+            "dv.attributeoptioncomboid as attributeoptioncomboid, " +
+            "avg(dv.value::double precision) as mean, " +
+            "stddev_pop(dv.value::double precision) as std_dev " +
+            "from datavalue dv " +
+            "inner join period pe on dv.periodid = pe.periodid " +
+            "inner join organisationunit ou on dv.sourceid = ou.organisationunitid " +
+            statisticsJoin +
+            "where dv.dataelementid in (:data_element_ids) " +
+            dataStartDateClause +
+            dataEndDateClause +
+            "and " + ouPathClause + " " +
+            "and dv.deleted is false " +
+            statisticsClause +
+            "group by dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid";
+        // @formatter:on
+    }
+
     /**
      * Returns a {@link RowMapper} for {@link OutlierValue}.
      *
@@ -43,6 +43,7 @@ import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.outlierdetection.OutlierDetectionRequest;
 import org.hisp.dhis.outlierdetection.OutlierDetectionService;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -66,6 +67,12 @@ public class OutlierDetectionServiceValidationTest
     @Mock
     private MinMaxOutlierDetectionManager minMaxOutlierManager;
 
+    @Mock
+    private OutlierStatisticsManager outlierStatisticsManager;
+
+    @Mock
+    private SystemSettingManager systemSettingManager;
+
     @Rule
     public MockitoRule mockitoRule = MockitoJUnit.rule();
 
@@ -88,7 +95,8 @@ public class OutlierDetectionServiceValidationTest
     @Before
     public void setUp()
     {
-        subject = new DefaultOutlierDetectionService( idObjectManager, zScoreOutlierManager, minMaxOutlierManager );
+        subject = new DefaultOutlierDetectionService( idObjectManager, zScoreOutlierManager, minMaxOutlierManager,
+            outlierStatisticsManager, systemSettingManager );
 
         deA = createDataElement( 'A', ValueType.INTEGER, AggregationType.SUM );
         deB = createDataElement( 'B', ValueType.INTEGER, AggregationType.SUM );
@@ -57,6 +57,8 @@ import org.hisp.dhis.outlierdetection.OutlierValue;
 import org.hisp.dhis.period.MonthlyPeriodType;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodService;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.util.MathUtils;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -82,6 +84,9 @@ public class OutlierDetectionServiceZScoreTest
     @Autowired
     private DataValueService dataValueService;
 
+    @Autowired
+    private SystemSettingManager systemSettingManager;
+
     @Autowired
     private OutlierDetectionService subject;
 
@@ -221,6 +226,103 @@ public class OutlierDetectionServiceZScoreTest
         assertContainsOutlierValue( response, 91d );
     }
 
+    @Test
+    public void testGetOutlierValuesWithOutlierStatistics()
+    {
+        // 12, 91 are outlier values with a z-score above 2.0
+
+        addDataValues(
+            new DataValue( deA, m01, ouA, coc, coc, "50" ), new DataValue( deA, m07, ouA, coc, coc, "51" ),
+            new DataValue( deA, m02, ouA, coc, coc, "53" ), new DataValue( deA, m08, ouA, coc, coc, "59" ),
+            new DataValue( deA, m03, ouA, coc, coc, "58" ), new DataValue( deA, m09, ouA, coc, coc, "55" ),
+            new DataValue( deA, m04, ouA, coc, coc, "55" ), new DataValue( deA, m10, ouA, coc, coc, "52" ),
+            new DataValue( deA, m05, ouA, coc, coc, "51" ), new DataValue( deA, m11, ouA, coc, coc, "58" ),
+            new DataValue( deA, m06, ouA, coc, coc, "12" ), new DataValue( deA, m12, ouA, coc, coc, "91" ) );
+
+        OutlierDetectionRequest request = new OutlierDetectionRequest.Builder()
+            .withDataElements( Lists.newArrayList( deA, deB ) )
+            .withStartEndDate( getDate( 2020, 1, 1 ), getDate( 2021, 1, 1 ) )
+            .withOrgUnits( Lists.newArrayList( ouA ) )
+            .withAlgorithm( OutlierDetectionAlgorithm.Z_SCORE )
+            .withThreshold( 2.0 ).build();
+
+        OutlierDetectionResponse expected = subject.getOutlierValues( request );
+
+        try
+        {
+            subject.updateOutlierStatistics();
+
+            OutlierDetectionResponse response = subject.getOutlierValues( request );
+
+            assertEquals( 2, response.getOutlierValues().size() );
+            assertContainsOutlierValue( response, 12d );
+            assertContainsOutlierValue( response, 91d );
+
+            for ( int i = 0; i < response.getOutlierValues().size(); i++ )
+            {
+                OutlierValue outlier = response.getOutlierValues().get( i );
+                OutlierValue expectedOutlier = expected.getOutlierValues().get( i );
+
+                assertEquals( expectedOutlier.getMean(), outlier.getMean(), DELTA );
+                assertEquals( expectedOutlier.getStdDev(), outlier.getStdDev(), DELTA );
+                assertEquals( expectedOutlier.getZScore(), outlier.getZScore(), DELTA );
+            }
+        }
+        finally
+        {
+            systemSettingManager.deleteSystemSetting( SettingKey.LAST_SUCCESSFUL_OUTLIER_STATISTICS_UPDATE );
+        }
+    }
+
+    @Test
+    public void testGetOutlierValuesWithOutlierStatisticsMissingSeries()
+    {
+        // 12, 91 are outlier values with a z-score above 2.0
+
+        addDataValues(
+            new DataValue( deA, m01, ouA, coc, coc, "50" ), new DataValue( deA, m07, ouA, coc, coc, "51" ),
+            new DataValue( deA, m02, ouA, coc, coc, "53" ), new DataValue( deA, m08, ouA, coc, coc, "59" ),
+            new DataValue( deA, m03, ouA, coc, coc, "58" ), new DataValue( deA, m09, ouA, coc, coc, "55" ),
+            new DataValue( deA, m04, ouA, coc, coc, "55" ), new DataValue( deA, m10, ouA, coc, coc, "52" ),
+            new DataValue( deA, m05, ouA, coc, coc, "51" ), new DataValue( deA, m11, ouA, coc, coc, "58" ),
+            new DataValue( deA, m06, ouA, coc, coc, "12" ), new DataValue( deA, m12, ouA, coc, coc, "91" ) );
+
+        OutlierDetectionRequest request = new OutlierDetectionRequest.Builder()
+            .withDataElements( Lists.newArrayList( deA, deB ) )
+            .withStartEndDate( getDate( 2020, 1, 1 ), getDate( 2021, 1, 1 ) )
+            .withOrgUnits( Lists.newArrayList( ouA ) )
+            .withAlgorithm( OutlierDetectionAlgorithm.Z_SCORE )
+            .withThreshold( 2.0 ).build();
+
+        try
+        {
+            subject.updateOutlierStatistics();
+
+            // Series of data element B is added after the statistics update,
+            // 13, 92 are outlier values with a z-score above 2.0
+
+            addDataValues(
+                new DataValue( deB, m01, ouA, coc, coc, "50" ), new DataValue( deB, m07, ouA, coc, coc, "51" ),
+                new DataValue( deB, m02, ouA, coc, coc, "53" ), new DataValue( deB, m08, ouA, coc, coc, "59" ),
+                new DataValue( deB, m03, ouA, coc, coc, "58" ), new DataValue( deB, m09, ouA, coc, coc, "55" ),
+                new DataValue( deB, m04, ouA, coc, coc, "55" ), new DataValue( deB, m10, ouA, coc, coc, "52" ),
+                new DataValue( deB, m05, ouA, coc, coc, "51" ), new DataValue( deB, m11, ouA, coc, coc, "58" ),
+                new DataValue( deB, m06, ouA, coc, coc, "13" ), new DataValue( deB, m12, ouA, coc, coc, "92" ) );
+
+            OutlierDetectionResponse response = subject.getOutlierValues( request );
+
+            assertEquals( 4, response.getOutlierValues().size() );
+            assertContainsOutlierValue( response, 12d );
+            assertContainsOutlierValue( response, 91d );
+            assertContainsOutlierValue( response, 13d );
+            assertContainsOutlierValue( response, 92d );
+        }
+        finally
+        {
+            systemSettingManager.deleteSystemSetting( SettingKey.LAST_SUCCESSFUL_OUTLIER_STATISTICS_UPDATE );
+        }
+    }
+
     @Test
     public void testGetOutlierValuesAsCsv()
         throws IOException
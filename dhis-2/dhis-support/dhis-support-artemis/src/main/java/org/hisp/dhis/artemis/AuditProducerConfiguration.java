@@ -42,4 +42,25 @@ public class AuditProducerConfiguration
      * being dispatched to the Message Broker
      */
     private boolean useQueue;
+
+    /**
+     * max number of Audit messages held by the in-memory queue. Messages
+     * arriving while the queue is full are dropped
+     */
+    @Builder.Default
+    private int queueMaxSize = 10_000;
+
+    /**
+     * time in milliseconds an Audit message is held in the in-memory queue
+     * before being dispatched
+     */
+    @Builder.Default
+    private long queueDelay = 5_000;
+
+    /**
+     * number of Audit messages sent to the Message Broker in a single session.
+     * Reaching this number of queued messages also triggers an early dispatch
+     */
+    @Builder.Default
+    private int queueBatchSize = 200;
 }
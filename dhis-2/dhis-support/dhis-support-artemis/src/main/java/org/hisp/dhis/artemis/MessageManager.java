@@ -27,10 +27,16 @@
  */
 package org.hisp.dhis.artemis;
 
+import java.util.Collection;
+
+import javax.jms.Destination;
+import javax.jms.MessageProducer;
+
 import org.apache.activemq.artemis.jms.client.ActiveMQQueue;
 import org.apache.activemq.artemis.jms.client.ActiveMQTopic;
 import org.hisp.dhis.render.RenderService;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
 import org.springframework.stereotype.Component;
 
 /**
@@ -58,6 +64,50 @@ public class MessageManager
             session -> session.createTextMessage( renderService.toJsonAsString( message ) ) );
     }
 
+    /**
+     * Sends all the given messages to the destination using a single JMS
+     * session and producer, instead of opening one per message.
+     */
+    public void send( String destinationName, Collection<? extends Message> messages )
+    {
+        if ( messages.isEmpty() )
+        {
+            return;
+        }
+
+        jmsTopicTemplate.execute( session -> {
+            Destination destination = jmsTopicTemplate.getDestinationResolver()
+                .resolveDestinationName( session, destinationName, jmsTopicTemplate.isPubSubDomain() );
+
+            MessageProducer producer = session.createProducer( destination );
+
+            try
+            {
+                for ( Message message : messages )
+                {
+                    javax.jms.Message jmsMessage = session
+                        .createTextMessage( renderService.toJsonAsString( message ) );
+
+                    if ( jmsTopicTemplate.isExplicitQosEnabled() )
+                    {
+                        producer.send( jmsMessage, jmsTopicTemplate.getDeliveryMode(),
+                            jmsTopicTemplate.getPriority(), jmsTopicTemplate.getTimeToLive() );
+                    }
+                    else
+                    {
+                        producer.send( jmsMessage );
+                    }
+                }
+            }
+            finally
+            {
+                JmsUtils.closeMessageProducer( producer );
+            }
+
+            return null;
+        }, false );
+    }
+
     public void sendTopic( String destinationName, Message message )
     {
         jmsTopicTemplate.send( new ActiveMQTopic( destinationName ),
@@ -27,6 +27,9 @@
  */
 package org.hisp.dhis.artemis.audit;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import lombok.extern.slf4j.Slf4j;
@@ -75,6 +78,40 @@ public class AuditProducerSupplier
         }
     }
 
+    /**
+     * Publishes the given Audit messages, grouped by topic, sending each group
+     * to the Message Broker in a single session.
+     */
+    public void publish( List<Audit> audits )
+    {
+        Map<AuditScope, List<Audit>> auditsByScope = new HashMap<>();
+
+        for ( Audit audit : audits )
+        {
+            auditsByScope.computeIfAbsent( audit.getAuditScope(), scope -> new ArrayList<>() ).add( audit );
+        }
+
+        auditsByScope.forEach( ( scope, scopedAudits ) -> {
+            String topic = auditScopeDestinationMap.get( scope );
+
+            if ( !Strings.isNullOrEmpty( topic ) )
+            {
+                if ( log.isDebugEnabled() )
+                {
+                    log.debug( String.format( "sending %d auditing messages to topic: [%s]", scopedAudits.size(),
+                        topic ) );
+                }
+                this.messageManager.send( topic, scopedAudits );
+            }
+            else
+            {
+                log.error( String.format(
+                    "Unable to map AuditScope [%s] to a topic name. Sending of %d messages aborted", scope,
+                    scopedAudits.size() ) );
+            }
+        } );
+    }
+
     private String getTopicName( Audit audit )
     {
         return auditScopeDestinationMap.get( audit.getAuditScope() );
@@ -28,26 +28,52 @@
 package org.hisp.dhis.artemis.audit;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.DelayQueue;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.scheduling.annotation.Scheduled;
+import org.hisp.dhis.artemis.AuditProducerConfiguration;
 import org.springframework.stereotype.Component;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * Buffers Audit messages prior to sending them to the Audit queue. This
- * scheduler is disabled by default (config key: audit.inmemory-queue.enabled)
+ * scheduler is disabled by default (config key: audit.in_memory_queue.enabled)
  * and should be used only in very high-traffic environments. Note that upon a
  * JVM crash, the Audit messages in this queue will be lost.
  *
- * The buffer is based on a {@link DelayQueue} where messages are buffered for 5
- * seconds, before being de-queued to the Artemis broker.
+ * Messages are kept in arrival order and buffered for
+ * {@code audit.in_memory_queue.delay} milliseconds (5 seconds by default)
+ * before being de-queued to the Artemis broker. The buffer is checked for
+ * expired messages with the same delay. Messages are sent in batches of at
+ * most {@code audit.in_memory_queue.batch_size} messages, each batch using a
+ * single JMS session. Identical messages already waiting in the buffer are
+ * de-duplicated through a hash index, so that adding a message is a constant
+ * time operation that never takes a lock.
  *
- * To avoid excessive memory pressure, max 200 messages can stay in the queue:
- * in-excess messages are processed immediately.
+ * To avoid excessive memory pressure, max
+ * {@code audit.in_memory_queue.max_size} messages can stay in the buffer:
+ * in-excess messages are dropped and counted, the writing thread is never
+ * blocked nor used to publish. Once {@code audit.in_memory_queue.batch_size}
+ * messages are waiting, full batches are sent without waiting for the delay to
+ * expire, while the remaining messages wait for their delay. Once the buffer is
+ * full, all messages are sent. Dispatching always happens on a single
+ * background thread.
  *
  * @author Luciano Fiandesio
  */
@@ -55,17 +81,54 @@ import org.springframework.stereotype.Component;
 @Component
 public class AuditScheduler
 {
-    private final static long DELAY = 5_000; // 5 seconds
-
-    private final static int MAX_SIZE = 200;
+    private static final long SHUTDOWN_TIMEOUT = 10;
 
     private final AuditProducerSupplier auditProducerSupplier;
 
-    private final BlockingQueue<QueuedAudit> delayed = new DelayQueue<>();
+    private final int maxSize;
+
+    private final long delay;
+
+    private final int batchSize;
+
+    /**
+     * Index of the queued messages, used for de-duplication.
+     */
+    private final ConcurrentMap<Audit, QueuedAudit> index = new ConcurrentHashMap<>();
+
+    /**
+     * Queued messages in arrival order. Since all messages share the same
+     * delay, this is also the order in which they expire.
+     */
+    private final Queue<QueuedAudit> delayed = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat( "AUDIT-FLUSH-%d" ).setDaemon( true ).build() );
+
+    private final LongAdder enqueued = new LongAdder();
+
+    private final LongAdder deduplicated = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder published = new LongAdder();
 
-    public AuditScheduler( AuditProducerSupplier auditProducerSupplier )
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder totalLatency = new LongAdder();
+
+    private final LongAccumulator maxLatency = new LongAccumulator( Long::max, 0 );
+
+    public AuditScheduler( AuditProducerSupplier auditProducerSupplier, AuditProducerConfiguration config )
     {
         this.auditProducerSupplier = auditProducerSupplier;
+        this.maxSize = config.getQueueMaxSize();
+        this.delay = config.getQueueDelay();
+        this.batchSize = Math.max( 1, config.getQueueBatchSize() );
     }
 
     public void addAuditItem( final Audit auditItem )
@@ -75,28 +138,254 @@ public class AuditScheduler
             log.debug( String.format( "add Audit object with content %s to delayed queue", auditItem.toLog() ) );
         }
 
-        final QueuedAudit postponed = new QueuedAudit( auditItem, DELAY );
+        final QueuedAudit postponed = new QueuedAudit( auditItem, delay );
+
+        if ( index.putIfAbsent( auditItem, postponed ) != null )
+        {
+            deduplicated.increment();
+            return;
+        }
+
+        int queued = size.incrementAndGet();
+
+        if ( queued > maxSize )
+        {
+            size.decrementAndGet();
+            index.remove( auditItem, postponed );
+            dropped.increment();
+
+            log.warn( String.format( "Audit queue is full (%d messages), dropping Audit message: %s", maxSize,
+                auditItem.toLog() ) );
+
+            requestFlush();
+            return;
+        }
+
+        delayed.offer( postponed );
+        enqueued.increment();
+
+        if ( queued >= batchSize )
+        {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Schedules the dispatch of expired messages with the configured delay.
+     */
+    @PostConstruct
+    public void init()
+    {
+        long interval = Math.max( 1, delay );
+
+        flushExecutor.scheduleWithFixedDelay( this::process, interval, interval, TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * Dispatches the messages whose delay has expired.
+     */
+    public void process()
+    {
+        // Publishing failures are logged and counted, an exception would
+        // cancel the scheduled dispatch
+
+        try
+        {
+            dispatch( false );
+        }
+        catch ( RuntimeException ex )
+        {
+            log.error( "Failed to dispatch Audit messages", ex );
+        }
+    }
+
+    /**
+     * Dispatches the queued messages to the broker in batches.
+     *
+     * @param all if true, all queued messages are dispatched, otherwise only
+     *        the ones whose delay has expired.
+     */
+    private void dispatch( boolean all )
+    {
+        List<Audit> batch;
 
-        if ( delayed.size() >= MAX_SIZE )
+        do
         {
-            auditProducerSupplier.publish( auditItem );
+            batch = poll( !all );
+            publish( batch );
         }
-        else
+        while ( batch.size() == batchSize );
+    }
+
+    /**
+     * Dispatches full batches of queued messages, regardless of their delay,
+     * as long as at least a batch of messages is waiting.
+     */
+    private void dispatchFullBatches()
+    {
+        while ( size.get() >= batchSize )
         {
-            if ( !delayed.contains( postponed ) )
+            List<Audit> batch = poll( false );
+
+            if ( batch.isEmpty() )
             {
-                delayed.offer( postponed );
+                return;
             }
+
+            publish( batch );
         }
     }
 
-    @Scheduled( fixedDelay = 5_000 )
-    public void process()
+    /**
+     * Removes up to a batch of messages from the head of the buffer.
+     *
+     * @param expiredOnly if true, stops at the first message whose delay has
+     *        not expired.
+     */
+    private List<Audit> poll( boolean expiredOnly )
     {
-        final Collection<QueuedAudit> expired = new ArrayList<>();
+        List<Audit> batch = new ArrayList<>( batchSize );
 
-        delayed.drainTo( expired );
+        QueuedAudit head;
 
-        expired.stream().map( QueuedAudit::getAuditItem ).forEach( auditProducerSupplier::publish );
+        while ( batch.size() < batchSize && (head = delayed.peek()) != null && (!expiredOnly || head.isExpired()) )
+        {
+            QueuedAudit queuedAudit = delayed.poll();
+
+            if ( queuedAudit == null )
+            {
+                break;
+            }
+
+            index.remove( queuedAudit.getAuditItem(), queuedAudit );
+            size.decrementAndGet();
+
+            long latency = System.currentTimeMillis() - queuedAudit.getOrigin();
+            totalLatency.add( latency );
+            maxLatency.accumulate( latency );
+
+            batch.add( queuedAudit.getAuditItem() );
+        }
+
+        return batch;
+    }
+
+    private void publish( List<Audit> batch )
+    {
+        if ( batch.isEmpty() )
+        {
+            return;
+        }
+
+        try
+        {
+            auditProducerSupplier.publish( batch );
+            published.add( batch.size() );
+        }
+        catch ( RuntimeException ex )
+        {
+            failed.add( batch.size() );
+            log.error( String.format( "Failed to publish %d Audit messages", batch.size() ), ex );
+        }
+    }
+
+    /**
+     * Schedules a dispatch on the background thread, unless one is already
+     * pending. All messages are dispatched if the buffer is full, otherwise
+     * only full batches.
+     */
+    private void requestFlush()
+    {
+        if ( flushRequested.compareAndSet( false, true ) )
+        {
+            flushExecutor.execute( () -> {
+                flushRequested.set( false );
+
+                if ( size.get() >= maxSize )
+                {
+                    dispatch( true );
+                }
+                else
+                {
+                    dispatchFullBatches();
+                }
+            } );
+        }
+    }
+
+    /**
+     * Waits for a pending background dispatch and sends all the messages left
+     * in the buffer.
+     */
+    @PreDestroy
+    public void shutdown()
+    {
+        flushExecutor.shutdown();
+
+        try
+        {
+            flushExecutor.awaitTermination( SHUTDOWN_TIMEOUT, TimeUnit.SECONDS );
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        dispatch( true );
+    }
+
+    // -------------------------------------------------------------------------
+    // Statistics
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return the number of messages currently waiting to be dispatched.
+     */
+    public int getQueueSize()
+    {
+        return size.get();
+    }
+
+    public long getEnqueuedCount()
+    {
+        return enqueued.sum();
+    }
+
+    public long getDeduplicatedCount()
+    {
+        return deduplicated.sum();
+    }
+
+    public long getDroppedCount()
+    {
+        return dropped.sum();
+    }
+
+    public long getPublishedCount()
+    {
+        return published.sum();
+    }
+
+    public long getFailedCount()
+    {
+        return failed.sum();
+    }
+
+    /**
+     * @return the total time in milliseconds dispatched messages spent in the
+     *         buffer.
+     */
+    public long getTotalLatency()
+    {
+        return totalLatency.sum();
+    }
+
+    /**
+     * @return the longest time in milliseconds a dispatched message spent in
+     *         the buffer.
+     */
+    public long getMaxLatency()
+    {
+        return maxLatency.get();
     }
 }
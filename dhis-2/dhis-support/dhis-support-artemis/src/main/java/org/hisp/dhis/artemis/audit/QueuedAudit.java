@@ -57,6 +57,16 @@ public class QueuedAudit implements Delayed
         return audit;
     }
 
+    public long getOrigin()
+    {
+        return origin;
+    }
+
+    public boolean isExpired()
+    {
+        return getDelay( TimeUnit.MILLISECONDS ) <= 0;
+    }
+
     @Override
     public long getDelay( TimeUnit unit )
     {
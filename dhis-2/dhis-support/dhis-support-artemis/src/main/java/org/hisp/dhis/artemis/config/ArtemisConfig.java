@@ -270,6 +270,11 @@ public class ArtemisConfig
         return AuditProducerConfiguration.builder()
             .useQueue( dhisConfig.isEnabled( ConfigurationKey.AUDIT_USE_INMEMORY_QUEUE_ENABLED ) ||
                 dhisConfig.isEnabled( ConfigurationKey.AUDIT_USE_IN_MEMORY_QUEUE_ENABLED ) )
+            .queueMaxSize(
+                Integer.parseInt( dhisConfig.getProperty( ConfigurationKey.AUDIT_IN_MEMORY_QUEUE_MAX_SIZE ) ) )
+            .queueDelay( Long.parseLong( dhisConfig.getProperty( ConfigurationKey.AUDIT_IN_MEMORY_QUEUE_DELAY ) ) )
+            .queueBatchSize(
+                Integer.parseInt( dhisConfig.getProperty( ConfigurationKey.AUDIT_IN_MEMORY_QUEUE_BATCH_SIZE ) ) )
             .build();
     }
 }
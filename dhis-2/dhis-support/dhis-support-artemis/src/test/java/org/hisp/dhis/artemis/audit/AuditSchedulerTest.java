@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.artemis.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.hisp.dhis.artemis.AuditProducerConfiguration;
+import org.hisp.dhis.audit.AuditScope;
+import org.hisp.dhis.audit.AuditType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class AuditSchedulerTest
+{
+    @Mock
+    private AuditProducerSupplier auditProducerSupplier;
+
+    @Rule
+    public MockitoRule rule = MockitoJUnit.rule();
+
+    @Test
+    public void testDuplicatesAreDiscarded()
+    {
+        AuditScheduler scheduler = scheduler( 100, 0, 100 );
+
+        scheduler.addAuditItem( audit( "uidA" ) );
+        scheduler.addAuditItem( audit( "uidA" ) );
+        scheduler.addAuditItem( audit( "uidB" ) );
+
+        assertEquals( 2, scheduler.getQueueSize() );
+        assertEquals( 2, scheduler.getEnqueuedCount() );
+        assertEquals( 1, scheduler.getDeduplicatedCount() );
+
+        scheduler.process();
+
+        List<Audit> published = capturePublished( 1 ).get( 0 );
+
+        assertEquals( 2, published.size() );
+        assertEquals( "uidA", published.get( 0 ).getUid() );
+        assertEquals( "uidB", published.get( 1 ).getUid() );
+        assertEquals( 0, scheduler.getQueueSize() );
+        assertEquals( 2, scheduler.getPublishedCount() );
+    }
+
+    @Test
+    public void testNotExpiredItemsAreKept()
+    {
+        AuditScheduler scheduler = scheduler( 100, 60_000, 100 );
+
+        scheduler.addAuditItem( audit( "uidA" ) );
+        scheduler.process();
+
+        verify( auditProducerSupplier, never() ).publish( anyList() );
+        assertEquals( 1, scheduler.getQueueSize() );
+    }
+
+    @Test
+    public void testItemsAreDroppedWhenFull()
+    {
+        AuditScheduler scheduler = scheduler( 2, 60_000, 100 );
+
+        scheduler.addAuditItem( audit( "uidA" ) );
+        scheduler.addAuditItem( audit( "uidB" ) );
+        scheduler.addAuditItem( audit( "uidC" ) );
+
+        assertEquals( 1, scheduler.getDroppedCount() );
+
+        verify( auditProducerSupplier, timeout( 5_000 ) ).publish( anyList() );
+    }
+
+    @Test
+    public void testBatchSizeTriggersFlush()
+    {
+        AuditScheduler scheduler = scheduler( 100, 60_000, 2 );
+
+        scheduler.addAuditItem( audit( "uidA" ) );
+        scheduler.addAuditItem( audit( "uidB" ) );
+
+        verify( auditProducerSupplier, timeout( 5_000 ) ).publish( anyList() );
+        assertEquals( 0, scheduler.getDroppedCount() );
+    }
+
+    @Test
+    public void testItemsArePublishedInBatches()
+    {
+        AuditScheduler scheduler = scheduler( 100, 60_000, 3 );
+
+        for ( int i = 0; i < 7; i++ )
+        {
+            scheduler.addAuditItem( audit( "uid" + i ) );
+        }
+
+        scheduler.shutdown();
+
+        ArgumentCaptor<List<Audit>> captor = captor();
+        verify( auditProducerSupplier, atLeast( 3 ) ).publish( captor.capture() );
+
+        int total = 0;
+
+        for ( List<Audit> batch : captor.getAllValues() )
+        {
+            assertTrue( batch.size() <= 3 );
+            total += batch.size();
+        }
+
+        assertEquals( 7, total );
+        assertEquals( 7, scheduler.getPublishedCount() );
+        assertEquals( 0, scheduler.getQueueSize() );
+    }
+
+    @Test
+    public void testBatchSizeTriggersFlushOfFullBatchesOnly()
+    {
+        AuditScheduler scheduler = scheduler( 100, 60_000, 2 );
+
+        scheduler.addAuditItem( audit( "uidA" ) );
+        scheduler.addAuditItem( audit( "uidB" ) );
+        scheduler.addAuditItem( audit( "uidC" ) );
+
+        List<Audit> published = capturePublished( 1 ).get( 0 );
+
+        assertEquals( 2, published.size() );
+        assertEquals( "uidA", published.get( 0 ).getUid() );
+        assertEquals( 1, scheduler.getQueueSize() );
+    }
+
+    @Test
+    public void testExpiredItemsAreDispatchedWithConfiguredDelay()
+    {
+        AuditScheduler scheduler = scheduler( 100, 50, 100 );
+        scheduler.init();
+
+        try
+        {
+            scheduler.addAuditItem( audit( "uidA" ) );
+
+            List<Audit> published = capturePublished( 1 ).get( 0 );
+
+            assertEquals( 1, published.size() );
+            assertEquals( "uidA", published.get( 0 ).getUid() );
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    private List<List<Audit>> capturePublished( int times )
+    {
+        ArgumentCaptor<List<Audit>> captor = captor();
+        verify( auditProducerSupplier, timeout( 5_000 ).times( times ) ).publish( captor.capture() );
+        return captor.getAllValues();
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private ArgumentCaptor<List<Audit>> captor()
+    {
+        return ArgumentCaptor.forClass( List.class );
+    }
+
+    private AuditScheduler scheduler( int maxSize, long delay, int batchSize )
+    {
+        return new AuditScheduler( auditProducerSupplier, AuditProducerConfiguration.builder()
+            .useQueue( true )
+            .queueMaxSize( maxSize )
+            .queueDelay( delay )
+            .queueBatchSize( batchSize )
+            .build() );
+    }
+
+    private Audit audit( String uid )
+    {
+        return Audit.builder()
+            .auditType( AuditType.UPDATE )
+            .auditScope( AuditScope.METADATA )
+            .klass( "org.hisp.dhis.dataelement.DataElement" )
+            .uid( uid )
+            .build();
+    }
+}
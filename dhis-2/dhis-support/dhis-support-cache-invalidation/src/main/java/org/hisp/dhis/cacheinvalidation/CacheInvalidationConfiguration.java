@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cacheinvalidation;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration registered if {@link CacheInvalidationEnabledCondition}
+ * matches. Sets up the change data capture based invalidation of the
+ * Hibernate second-level cache and the application caches.
+ */
+@Configuration
+@Conditional( CacheInvalidationEnabledCondition.class )
+public class CacheInvalidationConfiguration
+{
+    @Bean
+    public DbChangeEventHandler dbChangeEventHandler( SessionFactory sessionFactory,
+        ApplicationEventPublisher eventPublisher )
+    {
+        SessionFactoryImplementor sessionFactoryImplementor = sessionFactory
+            .unwrap( SessionFactoryImplementor.class );
+
+        return new DbChangeEventHandler( sessionFactoryImplementor,
+            new TableNameToEntityMapping( sessionFactoryImplementor ), eventPublisher );
+    }
+
+    @Bean
+    public DebeziumCacheInvalidationService debeziumCacheInvalidationService( DhisConfigurationProvider config,
+        DbChangeEventHandler dbChangeEventHandler )
+    {
+        return new DebeziumCacheInvalidationService( config, dbChangeEventHandler );
+    }
+}
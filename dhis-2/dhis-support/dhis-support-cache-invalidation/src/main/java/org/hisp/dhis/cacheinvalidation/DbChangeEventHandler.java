@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cacheinvalidation;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.type.Type;
+import org.hisp.dhis.cacheinvalidation.TableNameToEntityMapping.CollectionMapping;
+import org.hisp.dhis.cacheinvalidation.TableNameToEntityMapping.EntityMapping;
+import org.hisp.dhis.common.event.DatabaseTablesChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import io.debezium.engine.DebeziumEngine;
+import io.debezium.engine.RecordChangeEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Handles batches of row changes captured from the database. Evicts the
+ * changed entities and the collections owned by the changed rows from the
+ * Hibernate second-level cache, evicts the query cache, and publishes a
+ * {@link DatabaseTablesChangedEvent} for the application caches.
+ */
+@Slf4j
+public class DbChangeEventHandler
+    implements DebeziumEngine.ChangeConsumer<RecordChangeEvent<SourceRecord>>, MeterBinder
+{
+    private static final String PREFIX = "cache.invalidation.";
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final TableNameToEntityMapping mapping;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final LongAdder events = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile Timer lagTimer;
+
+    public DbChangeEventHandler( SessionFactoryImplementor sessionFactory, TableNameToEntityMapping mapping,
+        ApplicationEventPublisher eventPublisher )
+    {
+        this.sessionFactory = sessionFactory;
+        this.mapping = mapping;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void handleBatch( List<RecordChangeEvent<SourceRecord>> records,
+        DebeziumEngine.RecordCommitter<RecordChangeEvent<SourceRecord>> committer )
+        throws InterruptedException
+    {
+        Set<String> tableNames = new HashSet<>();
+
+        boolean evictQueries = false;
+
+        for ( RecordChangeEvent<SourceRecord> record : records )
+        {
+            try
+            {
+                String tableName = handle( record.record() );
+
+                if ( tableName != null )
+                {
+                    tableNames.add( tableName );
+                    evictQueries |= mapping.isMapped( tableName );
+                }
+            }
+            catch ( RuntimeException ex )
+            {
+                log.warn( "Failed to handle database change event: " + record.record(), ex );
+            }
+
+            committer.markProcessed( record );
+        }
+
+        if ( evictQueries )
+        {
+            sessionFactory.getCache().evictQueryRegions();
+        }
+
+        if ( !tableNames.isEmpty() )
+        {
+            eventPublisher.publishEvent( new DatabaseTablesChangedEvent( this, tableNames ) );
+        }
+
+        committer.markBatchFinished();
+    }
+
+    /**
+     * Evicts the cached entities and collections affected by the given change.
+     *
+     * @param record the {@link SourceRecord}.
+     * @return the name of the changed table, or null if the record does not
+     *         represent a row change.
+     */
+    private String handle( SourceRecord record )
+    {
+        if ( !(record.value() instanceof Struct) )
+        {
+            return null;
+        }
+
+        Struct value = (Struct) record.value();
+
+        if ( value.schema().field( "source" ) == null )
+        {
+            return null;
+        }
+
+        Struct source = value.getStruct( "source" );
+
+        String tableName = source.getString( "table" );
+
+        events.increment();
+
+        recordLag( source.getInt64( "ts_ms" ) );
+
+        Struct before = getStruct( value, "before" );
+        Struct after = getStruct( value, "after" );
+        Struct key = record.key() instanceof Struct ? (Struct) record.key() : null;
+
+        Cache cache = sessionFactory.getCache();
+
+        for ( EntityMapping entity : mapping.getEntities( tableName ) )
+        {
+            Serializable id = getIdentifier( entity.getIdColumn(), entity.getIdType(), key, after, before );
+
+            if ( id != null )
+            {
+                cache.evictEntityData( entity.getEntityName(), id );
+            }
+            else
+            {
+                cache.evictEntityData( entity.getEntityName() );
+            }
+
+            evictions.increment();
+        }
+
+        for ( CollectionMapping collection : mapping.getCollections( tableName ) )
+        {
+            Serializable ownerId = getIdentifier( collection.getKeyColumn(), collection.getKeyType(), after, before,
+                key );
+            Serializable previousOwnerId = getIdentifier( collection.getKeyColumn(), collection.getKeyType(),
+                before );
+
+            if ( ownerId != null )
+            {
+                cache.evictCollectionData( collection.getRole(), ownerId );
+
+                if ( previousOwnerId != null && !previousOwnerId.equals( ownerId ) )
+                {
+                    cache.evictCollectionData( collection.getRole(), previousOwnerId );
+                }
+            }
+            else
+            {
+                cache.evictCollectionData( collection.getRole() );
+            }
+
+            evictions.increment();
+        }
+
+        return tableName;
+    }
+
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        FunctionCounter.builder( PREFIX + "events", events, LongAdder::sum )
+            .description( "The number of database changes received" )
+            .register( registry );
+
+        FunctionCounter.builder( PREFIX + "evictions", evictions, LongAdder::sum )
+            .description( "The number of second-level cache evictions caused by database changes" )
+            .register( registry );
+
+        lagTimer = Timer.builder( PREFIX + "lag" )
+            .description( "The time between a database change and the eviction of the affected entries" )
+            .publishPercentileHistogram()
+            .register( registry );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void recordLag( Long timestamp )
+    {
+        Timer timer = lagTimer;
+
+        if ( timer != null && timestamp != null )
+        {
+            timer.record( Math.max( 0, System.currentTimeMillis() - timestamp ), TimeUnit.MILLISECONDS );
+        }
+    }
+
+    /**
+     * Returns the identifier in the given column of the first of the given
+     * rows which contains the column.
+     */
+    private Serializable getIdentifier( String column, Type type, Struct... rows )
+    {
+        for ( Struct row : rows )
+        {
+            if ( row != null )
+            {
+                Field field = row.schema().field( column );
+
+                if ( field != null )
+                {
+                    return TableNameToEntityMapping.toIdentifier( row.get( field ), type );
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private Struct getStruct( Struct value, String field )
+    {
+        return value.schema().field( field ) != null ? value.getStruct( field ) : null;
+    }
+}
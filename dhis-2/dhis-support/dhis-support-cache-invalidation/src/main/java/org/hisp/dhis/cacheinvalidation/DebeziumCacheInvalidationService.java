@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cacheinvalidation;
+
+import static org.hisp.dhis.external.conf.ConfigurationKey.CLUSTER_HOSTNAME;
+import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_PASSWORD;
+import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_URL;
+import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_USERNAME;
+import static org.hisp.dhis.external.conf.ConfigurationKey.DEBEZIUM_CONNECTION_PASSWORD;
+import static org.hisp.dhis.external.conf.ConfigurationKey.DEBEZIUM_CONNECTION_USERNAME;
+import static org.hisp.dhis.external.conf.ConfigurationKey.DEBEZIUM_DB_HOSTNAME;
+import static org.hisp.dhis.external.conf.ConfigurationKey.DEBEZIUM_DB_NAME;
+import static org.hisp.dhis.external.conf.ConfigurationKey.DEBEZIUM_DB_PORT;
+import static org.hisp.dhis.external.conf.ConfigurationKey.DEBEZIUM_EXCLUDE_LIST;
+import static org.hisp.dhis.external.conf.ConfigurationKey.NODE_ID;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.context.SmartLifecycle;
+
+import io.debezium.engine.DebeziumEngine;
+import io.debezium.engine.RecordChangeEvent;
+import io.debezium.engine.format.ChangeEventFormat;
+import io.debezium.engine.format.Connect;
+
+/**
+ * Runs an embedded Debezium engine which tails the PostgreSQL logical
+ * replication stream and passes row changes to the
+ * {@link DbChangeEventHandler}.
+ * <p>
+ * Each node uses its own replication slot which is dropped on shutdown, and
+ * streams changes from the point of startup only, as the caches are empty at
+ * that point. The slot name is derived from the node identifier, or the host
+ * name if not set, so that a node which did not shut down cleanly reuses its
+ * slot on restart instead of leaving it behind. A slot left behind retains
+ * write-ahead log on the database server until it is dropped.
+ */
+@Slf4j
+public class DebeziumCacheInvalidationService
+    implements SmartLifecycle
+{
+    /**
+     * Analytics and resource tables are regenerated in bulk and are not
+     * cached, hence excluded from the replication stream.
+     */
+    private static final String DEFAULT_EXCLUDE_LIST = "public\\.analytics.*,public\\._.*";
+
+    private static final String SLOT_PREFIX = "dhis2_";
+
+    /**
+     * Max length of PostgreSQL replication slot names.
+     */
+    private static final int MAX_SLOT_NAME_LENGTH = 63;
+
+    private final DhisConfigurationProvider config;
+
+    private final DbChangeEventHandler eventHandler;
+
+    private DebeziumEngine<RecordChangeEvent<SourceRecord>> engine;
+
+    private ExecutorService executor;
+
+    private volatile boolean running;
+
+    public DebeziumCacheInvalidationService( DhisConfigurationProvider config, DbChangeEventHandler eventHandler )
+    {
+        this.config = config;
+        this.eventHandler = eventHandler;
+    }
+
+    @Override
+    public void start()
+    {
+        engine = DebeziumEngine.create( ChangeEventFormat.of( Connect.class ) )
+            .using( getProperties() )
+            .notifying( eventHandler )
+            .using( ( success, message, error ) -> {
+                running = false;
+
+                if ( !success )
+                {
+                    log.error( "Cache invalidation change data capture stopped: " + message, error );
+                }
+            } )
+            .build();
+
+        executor = Executors.newSingleThreadExecutor();
+        executor.execute( engine );
+
+        running = true;
+
+        log.info( "Cache invalidation change data capture started" );
+    }
+
+    @Override
+    public void stop()
+    {
+        try
+        {
+            if ( engine != null )
+            {
+                engine.close();
+            }
+
+            if ( executor != null )
+            {
+                executor.shutdown();
+                executor.awaitTermination( 10, TimeUnit.SECONDS );
+            }
+        }
+        catch ( IOException ex )
+        {
+            log.warn( "Failed to stop cache invalidation change data capture", ex );
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private Properties getProperties()
+    {
+        URI uri = URI.create( StringUtils.removeStart( config.getProperty( CONNECTION_URL ), "jdbc:" ) );
+
+        String name = getSlotName( getNodeName() );
+
+        Properties props = new Properties();
+        props.setProperty( "name", name );
+        props.setProperty( "connector.class", "io.debezium.connector.postgresql.PostgresConnector" );
+        props.setProperty( "offset.storage", "org.apache.kafka.connect.storage.MemoryOffsetBackingStore" );
+        props.setProperty( "offset.flush.interval.ms", "60000" );
+        props.setProperty( "plugin.name", "pgoutput" );
+        props.setProperty( "slot.name", name );
+        props.setProperty( "slot.drop.on.stop", "true" );
+        props.setProperty( "snapshot.mode", "never" );
+        props.setProperty( "tombstones.on.delete", "false" );
+        props.setProperty( "database.server.name", name );
+        props.setProperty( "database.hostname", getProperty( DEBEZIUM_DB_HOSTNAME, uri.getHost() ) );
+        props.setProperty( "database.port", getProperty( DEBEZIUM_DB_PORT,
+            uri.getPort() > 0 ? String.valueOf( uri.getPort() ) : "5432" ) );
+        props.setProperty( "database.dbname", getProperty( DEBEZIUM_DB_NAME,
+            StringUtils.removeStart( uri.getPath(), "/" ) ) );
+        props.setProperty( "database.user", getProperty( DEBEZIUM_CONNECTION_USERNAME,
+            config.getProperty( CONNECTION_USERNAME ) ) );
+        props.setProperty( "database.password", getProperty( DEBEZIUM_CONNECTION_PASSWORD,
+            config.getProperty( CONNECTION_PASSWORD ) ) );
+
+        String excludeList = config.getProperty( DEBEZIUM_EXCLUDE_LIST );
+
+        props.setProperty( "publication.autocreate.mode", "filtered" );
+        props.setProperty( "table.exclude.list", StringUtils.isNotBlank( excludeList )
+            ? DEFAULT_EXCLUDE_LIST + "," + excludeList
+            : DEFAULT_EXCLUDE_LIST );
+
+        return props;
+    }
+
+    /**
+     * Returns the configured node identifier, the configured cluster host
+     * name, or the local host name, in that order of precedence.
+     */
+    private String getNodeName()
+    {
+        String nodeName = getProperty( NODE_ID, config.getProperty( CLUSTER_HOSTNAME ) );
+
+        if ( StringUtils.isNotBlank( nodeName ) )
+        {
+            return nodeName;
+        }
+
+        try
+        {
+            return InetAddress.getLocalHost().getHostName();
+        }
+        catch ( UnknownHostException ex )
+        {
+            log.warn( "Failed to resolve host name for replication slot, set node.id to identify this node", ex );
+
+            return "node";
+        }
+    }
+
+    /**
+     * Returns a valid replication slot name for the given node name. Slot names
+     * may only contain lower case letters, digits and underscores.
+     *
+     * @param nodeName the node name.
+     * @return the replication slot name.
+     */
+    static String getSlotName( String nodeName )
+    {
+        String name = SLOT_PREFIX + nodeName.toLowerCase( Locale.ROOT ).replaceAll( "[^a-z0-9_]", "_" );
+
+        return StringUtils.left( name, MAX_SLOT_NAME_LENGTH );
+    }
+
+    private String getProperty( ConfigurationKey key, String defaultValue )
+    {
+        String value = config.getProperty( key );
+
+        return StringUtils.isNotBlank( value ) ? value : defaultValue;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cacheinvalidation;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+
+/**
+ * Mapping of database table names to the cached Hibernate entities and
+ * collections persisted in the tables, derived from the Hibernate meta model.
+ */
+public class TableNameToEntityMapping
+{
+    private final Map<String, List<EntityMapping>> entities = new HashMap<>();
+
+    private final Map<String, List<CollectionMapping>> collections = new HashMap<>();
+
+    public TableNameToEntityMapping( SessionFactoryImplementor sessionFactory )
+    {
+        for ( EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values() )
+        {
+            if ( persister.canWriteToCache() && persister instanceof AbstractEntityPersister )
+            {
+                AbstractEntityPersister entityPersister = (AbstractEntityPersister) persister;
+
+                entities.computeIfAbsent( entityPersister.getTableName(), t -> new ArrayList<>() )
+                    .add( new EntityMapping( entityPersister.getEntityName(),
+                        entityPersister.getIdentifierColumnNames()[0], entityPersister.getIdentifierType() ) );
+            }
+        }
+
+        for ( CollectionPersister persister : sessionFactory.getMetamodel().collectionPersisters().values() )
+        {
+            if ( persister.hasCache() && persister instanceof AbstractCollectionPersister )
+            {
+                AbstractCollectionPersister collectionPersister = (AbstractCollectionPersister) persister;
+
+                collections.computeIfAbsent( collectionPersister.getTableName(), t -> new ArrayList<>() )
+                    .add( new CollectionMapping( collectionPersister.getRole(),
+                        collectionPersister.getKeyColumnNames()[0], collectionPersister.getKeyType() ) );
+            }
+        }
+    }
+
+    /**
+     * Returns the cached entities persisted in the given table.
+     *
+     * @param tableName the table name.
+     * @return a list of {@link EntityMapping}, empty if none.
+     */
+    public List<EntityMapping> getEntities( String tableName )
+    {
+        return entities.getOrDefault( tableName, Collections.emptyList() );
+    }
+
+    /**
+     * Returns the cached collections persisted in the given table.
+     *
+     * @param tableName the table name.
+     * @return a list of {@link CollectionMapping}, empty if none.
+     */
+    public List<CollectionMapping> getCollections( String tableName )
+    {
+        return collections.getOrDefault( tableName, Collections.emptyList() );
+    }
+
+    public boolean isMapped( String tableName )
+    {
+        return entities.containsKey( tableName ) || collections.containsKey( tableName );
+    }
+
+    /**
+     * Converts the given column value to an identifier of the given type.
+     *
+     * @param value the column value.
+     * @param type the identifier type.
+     * @return the identifier, or null if the value cannot be converted.
+     */
+    static Serializable toIdentifier( Object value, Type type )
+    {
+        if ( !(value instanceof Number) )
+        {
+            return null;
+        }
+
+        Class<?> idClass = type.getReturnedClass();
+
+        if ( Long.class.equals( idClass ) || long.class.equals( idClass ) )
+        {
+            return ((Number) value).longValue();
+        }
+        else if ( Integer.class.equals( idClass ) || int.class.equals( idClass ) )
+        {
+            return ((Number) value).intValue();
+        }
+
+        return null;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive classes
+    // -------------------------------------------------------------------------
+
+    @Getter
+    @AllArgsConstructor
+    public static class EntityMapping
+    {
+        private final String entityName;
+
+        private final String idColumn;
+
+        private final Type idType;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CollectionMapping
+    {
+        private final String role;
+
+        private final String keyColumn;
+
+        private final Type keyType;
+    }
+}
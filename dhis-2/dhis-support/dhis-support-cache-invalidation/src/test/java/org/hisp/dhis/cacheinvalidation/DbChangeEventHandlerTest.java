@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cacheinvalidation;
+
+import static org.hisp.dhis.cacheinvalidation.TableNameToEntityMappingTest.collection;
+import static org.hisp.dhis.cacheinvalidation.TableNameToEntityMappingTest.createSessionFactory;
+import static org.hisp.dhis.cacheinvalidation.TableNameToEntityMappingTest.entity;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hisp.dhis.common.event.DatabaseTablesChangedEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+
+import io.debezium.engine.DebeziumEngine;
+import io.debezium.engine.RecordChangeEvent;
+
+public class DbChangeEventHandlerTest
+{
+    private static final String ENTITY = "DataSet";
+
+    private static final String ROLE = "DataSet.dataSetElements";
+
+    private static final Schema ROW_SCHEMA = SchemaBuilder.struct()
+        .field( "datasetid", Schema.OPTIONAL_INT64_SCHEMA )
+        .optional()
+        .build();
+
+    private static final Schema SOURCE_SCHEMA = SchemaBuilder.struct()
+        .field( "table", Schema.STRING_SCHEMA )
+        .field( "ts_ms", Schema.OPTIONAL_INT64_SCHEMA )
+        .build();
+
+    private static final Schema VALUE_SCHEMA = SchemaBuilder.struct()
+        .field( "before", ROW_SCHEMA )
+        .field( "after", ROW_SCHEMA )
+        .field( "source", SOURCE_SCHEMA )
+        .field( "op", Schema.STRING_SCHEMA )
+        .build();
+
+    private Cache cache;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private DebeziumEngine.RecordCommitter<RecordChangeEvent<SourceRecord>> committer;
+
+    private DbChangeEventHandler handler;
+
+    @Before
+    @SuppressWarnings( "unchecked" )
+    public void setUp()
+    {
+        SessionFactoryImplementor sessionFactory = createSessionFactory(
+            ImmutableMap.of( ENTITY, entity( ENTITY, "dataset", "datasetid", true ) ),
+            ImmutableMap.of( ROLE, collection( ROLE, "datasetelement", "datasetid", true ) ) );
+
+        cache = mock( Cache.class );
+        when( sessionFactory.getCache() ).thenReturn( cache );
+
+        eventPublisher = mock( ApplicationEventPublisher.class );
+        committer = mock( DebeziumEngine.RecordCommitter.class );
+
+        handler = new DbChangeEventHandler( sessionFactory,
+            new TableNameToEntityMapping( sessionFactory ), eventPublisher );
+    }
+
+    @Test
+    public void testUpdateEvictsEntity()
+        throws InterruptedException
+    {
+        RecordChangeEvent<SourceRecord> record = change( "dataset", row( 1L ), row( 1L ) );
+
+        handler.handleBatch( Collections.singletonList( record ), committer );
+
+        verify( cache ).evictEntityData( ENTITY, (Serializable) 1L );
+        verify( cache ).evictQueryRegions();
+        verify( committer ).markProcessed( record );
+        verify( committer ).markBatchFinished();
+
+        assertEquals( Sets.newHashSet( "dataset" ), getPublishedTableNames() );
+    }
+
+    @Test
+    public void testDeleteEvictsEntityByKey()
+        throws InterruptedException
+    {
+        handler.handleBatch( Collections.singletonList( change( "dataset", row( 2L ), null ) ), committer );
+
+        verify( cache ).evictEntityData( ENTITY, (Serializable) 2L );
+    }
+
+    @Test
+    public void testMissingIdentifierEvictsEntityRegion()
+        throws InterruptedException
+    {
+        Schema rowSchema = SchemaBuilder.struct().field( "name", Schema.OPTIONAL_STRING_SCHEMA ).optional().build();
+        Schema valueSchema = SchemaBuilder.struct()
+            .field( "after", rowSchema )
+            .field( "source", SOURCE_SCHEMA )
+            .build();
+
+        Struct value = new Struct( valueSchema )
+            .put( "after", new Struct( rowSchema ).put( "name", "A" ) )
+            .put( "source", source( "dataset" ) );
+
+        handler.handleBatch( Collections.singletonList( event( new SourceRecord( null, null, "topic", null,
+            null, null, valueSchema, value ) ) ), committer );
+
+        verify( cache ).evictEntityData( ENTITY );
+    }
+
+    @Test
+    public void testChangedOwnerEvictsCollectionOfBothOwners()
+        throws InterruptedException
+    {
+        handler.handleBatch( Collections.singletonList( change( "datasetelement", row( 3L ), row( 4L ) ) ),
+            committer );
+
+        verify( cache ).evictCollectionData( ROLE, (Serializable) 4L );
+        verify( cache ).evictCollectionData( ROLE, (Serializable) 3L );
+        verify( cache, never() ).evictEntityData( anyString(), any() );
+
+        assertEquals( Sets.newHashSet( "datasetelement" ), getPublishedTableNames() );
+    }
+
+    @Test
+    public void testUnmappedTableIsPublishedWithoutEvictions()
+        throws InterruptedException
+    {
+        handler.handleBatch( Collections.singletonList( change( "keyjsonvalue", null, row( 5L ) ) ), committer );
+
+        verify( cache, never() ).evictQueryRegions();
+        verify( cache, never() ).evictEntityData( anyString(), any() );
+
+        assertEquals( Sets.newHashSet( "keyjsonvalue" ), getPublishedTableNames() );
+    }
+
+    @Test
+    public void testNonChangeRecordIsIgnored()
+        throws InterruptedException
+    {
+        RecordChangeEvent<SourceRecord> heartbeat = event( new SourceRecord( null, null, "topic", null, null ) );
+
+        handler.handleBatch( Collections.singletonList( heartbeat ), committer );
+
+        verifyNoInteractions( cache, eventPublisher );
+        verify( committer ).markProcessed( heartbeat );
+        verify( committer ).markBatchFinished();
+    }
+
+    @Test
+    public void testFailingRecordDoesNotStopBatch()
+        throws InterruptedException
+    {
+        doThrow( new IllegalStateException( "Region not found" ) ).when( cache )
+            .evictEntityData( ENTITY, (Serializable) 6L );
+
+        List<RecordChangeEvent<SourceRecord>> records = Arrays.asList(
+            change( "dataset", null, row( 6L ) ),
+            change( "datasetelement", null, row( 7L ) ) );
+
+        handler.handleBatch( records, committer );
+
+        verify( cache ).evictCollectionData( ROLE, (Serializable) 7L );
+        verify( committer, times( 2 ) ).markProcessed( any() );
+        verify( committer ).markBatchFinished();
+
+        assertEquals( Sets.newHashSet( "datasetelement" ), getPublishedTableNames() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private Set<String> getPublishedTableNames()
+    {
+        ArgumentCaptor<DatabaseTablesChangedEvent> event = ArgumentCaptor
+            .forClass( DatabaseTablesChangedEvent.class );
+
+        verify( eventPublisher ).publishEvent( event.capture() );
+
+        return event.getValue().getTableNames();
+    }
+
+    private static RecordChangeEvent<SourceRecord> change( String table, Struct before, Struct after )
+    {
+        Struct value = new Struct( VALUE_SCHEMA )
+            .put( "before", before )
+            .put( "after", after )
+            .put( "source", source( table ) )
+            .put( "op", after == null ? "d" : before == null ? "c" : "u" );
+
+        Struct key = before != null ? before : after;
+
+        return event( new SourceRecord( null, null, "topic", null, ROW_SCHEMA, key, VALUE_SCHEMA, value ) );
+    }
+
+    private static Struct row( long id )
+    {
+        return new Struct( ROW_SCHEMA ).put( "datasetid", id );
+    }
+
+    private static Struct source( String table )
+    {
+        return new Struct( SOURCE_SCHEMA )
+            .put( "table", table )
+            .put( "ts_ms", System.currentTimeMillis() );
+    }
+
+    private static RecordChangeEvent<SourceRecord> event( SourceRecord record )
+    {
+        return () -> record;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cacheinvalidation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.IntegerType;
+import org.hibernate.type.LongType;
+import org.hibernate.type.StringType;
+import org.hibernate.type.Type;
+import org.hisp.dhis.cacheinvalidation.TableNameToEntityMapping.CollectionMapping;
+import org.hisp.dhis.cacheinvalidation.TableNameToEntityMapping.EntityMapping;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class TableNameToEntityMappingTest
+{
+    private TableNameToEntityMapping mapping;
+
+    @Before
+    public void setUp()
+    {
+        mapping = new TableNameToEntityMapping( createSessionFactory(
+            ImmutableMap.of(
+                "DataElement", entity( "DataElement", "dataelement", "dataelementid", true ),
+                "DataValue", entity( "DataValue", "datavalue", "datavalueid", false ),
+                "DataElementOperand", entity( "DataElementOperand", "dataelement", "dataelementid", true ) ),
+            ImmutableMap.of(
+                "DataElement.groups", collection( "DataElement.groups", "dataelementgroupmembers",
+                    "dataelementid", true ),
+                "DataElement.aggregationLevels", collection( "DataElement.aggregationLevels",
+                    "dataelementaggregationlevels", "dataelementid", false ) ) ) );
+    }
+
+    @Test
+    public void testGetEntities()
+    {
+        List<EntityMapping> entities = mapping.getEntities( "dataelement" );
+
+        assertEquals( 2, entities.size() );
+        assertEquals( "DataElement", entities.get( 0 ).getEntityName() );
+        assertEquals( "dataelementid", entities.get( 0 ).getIdColumn() );
+        assertEquals( "DataElementOperand", entities.get( 1 ).getEntityName() );
+    }
+
+    @Test
+    public void testUncachedEntitiesAreNotMapped()
+    {
+        assertTrue( mapping.getEntities( "datavalue" ).isEmpty() );
+        assertFalse( mapping.isMapped( "datavalue" ) );
+    }
+
+    @Test
+    public void testGetCollections()
+    {
+        List<CollectionMapping> collections = mapping.getCollections( "dataelementgroupmembers" );
+
+        assertEquals( 1, collections.size() );
+        assertEquals( "DataElement.groups", collections.get( 0 ).getRole() );
+        assertEquals( "dataelementid", collections.get( 0 ).getKeyColumn() );
+        assertTrue( mapping.getEntities( "dataelementgroupmembers" ).isEmpty() );
+        assertTrue( mapping.isMapped( "dataelementgroupmembers" ) );
+    }
+
+    @Test
+    public void testUncachedCollectionsAreNotMapped()
+    {
+        assertTrue( mapping.getCollections( "dataelementaggregationlevels" ).isEmpty() );
+        assertFalse( mapping.isMapped( "dataelementaggregationlevels" ) );
+    }
+
+    @Test
+    public void testUnknownTable()
+    {
+        assertTrue( mapping.getEntities( "keyjsonvalue" ).isEmpty() );
+        assertTrue( mapping.getCollections( "keyjsonvalue" ).isEmpty() );
+        assertFalse( mapping.isMapped( "keyjsonvalue" ) );
+    }
+
+    @Test
+    public void testToIdentifier()
+    {
+        assertEquals( 42L, TableNameToEntityMapping.toIdentifier( 42, LongType.INSTANCE ) );
+        assertEquals( 42, TableNameToEntityMapping.toIdentifier( 42L, IntegerType.INSTANCE ) );
+        assertNull( TableNameToEntityMapping.toIdentifier( "42", LongType.INSTANCE ) );
+        assertNull( TableNameToEntityMapping.toIdentifier( null, LongType.INSTANCE ) );
+        assertNull( TableNameToEntityMapping.toIdentifier( 42L, StringType.INSTANCE ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    static SessionFactoryImplementor createSessionFactory( ImmutableMap<String, EntityPersister> entities,
+        ImmutableMap<String, CollectionPersister> collections )
+    {
+        SessionFactoryImplementor sessionFactory = mock( SessionFactoryImplementor.class );
+        MetamodelImplementor metamodel = mock( MetamodelImplementor.class );
+
+        when( sessionFactory.getMetamodel() ).thenReturn( metamodel );
+        when( metamodel.entityPersisters() ).thenReturn( entities );
+        when( metamodel.collectionPersisters() ).thenReturn( collections );
+
+        return sessionFactory;
+    }
+
+    static EntityPersister entity( String entityName, String tableName, String idColumn, boolean cached )
+    {
+        AbstractEntityPersister persister = mock( AbstractEntityPersister.class );
+
+        when( persister.canWriteToCache() ).thenReturn( cached );
+        when( persister.getEntityName() ).thenReturn( entityName );
+        when( persister.getTableName() ).thenReturn( tableName );
+        when( persister.getIdentifierColumnNames() ).thenReturn( new String[] { idColumn } );
+        when( persister.getIdentifierType() ).thenReturn( (Type) LongType.INSTANCE );
+
+        return persister;
+    }
+
+    static CollectionPersister collection( String role, String tableName, String keyColumn, boolean cached )
+    {
+        AbstractCollectionPersister persister = mock( AbstractCollectionPersister.class );
+
+        when( persister.hasCache() ).thenReturn( cached );
+        when( persister.getRole() ).thenReturn( role );
+        when( persister.getTableName() ).thenReturn( tableName );
+        when( persister.getKeyColumnNames() ).thenReturn( new String[] { keyColumn } );
+        when( persister.getKeyType() ).thenReturn( (Type) LongType.INSTANCE );
+
+        return persister;
+    }
+}
@@ -0,0 +1,20 @@
+-- Pre-generated values, per owner and resolved text pattern key, waiting to be reserved
+create table if not exists reservedvaluepool (
+    reservedvaluepoolid bigserial not null primary key,
+    owneruid character varying(11) not null,
+    key character varying(255) not null,
+    value character varying(255) not null,
+    created timestamp without time zone not null default now()
+);
+
+create unique index if not exists in_reservedvaluepool_value on reservedvaluepool using btree (owneruid, key, lower(value));
+create index if not exists in_reservedvaluepool_key on reservedvaluepool using btree (owneruid, key, reservedvaluepoolid);
+
+-- Keys values have been reserved for, which the pool refill job keeps topped up
+create table if not exists reservedvaluepoolkey (
+    ownerobject character varying(255) not null,
+    owneruid character varying(11) not null,
+    key character varying(255) not null,
+    lastrequested timestamp without time zone not null,
+    primary key (owneruid, key)
+);
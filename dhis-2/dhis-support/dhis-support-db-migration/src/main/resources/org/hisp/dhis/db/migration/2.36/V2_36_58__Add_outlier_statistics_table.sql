@@ -0,0 +1,13 @@
+-- Count, mean and sum of squared deviations (M2) of numeric data values per series,
+-- maintained by the outlier statistics job and used for z-score outlier detection
+create table if not exists outlierstatistics (
+    dataelementid bigint not null,
+    sourceid bigint not null,
+    categoryoptioncomboid bigint not null,
+    attributeoptioncomboid bigint not null,
+    count bigint not null,
+    mean double precision not null,
+    m2 double precision not null,
+    lastupdated timestamp without time zone not null,
+    primary key (dataelementid, sourceid, categoryoptioncomboid, attributeoptioncomboid)
+);
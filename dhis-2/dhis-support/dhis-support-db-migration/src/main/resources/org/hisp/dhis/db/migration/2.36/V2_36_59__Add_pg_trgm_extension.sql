@@ -0,0 +1,14 @@
+-- The pg_trgm extension is required for the trigram indexes of searchable
+-- attributes, which are created concurrently by the tracked entity attribute
+-- search index job. Creating the extension requires elevated privileges, in
+-- which case it must be created by a database administrator.
+
+DO
+$$
+    BEGIN
+        CREATE EXTENSION IF NOT EXISTS pg_trgm;
+    EXCEPTION
+        WHEN insufficient_privilege THEN
+            RAISE NOTICE 'Could not create extension pg_trgm, trigram search indexes will not be available';
+    END
+$$;
@@ -0,0 +1,8 @@
+-- Content hashes of the metadata objects imported by metadata sync, used by
+-- child instances to skip objects which are unchanged since the last sync
+create table if not exists metadatasyncobjecthash (
+    type character varying(255) not null,
+    uid character varying(11) not null,
+    hash character varying(32) not null,
+    primary key (type, uid)
+);
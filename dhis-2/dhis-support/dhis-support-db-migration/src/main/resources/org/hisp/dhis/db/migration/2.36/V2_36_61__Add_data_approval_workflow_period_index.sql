@@ -0,0 +1,5 @@
+-- Index for approval status lookups by workflow, period and attribute option
+-- combo for many organisation units, which the unique key leading with the
+-- approval level can not serve
+create index if not exists in_dataapproval_workflow_period_aoc_orgunit
+    on dataapproval (workflowid, periodid, attributeoptioncomboid, organisationunitid);
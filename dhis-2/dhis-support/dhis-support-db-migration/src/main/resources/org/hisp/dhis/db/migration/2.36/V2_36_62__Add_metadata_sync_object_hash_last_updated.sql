@@ -0,0 +1,3 @@
+-- Last updated timestamp of the local object when its hash was stored, used
+-- to detect objects which were changed or deleted locally since the last sync
+alter table metadatasyncobjecthash add column if not exists lastupdated timestamp without time zone;
@@ -47,6 +47,7 @@ public enum ConfigurationKey
     SYSTEM_SQL_VIEW_TABLE_PROTECTION( "system.sql_view_table_protection", Constants.ON, false ),
     SYSTEM_PROGRAM_RULE_SERVER_EXECUTION( "system.program_rule.server_execution", Constants.ON, false ),
     SYSTEM_CACHE_MAX_SIZE_FACTOR( "system.cache.max_size.factor", "0.5", false ),
+    SYSTEM_NOTIFICATIONS_MAX_PER_JOB( "system.notifications.max_per_job", "1000", false ),
     NODE_ID( "node.id", "", false ),
     ENCRYPTION_PASSWORD( "encryption.password", "", true ),
     CONNECTION_DIALECT( "connection.dialect", "", false ),
@@ -91,6 +92,15 @@ public enum ConfigurationKey
     REDIS_PASSWORD( "redis.password", "", true ),
     REDIS_ENABLED( "redis.enabled", Constants.FALSE, false ),
     REDIS_USE_SSL( "redis.use.ssl", Constants.FALSE, false ),
+    REDIS_NEAR_CACHE_ENABLED( "redis.near_cache.enabled", Constants.FALSE, false ),
+    REDIS_NEAR_CACHE_MAX_EXPIRY( "redis.near_cache.max_expiry", "300", false ),
+    DEBEZIUM_ENABLED( "debezium.enabled", Constants.OFF, false ),
+    DEBEZIUM_CONNECTION_USERNAME( "debezium.connection.username", "", false ),
+    DEBEZIUM_CONNECTION_PASSWORD( "debezium.connection.password", "", true ),
+    DEBEZIUM_DB_HOSTNAME( "debezium.db.hostname", "", false ),
+    DEBEZIUM_DB_PORT( "debezium.db.port", "", false ),
+    DEBEZIUM_DB_NAME( "debezium.db.name", "", false ),
+    DEBEZIUM_EXCLUDE_LIST( "debezium.exclude.list", "", false ),
     FLYWAY_OUT_OF_ORDER_MIGRATION( "flyway.migrate_out_of_order", Constants.FALSE, false ),
     FLYWAY_REPAIR_BEFORE_MIGRATION( "flyway.repair_before_migration", Constants.FALSE, false ),
     PROGRAM_TEMPORARY_OWNERSHIP_TIMEOUT( "tracker.temporary.ownership.timeout", "3", false ),
@@ -118,12 +128,18 @@ public enum ConfigurationKey
     MONITORING_HIBERNATE_ENABLED( "monitoring.hibernate.enabled", Constants.OFF, false ),
     MONITORING_UPTIME_ENABLED( "monitoring.uptime.enabled", Constants.OFF, false ),
     MONITORING_CPU_ENABLED( "monitoring.cpu.enabled", Constants.OFF, false ),
+    MONITORING_AUDIT_ENABLED( "monitoring.audit.enabled", Constants.OFF, false ),
+    MONITORING_ANALYTICS_ENABLED( "monitoring.analytics.enabled", Constants.OFF, false ),
+    MONITORING_CACHE_ENABLED( "monitoring.cache.enabled", Constants.OFF, false ),
     APPHUB_BASE_URL( "apphub.base.url", "https://apps.dhis2.org", false ),
     APPHUB_API_URL( "apphub.api.url", "https://apps.dhis2.org/api", false ),
     CHANGELOG_AGGREGATE( "changelog.aggregate", Constants.ON ),
     CHANGELOG_TRACKER( "changelog.tracker", Constants.ON ),
     AUDIT_USE_INMEMORY_QUEUE_ENABLED( "audit.inmemory-queue.enabled", Constants.OFF ),
     AUDIT_USE_IN_MEMORY_QUEUE_ENABLED( "audit.in_memory_queue.enabled", Constants.OFF ),
+    AUDIT_IN_MEMORY_QUEUE_MAX_SIZE( "audit.in_memory_queue.max_size", "10000" ),
+    AUDIT_IN_MEMORY_QUEUE_DELAY( "audit.in_memory_queue.delay", "5000" ),
+    AUDIT_IN_MEMORY_QUEUE_BATCH_SIZE( "audit.in_memory_queue.batch_size", "200" ),
     AUDIT_LOGGER( "audit.logger", Constants.OFF, false ),
     AUDIT_LOGGER_FILE_MAX_SIZE( "audit.logger.file.max_size", "500MB" ),
     AUDIT_DATABASE( "audit.database", Constants.ON, false ),
@@ -152,7 +168,11 @@ public enum ConfigurationKey
     ELAPSED_TIME_QUERY_LOGGING_ENABLED( "elapsed.time.query.logging.enabled", Constants.FALSE, false ),
     DB_POOL_TYPE( "db.pool.type", "c3p0", false ),
     ACTIVE_READ_REPLICAS( "active.read.replicas", "0", false ),
+    READ_REPLICA_ROUTING_ENABLED( "read.replica.routing.enabled", Constants.OFF, false ),
+    READ_REPLICA_MAX_LAG( "read.replica.max_lag", "5", false ),
+    READ_REPLICA_HEALTH_CHECK_INTERVAL( "read.replica.health_check.interval", "10", false ),
     AUDIT_ENABLED( "system.audit.enabled", Constants.TRUE, false ),
+    RESERVED_VALUE_POOL_SIZE( "reserved.value.pool.size", "0", false ),
     TRACKER_IMPORT_PREHEAT_CACHE_ENABLED( "tracker.import.preheat.cache.enabled", Constants.ON, false ),
     ENABLE_OAUTH2_AUTHORIZATION_SERVER( "oauth2.authorization.server.enabled", Constants.ON, false ),
     ENABLE_JWT_OIDC_TOKEN_AUTHENTICATION( "oidc.jwt.token.authentication.enabled", Constants.OFF, false ),
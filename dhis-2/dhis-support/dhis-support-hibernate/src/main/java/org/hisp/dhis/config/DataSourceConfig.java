@@ -48,6 +48,8 @@ import org.hisp.dhis.common.CodeGenerator;
 import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.datasource.DatabasePoolUtils;
 import org.hisp.dhis.datasource.DefaultReadOnlyDataSourceManager;
+import org.hisp.dhis.datasource.ReadOnlyDataSourceManager;
+import org.hisp.dhis.datasource.ReadOnlyRoutingDataSource;
 import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.hibernate.HibernateConfigurationProvider;
@@ -88,18 +90,28 @@ public class DataSourceConfig
 
     @Bean( "readOnlyJdbcTemplate" )
     @DependsOn( "dataSource" )
-    public JdbcTemplate readOnlyJdbcTemplate( @Lazy DhisConfigurationProvider dhisConfig,
+    public JdbcTemplate readOnlyJdbcTemplate( ReadOnlyDataSourceManager readOnlyDataSourceManager,
         @Qualifier( "dataSource" ) DataSource dataSource )
     {
-        DefaultReadOnlyDataSourceManager manager = new DefaultReadOnlyDataSourceManager( dhisConfig );
-
         JdbcTemplate jdbcTemplate = new JdbcTemplate(
-            MoreObjects.firstNonNull( manager.getReadOnlyDataSource(), dataSource ) );
+            MoreObjects.firstNonNull( readOnlyDataSourceManager.getReadOnlyDataSource(), dataSource ) );
         jdbcTemplate.setFetchSize( 1000 );
 
         return jdbcTemplate;
     }
 
+    /**
+     * Read replicas fall back to the main data source when none of them is
+     * available.
+     */
+    @Bean
+    @DependsOn( "actualDataSource" )
+    public ReadOnlyDataSourceManager readOnlyDataSourceManager( @Lazy DhisConfigurationProvider dhisConfig,
+        @Qualifier( "actualDataSource" ) DataSource actualDataSource )
+    {
+        return new DefaultReadOnlyDataSourceManager( dhisConfig, actualDataSource );
+    }
+
     @Bean( "actualDataSource" )
     public DataSource actualDataSource( @Lazy DhisConfigurationProvider dhisConfig,
         HibernateConfigurationProvider hibernateConfigurationProvider )
@@ -133,7 +145,23 @@ public class DataSourceConfig
     @DependsOn( "actualDataSource" )
     @Primary
     public DataSource dataSource( @Lazy DhisConfigurationProvider dhisConfig,
-        @Qualifier( "actualDataSource" ) DataSource actualDataSource )
+        @Qualifier( "actualDataSource" ) DataSource actualDataSource,
+        ReadOnlyDataSourceManager readOnlyDataSourceManager )
+    {
+        DataSource dataSource = withQueryLogging( dhisConfig, actualDataSource );
+
+        if ( dhisConfig.isEnabled( ConfigurationKey.READ_REPLICA_ROUTING_ENABLED )
+            && readOnlyDataSourceManager.getReadReplicaCount() > 0 )
+        {
+            log.info( "Routing read replica transactions to read replicas" );
+
+            return ReadOnlyRoutingDataSource.wrap( dataSource, readOnlyDataSourceManager.getReadOnlyDataSource() );
+        }
+
+        return dataSource;
+    }
+
+    private DataSource withQueryLogging( DhisConfigurationProvider dhisConfig, DataSource actualDataSource )
     {
         boolean enableQueryLogging = dhisConfig.getBoolean( ConfigurationKey.ENABLE_QUERY_LOGGING );
 
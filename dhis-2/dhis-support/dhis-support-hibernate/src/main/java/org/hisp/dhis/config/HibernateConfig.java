@@ -35,6 +35,8 @@ import javax.sql.DataSource;
 
 import org.hibernate.SessionFactory;
 import org.hisp.dhis.cache.DefaultHibernateCacheManager;
+import org.hisp.dhis.datasource.ReadOnlyRoutingDataSource;
+import org.hisp.dhis.datasource.ReadOnlyRoutingTransactionManager;
 import org.hisp.dhis.dbms.DbmsManager;
 import org.hisp.dhis.dbms.HibernateDbmsManager;
 import org.hisp.dhis.deletedobject.DeletedObject;
@@ -93,11 +95,16 @@ public class HibernateConfig
         return sessionFactory;
     }
 
+    /**
+     * Routes read only transactions labelled as read replica transactions to
+     * read replicas, if the data source is routing, see
+     * {@link ReadOnlyRoutingDataSource}.
+     */
     @Bean
-    public HibernateTransactionManager hibernateTransactionManager( DataSource dataSource,
+    public ReadOnlyRoutingTransactionManager hibernateTransactionManager( DataSource dataSource,
         SessionFactory sessionFactory )
     {
-        HibernateTransactionManager transactionManager = new HibernateTransactionManager();
+        ReadOnlyRoutingTransactionManager transactionManager = new ReadOnlyRoutingTransactionManager();
         transactionManager.setSessionFactory( sessionFactory );
         transactionManager.setDataSource( dataSource );
 
@@ -29,34 +29,50 @@ package org.hisp.dhis.datasource;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.sql.DataSource;
 
 import org.springframework.jdbc.datasource.AbstractDataSource;
 
-import com.google.common.collect.Iterators;
-
 /**
  * Data source implementation which routes to the configured target data sources
- * in a circular fashion.
+ * in a circular fashion. Target data sources can be marked as unavailable, in
+ * which case they are skipped. If no target data source is available, the
+ * fallback data source is used, if set.
  *
  * @author Lars Helge Overland
  */
 public class CircularRoutingDataSource
     extends AbstractDataSource
 {
-    private Iterator<DataSource> dataSourceIterator;
+    private final List<DataSource> targetDataSources;
+
+    private final Set<DataSource> unavailableDataSources = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private DataSource fallbackDataSource;
 
     public CircularRoutingDataSource()
     {
+        this.targetDataSources = Collections.emptyList();
     }
 
     public CircularRoutingDataSource( List<DataSource> targetDataSources )
     {
-        this.dataSourceIterator = Iterators.cycle( Collections.synchronizedList( targetDataSources ) );
+        this.targetDataSources = Collections.unmodifiableList( new ArrayList<>( targetDataSources ) );
+    }
+
+    public CircularRoutingDataSource( List<DataSource> targetDataSources, DataSource fallbackDataSource )
+    {
+        this( targetDataSources );
+        this.fallbackDataSource = fallbackDataSource;
     }
 
     // -------------------------------------------------------------------------
@@ -78,11 +94,71 @@ public class CircularRoutingDataSource
     }
 
     // -------------------------------------------------------------------------
-    // Private methods
+    // Availability
     // -------------------------------------------------------------------------
 
-    private synchronized DataSource getDataSource()
+    public List<DataSource> getTargetDataSources()
     {
-        return dataSourceIterator.next();
+        return targetDataSources;
+    }
+
+    /**
+     * Sets whether the given target data source can be routed to.
+     *
+     * @param dataSource the target data source.
+     * @param available whether the data source is available.
+     * @return true if the availability of the data source changed.
+     */
+    public boolean setAvailable( DataSource dataSource, boolean available )
+    {
+        return available ? unavailableDataSources.remove( dataSource ) : unavailableDataSources.add( dataSource );
+    }
+
+    public boolean isAvailable( DataSource dataSource )
+    {
+        return !unavailableDataSources.contains( dataSource );
+    }
+
+    /**
+     * Returns the number of target data sources currently available.
+     */
+    public int getAvailableCount()
+    {
+        return (int) targetDataSources.stream().filter( this::isAvailable ).count();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the next available target data source, or the fallback data
+     * source if none is available.
+     */
+    DataSource getDataSource()
+    {
+        int size = targetDataSources.size();
+
+        for ( int i = 0; i < size; i++ )
+        {
+            DataSource dataSource = targetDataSources.get( Math.floorMod( counter.getAndIncrement(), size ) );
+
+            if ( isAvailable( dataSource ) )
+            {
+                return dataSource;
+            }
+        }
+
+        if ( fallbackDataSource != null )
+        {
+            return fallbackDataSource;
+        }
+
+        if ( size == 0 )
+        {
+            throw new IllegalStateException( "No target data source configured" );
+        }
+
+        return targetDataSources.get( Math.floorMod( counter.getAndIncrement(), size ) );
     }
 }
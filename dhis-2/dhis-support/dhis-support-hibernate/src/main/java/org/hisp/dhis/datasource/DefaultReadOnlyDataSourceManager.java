@@ -37,6 +37,9 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
@@ -47,14 +50,17 @@ import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.util.ObjectUtils;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * @author Lars Helge Overland
  */
 @Slf4j
 public class DefaultReadOnlyDataSourceManager
-    implements ReadOnlyDataSourceManager, InitializingBean
+    implements ReadOnlyDataSourceManager, InitializingBean, DisposableBean
 {
     private static final String FORMAT_READ_PREFIX = "read%d.";
 
@@ -74,10 +80,21 @@ public class DefaultReadOnlyDataSourceManager
 
     private final DhisConfigurationProvider config;
 
+    /**
+     * Data source used when no read replica is available, can be null.
+     */
+    private final DataSource fallbackDataSource;
+
     public DefaultReadOnlyDataSourceManager( DhisConfigurationProvider config )
+    {
+        this( config, null );
+    }
+
+    public DefaultReadOnlyDataSourceManager( DhisConfigurationProvider config, DataSource fallbackDataSource )
     {
         checkNotNull( config );
         this.config = config;
+        this.fallbackDataSource = fallbackDataSource;
     }
 
     /**
@@ -90,13 +107,45 @@ public class DefaultReadOnlyDataSourceManager
      */
     private List<DataSource> internalReadOnlyInstanceList;
 
+    /**
+     * Executor of the read replica health checks, null if there are no read
+     * replicas.
+     */
+    private ScheduledExecutorService healthCheckExecutor;
+
     @Override
     public void afterPropertiesSet()
     {
         List<DataSource> ds = getReadOnlyDataSources();
 
         this.internalReadOnlyInstanceList = ds;
-        this.internalReadOnlyDataSource = !ds.isEmpty() ? new CircularRoutingDataSource( ds ) : null;
+
+        if ( ds.isEmpty() )
+        {
+            this.internalReadOnlyDataSource = null;
+            return;
+        }
+
+        CircularRoutingDataSource routingDataSource = new CircularRoutingDataSource( ds, fallbackDataSource );
+
+        long maxLag = Long.parseLong( config.getProperty( ConfigurationKey.READ_REPLICA_MAX_LAG ) );
+        long interval = Long.parseLong( config.getProperty( ConfigurationKey.READ_REPLICA_HEALTH_CHECK_INTERVAL ) );
+
+        this.healthCheckExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat( "READ-REPLICA-HEALTH-%d" ).setDaemon( true ).build() );
+        this.healthCheckExecutor.scheduleWithFixedDelay( new ReadReplicaHealthChecker( routingDataSource, maxLag ),
+            interval, interval, TimeUnit.SECONDS );
+
+        this.internalReadOnlyDataSource = routingDataSource;
+    }
+
+    @Override
+    public void destroy()
+    {
+        if ( healthCheckExecutor != null )
+        {
+            healthCheckExecutor.shutdownNow();
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.datasource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source which routes connections obtained within read replica
+ * transactions to the read only data source, and all other connections to the
+ * main data source. A read replica transaction is a read only transaction
+ * labelled with {@link #READ_REPLICA}, like
+ * {@code @Transactional( readOnly = true, label = READ_REPLICA )}, which was
+ * begun by a {@link ReadOnlyRoutingTransactionManager}. A method labelled this
+ * way which joins an existing transaction uses the connection of that
+ * transaction.
+ * <p>
+ * Routing is opt-in as read replicas lag behind the main database. Reads which
+ * must see the latest writes, such as reads following a write of the same user
+ * or reads of synchronization jobs, must not be labelled.
+ * <p>
+ * The transaction is marked as read replica transaction before it begins, but
+ * the transaction read only flag is only set after the transaction manager has
+ * obtained its connection, hence this data source must be wrapped in a
+ * {@link LazyConnectionDataSourceProxy} so that the physical connection is
+ * fetched on the first statement, see {@link #wrap(DataSource, DataSource)}.
+ */
+public class ReadOnlyRoutingDataSource
+    extends AbstractRoutingDataSource
+{
+    /**
+     * Transaction label of read replica transactions.
+     */
+    public static final String READ_REPLICA = "readReplica";
+
+    private enum Target
+    {
+        MAIN,
+        READ_ONLY
+    }
+
+    private static final ThreadLocal<Boolean> READ_REPLICA_TRANSACTION = ThreadLocal.withInitial( () -> false );
+
+    public ReadOnlyRoutingDataSource( DataSource mainDataSource, DataSource readOnlyDataSource )
+    {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put( Target.MAIN, mainDataSource );
+        targets.put( Target.READ_ONLY, readOnlyDataSource );
+
+        setTargetDataSources( targets );
+        setDefaultTargetDataSource( mainDataSource );
+        setLenientFallback( false );
+        afterPropertiesSet();
+    }
+
+    /**
+     * Creates a read only routing data source wrapped in a lazy connection
+     * proxy.
+     *
+     * @param mainDataSource the main data source.
+     * @param readOnlyDataSource the read only data source.
+     * @return a data source.
+     */
+    public static DataSource wrap( DataSource mainDataSource, DataSource readOnlyDataSource )
+    {
+        return new LazyConnectionDataSourceProxy(
+            new ReadOnlyRoutingDataSource( mainDataSource, readOnlyDataSource ) );
+    }
+
+    /**
+     * Indicates whether the given data source was created by
+     * {@link #wrap(DataSource, DataSource)}.
+     *
+     * @param dataSource the data source.
+     * @return true if the data source routes read replica transactions.
+     */
+    public static boolean isRouting( DataSource dataSource )
+    {
+        return dataSource instanceof LazyConnectionDataSourceProxy &&
+            ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource() instanceof ReadOnlyRoutingDataSource;
+    }
+
+    static boolean isReadReplicaTransaction()
+    {
+        return READ_REPLICA_TRANSACTION.get();
+    }
+
+    static void setReadReplicaTransaction( boolean readReplica )
+    {
+        READ_REPLICA_TRANSACTION.set( readReplica );
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey()
+    {
+        return READ_REPLICA_TRANSACTION.get() && TransactionSynchronizationManager.isActualTransactionActive() &&
+            TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Target.READ_ONLY : Target.MAIN;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.datasource;
+
+import java.util.Collections;
+import java.util.function.Supplier;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.hibernate5.HibernateTransactionManager;
+import org.springframework.orm.hibernate5.SessionHolder;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction manager which marks read only transactions labelled with
+ * {@link ReadOnlyRoutingDataSource#READ_REPLICA} as read replica transactions
+ * when they begin, before their connection is acquired, so that a
+ * {@link ReadOnlyRoutingDataSource} routes them to a read replica. The mark is
+ * kept while a transaction is suspended by an inner transaction.
+ * <p>
+ * When the data source routes, read replica transactions do not put entities
+ * into the Hibernate second-level cache, as those may be stale.
+ */
+public class ReadOnlyRoutingTransactionManager
+    extends HibernateTransactionManager
+{
+    private boolean routing;
+
+    @Override
+    public void afterPropertiesSet()
+    {
+        super.afterPropertiesSet();
+
+        routing = ReadOnlyRoutingDataSource.isRouting( getDataSource() );
+    }
+
+    /**
+     * Runs the given work in a read replica transaction, or in the current
+     * transaction if there is one.
+     *
+     * @param work the work to run.
+     * @return the result of the work.
+     */
+    public <T> T executeOnReadReplica( Supplier<T> work )
+    {
+        DefaultTransactionAttribute definition = new DefaultTransactionAttribute();
+        definition.setReadOnly( true );
+        definition.setLabels( Collections.singleton( ReadOnlyRoutingDataSource.READ_REPLICA ) );
+
+        TransactionStatus status = getTransaction( definition );
+
+        T result;
+
+        try
+        {
+            result = work.get();
+        }
+        catch ( RuntimeException | Error ex )
+        {
+            rollback( status );
+            throw ex;
+        }
+
+        commit( status );
+
+        return result;
+    }
+
+    @Override
+    protected void doBegin( Object transaction, TransactionDefinition definition )
+    {
+        boolean readReplica = isReadReplica( definition );
+
+        ReadOnlyRoutingDataSource.setReadReplicaTransaction( readReplica );
+
+        try
+        {
+            super.doBegin( transaction, definition );
+        }
+        catch ( RuntimeException | Error ex )
+        {
+            ReadOnlyRoutingDataSource.setReadReplicaTransaction( false );
+            throw ex;
+        }
+
+        if ( routing && readReplica )
+        {
+            getSession().setCacheMode( CacheMode.GET );
+        }
+    }
+
+    @Override
+    protected Object doSuspend( Object transaction )
+    {
+        boolean readReplica = ReadOnlyRoutingDataSource.isReadReplicaTransaction();
+
+        Object suspendedResources = super.doSuspend( transaction );
+
+        ReadOnlyRoutingDataSource.setReadReplicaTransaction( false );
+
+        return new SuspendedTransaction( suspendedResources, readReplica );
+    }
+
+    @Override
+    protected void doResume( Object transaction, Object suspendedResources )
+    {
+        SuspendedTransaction suspended = (SuspendedTransaction) suspendedResources;
+
+        super.doResume( transaction, suspended.resources );
+
+        ReadOnlyRoutingDataSource.setReadReplicaTransaction( suspended.readReplica );
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion( Object transaction )
+    {
+        if ( routing && ReadOnlyRoutingDataSource.isReadReplicaTransaction() )
+        {
+            getSession().setCacheMode( CacheMode.NORMAL );
+        }
+
+        ReadOnlyRoutingDataSource.setReadReplicaTransaction( false );
+
+        super.doCleanupAfterCompletion( transaction );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private static boolean isReadReplica( TransactionDefinition definition )
+    {
+        return definition.isReadOnly() && definition instanceof TransactionAttribute &&
+            ((TransactionAttribute) definition).getLabels().contains( ReadOnlyRoutingDataSource.READ_REPLICA );
+    }
+
+    private Session getSession()
+    {
+        SessionHolder sessionHolder = (SessionHolder) TransactionSynchronizationManager
+            .getResource( obtainSessionFactory() );
+
+        return sessionHolder.getSession();
+    }
+
+    private static class SuspendedTransaction
+    {
+        private final Object resources;
+
+        private final boolean readReplica;
+
+        SuspendedTransaction( Object resources, boolean readReplica )
+        {
+            this.resources = resources;
+            this.readReplica = readReplica;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodic health check of read replica data sources. A replica which cannot
+ * be queried, or whose replay lag exceeds the configured threshold, is marked
+ * as unavailable in the {@link CircularRoutingDataSource} and is marked as
+ * available again once it recovers.
+ */
+@Slf4j
+class ReadReplicaHealthChecker
+    implements Runnable
+{
+    /**
+     * Returns the replay lag in seconds, which is zero when everything received
+     * from the primary has been replayed, or when not in recovery.
+     */
+    private static final String LAG_QUERY = "select case " +
+        "when not pg_is_in_recovery() or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 " +
+        "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+    private static final int QUERY_TIMEOUT_SECONDS = 5;
+
+    private final CircularRoutingDataSource routingDataSource;
+
+    private final long maxLagSeconds;
+
+    ReadReplicaHealthChecker( CircularRoutingDataSource routingDataSource, long maxLagSeconds )
+    {
+        this.routingDataSource = routingDataSource;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Override
+    public void run()
+    {
+        List<DataSource> replicas = routingDataSource.getTargetDataSources();
+
+        for ( int i = 0; i < replicas.size(); i++ )
+        {
+            DataSource replica = replicas.get( i );
+
+            String reason = check( replica );
+
+            if ( routingDataSource.setAvailable( replica, reason == null ) )
+            {
+                if ( reason == null )
+                {
+                    log.info( String.format( "Read replica %d is available again", i + 1 ) );
+                }
+                else
+                {
+                    log.warn( String.format( "Read replica %d is unavailable, routing around it: %s", i + 1,
+                        reason ) );
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the given replica.
+     *
+     * @return the reason the replica is not usable, or null if it is usable.
+     */
+    private String check( DataSource replica )
+    {
+        try
+        {
+            double lag = getReplayLag( replica );
+
+            return lag > maxLagSeconds
+                ? String.format( "replay lag of %.1f seconds exceeds %d seconds", lag, maxLagSeconds )
+                : null;
+        }
+        catch ( SQLException ex )
+        {
+            return ex.getMessage();
+        }
+    }
+
+    /**
+     * Queries the replay lag of the given replica.
+     *
+     * @return the replay lag in seconds.
+     */
+    double getReplayLag( DataSource replica )
+        throws SQLException
+    {
+        try ( Connection connection = replica.getConnection();
+            Statement statement = connection.createStatement() )
+        {
+            statement.setQueryTimeout( QUERY_TIMEOUT_SECONDS );
+
+            try ( ResultSet resultSet = statement.executeQuery( LAG_QUERY ) )
+            {
+                return resultSet.next() ? resultSet.getDouble( 1 ) : 0;
+            }
+        }
+    }
+}
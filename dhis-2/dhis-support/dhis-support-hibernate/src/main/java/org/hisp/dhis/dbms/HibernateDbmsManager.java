@@ -86,6 +86,7 @@ public class HibernateDbmsManager
         emptyTable( "incomingsms" );
 
         emptyTable( "datavalueaudit" );
+        emptyTable( "outlierstatistics" );
         emptyTable( "datavalue" );
         emptyTable( "completedatasetregistration" );
 
@@ -184,7 +184,11 @@ public class DefaultHibernateConfigurationProvider
         // ---------------------------------------------------------------------
         // Handle cache replication
         // ---------------------------------------------------------------------
-        if ( configProvider.isClusterEnabled() )
+        if ( configProvider.isClusterEnabled() && configProvider.isEnabled( ConfigurationKey.DEBEZIUM_ENABLED ) )
+        {
+            log.info( "Clustering enabled, cache invalidation through change data capture" );
+        }
+        else if ( configProvider.isClusterEnabled() )
         {
             config.setProperty( "net.sf.ehcache.configurationResourceName", FILENAME_EHCACHE_REPLICATION );
 
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Unit tests for {@link CircularRoutingDataSource}.
+ */
+public class CircularRoutingDataSourceTest
+{
+    private final DataSource replicaA = new StubDataSource();
+
+    private final DataSource replicaB = new StubDataSource();
+
+    private final DataSource main = new StubDataSource();
+
+    @Test
+    public void testRoundRobin()
+    {
+        CircularRoutingDataSource dataSource = new CircularRoutingDataSource( Arrays.asList( replicaA, replicaB ) );
+
+        assertSame( replicaA, dataSource.getDataSource() );
+        assertSame( replicaB, dataSource.getDataSource() );
+        assertSame( replicaA, dataSource.getDataSource() );
+    }
+
+    @Test
+    public void testSkipUnavailable()
+    {
+        CircularRoutingDataSource dataSource = new CircularRoutingDataSource( Arrays.asList( replicaA, replicaB ),
+            main );
+
+        assertTrue( dataSource.setAvailable( replicaA, false ) );
+        assertFalse( dataSource.setAvailable( replicaA, false ) );
+        assertEquals( 1, dataSource.getAvailableCount() );
+
+        assertSame( replicaB, dataSource.getDataSource() );
+        assertSame( replicaB, dataSource.getDataSource() );
+
+        assertTrue( dataSource.setAvailable( replicaA, true ) );
+        assertEquals( 2, dataSource.getAvailableCount() );
+    }
+
+    @Test
+    public void testFallbackWhenNoneAvailable()
+    {
+        CircularRoutingDataSource dataSource = new CircularRoutingDataSource( Arrays.asList( replicaA, replicaB ),
+            main );
+
+        dataSource.setAvailable( replicaA, false );
+        dataSource.setAvailable( replicaB, false );
+
+        assertSame( main, dataSource.getDataSource() );
+        assertSame( main, new CircularRoutingDataSource( Collections.emptyList(), main ).getDataSource() );
+    }
+
+    @Test
+    public void testNoFallbackUsesUnavailable()
+    {
+        CircularRoutingDataSource dataSource = new CircularRoutingDataSource( Collections.singletonList( replicaA ) );
+
+        dataSource.setAvailable( replicaA, false );
+
+        assertSame( replicaA, dataSource.getDataSource() );
+    }
+
+    private static class StubDataSource
+        extends AbstractDataSource
+    {
+        @Override
+        public Connection getConnection()
+        {
+            return null;
+        }
+
+        @Override
+        public Connection getConnection( String username, String password )
+        {
+            return null;
+        }
+    }
+}
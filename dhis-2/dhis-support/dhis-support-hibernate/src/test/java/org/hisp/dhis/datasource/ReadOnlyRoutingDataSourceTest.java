@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for {@link ReadOnlyRoutingDataSource}.
+ */
+public class ReadOnlyRoutingDataSourceTest
+{
+    private final ReadOnlyRoutingDataSource dataSource = new ReadOnlyRoutingDataSource(
+        new DriverManagerDataSource(), new DriverManagerDataSource() );
+
+    @After
+    public void tearDown()
+    {
+        ReadOnlyRoutingDataSource.setReadReplicaTransaction( false );
+        TransactionSynchronizationManager.setActualTransactionActive( false );
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly( false );
+    }
+
+    @Test
+    public void testReadOnlyTransactionUsesMain()
+    {
+        beginTransaction( true, false );
+
+        assertEquals( "MAIN", dataSource.determineCurrentLookupKey().toString() );
+    }
+
+    @Test
+    public void testReadReplicaTransactionUsesReadReplica()
+    {
+        beginTransaction( true, true );
+
+        assertEquals( "READ_ONLY", dataSource.determineCurrentLookupKey().toString() );
+    }
+
+    @Test
+    public void testReadWriteTransactionUsesMain()
+    {
+        beginTransaction( false, true );
+
+        assertEquals( "MAIN", dataSource.determineCurrentLookupKey().toString() );
+    }
+
+    @Test
+    public void testNoTransactionUsesMain()
+    {
+        ReadOnlyRoutingDataSource.setReadReplicaTransaction( true );
+
+        assertEquals( "MAIN", dataSource.determineCurrentLookupKey().toString() );
+    }
+
+    @Test
+    public void testIsRouting()
+    {
+        assertTrue( ReadOnlyRoutingDataSource.isRouting( ReadOnlyRoutingDataSource.wrap(
+            new DriverManagerDataSource(), new DriverManagerDataSource() ) ) );
+        assertFalse( ReadOnlyRoutingDataSource.isRouting( new DriverManagerDataSource() ) );
+    }
+
+    private void beginTransaction( boolean readOnly, boolean readReplica )
+    {
+        ReadOnlyRoutingDataSource.setReadReplicaTransaction( readReplica );
+        TransactionSynchronizationManager.setActualTransactionActive( true );
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly( readOnly );
+    }
+}
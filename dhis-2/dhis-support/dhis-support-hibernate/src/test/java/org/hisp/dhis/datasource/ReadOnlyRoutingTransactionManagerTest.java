@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.datasource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hisp.dhis.datasource.ReadOnlyRoutingDataSource.READ_REPLICA;
+import static org.junit.Assert.assertEquals;
+
+import javax.sql.DataSource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.H2Dialect;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.hibernate5.LocalSessionFactoryBuilder;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests that transactions are routed by {@link ReadOnlyRoutingTransactionManager}
+ * and {@link ReadOnlyRoutingDataSource}, using two in-memory databases as main
+ * database and read replica.
+ */
+public class ReadOnlyRoutingTransactionManagerTest
+{
+    private static final String MAIN = "mem:main";
+
+    private static final String REPLICA = "mem:replica";
+
+    private SessionFactory sessionFactory;
+
+    private ReadOnlyRoutingTransactionManager transactionManager;
+
+    private Reader reader;
+
+    @Before
+    public void setUp()
+    {
+        DataSource dataSource = ReadOnlyRoutingDataSource.wrap(
+            new DriverManagerDataSource( "jdbc:h2:" + MAIN ), new DriverManagerDataSource( "jdbc:h2:" + REPLICA ) );
+
+        sessionFactory = new LocalSessionFactoryBuilder( dataSource )
+            .setProperty( AvailableSettings.DIALECT, H2Dialect.class.getName() )
+            .buildSessionFactory();
+
+        transactionManager = new ReadOnlyRoutingTransactionManager();
+        transactionManager.setSessionFactory( sessionFactory );
+        transactionManager.setDataSource( dataSource );
+        transactionManager.afterPropertiesSet();
+
+        ProxyFactory proxyFactory = new ProxyFactory( new DefaultReader() );
+        proxyFactory.addAdvice( new TransactionInterceptor( transactionManager,
+            new AnnotationTransactionAttributeSource() ) );
+
+        reader = (Reader) proxyFactory.getProxy();
+    }
+
+    @After
+    public void tearDown()
+    {
+        sessionFactory.close();
+    }
+
+    @Test
+    public void testReadReplicaTransactionUsesReadReplica()
+    {
+        assertThat( reader.readOnReadReplica(), containsString( REPLICA ) );
+    }
+
+    @Test
+    public void testReadOnlyTransactionUsesMain()
+    {
+        assertThat( reader.readOnly(), containsString( MAIN ) );
+    }
+
+    @Test
+    public void testReadWriteTransactionWithLabelUsesMain()
+    {
+        assertThat( reader.readWriteWithLabel(), containsString( MAIN ) );
+    }
+
+    @Test
+    public void testReadReplicaTransactionJoiningTransactionUsesMain()
+    {
+        TransactionTemplate template = new TransactionTemplate( transactionManager );
+        template.setReadOnly( true );
+
+        assertThat( template.execute( status -> reader.readOnReadReplica() ), containsString( MAIN ) );
+    }
+
+    @Test
+    public void testReadReplicaTransactionIsResumedAfterInnerTransaction()
+    {
+        String[] urls = reader.readOnReadReplicaAfterInnerTransaction( reader );
+
+        assertThat( urls[0], containsString( MAIN ) );
+        assertThat( urls[1], containsString( REPLICA ) );
+    }
+
+    @Test
+    public void testTransactionAfterReadReplicaTransactionUsesMain()
+    {
+        assertThat( reader.readOnReadReplica(), containsString( REPLICA ) );
+        assertThat( reader.readOnly(), containsString( MAIN ) );
+    }
+
+    @Test
+    public void testExecuteOnReadReplica()
+    {
+        assertThat( transactionManager.executeOnReadReplica( this::getUrl ), containsString( REPLICA ) );
+        assertEquals( CacheMode.GET, transactionManager.executeOnReadReplica(
+            () -> sessionFactory.getCurrentSession().getCacheMode() ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private String getUrl()
+    {
+        return sessionFactory.getCurrentSession().doReturningWork( connection -> connection.getMetaData().getURL() );
+    }
+
+    public interface Reader
+    {
+        String readOnReadReplica();
+
+        String readOnly();
+
+        String readWriteWithLabel();
+
+        String readInNewTransaction();
+
+        String[] readOnReadReplicaAfterInnerTransaction( Reader inner );
+    }
+
+    private class DefaultReader
+        implements Reader
+    {
+        @Override
+        @Transactional( readOnly = true, label = READ_REPLICA )
+        public String readOnReadReplica()
+        {
+            return getUrl();
+        }
+
+        @Override
+        @Transactional( readOnly = true )
+        public String readOnly()
+        {
+            return getUrl();
+        }
+
+        @Override
+        @Transactional( label = READ_REPLICA )
+        public String readWriteWithLabel()
+        {
+            return getUrl();
+        }
+
+        @Override
+        @Transactional( propagation = Propagation.REQUIRES_NEW )
+        public String readInNewTransaction()
+        {
+            return getUrl();
+        }
+
+        @Override
+        @Transactional( readOnly = true, label = READ_REPLICA )
+        public String[] readOnReadReplicaAfterInnerTransaction( Reader inner )
+        {
+            String innerUrl = inner.readInNewTransaction();
+
+            return new String[] { innerUrl, getUrl() };
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Unit tests for {@link ReadReplicaHealthChecker}.
+ */
+public class ReadReplicaHealthCheckerTest
+{
+    private final DataSource replicaA = new StubDataSource();
+
+    private final DataSource replicaB = new StubDataSource();
+
+    private final DataSource main = new StubDataSource();
+
+    private final Map<DataSource, Double> lags = new HashMap<>();
+
+    private final CircularRoutingDataSource routingDataSource = new CircularRoutingDataSource(
+        Arrays.asList( replicaA, replicaB ), main );
+
+    private final ReadReplicaHealthChecker healthChecker = new ReadReplicaHealthChecker( routingDataSource, 5 )
+    {
+        @Override
+        double getReplayLag( DataSource replica )
+            throws SQLException
+        {
+            Double lag = lags.get( replica );
+
+            if ( lag == null )
+            {
+                throw new SQLException( "Connection refused" );
+            }
+
+            return lag;
+        }
+    };
+
+    @Test
+    public void testLaggingReplicaIsSkipped()
+    {
+        lags.put( replicaA, 60d );
+        lags.put( replicaB, 1d );
+
+        healthChecker.run();
+
+        assertFalse( routingDataSource.isAvailable( replicaA ) );
+        assertTrue( routingDataSource.isAvailable( replicaB ) );
+        assertSame( replicaB, routingDataSource.getDataSource() );
+        assertSame( replicaB, routingDataSource.getDataSource() );
+    }
+
+    @Test
+    public void testFallbackWhenAllReplicasLag()
+    {
+        lags.put( replicaA, 60d );
+        lags.put( replicaB, 6d );
+
+        healthChecker.run();
+
+        assertEquals( 0, routingDataSource.getAvailableCount() );
+        assertSame( main, routingDataSource.getDataSource() );
+    }
+
+    @Test
+    public void testFailingReplicaIsSkipped()
+    {
+        lags.put( replicaB, 0d );
+
+        healthChecker.run();
+
+        assertFalse( routingDataSource.isAvailable( replicaA ) );
+        assertSame( replicaB, routingDataSource.getDataSource() );
+    }
+
+    @Test
+    public void testReplicaRejoinsOnceCaughtUp()
+    {
+        lags.put( replicaA, 60d );
+        lags.put( replicaB, 60d );
+
+        healthChecker.run();
+
+        assertSame( main, routingDataSource.getDataSource() );
+
+        lags.put( replicaA, 2d );
+
+        healthChecker.run();
+
+        assertTrue( routingDataSource.isAvailable( replicaA ) );
+        assertSame( replicaA, routingDataSource.getDataSource() );
+    }
+
+    private static class StubDataSource
+        extends AbstractDataSource
+    {
+        @Override
+        public Connection getConnection()
+        {
+            return null;
+        }
+
+        @Override
+        public Connection getConnection( String username, String password )
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Broadcasts invalidations of {@link NearCache} entries to all nodes over a
+ * Redis channel, and drops the local entries of the invalidations received
+ * from other nodes.
+ * <p>
+ * Messages have the format {@code <instance>:<region>:<key>} for single keys
+ * and {@code <instance>:<region>} for all keys of a region, where instance
+ * identifies the publishing node so that it can ignore its own messages.
+ */
+@Slf4j
+public class CacheInvalidationBus
+    implements MessageListener, MeterBinder
+{
+    public static final String CHANNEL = "dhis2:cache:invalidation";
+
+    private static final String SEP = ":";
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Map<String, NearCache<?>> caches = new ConcurrentHashMap<>();
+
+    private final StringRedisTemplate redisTemplate;
+
+    private volatile MeterRegistry registry;
+
+    public CacheInvalidationBus( StringRedisTemplate redisTemplate )
+    {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Registers the given cache to receive invalidations for its region.
+     *
+     * @param cache the {@link NearCache}.
+     */
+    public void register( NearCache<?> cache )
+    {
+        caches.put( cache.getRegion(), cache );
+
+        MeterRegistry meterRegistry = registry;
+
+        if ( meterRegistry != null )
+        {
+            bindCache( meterRegistry, cache );
+        }
+    }
+
+    /**
+     * Broadcasts the invalidation of the given key in the given region.
+     *
+     * @param region the cache region.
+     * @param key the cache key.
+     */
+    public void publish( String region, String key )
+    {
+        send( instanceId + SEP + region + SEP + key );
+    }
+
+    /**
+     * Broadcasts the invalidation of all keys in the given region.
+     *
+     * @param region the cache region.
+     */
+    public void publish( String region )
+    {
+        send( instanceId + SEP + region );
+    }
+
+    @Override
+    public void onMessage( Message message, byte[] pattern )
+    {
+        String[] parts = new String( message.getBody(), StandardCharsets.UTF_8 ).split( SEP, 3 );
+
+        if ( parts.length < 2 || instanceId.equals( parts[0] ) )
+        {
+            return;
+        }
+
+        NearCache<?> cache = caches.get( parts[1] );
+
+        if ( cache == null )
+        {
+            return;
+        }
+
+        if ( parts.length == 3 )
+        {
+            cache.invalidateLocal( parts[2] );
+        }
+        else
+        {
+            cache.invalidateAllLocal();
+        }
+    }
+
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        this.registry = registry;
+
+        caches.values().forEach( cache -> bindCache( registry, cache ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void send( String message )
+    {
+        try
+        {
+            redisTemplate.convertAndSend( CHANNEL, message );
+        }
+        catch ( RuntimeException ex )
+        {
+            log.warn( String.format( "Failed to broadcast cache invalidation: '%s'", message ), ex );
+        }
+    }
+
+    private void bindCache( MeterRegistry meterRegistry, NearCache<?> cache )
+    {
+        counter( meterRegistry, cache, "local", "hit", NearCache::getLocalHits );
+        counter( meterRegistry, cache, "local", "miss", NearCache::getLocalMisses );
+        counter( meterRegistry, cache, "redis", "hit", NearCache::getRemoteHits );
+        counter( meterRegistry, cache, "redis", "miss", NearCache::getRemoteMisses );
+    }
+
+    private void counter( MeterRegistry meterRegistry, NearCache<?> cache, String tier, String result,
+        ToDoubleFunction<NearCache<?>> function )
+    {
+        FunctionCounter.builder( "cache.near.gets", cache, function )
+            .description( "The number of near cache lookups per tier" )
+            .tag( "region", cache.getRegion() )
+            .tag( "tier", tier )
+            .tag( "result", result )
+            .register( meterRegistry );
+    }
+}
@@ -101,4 +101,6 @@ public interface CacheProvider
     <V> Cache<V> createUserDisplayNameCache();
 
     <V> Cache<V> createProgramOrgUnitAssociationCache();
+
+    <V> Cache<V> createAnalyticsMetadataCache();
 }
@@ -46,10 +46,12 @@ public class DefaultCacheBuilderProvider implements CacheBuilderProvider
 
     private RedisTemplate<String, ?> redisTemplate;
 
+    private CacheInvalidationBus cacheInvalidationBus;
+
     @Override
     public <V> CacheBuilder<V> newCacheBuilder()
     {
-        return new ExtendedCacheBuilder<>( redisTemplate, configurationProvider );
+        return new ExtendedCacheBuilder<>( redisTemplate, configurationProvider, cacheInvalidationBus );
     }
 
     @Autowired
@@ -65,4 +67,10 @@ public class DefaultCacheBuilderProvider implements CacheBuilderProvider
         this.redisTemplate = redisTemplate;
     }
 
+    @Autowired( required = false )
+    public void setCacheInvalidationBus( CacheInvalidationBus cacheInvalidationBus )
+    {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
 }
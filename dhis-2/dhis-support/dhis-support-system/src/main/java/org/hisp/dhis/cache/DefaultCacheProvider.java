@@ -33,16 +33,20 @@ import static org.hisp.dhis.commons.util.SystemUtils.isTestRun;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.common.event.DatabaseTablesChangedEvent;
 import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.ImmutableSet;
+
 /**
  * The {@link DefaultCacheProvider} has the specific configuration for each of
  * the {@link Cache} factory methods as used within DHIS2.
@@ -61,6 +65,11 @@ public class DefaultCacheProvider
 
     private static final long SIZE_10K = 10_000;
 
+    private static final long SIZE_100K = 100_000;
+
+    private static final String[] USER_ORG_UNIT_TABLES = { "organisationunit", "usermembership",
+        "userdatavieworgunits", "userteisearchorgunits" };
+
     private final double cacheFactor;
 
     private final CacheBuilderProvider cacheBuilderProvider;
@@ -78,41 +87,56 @@ public class DefaultCacheProvider
 
     /**
      * Enum is used to make sure we do not use same region twice. Each method
-     * should have its own constant.
+     * should have its own constant. Regions list the database tables their
+     * entries are derived from, which is used to drop local entries when the
+     * tables change outside of this node.
      */
     @SuppressWarnings( "squid:S115" ) // allow non enum-ish names
     private enum Region
     {
         analyticsResponse,
         defaultObjectCache,
-        isDataApproved,
-        allConstantsCache,
-        inUserOuHierarchy,
-        inUserSearchOuHierarchy,
-        inUserViewOuHierHierarchy,
-        userCaptureOuCountThreshold,
-        periodIdCache,
+        isDataApproved( "dataapproval" ),
+        allConstantsCache( "constant" ),
+        inUserOuHierarchy( USER_ORG_UNIT_TABLES ),
+        inUserSearchOuHierarchy( USER_ORG_UNIT_TABLES ),
+        inUserViewOuHierHierarchy( USER_ORG_UNIT_TABLES ),
+        userCaptureOuCountThreshold( USER_ORG_UNIT_TABLES ),
+        periodIdCache( "period" ),
         userAccountRecoverAttempt,
         userFailedLoginAttempt,
-        programOwner,
-        programTempOwner,
-        userIdCache,
-        currentUserGroupInfoCache,
-        userSetting,
-        attrOptionComboIdCache,
-        systemSetting,
+        programOwner( "trackedentityprogramowner" ),
+        programTempOwner( "programtempowner" ),
+        userIdCache( "userinfo" ),
+        currentUserGroupInfoCache( "usergroup", "usergroupmembers" ),
+        userSetting( "usersetting" ),
+        attrOptionComboIdCache( "categoryoptioncombo" ),
+        systemSetting( "systemsetting" ),
         googleAccessToken,
         dataItemsPagination,
-        metadataAttributes,
-        canDataWriteCocCache,
+        metadataAttributes( "attribute" ),
+        canDataWriteCocCache( "categoryoptioncombo", "dataelementcategoryoption" ),
         analyticsSql,
-        dataElementCache,
+        dataElementCache( "dataelement" ),
         propertyTransformerCache,
-        programHasRulesCache,
-        programRuleVariablesCache,
-        userGroupNameCache,
-        userDisplayNameCache,
-        pgmOrgUnitAssocCache
+        programHasRulesCache( "programrule" ),
+        programRuleVariablesCache( "programrulevariable" ),
+        userGroupNameCache( "usergroup" ),
+        userDisplayNameCache( "userinfo" ),
+        pgmOrgUnitAssocCache( "program_organisationunits" ),
+        analyticsMetadata( "organisationunit" );
+
+        private final Set<String> tableNames;
+
+        Region( String... tableNames )
+        {
+            this.tableNames = ImmutableSet.copyOf( tableNames );
+        }
+
+        boolean isDerivedFromAny( Set<String> tables )
+        {
+            return tables.stream().anyMatch( tableNames::contains );
+        }
     }
 
     private final Map<String, Cache<?>> allCaches = new ConcurrentHashMap<>();
@@ -144,6 +168,31 @@ public class DefaultCacheProvider
         allCaches.values().forEach( Cache::invalidateAll );
     }
 
+    /**
+     * Drops the local entries of the regions derived from the changed tables.
+     * Entries in Redis are shared by all nodes and are left untouched.
+     */
+    @EventListener
+    public void handleDatabaseTablesChanged( DatabaseTablesChangedEvent event )
+    {
+        for ( Region region : Region.values() )
+        {
+            Cache<?> cache = allCaches.get( region.name() );
+
+            if ( cache != null && region.isDerivedFromAny( event.getTableNames() ) )
+            {
+                if ( cache instanceof NearCache )
+                {
+                    ((NearCache<?>) cache).invalidateAllLocal();
+                }
+                else if ( cache.getCacheType() == CacheType.IN_MEMORY )
+                {
+                    cache.invalidateAll();
+                }
+            }
+        }
+    }
+
     @Override
     public <V> Cache<V> createAnalyticsResponseCache( Duration initialExpirationTime )
     {
@@ -461,4 +510,15 @@ public class DefaultCacheProvider
             .withInitialCapacity( (int) getActualSize( 20 ) )
             .withMaximumSize( orZeroInTestRun( SIZE_1K ) ) );
     }
+
+    @Override
+    public <V> Cache<V> createAnalyticsMetadataCache()
+    {
+        return registerCache( this.<V> newBuilder()
+            .forRegion( Region.analyticsMetadata.name() )
+            .expireAfterWrite( 1, TimeUnit.HOURS )
+            .withInitialCapacity( (int) getActualSize( SIZE_1K ) )
+            .forceInMemory()
+            .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_100K ) ) ) );
+    }
 }
@@ -48,14 +48,17 @@ public class ExtendedCacheBuilder<V> extends SimpleCacheBuilder<V>
 
     private final RedisTemplate<String, ?> redisTemplate;
 
+    private final CacheInvalidationBus cacheInvalidationBus;
+
     private boolean forceInMemory;
 
     public ExtendedCacheBuilder( RedisTemplate<String, ?> redisTemplate,
-        DhisConfigurationProvider configurationProvider )
+        DhisConfigurationProvider configurationProvider, CacheInvalidationBus cacheInvalidationBus )
     {
         super();
         this.configurationProvider = configurationProvider;
         this.redisTemplate = redisTemplate;
+        this.cacheInvalidationBus = cacheInvalidationBus;
         this.forceInMemory = false;
     }
 
@@ -84,11 +87,14 @@ public class ExtendedCacheBuilder<V> extends SimpleCacheBuilder<V>
      * implementation {@link LocalCache} will be returned. For Local cache,
      * every instance created using this method will be logically separate and
      * will not share any state. However, when using Redis Cache, every instance
-     * created using this method will use the same redis store.
+     * created using this method will use the same redis store. If
+     * {@code redis.near_cache.enabled} is also set, bounded caches are
+     * returned as {@link NearCache} which keeps a local copy of the entries in
+     * front of the redis store.
      *
      * @return A cache instance based on the system configuration and input
-     *         parameters. Returns one of {@link RedisCache}, {@link LocalCache}
-     *         or {@link NoOpCache}
+     *         parameters. Returns one of {@link NearCache}, {@link RedisCache},
+     *         {@link LocalCache} or {@link NoOpCache}
      */
     @Override
     public Cache<V> build()
@@ -103,7 +109,13 @@ public class ExtendedCacheBuilder<V> extends SimpleCacheBuilder<V>
             log.info( String.format( "Local Cache (forced) instance created for region:'%s'", getRegion() ) );
             return new LocalCache<>( this );
         }
-        else if ( configurationProvider.getProperty( ConfigurationKey.REDIS_ENABLED ).equalsIgnoreCase( "true" ) )
+        else if ( isNearCacheEnabled() )
+        {
+            log.info( String.format( "Near Cache instance created for region:'%s'", getRegion() ) );
+            return new NearCache<>( this, cacheInvalidationBus, Long.parseLong(
+                configurationProvider.getProperty( ConfigurationKey.REDIS_NEAR_CACHE_MAX_EXPIRY ) ) );
+        }
+        else if ( isRedisEnabled() )
         {
             log.info( String.format( "Redis Cache instance created for region:'%s'", getRegion() ) );
             return new RedisCache<>( this );
@@ -115,6 +127,22 @@ public class ExtendedCacheBuilder<V> extends SimpleCacheBuilder<V>
         }
     }
 
+    private boolean isRedisEnabled()
+    {
+        return configurationProvider.getProperty( ConfigurationKey.REDIS_ENABLED ).equalsIgnoreCase( "true" );
+    }
+
+    /**
+     * Near caches require a bounded local tier, hence regions without a
+     * maximum size use Redis only.
+     */
+    private boolean isNearCacheEnabled()
+    {
+        return isRedisEnabled() && cacheInvalidationBus != null && getMaximumSize() > 0
+            && configurationProvider.getProperty( ConfigurationKey.REDIS_NEAR_CACHE_ENABLED )
+                .equalsIgnoreCase( "true" );
+    }
+
     public RedisTemplate<String, ?> getRedisTemplate()
     {
         return redisTemplate;
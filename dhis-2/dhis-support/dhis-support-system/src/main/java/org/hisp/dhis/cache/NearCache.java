@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A two-tier implementation of {@link Cache} with a bounded local cache in
+ * front of a shared {@link RedisCache}. Writes and invalidations go to both
+ * tiers and are broadcast through the {@link CacheInvalidationBus} so that
+ * other nodes drop their local entries for the key.
+ * <p>
+ * The expiry of local entries is capped so that an entry which missed an
+ * invalidation, e.g. by being read concurrently with a write on another node,
+ * is stale for a limited time only.
+ */
+public class NearCache<V> implements Cache<V>
+{
+    private final Cache<V> local;
+
+    private final Cache<V> remote;
+
+    private final CacheInvalidationBus invalidationBus;
+
+    private final String region;
+
+    private final V defaultValue;
+
+    private final LongAdder localHits = new LongAdder();
+
+    private final LongAdder localMisses = new LongAdder();
+
+    private final LongAdder remoteHits = new LongAdder();
+
+    private final LongAdder remoteMisses = new LongAdder();
+
+    /**
+     * Constructor for instantiating NearCache.
+     *
+     * @param cacheBuilder the cache builder instance.
+     * @param invalidationBus the {@link CacheInvalidationBus}.
+     * @param maxLocalExpiryInSeconds the max expiry of local entries.
+     */
+    public NearCache( ExtendedCacheBuilder<V> cacheBuilder, CacheInvalidationBus invalidationBus,
+        long maxLocalExpiryInSeconds )
+    {
+        this( cacheBuilder.getRegion(), createLocalCache( cacheBuilder, maxLocalExpiryInSeconds ),
+            new RedisCache<>( cacheBuilder ), cacheBuilder.getDefaultValue(), invalidationBus );
+    }
+
+    /**
+     * Constructor for instantiating NearCache with the given tiers.
+     *
+     * @param region the cache region.
+     * @param local the local tier.
+     * @param remote the shared remote tier.
+     * @param defaultValue the default value, or null.
+     * @param invalidationBus the {@link CacheInvalidationBus}.
+     */
+    NearCache( String region, Cache<V> local, Cache<V> remote, V defaultValue,
+        CacheInvalidationBus invalidationBus )
+    {
+        this.local = local;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.region = region;
+        this.defaultValue = defaultValue;
+
+        invalidationBus.register( this );
+    }
+
+    @Override
+    public Optional<V> getIfPresent( String key )
+    {
+        return Optional.ofNullable( getValue( key ) );
+    }
+
+    @Override
+    public Optional<V> get( String key )
+    {
+        return Optional.ofNullable( Optional.ofNullable( getValue( key ) ).orElse( defaultValue ) );
+    }
+
+    @Override
+    public Optional<V> get( String key, Function<String, V> mappingFunction )
+    {
+        if ( null == mappingFunction )
+        {
+            throw new IllegalArgumentException( "MappingFunction cannot be null" );
+        }
+
+        V value = getValue( key );
+
+        if ( null == value )
+        {
+            value = mappingFunction.apply( key );
+
+            if ( null != value )
+            {
+                remote.put( key, value );
+                local.put( key, value );
+            }
+        }
+
+        return Optional.ofNullable( Optional.ofNullable( value ).orElse( defaultValue ) );
+    }
+
+    @Override
+    public Collection<V> getAll()
+    {
+        return remote.getAll();
+    }
+
+    @Override
+    public Map<String, V> getAll( Collection<String> keys )
+    {
+        Map<String, V> values = local.getAll( keys );
+
+        localHits.add( values.size() );
+
+        List<String> missingKeys = keys.stream()
+            .filter( key -> !values.containsKey( key ) )
+            .collect( Collectors.toList() );
+
+        if ( missingKeys.isEmpty() )
+        {
+            return values;
+        }
+
+        localMisses.add( missingKeys.size() );
+
+        Map<String, V> remoteValues = remote.getAll( missingKeys );
+
+        remoteHits.add( remoteValues.size() );
+        remoteMisses.add( missingKeys.size() - remoteValues.size() );
+
+        local.putAll( remoteValues );
+        values.putAll( remoteValues );
+
+        return values;
+    }
+
+    @Override
+    public void put( String key, V value )
+    {
+        if ( null == value )
+        {
+            throw new IllegalArgumentException( "Value cannot be null" );
+        }
+
+        remote.put( key, value );
+        local.put( key, value );
+        invalidationBus.publish( region, key );
+    }
+
+    @Override
+    public void put( String key, V value, long ttlInSeconds )
+    {
+        remote.put( key, value, ttlInSeconds );
+        local.invalidate( key );
+        invalidationBus.publish( region, key );
+    }
+
+    @Override
+    public void putAll( Map<String, V> entries )
+    {
+        remote.putAll( entries );
+        local.putAll( entries );
+        entries.keySet().forEach( key -> invalidationBus.publish( region, key ) );
+    }
+
+    @Override
+    public void invalidate( String key )
+    {
+        remote.invalidate( key );
+        local.invalidate( key );
+        invalidationBus.publish( region, key );
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        remote.invalidateAll();
+        local.invalidateAll();
+        invalidationBus.publish( region );
+    }
+
+    @Override
+    public CacheType getCacheType()
+    {
+        return CacheType.REDIS;
+    }
+
+    // -------------------------------------------------------------------------
+    // Local invalidation
+    // -------------------------------------------------------------------------
+
+    /**
+     * Drops the local entry of the given key following an invalidation on
+     * another node.
+     *
+     * @param key the cache key.
+     */
+    void invalidateLocal( String key )
+    {
+        local.invalidate( key );
+    }
+
+    /**
+     * Drops all local entries following an invalidation on another node.
+     */
+    void invalidateAllLocal()
+    {
+        local.invalidateAll();
+    }
+
+    // -------------------------------------------------------------------------
+    // Statistics
+    // -------------------------------------------------------------------------
+
+    public String getRegion()
+    {
+        return region;
+    }
+
+    public long getLocalHits()
+    {
+        return localHits.sum();
+    }
+
+    public long getLocalMisses()
+    {
+        return localMisses.sum();
+    }
+
+    public long getRemoteHits()
+    {
+        return remoteHits.sum();
+    }
+
+    public long getRemoteMisses()
+    {
+        return remoteMisses.sum();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private static <V> Cache<V> createLocalCache( ExtendedCacheBuilder<V> cacheBuilder,
+        long maxLocalExpiryInSeconds )
+    {
+        long localExpiry = cacheBuilder.isExpiryEnabled()
+            ? Math.min( cacheBuilder.getExpiryInSeconds(), maxLocalExpiryInSeconds )
+            : maxLocalExpiryInSeconds;
+
+        return new LocalCache<>( new SimpleCacheBuilder<V>()
+            .forRegion( cacheBuilder.getRegion() )
+            .withMaximumSize( cacheBuilder.getMaximumSize() )
+            .expireAfterWrite( localExpiry, SECONDS ) );
+    }
+
+    /**
+     * Returns the value of the given key from the local cache, or from the
+     * remote cache if not present locally, in which case the value is put in
+     * the local cache.
+     *
+     * @param key the cache key.
+     * @return the value, or null if not present in any tier.
+     */
+    private V getValue( String key )
+    {
+        Optional<V> value = local.getIfPresent( key );
+
+        if ( value.isPresent() )
+        {
+            localHits.increment();
+            return value.get();
+        }
+
+        localMisses.increment();
+
+        value = remote.getIfPresent( key );
+
+        if ( value.isPresent() )
+        {
+            remoteHits.increment();
+            local.put( key, value.get() );
+            return value.get();
+        }
+
+        remoteMisses.increment();
+
+        return null;
+    }
+}
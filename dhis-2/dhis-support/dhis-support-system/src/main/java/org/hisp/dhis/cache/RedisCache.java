@@ -30,21 +30,37 @@ package org.hisp.dhis.cache;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.springframework.util.Assert.hasText;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 /**
  * A redis backed implementation of {@link Cache}. This implementation uses a
  * shared redis cache server for any number of instances.
+ * <p>
+ * Operations on the whole cache region iterate the keys of the region with
+ * {@code SCAN} rather than {@code KEYS}, as the latter blocks the redis server
+ * while walking the entire key space.
  *
  * @author Ameen Mohamed
  */
 public class RedisCache<V> implements Cache<V>
 {
+    private static final int SCAN_BATCH_SIZE = 1000;
+
     private RedisTemplate<String, V> redisTemplate;
 
     private boolean refreshExpriryOnAccess;
@@ -136,8 +152,54 @@ public class RedisCache<V> implements Cache<V>
     @Override
     public Collection<V> getAll()
     {
-        Set<String> keySet = redisTemplate.keys( cacheRegion + "*" );
-        return redisTemplate.opsForValue().multiGet( keySet );
+        RedisSerializer<V> valueSerializer = getValueSerializer();
+
+        List<V> values = new ArrayList<>();
+
+        scanRegion( ( connection, keys ) -> connection.mGet( keys ).stream()
+            .filter( Objects::nonNull )
+            .map( valueSerializer::deserialize )
+            .forEach( values::add ) );
+
+        return values;
+    }
+
+    @Override
+    public Map<String, V> getAll( Collection<String> keys )
+    {
+        Map<String, V> values = new HashMap<>();
+
+        if ( keys.isEmpty() )
+        {
+            return values;
+        }
+
+        List<String> keyList = new ArrayList<>( keys );
+        List<String> redisKeys = new ArrayList<>( keyList.size() );
+        keyList.forEach( key -> redisKeys.add( generateKey( key ) ) );
+
+        List<V> redisValues = redisTemplate.opsForValue().multiGet( redisKeys );
+
+        for ( int i = 0; i < keyList.size(); i++ )
+        {
+            if ( redisValues.get( i ) != null )
+            {
+                values.put( keyList.get( i ), redisValues.get( i ) );
+            }
+        }
+
+        if ( expiryEnabled && refreshExpriryOnAccess && !values.isEmpty() )
+        {
+            RedisSerializer<String> keySerializer = getKeySerializer();
+
+            redisTemplate.executePipelined( (RedisCallback<Object>) connection -> {
+                values.keySet().forEach(
+                    key -> connection.expire( keySerializer.serialize( generateKey( key ) ), expiryInSeconds ) );
+                return null;
+            } );
+        }
+
+        return values;
     }
 
     @Override
@@ -170,6 +232,41 @@ public class RedisCache<V> implements Cache<V>
         redisTemplate.boundValueOps( redisKey ).set( value, ttlInSeconds, SECONDS );
     }
 
+    @Override
+    public void putAll( Map<String, V> entries )
+    {
+        if ( entries.values().stream().anyMatch( Objects::isNull ) )
+        {
+            throw new IllegalArgumentException( "Value cannot be null" );
+        }
+
+        if ( entries.isEmpty() )
+        {
+            return;
+        }
+
+        RedisSerializer<String> keySerializer = getKeySerializer();
+        RedisSerializer<V> valueSerializer = getValueSerializer();
+
+        redisTemplate.executePipelined( (RedisCallback<Object>) connection -> {
+            for ( Map.Entry<String, V> entry : entries.entrySet() )
+            {
+                byte[] key = keySerializer.serialize( generateKey( entry.getKey() ) );
+                byte[] value = valueSerializer.serialize( entry.getValue() );
+
+                if ( expiryEnabled )
+                {
+                    connection.setEx( key, expiryInSeconds, value );
+                }
+                else
+                {
+                    connection.set( key, value );
+                }
+            }
+            return null;
+        } );
+    }
+
     @Override
     public void invalidate( String key )
     {
@@ -184,8 +281,7 @@ public class RedisCache<V> implements Cache<V>
     @Override
     public void invalidateAll()
     {
-        Set<String> keysToDelete = redisTemplate.keys( cacheRegion.concat( ":*" ) );
-        redisTemplate.delete( keysToDelete );
+        scanRegion( RedisConnection::unlink );
     }
 
     @Override
@@ -193,4 +289,61 @@ public class RedisCache<V> implements Cache<V>
     {
         return CacheType.REDIS;
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Iterates the keys of this cache region with {@code SCAN} and passes them
+     * in batches to the given consumer, along with the connection used for the
+     * iteration. Removing keys of a batch while iterating is safe.
+     *
+     * @param batchConsumer the consumer of the connection and a batch of raw
+     *        keys.
+     */
+    private void scanRegion( BiConsumer<RedisConnection, byte[][]> batchConsumer )
+    {
+        ScanOptions options = ScanOptions.scanOptions()
+            .match( cacheRegion.concat( ":*" ) )
+            .count( SCAN_BATCH_SIZE )
+            .build();
+
+        redisTemplate.execute( (RedisCallback<Void>) connection -> {
+            List<byte[]> batch = new ArrayList<>( SCAN_BATCH_SIZE );
+
+            try ( Cursor<byte[]> cursor = connection.scan( options ) )
+            {
+                while ( cursor.hasNext() )
+                {
+                    batch.add( cursor.next() );
+
+                    if ( batch.size() == SCAN_BATCH_SIZE )
+                    {
+                        batchConsumer.accept( connection, batch.toArray( new byte[0][] ) );
+                        batch.clear();
+                    }
+                }
+            }
+
+            if ( !batch.isEmpty() )
+            {
+                batchConsumer.accept( connection, batch.toArray( new byte[0][] ) );
+            }
+
+            return null;
+        } );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private RedisSerializer<String> getKeySerializer()
+    {
+        return (RedisSerializer<String>) redisTemplate.getKeySerializer();
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private RedisSerializer<V> getValueSerializer()
+    {
+        return (RedisSerializer<V>) redisTemplate.getValueSerializer();
+    }
 }
@@ -29,6 +29,8 @@ package org.hisp.dhis.configuration;
 
 import org.hisp.dhis.condition.RedisDisabledCondition;
 import org.hisp.dhis.condition.RedisEnabledCondition;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.system.notification.InMemoryNotifier;
 import org.hisp.dhis.system.notification.Notifier;
 import org.hisp.dhis.system.notification.RedisNotifier;
@@ -52,18 +54,27 @@ public class NotifierConfiguration
     @Autowired( required = false )
     private RedisTemplate<?, ?> redisTemplate;
 
+    @Autowired
+    private DhisConfigurationProvider dhisConfig;
+
     @SuppressWarnings( "unchecked" )
     @Bean( "notifier" )
     @Conditional( RedisEnabledCondition.class )
     public Notifier redisNotifier( ObjectMapper objectMapper )
     {
-        return new RedisNotifier( (RedisTemplate<String, String>) redisTemplate, objectMapper );
+        return new RedisNotifier( (RedisTemplate<String, String>) redisTemplate, objectMapper,
+            getMaxNotificationsPerJob() );
     }
 
     @Bean( "notifier" )
     @Conditional( RedisDisabledCondition.class )
     public Notifier inMemoryNotifier()
     {
-        return new InMemoryNotifier();
+        return new InMemoryNotifier( getMaxNotificationsPerJob() );
+    }
+
+    private int getMaxNotificationsPerJob()
+    {
+        return Integer.parseInt( dhisConfig.getProperty( ConfigurationKey.SYSTEM_NOTIFICATIONS_MAX_PER_JOB ) );
     }
 }
\ No newline at end of file
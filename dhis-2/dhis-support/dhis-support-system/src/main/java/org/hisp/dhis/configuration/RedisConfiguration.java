@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.configuration;
 
+import org.hisp.dhis.cache.CacheInvalidationBus;
 import org.hisp.dhis.condition.RedisEnabledCondition;
 import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.ConfigurationPropertyFactoryBean;
@@ -40,6 +41,8 @@ import org.springframework.data.redis.connection.lettuce.LettuceClientConfigurat
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
@@ -112,4 +115,19 @@ public class RedisConfiguration
         return stringRedisTemplate;
     }
 
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus()
+    {
+        return new CacheInvalidationBus( stringRedisTemplate() );
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer()
+    {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory( lettuceConnectionFactory() );
+        container.addMessageListener( cacheInvalidationBus(), new ChannelTopic( CacheInvalidationBus.CHANNEL ) );
+        return container;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,1335 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.math3.stat.regression.SimpleRegression;
+import org.apache.commons.math3.util.Precision;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.adapter.JacksonRowDataSerializer;
+import org.hisp.dhis.system.util.MathUtils;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.jdbc.support.rowset.SqlRowSetMetaData;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.collect.Iterables;
+
+/**
+ * {@link Grid} implementation which stores data column by column in typed
+ * column vectors. String values are dictionary-encoded and double values are
+ * stored as primitives, which reduces the memory footprint of large grids with
+ * repetitive dimension items compared to {@link ListGrid}. Substitution of meta
+ * data for string columns is done on the dictionary, and sorting and limiting
+ * operate on the column vectors.
+ * <p>
+ * Rows are written in the same way as for {@link ListGrid}. Rows returned by
+ * {@link #getRow(int)}, {@link #getRows()} and {@link #getVisibleRows()} are
+ * views backed by the columns, which support reading and replacing values but
+ * not adding or removing values. A row which is shorter than the grid width
+ * when the next row is added is padded with null values.
+ */
+public class ColumnarGrid
+    implements Grid
+{
+    private static final String REGRESSION_SUFFIX = "_regression";
+
+    private static final String CUMULATIVE_SUFFIX = "_cumulative";
+
+    /**
+     * The title of the grid.
+     */
+    private String title;
+
+    /**
+     * The subtitle of the grid.
+     */
+    private String subtitle;
+
+    /**
+     * The name of a potential corresponding table.
+     */
+    private String table;
+
+    /**
+     * A List which represents the column headers of the grid.
+     */
+    private List<GridHeader> headers;
+
+    /**
+     * A Map which can hold arbitrary meta-data.
+     */
+    private Map<String, Object> metaData;
+
+    /**
+     * A Map which can hold internal arbitrary meta data. Will not be
+     * serialized.
+     */
+    private Map<String, Object> internalMetaData;
+
+    /**
+     * The columns of the grid.
+     */
+    private List<GridColumn> columns;
+
+    /**
+     * The number of rows in the grid.
+     */
+    private int height = 0;
+
+    /**
+     * Indicating the current column in the current row for writing data.
+     */
+    private int currentColumnWriteIndex = 0;
+
+    /**
+     * Indicating the current row in the grid for reading data.
+     */
+    private int currentRowReadIndex = -1;
+
+    /**
+     * Represents a mapping between column names and the index of the column in
+     * the grid.
+     */
+    private Map<String, Integer> columnIndexMap = new HashMap<>();
+
+    /**
+     * Default constructor.
+     */
+    public ColumnarGrid()
+    {
+        this.headers = new ArrayList<>();
+        this.metaData = new HashMap<>();
+        this.internalMetaData = new HashMap<>();
+        this.columns = new ArrayList<>();
+    }
+
+    /**
+     * @param metaData meta data.
+     * @param internalMetaData internal meta data.
+     */
+    public ColumnarGrid( Map<String, Object> metaData, Map<String, Object> internalMetaData )
+    {
+        this.headers = new ArrayList<>();
+        this.metaData = metaData;
+        this.internalMetaData = internalMetaData;
+        this.columns = new ArrayList<>();
+    }
+
+    // ---------------------------------------------------------------------
+    // Public methods
+    // ---------------------------------------------------------------------
+
+    @Override
+    @JsonProperty
+    public String getTitle()
+    {
+        return title;
+    }
+
+    @Override
+    public Grid setTitle( String title )
+    {
+        this.title = title;
+
+        return this;
+    }
+
+    @Override
+    @JsonProperty
+    public String getSubtitle()
+    {
+        return subtitle;
+    }
+
+    @Override
+    public Grid setSubtitle( String subtitle )
+    {
+        this.subtitle = subtitle;
+
+        return this;
+    }
+
+    @Override
+    @JsonProperty
+    public String getTable()
+    {
+        return table;
+    }
+
+    @Override
+    public Grid setTable( String table )
+    {
+        this.table = table;
+
+        return this;
+    }
+
+    @Override
+    public Grid addHeader( GridHeader header )
+    {
+        headers.add( header );
+
+        updateColumnIndexMap();
+
+        return this;
+    }
+
+    @Override
+    public Grid addHeader( int headerIndex, GridHeader header )
+    {
+        headers.add( headerIndex, header );
+
+        updateColumnIndexMap();
+
+        return this;
+    }
+
+    @Override
+    public Grid addHeaders( int headerIndex, List<GridHeader> gridHeaders )
+    {
+        if ( gridHeaders == null || gridHeaders.isEmpty() )
+        {
+            return this;
+        }
+
+        headers.addAll( headerIndex, gridHeaders );
+
+        updateColumnIndexMap();
+
+        return this;
+    }
+
+    @Override
+    public Grid addEmptyHeaders( int number )
+    {
+        for ( int i = 0; i < number; i++ )
+        {
+            headers.add( new GridHeader( "", false, false ) );
+        }
+
+        updateColumnIndexMap();
+
+        return this;
+    }
+
+    @Override
+    public Grid replaceHeaders( List<GridHeader> gridHeaders )
+    {
+        if ( gridHeaders == null || gridHeaders.isEmpty() )
+        {
+            return this;
+        }
+
+        headers.clear();
+        headers.addAll( gridHeaders );
+
+        updateColumnIndexMap();
+
+        return this;
+    }
+
+    @Override
+    @JsonProperty
+    public List<GridHeader> getHeaders()
+    {
+        return headers;
+    }
+
+    @Override
+    public List<GridHeader> getVisibleHeaders()
+    {
+        return headers.stream()
+            .filter( h -> !h.isHidden() )
+            .collect( Collectors.toList() );
+    }
+
+    @Override
+    public List<GridHeader> getMetadataHeaders()
+    {
+        return headers.stream()
+            .filter( GridHeader::isMeta )
+            .collect( Collectors.toList() );
+    }
+
+    @Override
+    public int getIndexOfHeader( String name )
+    {
+        return headers.indexOf( new GridHeader( name, null ) );
+    }
+
+    @Override
+    @JsonProperty
+    public int getHeight()
+    {
+        return height;
+    }
+
+    @Override
+    @JsonProperty
+    public int getWidth()
+    {
+        verifyGridState();
+
+        return height > 0 ? columns.size() : 0;
+    }
+
+    @Override
+    @JsonProperty
+    public int getHeaderWidth()
+    {
+        return headers.size();
+    }
+
+    @Override
+    @JsonProperty
+    public Map<String, Object> getMetaData()
+    {
+        return metaData;
+    }
+
+    @Override
+    public Grid setMetaData( Map<String, Object> metaData )
+    {
+        this.metaData = metaData;
+        return this;
+    }
+
+    @Override
+    public Grid addMetaData( String key, Object value )
+    {
+        this.metaData.put( key, value );
+        return this;
+    }
+
+    @Override
+    @JsonIgnore
+    public Map<String, Object> getInternalMetaData()
+    {
+        return internalMetaData;
+    }
+
+    @Override
+    public Grid setInternalMetaData( Map<String, Object> internalMetaData )
+    {
+        this.internalMetaData = internalMetaData;
+        return this;
+    }
+
+    @Override
+    public int getVisibleWidth()
+    {
+        verifyGridState();
+
+        return height > 0 && !headers.isEmpty() ? getVisibleColumnIndexes().length : 0;
+    }
+
+    @Override
+    public Grid addRow()
+    {
+        padColumns( height );
+
+        height++;
+
+        currentColumnWriteIndex = 0;
+
+        return this;
+    }
+
+    @Override
+    public Grid addRows( Grid grid )
+    {
+        for ( List<Object> row : grid.getRows() )
+        {
+            addRow();
+            addValuesAsList( row );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addValue( Object value )
+    {
+        if ( height == 0 )
+        {
+            throw new IllegalStateException( "Grid has no row to add value to" );
+        }
+
+        int columnIndex = currentColumnWriteIndex++;
+
+        if ( columnIndex == columns.size() )
+        {
+            columns.add( new GridColumn() );
+        }
+
+        GridColumn column = columns.get( columnIndex );
+
+        if ( column.size() >= height )
+        {
+            column.set( height - 1, value );
+        }
+        else
+        {
+            column.padTo( height - 1 );
+            column.add( value );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addValues( Object[] values )
+    {
+        for ( Object value : values )
+        {
+            addValue( value );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addValuesVar( Object... values )
+    {
+        return addValues( values );
+    }
+
+    @Override
+    public Grid addValuesAsList( List<Object> values )
+    {
+        for ( Object value : values )
+        {
+            addValue( value );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addEmptyValue()
+    {
+        addValue( StringUtils.EMPTY );
+
+        return this;
+    }
+
+    @Override
+    public Grid addEmptyValues( int number )
+    {
+        for ( int i = 0; i < number; i++ )
+        {
+            addEmptyValue();
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addNullValues( int number )
+    {
+        for ( int i = 0; i < number; i++ )
+        {
+            addValue( null );
+        }
+
+        return this;
+    }
+
+    @Override
+    public List<Object> getRow( int rowIndex )
+    {
+        if ( rowIndex < 0 || rowIndex >= height )
+        {
+            throw new IndexOutOfBoundsException( "Index: " + rowIndex + ", height: " + height );
+        }
+
+        return new RowView( rowIndex, null );
+    }
+
+    @Override
+    @JsonProperty
+    @JsonSerialize( using = JacksonRowDataSerializer.class )
+    public List<List<Object>> getRows()
+    {
+        return new RowsView( null );
+    }
+
+    @Override
+    public List<List<Object>> getVisibleRows()
+    {
+        verifyGridState();
+
+        if ( headers == null || headers.isEmpty() )
+        {
+            return new ArrayList<>();
+        }
+
+        return new RowsView( getVisibleColumnIndexes() );
+    }
+
+    @Override
+    public List<Object> getColumn( int columnIndex )
+    {
+        List<Object> column = new ArrayList<>( height );
+
+        if ( height > 0 )
+        {
+            GridColumn gridColumn = columns.get( columnIndex );
+
+            for ( int i = 0; i < height; i++ )
+            {
+                column.add( gridColumn.get( i ) );
+            }
+        }
+
+        return column;
+    }
+
+    @Override
+    public Object getValue( int rowIndex, int columnIndex )
+    {
+        if ( rowIndex >= height || columnIndex >= columns.size() || columns.get( columnIndex ).size() <= rowIndex )
+        {
+            throw new IllegalArgumentException( "Grid does not contain the requested row / column" );
+        }
+
+        return columns.get( columnIndex ).get( rowIndex );
+    }
+
+    @Override
+    public Grid addColumn( List<Object> columnValues )
+    {
+        return addColumn( columns.size(), columnValues );
+    }
+
+    @Override
+    public Grid addColumn( int columnIndex, List<Object> columnValues )
+    {
+        verifyGridState();
+
+        if ( height != columnValues.size() )
+        {
+            throw new IllegalStateException( "Number of column values (" + columnValues.size()
+                + ") is not equal to number of rows (" + height + ")" );
+        }
+
+        if ( height > 0 )
+        {
+            columns.add( columnIndex, new GridColumn( columnValues ) );
+            currentColumnWriteIndex = columns.size();
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addAndPopulateColumnsBefore( int referenceColumnIndex, Map<Object, List<?>> valueMap, int newColumns )
+    {
+        Validate.inclusiveBetween( 0, getWidth() - 1, referenceColumnIndex );
+        Validate.notNull( valueMap );
+        verifyGridState();
+
+        GridColumn referenceColumn = columns.get( referenceColumnIndex );
+
+        List<GridColumn> populatedColumns = new ArrayList<>();
+
+        for ( int i = 0; i < newColumns; i++ )
+        {
+            populatedColumns.add( new GridColumn() );
+        }
+
+        for ( int rowIndex = 0; rowIndex < height; rowIndex++ )
+        {
+            List<?> list = valueMap.get( referenceColumn.get( rowIndex ) );
+
+            for ( int i = 0; i < newColumns; i++ )
+            {
+                populatedColumns.get( i ).add( list == null ? null : Iterables.get( list, i, null ) );
+            }
+        }
+
+        columns.addAll( referenceColumnIndex, populatedColumns );
+
+        currentColumnWriteIndex = columns.size();
+
+        return this;
+    }
+
+    @Override
+    public Grid removeEmptyColumns()
+    {
+        if ( getWidth() == 0 )
+        {
+            return this;
+        }
+
+        int lastCol = getWidth() - 1;
+
+        for ( int i = lastCol; i >= 0; i-- )
+        {
+            if ( columnIsEmpty( i ) )
+            {
+                removeColumn( i );
+            }
+        }
+
+        return this;
+    }
+
+    @Override
+    public boolean columnIsEmpty( int columnIndex )
+    {
+        verifyGridState();
+
+        return height == 0 || !columns.get( columnIndex ).hasValues();
+    }
+
+    @Override
+    public Grid removeColumn( int columnIndex )
+    {
+        verifyGridState();
+
+        if ( headers.size() > 0 )
+        {
+            headers.remove( columnIndex );
+        }
+
+        if ( columnIndex < columns.size() )
+        {
+            columns.remove( columnIndex );
+            currentColumnWriteIndex = Math.min( currentColumnWriteIndex, columns.size() );
+        }
+
+        updateColumnIndexMap();
+
+        return this;
+    }
+
+    @Override
+    public Grid removeColumn( GridHeader header )
+    {
+        int index = headers.indexOf( header );
+
+        if ( index != -1 )
+        {
+            removeColumn( index );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid removeCurrentWriteRow()
+    {
+        height--;
+
+        for ( GridColumn column : columns )
+        {
+            column.truncate( height );
+        }
+
+        currentColumnWriteIndex = columns.size();
+
+        return this;
+    }
+
+    @Override
+    public boolean hasMetaDataKey( String key )
+    {
+        return metaData != null && metaData.containsKey( key );
+    }
+
+    @Override
+    public boolean hasInternalMetaDataKey( String key )
+    {
+        return internalMetaData != null && internalMetaData.containsKey( key );
+    }
+
+    @Override
+    public Grid limitGrid( int limit )
+    {
+        if ( limit < 0 )
+        {
+            throw new IllegalStateException( "Illegal limit: " + limit );
+        }
+
+        if ( limit > 0 && limit <= getHeight() )
+        {
+            retainRows( 0, limit );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid limitGrid( int startPos, int endPos )
+    {
+        if ( startPos < 0 || endPos < startPos || endPos > getHeight() )
+        {
+            throw new IllegalStateException(
+                "Illegal start / end pos: " + startPos + ", " + endPos + ", " + getHeight() );
+        }
+
+        retainRows( startPos, endPos );
+
+        return this;
+    }
+
+    @Override
+    public Grid sortGrid( int columnIndex, int order )
+    {
+        if ( order == 0 )
+        {
+            return this; // No sorting
+        }
+
+        columnIndex--;
+
+        if ( columnIndex < 0 || columnIndex >= getWidth() )
+        {
+            throw new IllegalArgumentException( "Column index out of bounds: " + columnIndex );
+        }
+
+        GridColumn sortColumn = columns.get( columnIndex );
+
+        // Stable sort of row positions, consistent with ListGrid
+
+        Integer[] positions = IntStream.range( 0, height ).boxed().toArray( Integer[]::new );
+
+        Arrays.sort( positions, ( p1, p2 ) -> sortColumn.compare( p1, p2, order ) );
+
+        int[] rowOrder = Arrays.stream( positions ).mapToInt( Integer::intValue ).toArray();
+
+        for ( GridColumn column : columns )
+        {
+            column.reorder( rowOrder );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addRegressionColumn( int columnIndex, boolean addHeader )
+    {
+        verifyGridState();
+
+        SimpleRegression regression = new SimpleRegression();
+
+        List<Object> column = getColumn( columnIndex );
+
+        int index = 0;
+
+        for ( Object value : column )
+        {
+            // 0 omitted from regression
+
+            if ( value != null && !MathUtils.isEqual( Double.parseDouble( String.valueOf( value ) ), 0d ) )
+            {
+                regression.addData( index++, Double.parseDouble( String.valueOf( value ) ) );
+            }
+        }
+
+        List<Object> regressionColumn = new ArrayList<>();
+
+        for ( int i = 0; i < column.size(); i++ )
+        {
+            final double predicted = regression.predict( i );
+
+            // Enough values must exist for regression
+
+            if ( !Double.isNaN( predicted ) )
+            {
+                regressionColumn.add( Precision.round( predicted, 1 ) );
+            }
+            else
+            {
+                regressionColumn.add( null );
+            }
+        }
+
+        addColumn( regressionColumn );
+
+        if ( addHeader && columnIndex < headers.size() )
+        {
+            GridHeader header = headers.get( columnIndex );
+
+            if ( header != null )
+            {
+                GridHeader regressionHeader = new GridHeader(
+                    header.getName() + REGRESSION_SUFFIX,
+                    header.getColumn() + REGRESSION_SUFFIX,
+                    header.getValueType(),
+                    header.isHidden(),
+                    header.isMeta() );
+
+                addHeader( regressionHeader );
+            }
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addRegressionToGrid( int startColumnIndex, int numberOfColumns )
+    {
+        for ( int i = 0; i < numberOfColumns; i++ )
+        {
+            int columnIndex = i + startColumnIndex;
+
+            this.addRegressionColumn( columnIndex, true );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addCumulativeColumn( int columnIndex, boolean addHeader )
+    {
+        verifyGridState();
+
+        List<Object> column = getColumn( columnIndex );
+
+        List<Object> cumulativeColumn = new ArrayList<>();
+
+        double sum = 0d;
+
+        for ( Object value : column )
+        {
+            double number = value != null ? Double.parseDouble( String.valueOf( value ) ) : 0d;
+
+            sum += number;
+
+            cumulativeColumn.add( sum );
+        }
+
+        addColumn( cumulativeColumn );
+
+        if ( addHeader && columnIndex < headers.size() )
+        {
+            GridHeader header = headers.get( columnIndex );
+
+            if ( header != null )
+            {
+                GridHeader regressionHeader = new GridHeader(
+                    header.getName() + CUMULATIVE_SUFFIX,
+                    header.getColumn() + CUMULATIVE_SUFFIX,
+                    header.getValueType(),
+                    header.isHidden(),
+                    header.isMeta() );
+
+                addHeader( regressionHeader );
+            }
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addCumulativesToGrid( int startColumnIndex, int numberOfColumns )
+    {
+        for ( int i = 0; i < numberOfColumns; i++ )
+        {
+            int columnIndex = i + startColumnIndex;
+
+            this.addCumulativeColumn( columnIndex, true );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid substituteMetaData( Map<? extends Object, ? extends Object> metaDataMap )
+    {
+        if ( metaDataMap == null || headers == null || headers.isEmpty() )
+        {
+            return this;
+        }
+
+        for ( int colIndex = 0; colIndex < headers.size(); colIndex++ )
+        {
+            GridHeader header = headers.get( colIndex );
+
+            // Header
+
+            Object headerMetaName = metaDataMap.get( header.getName() );
+
+            if ( headerMetaName != null )
+            {
+                header.setName( String.valueOf( headerMetaName ) );
+            }
+
+            if ( header.isMeta() )
+            {
+                // Column cells
+
+                substituteMetaData( colIndex, colIndex, metaDataMap );
+            }
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid substituteMetaData( int sourceColumnIndex, int targetColumnIndex,
+        Map<? extends Object, ? extends Object> metaDataMap )
+    {
+        if ( metaDataMap == null || height == 0 )
+        {
+            return this;
+        }
+
+        GridColumn sourceColumn = columns.get( sourceColumnIndex );
+
+        if ( sourceColumnIndex == targetColumnIndex )
+        {
+            sourceColumn.substitute( metaDataMap );
+
+            return this;
+        }
+
+        GridColumn targetColumn = columns.get( targetColumnIndex );
+
+        for ( int rowIndex = 0; rowIndex < height; rowIndex++ )
+        {
+            Object metaValue = metaDataMap.get( sourceColumn.get( rowIndex ) );
+
+            if ( metaValue != null )
+            {
+                targetColumn.set( rowIndex, metaValue );
+            }
+        }
+
+        return this;
+    }
+
+    @Override
+    public List<Integer> getMetaColumnIndexes()
+    {
+        List<Integer> indexes = new ArrayList<>();
+
+        for ( int i = 0; i < headers.size(); i++ )
+        {
+            GridHeader header = headers.get( i );
+
+            if ( header != null && header.isMeta() )
+            {
+                indexes.add( i );
+            }
+        }
+
+        return indexes;
+    }
+
+    @Override
+    public Set<Object> getUniqueValues( String columnName )
+    {
+        int columnIndex = getIndexOfHeader( columnName );
+
+        Set<Object> values = new HashSet<>();
+
+        if ( columnIndex != -1 )
+        {
+            List<Object> column = getColumn( columnIndex );
+            values.addAll( column );
+        }
+
+        return values;
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public <T> Map<String, T> getAsMap( int valueIndex, String keySeparator )
+    {
+        Map<String, T> map = new HashMap<>();
+
+        for ( List<Object> row : getRows() )
+        {
+            List<Object> metaDataRow = new ArrayList<>( row );
+
+            metaDataRow.remove( valueIndex );
+
+            String key = StringUtils.join( metaDataRow, keySeparator );
+
+            T value = (T) row.get( valueIndex );
+
+            map.put( key, value );
+        }
+
+        return map;
+    }
+
+    // -------------------------------------------------------------------------
+    // JRDataSource implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public boolean next()
+        throws JRException
+    {
+        boolean next = ++currentRowReadIndex < getHeight();
+
+        if ( !next )
+        {
+            currentRowReadIndex = -1; // Reset and return false
+        }
+
+        return next;
+    }
+
+    @Override
+    public Object getFieldValue( JRField field )
+        throws JRException
+    {
+        Integer index = columnIndexMap.get( field.getName() );
+
+        return index != null ? getRow( currentRowReadIndex ).get( index ) : null;
+    }
+
+    // -------------------------------------------------------------------------
+    // SQL utility methods
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Grid addHeaders( ResultSet rs )
+    {
+        try
+        {
+            ResultSetMetaData rsmd = rs.getMetaData();
+
+            int columnNo = rsmd.getColumnCount();
+
+            for ( int i = 1; i <= columnNo; i++ )
+            {
+                addHeader( new GridHeader( rsmd.getColumnLabel( i ), false, false ) );
+            }
+        }
+        catch ( SQLException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addHeaders( SqlRowSet rs )
+    {
+        SqlRowSetMetaData rsmd = rs.getMetaData();
+
+        int columnNo = rsmd.getColumnCount();
+
+        for ( int i = 1; i <= columnNo; i++ )
+        {
+            addHeader( new GridHeader( rsmd.getColumnLabel( i ), false, false ) );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addRows( ResultSet rs )
+    {
+        try
+        {
+            int cols = rs.getMetaData().getColumnCount();
+
+            while ( rs.next() )
+            {
+                addRow();
+
+                for ( int i = 1; i <= cols; i++ )
+                {
+                    addValue( rs.getObject( i ) );
+                }
+            }
+        }
+        catch ( SQLException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addRows( SqlRowSet rs, int maxLimit )
+    {
+        int cols = rs.getMetaData().getColumnCount();
+
+        while ( rs.next() )
+        {
+            addRow();
+
+            for ( int i = 1; i <= cols; i++ )
+            {
+                addValue( rs.getObject( i ) );
+
+                if ( maxLimit > 0 && i > maxLimit )
+                {
+                    throw new IllegalStateException(
+                        "Number of rows produced by query is larger than the max limit: " + maxLimit );
+                }
+            }
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addRows( SqlRowSet rs )
+    {
+        return addRows( rs, -1 );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Verifies that all grid columns are of the same length, i.e. that all grid
+     * rows are of the same length.
+     */
+    private void verifyGridState()
+    {
+        for ( int i = 0; i < columns.size(); i++ )
+        {
+            int columnLength = columns.get( i ).size();
+
+            if ( columnLength != height )
+            {
+                throw new IllegalStateException( "Grid rows do not have the same number of cells, column: "
+                    + i + ", length: " + columnLength + ", rows: " + height );
+            }
+        }
+    }
+
+    /**
+     * Pads all columns with null values to the given length.
+     */
+    private void padColumns( int length )
+    {
+        for ( GridColumn column : columns )
+        {
+            column.padTo( length );
+        }
+    }
+
+    private void retainRows( int startPos, int endPos )
+    {
+        padColumns( height );
+
+        for ( GridColumn column : columns )
+        {
+            column.retain( startPos, endPos );
+        }
+
+        height = endPos - startPos;
+    }
+
+    /**
+     * Returns the number of cells in the row at the given index, which is less
+     * than the number of columns only for a row which is being written.
+     */
+    private int getRowSize( int rowIndex )
+    {
+        if ( rowIndex < height - 1 )
+        {
+            return columns.size();
+        }
+
+        int rowSize = 0;
+
+        while ( rowSize < columns.size() && columns.get( rowSize ).size() > rowIndex )
+        {
+            rowSize++;
+        }
+
+        return rowSize;
+    }
+
+    private int[] getVisibleColumnIndexes()
+    {
+        return IntStream.range( 0, Math.min( columns.size(), headers.size() ) )
+            .filter( i -> !headers.get( i ).isHidden() )
+            .toArray();
+    }
+
+    /**
+     * Updates the mapping between header columns and grid indexes. This method
+     * should be invoked whenever the columns are manipulated.
+     */
+    private void updateColumnIndexMap()
+    {
+        columnIndexMap.clear();
+
+        for ( int i = 0; i < headers.size(); i++ )
+        {
+            columnIndexMap.put( headers.get( i ).getColumn(), i );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Row views
+    // -------------------------------------------------------------------------
+
+    /**
+     * View of a row backed by the columns of the grid. The column indexes map
+     * positions in the view to columns, or are null for all columns.
+     */
+    private class RowView
+        extends AbstractList<Object>
+        implements RandomAccess
+    {
+        private final int rowIndex;
+
+        private final int[] columnIndexes;
+
+        RowView( int rowIndex, int[] columnIndexes )
+        {
+            this.rowIndex = rowIndex;
+            this.columnIndexes = columnIndexes;
+        }
+
+        @Override
+        public Object get( int index )
+        {
+            return getGridColumn( index ).get( rowIndex );
+        }
+
+        @Override
+        public Object set( int index, Object value )
+        {
+            GridColumn column = getGridColumn( index );
+
+            Object previous = column.get( rowIndex );
+
+            column.set( rowIndex, value );
+
+            return previous;
+        }
+
+        @Override
+        public int size()
+        {
+            return columnIndexes != null ? columnIndexes.length : getRowSize( rowIndex );
+        }
+
+        private GridColumn getGridColumn( int index )
+        {
+            if ( index < 0 || index >= size() )
+            {
+                throw new IndexOutOfBoundsException( "Index: " + index + ", size: " + size() );
+            }
+
+            return columns.get( columnIndexes != null ? columnIndexes[index] : index );
+        }
+    }
+
+    /**
+     * View of the rows of the grid.
+     */
+    private class RowsView
+        extends AbstractList<List<Object>>
+        implements RandomAccess
+    {
+        private final int[] columnIndexes;
+
+        RowsView( int[] columnIndexes )
+        {
+            this.columnIndexes = columnIndexes;
+        }
+
+        @Override
+        public List<Object> get( int index )
+        {
+            if ( index < 0 || index >= height )
+            {
+                throw new IndexOutOfBoundsException( "Index: " + index + ", height: " + height );
+            }
+
+            return new RowView( index, columnIndexes );
+        }
+
+        @Override
+        public int size()
+        {
+            return height;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // toString
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder( "[\n" );
+
+        if ( headers != null && headers.size() > 0 )
+        {
+            List<String> headerNames = new ArrayList<>();
+
+            for ( GridHeader header : headers )
+            {
+                headerNames.add( header.getName() );
+            }
+
+            builder.append( headerNames ).append( "\n" );
+        }
+
+        for ( List<Object> row : getRows() )
+        {
+            builder.append( row ).append( "\n" );
+        }
+
+        return builder.append( "]" ).toString();
+    }
+}
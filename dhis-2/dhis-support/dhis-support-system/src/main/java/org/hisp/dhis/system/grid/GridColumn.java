@@ -0,0 +1,556 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column vector of a {@link ColumnarGrid}. As long as all non-null values of
+ * the column are strings, the values are stored dictionary-encoded as an array
+ * of codes. As long as all non-null values are doubles, the values are stored
+ * as an array of primitive doubles with a bitmap marking null values. When a
+ * value of any other type is written, the column falls back to an array of
+ * objects.
+ */
+class GridColumn
+    implements Serializable
+{
+    private static final int NULL_CODE = -1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    enum Type
+    {
+        NULL,
+        STRING,
+        DOUBLE,
+        OBJECT
+    }
+
+    private Type type = Type.NULL;
+
+    private int size = 0;
+
+    /**
+     * Codes referring to the dictionary, used for {@link Type#STRING}.
+     */
+    private int[] codes;
+
+    private List<String> dictionary;
+
+    private Map<String, Integer> dictionaryIndex;
+
+    /**
+     * Values and null bitmap, used for {@link Type#DOUBLE}.
+     */
+    private double[] doubles;
+
+    private BitSet nulls;
+
+    /**
+     * Values, used for {@link Type#OBJECT}.
+     */
+    private Object[] objects;
+
+    GridColumn()
+    {
+    }
+
+    GridColumn( List<?> values )
+    {
+        for ( Object value : values )
+        {
+            add( value );
+        }
+    }
+
+    Type getType()
+    {
+        return type;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct strings in the dictionary of this column,
+     * or 0 if the column is not dictionary-encoded.
+     */
+    int getDictionarySize()
+    {
+        return type == Type.STRING ? dictionary.size() : 0;
+    }
+
+    void add( Object value )
+    {
+        ensureCapacity( size + 1 );
+
+        size++;
+
+        set( size - 1, value );
+    }
+
+    /**
+     * Appends null values until the column has the given size.
+     *
+     * @param length the size of the column.
+     */
+    void padTo( int length )
+    {
+        while ( size < length )
+        {
+            add( null );
+        }
+    }
+
+    Object get( int index )
+    {
+        checkIndex( index );
+
+        switch ( type )
+        {
+        case STRING:
+            return codes[index] == NULL_CODE ? null : dictionary.get( codes[index] );
+        case DOUBLE:
+            return nulls.get( index ) ? null : doubles[index];
+        case OBJECT:
+            return objects[index];
+        default:
+            return null;
+        }
+    }
+
+    void set( int index, Object value )
+    {
+        checkIndex( index );
+
+        if ( type == Type.NULL && value != null )
+        {
+            initType( value );
+        }
+        else if ( (type == Type.STRING && value != null && !(value instanceof String))
+            || (type == Type.DOUBLE && value != null && !(value instanceof Double)) )
+        {
+            convertToObjects();
+        }
+
+        switch ( type )
+        {
+        case STRING:
+            codes[index] = value == null ? NULL_CODE : encode( (String) value );
+            break;
+        case DOUBLE:
+            if ( value == null )
+            {
+                nulls.set( index );
+            }
+            else
+            {
+                doubles[index] = (Double) value;
+                nulls.clear( index );
+            }
+            break;
+        case OBJECT:
+            objects[index] = value;
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Indicates whether the column contains at least one non-null value.
+     */
+    boolean hasValues()
+    {
+        switch ( type )
+        {
+        case STRING:
+            for ( int i = 0; i < size; i++ )
+            {
+                if ( codes[i] != NULL_CODE )
+                {
+                    return true;
+                }
+            }
+            return false;
+        case DOUBLE:
+            return nulls.nextClearBit( 0 ) < size;
+        case OBJECT:
+            for ( int i = 0; i < size; i++ )
+            {
+                if ( objects[i] != null )
+                {
+                    return true;
+                }
+            }
+            return false;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Reduces the size of the column without releasing memory.
+     *
+     * @param length the new size of the column.
+     */
+    void truncate( int length )
+    {
+        size = Math.min( size, length );
+    }
+
+    /**
+     * Retains the values between the given positions.
+     *
+     * @param startPos the start position, inclusive.
+     * @param endPos the end position, exclusive.
+     */
+    void retain( int startPos, int endPos )
+    {
+        switch ( type )
+        {
+        case STRING:
+            codes = Arrays.copyOfRange( codes, startPos, endPos );
+            break;
+        case DOUBLE:
+            doubles = Arrays.copyOfRange( doubles, startPos, endPos );
+            nulls = nulls.get( startPos, endPos );
+            break;
+        case OBJECT:
+            objects = Arrays.copyOfRange( objects, startPos, endPos );
+            break;
+        default:
+            break;
+        }
+
+        size = endPos - startPos;
+    }
+
+    /**
+     * Reorders the values of the column.
+     *
+     * @param order the positions of the current values in the new order.
+     */
+    void reorder( int[] order )
+    {
+        switch ( type )
+        {
+        case STRING:
+            int[] newCodes = new int[codes.length];
+
+            for ( int i = 0; i < size; i++ )
+            {
+                newCodes[i] = codes[order[i]];
+            }
+
+            codes = newCodes;
+            break;
+        case DOUBLE:
+            double[] newDoubles = new double[doubles.length];
+            BitSet newNulls = new BitSet( size );
+
+            for ( int i = 0; i < size; i++ )
+            {
+                newDoubles[i] = doubles[order[i]];
+                newNulls.set( i, nulls.get( order[i] ) );
+            }
+
+            doubles = newDoubles;
+            nulls = newNulls;
+            break;
+        case OBJECT:
+            Object[] newObjects = new Object[objects.length];
+
+            for ( int i = 0; i < size; i++ )
+            {
+                newObjects[i] = objects[order[i]];
+            }
+
+            objects = newObjects;
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Compares the values at the given positions in the same way as
+     * {@link ListGrid.GridRowComparator}. Null and non-comparable values are
+     * sorted last.
+     *
+     * @param index1 the first position.
+     * @param index2 the second position.
+     * @param order the sort order, descending if greater than 0.
+     */
+    @SuppressWarnings( "unchecked" )
+    int compare( int index1, int index2, int order )
+    {
+        switch ( type )
+        {
+        case STRING:
+            if ( codes[index1] == NULL_CODE || codes[index2] == NULL_CODE )
+            {
+                return compareInvalid( codes[index1] == NULL_CODE, codes[index2] == NULL_CODE, order );
+            }
+
+            String string1 = dictionary.get( codes[index1] );
+            String string2 = dictionary.get( codes[index2] );
+
+            return order > 0 ? string2.compareTo( string1 ) : string1.compareTo( string2 );
+        case DOUBLE:
+            if ( nulls.get( index1 ) || nulls.get( index2 ) )
+            {
+                return compareInvalid( nulls.get( index1 ), nulls.get( index2 ), order );
+            }
+
+            return order > 0 ? Double.compare( doubles[index2], doubles[index1] )
+                : Double.compare( doubles[index1], doubles[index2] );
+        case OBJECT:
+            boolean invalid1 = !(objects[index1] instanceof Comparable<?>);
+            boolean invalid2 = !(objects[index2] instanceof Comparable<?>);
+
+            if ( invalid1 || invalid2 )
+            {
+                return compareInvalid( invalid1, invalid2, order );
+            }
+
+            Comparable<Object> value1 = (Comparable<Object>) objects[index1];
+            Comparable<Object> value2 = (Comparable<Object>) objects[index2];
+
+            return order > 0 ? value2.compareTo( value1 ) : value1.compareTo( value2 );
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * Replaces the values of the column which are keys in the given map with
+     * the corresponding map values. For dictionary-encoded columns where all
+     * substitutes are strings, only the dictionary is substituted.
+     *
+     * @param metaDataMap the map of values and substitutes.
+     */
+    void substitute( Map<?, ?> metaDataMap )
+    {
+        if ( type == Type.STRING && isStringSubstitution( metaDataMap ) )
+        {
+            substituteDictionary( metaDataMap );
+            return;
+        }
+
+        for ( int i = 0; i < size; i++ )
+        {
+            Object metaValue = metaDataMap.get( get( i ) );
+
+            if ( metaValue != null )
+            {
+                set( i, metaValue );
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void checkIndex( int index )
+    {
+        if ( index < 0 || index >= size )
+        {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", size: " + size );
+        }
+    }
+
+    private static int compareInvalid( boolean invalid1, boolean invalid2, int order )
+    {
+        if ( invalid1 && invalid2 )
+        {
+            return 0;
+        }
+        else if ( invalid1 )
+        {
+            return order > 0 ? 1 : -1;
+        }
+        else
+        {
+            return order > 0 ? -1 : 1;
+        }
+    }
+
+    private int getCapacity()
+    {
+        return Math.max( DEFAULT_CAPACITY, size );
+    }
+
+    private void ensureCapacity( int minCapacity )
+    {
+        switch ( type )
+        {
+        case STRING:
+            if ( codes.length < minCapacity )
+            {
+                codes = Arrays.copyOf( codes, Math.max( minCapacity, codes.length * 2 ) );
+            }
+            break;
+        case DOUBLE:
+            if ( doubles.length < minCapacity )
+            {
+                doubles = Arrays.copyOf( doubles, Math.max( minCapacity, doubles.length * 2 ) );
+            }
+            break;
+        case OBJECT:
+            if ( objects.length < minCapacity )
+            {
+                objects = Arrays.copyOf( objects, Math.max( minCapacity, objects.length * 2 ) );
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Initializes the storage of a column which so far contains only null
+     * values based on the type of the given value.
+     */
+    private void initType( Object value )
+    {
+        if ( value instanceof String )
+        {
+            type = Type.STRING;
+            codes = new int[getCapacity()];
+            Arrays.fill( codes, 0, size, NULL_CODE );
+            dictionary = new ArrayList<>();
+            dictionaryIndex = new HashMap<>();
+        }
+        else if ( value instanceof Double )
+        {
+            type = Type.DOUBLE;
+            doubles = new double[getCapacity()];
+            nulls = new BitSet();
+            nulls.set( 0, size );
+        }
+        else
+        {
+            type = Type.OBJECT;
+            objects = new Object[getCapacity()];
+        }
+    }
+
+    private void convertToObjects()
+    {
+        Object[] values = new Object[getCapacity()];
+
+        for ( int i = 0; i < size; i++ )
+        {
+            values[i] = get( i );
+        }
+
+        type = Type.OBJECT;
+        objects = values;
+        codes = null;
+        dictionary = null;
+        dictionaryIndex = null;
+        doubles = null;
+        nulls = null;
+    }
+
+    private int encode( String value )
+    {
+        Integer code = dictionaryIndex.get( value );
+
+        if ( code == null )
+        {
+            code = dictionary.size();
+            dictionary.add( value );
+            dictionaryIndex.put( value, code );
+        }
+
+        return code;
+    }
+
+    private boolean isStringSubstitution( Map<?, ?> metaDataMap )
+    {
+        for ( String value : dictionary )
+        {
+            Object metaValue = metaDataMap.get( value );
+
+            if ( metaValue != null && !(metaValue instanceof String) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void substituteDictionary( Map<?, ?> metaDataMap )
+    {
+        List<String> newDictionary = new ArrayList<>();
+        Map<String, Integer> newDictionaryIndex = new HashMap<>();
+        int[] translation = new int[dictionary.size()];
+
+        for ( int code = 0; code < dictionary.size(); code++ )
+        {
+            String value = dictionary.get( code );
+            Object metaValue = metaDataMap.get( value );
+            String newValue = metaValue != null ? (String) metaValue : value;
+
+            Integer newCode = newDictionaryIndex.get( newValue );
+
+            if ( newCode == null )
+            {
+                newCode = newDictionary.size();
+                newDictionary.add( newValue );
+                newDictionaryIndex.put( newValue, newCode );
+            }
+
+            translation[code] = newCode;
+        }
+
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( codes[i] != NULL_CODE )
+            {
+                codes[i] = translation[codes[i]];
+            }
+        }
+
+        dictionary = newDictionary;
+        dictionaryIndex = newDictionaryIndex;
+    }
+}
@@ -780,7 +780,7 @@ public class GridUtils
         return grid != null && grid.getVisibleWidth() > 0;
     }
 
-    private static CellStyle createHeaderCellStyle( Workbook workbook )
+    static CellStyle createHeaderCellStyle( Workbook workbook )
     {
         CellStyle headerCellStyle = workbook.createCellStyle();
         Font headerFont = workbook.createFont();
@@ -791,7 +791,7 @@ public class GridUtils
         return headerCellStyle;
     }
 
-    private static CellStyle createCellStyle( Workbook workbook )
+    static CellStyle createCellStyle( Workbook workbook )
     {
         CellStyle cellStyle = workbook.createCellStyle();
         Font cellFont = workbook.createFont();
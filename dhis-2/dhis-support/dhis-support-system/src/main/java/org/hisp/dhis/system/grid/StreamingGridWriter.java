@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import java.io.Closeable;
+import java.util.List;
+
+import org.hisp.dhis.common.Grid;
+
+/**
+ * Writes a grid to an output one row at a time, so that rows can be written
+ * as they are read from the database instead of being collected in a
+ * {@link ListGrid} first. Headers and meta data are written before any row.
+ * Methods throw {@link java.io.UncheckedIOException} on write failures as
+ * they are typically invoked from within row callbacks.
+ */
+public interface StreamingGridWriter
+    extends Closeable
+{
+    /**
+     * Writes the title, headers and meta data of the given grid. Rows of the
+     * grid are ignored.
+     *
+     * @param grid the grid.
+     */
+    void writeHeaders( Grid grid );
+
+    /**
+     * Writes a row. Must be invoked after {@link #writeHeaders(Grid)}.
+     *
+     * @param row the row values.
+     */
+    void writeRow( List<Object> row );
+
+    /**
+     * Completes the output after the last row.
+     */
+    void finish();
+}
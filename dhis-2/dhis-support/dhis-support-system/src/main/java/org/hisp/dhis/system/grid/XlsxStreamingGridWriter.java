@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import static org.hisp.dhis.common.adapter.OutputFormatter.maybeFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.system.util.CodecUtils;
+
+/**
+ * {@link StreamingGridWriter} producing an XLSX workbook with the same layout
+ * as {@link GridUtils#toXls(Grid, OutputStream)}. Only a small window of rows
+ * is kept in memory, rows outside of it are flushed to a temporary file which
+ * is removed on {@link #close()}.
+ */
+public class XlsxStreamingGridWriter
+    implements StreamingGridWriter
+{
+    private static final int ROW_WINDOW_SIZE = 100;
+
+    private static final String SHEET_NAME = "Sheet 1";
+
+    private final OutputStream out;
+
+    private final SXSSFWorkbook workbook;
+
+    private final CellStyle headerCellStyle;
+
+    private final CellStyle cellStyle;
+
+    private Sheet sheet;
+
+    private int rowNumber = 0;
+
+    public XlsxStreamingGridWriter( OutputStream out )
+    {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook( ROW_WINDOW_SIZE );
+        this.workbook.setCompressTempFiles( true );
+        this.headerCellStyle = GridUtils.createHeaderCellStyle( workbook );
+        this.cellStyle = GridUtils.createCellStyle( workbook );
+    }
+
+    @Override
+    public void writeHeaders( Grid grid )
+    {
+        sheet = workbook.createSheet(
+            CodecUtils.filenameEncode( StringUtils.defaultIfEmpty( grid.getTitle(), SHEET_NAME ) ) );
+
+        if ( StringUtils.isNotEmpty( grid.getTitle() ) )
+        {
+            writeHeaderCell( sheet.createRow( rowNumber++ ), 0, grid.getTitle() );
+        }
+
+        if ( StringUtils.isNotEmpty( grid.getSubtitle() ) )
+        {
+            writeHeaderCell( sheet.createRow( ++rowNumber ), 0, grid.getSubtitle() );
+            rowNumber++;
+        }
+
+        Row headerRow = sheet.createRow( ++rowNumber );
+        int columnIndex = 0;
+
+        for ( GridHeader header : grid.getHeaders() )
+        {
+            writeHeaderCell( headerRow, columnIndex++, header.getColumn() );
+        }
+
+        rowNumber++;
+    }
+
+    @Override
+    public void writeRow( List<Object> row )
+    {
+        Row xlsRow = sheet.createRow( rowNumber++ );
+        xlsRow.setRowStyle( cellStyle );
+        int columnIndex = 0;
+
+        for ( Object value : row )
+        {
+            xlsRow.createCell( columnIndex++, CellType.STRING )
+                .setCellValue( value != null ? String.valueOf( maybeFormat( value ) ) : StringUtils.EMPTY );
+        }
+    }
+
+    @Override
+    public void finish()
+    {
+        try
+        {
+            workbook.write( out );
+            out.flush();
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    @Override
+    public void close()
+        throws IOException
+    {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    private void writeHeaderCell( Row row, int columnIndex, String value )
+    {
+        Cell cell = row.createCell( columnIndex, CellType.STRING );
+        cell.setCellValue( value );
+        cell.setCellStyle( headerCellStyle );
+    }
+}
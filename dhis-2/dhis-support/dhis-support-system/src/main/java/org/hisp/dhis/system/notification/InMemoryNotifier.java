@@ -43,10 +43,20 @@ import org.springframework.util.StringUtils;
 @Slf4j
 public class InMemoryNotifier implements Notifier
 {
-    private NotificationMap notificationMap = new NotificationMap();
+    private final NotificationMap notificationMap;
 
     private NotificationLoggerUtil notificationLogger;
 
+    public InMemoryNotifier()
+    {
+        this( NotificationMap.MAX_NOTIFICATIONS_PER_JOB );
+    }
+
+    public InMemoryNotifier( int maxNotificationsPerJob )
+    {
+        this.notificationMap = new NotificationMap( maxNotificationsPerJob );
+    }
+
     // -------------------------------------------------------------------------
     // Notifier implementation
     // -------------------------------------------------------------------------
@@ -124,6 +134,12 @@ public class InMemoryNotifier implements Notifier
         return notificationMap.getNotificationsByJobId( jobType, jobId );
     }
 
+    @Override
+    public List<Notification> getNotificationsByJobId( JobType jobType, String jobId, long since )
+    {
+        return notificationMap.getNotificationsByJobId( jobType, jobId, since );
+    }
+
     @Override
     public Map<String, List<Notification>> getNotificationsByJobType( JobType jobType )
     {
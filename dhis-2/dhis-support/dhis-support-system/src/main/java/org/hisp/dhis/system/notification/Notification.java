@@ -56,6 +56,8 @@ public class Notification
 
     private boolean completed;
 
+    private long sequence;
+
     // -------------------------------------------------------------------------
     // Constructors
     // -------------------------------------------------------------------------
@@ -159,6 +161,18 @@ public class Notification
         this.completed = completed;
     }
 
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getSequence()
+    {
+        return sequence;
+    }
+
+    public void setSequence( long sequence )
+    {
+        this.sequence = sequence;
+    }
+
     // -------------------------------------------------------------------------
     // equals, hashCode, toString
     // -------------------------------------------------------------------------
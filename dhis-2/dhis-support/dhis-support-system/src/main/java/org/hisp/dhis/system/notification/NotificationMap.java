@@ -27,98 +27,186 @@
  */
 package org.hisp.dhis.system.notification;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import lombok.extern.slf4j.Slf4j;
 
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.scheduling.JobType;
 
 /**
+ * Notification store made of one bounded {@link NotificationRingBuffer} per
+ * job. Per job type, at most {@link #MAX_POOL_TYPE_SIZE} jobs are retained, the
+ * oldest jobs being evicted first. Per job, at most the configured number of
+ * notifications are retained, defaulting to {@link #MAX_NOTIFICATIONS_PER_JOB}
+ * and set through {@code system.notifications.max_per_job}. Once a job
+ * exceeds it, its oldest notifications are overwritten. Neither reads nor
+ * writes take a lock, so polling clients do not contend with jobs producing
+ * notifications.
+ * <p>
+ * Notifications and summaries are keyed by job uid, so they are not stored
+ * for job configurations without a uid.
+ *
  * @author Henning Håkonsen
  */
+@Slf4j
 public class NotificationMap
 {
     public final static int MAX_POOL_TYPE_SIZE = 500;
 
-    private Map<JobType, Map<String, List<Notification>>> notificationsWithType;
+    /**
+     * Default maximum number of notifications retained per job.
+     */
+    public final static int MAX_NOTIFICATIONS_PER_JOB = 1000;
+
+    private final int maxNotificationsPerJob;
+
+    private final Map<JobType, Map<String, NotificationRingBuffer>> notificationsWithType = new EnumMap<>(
+        JobType.class );
 
-    private Map<JobType, Map<String, Object>> summariesWithType;
+    private final Map<JobType, Deque<String>> notificationOrderWithType = new EnumMap<>( JobType.class );
+
+    private final Map<JobType, Map<String, Object>> summariesWithType = new EnumMap<>( JobType.class );
+
+    private final Map<JobType, Deque<String>> summaryOrderWithType = new EnumMap<>( JobType.class );
 
     NotificationMap()
     {
-        notificationsWithType = new HashMap<>();
-        Arrays.stream( JobType.values() )
-            .forEach( jobType -> notificationsWithType.put( jobType, new LinkedHashMap<>() ) );
+        this( MAX_NOTIFICATIONS_PER_JOB );
+    }
+
+    NotificationMap( int maxNotificationsPerJob )
+    {
+        if ( maxNotificationsPerJob < 1 )
+        {
+            throw new IllegalArgumentException( "Max notifications per job must be greater than zero" );
+        }
+
+        this.maxNotificationsPerJob = maxNotificationsPerJob;
 
-        summariesWithType = new HashMap<>();
-        Arrays.stream( JobType.values() )
-            .forEach( jobType -> summariesWithType.put( jobType, new LinkedHashMap<>() ) );
+        // Maps are fully populated here and never structurally modified later
+
+        for ( JobType jobType : JobType.values() )
+        {
+            notificationsWithType.put( jobType, new ConcurrentHashMap<>() );
+            notificationOrderWithType.put( jobType, new ConcurrentLinkedDeque<>() );
+            summariesWithType.put( jobType, new ConcurrentHashMap<>() );
+            summaryOrderWithType.put( jobType, new ConcurrentLinkedDeque<>() );
+        }
     }
 
     public Map<JobType, Map<String, List<Notification>>> getNotifications()
     {
-        return notificationsWithType;
+        Map<JobType, Map<String, List<Notification>>> notifications = new HashMap<>();
+
+        for ( JobType jobType : JobType.values() )
+        {
+            notifications.put( jobType, getNotificationsWithType( jobType ) );
+        }
+
+        return notifications;
     }
 
-    public synchronized List<Notification> getNotificationsByJobId( JobType jobType, String jobId )
+    public List<Notification> getNotificationsByJobId( JobType jobType, String jobId )
     {
-        return Optional.ofNullable( notificationsWithType.get( jobType ) )
-            .map( n -> n.get( jobId ) )
-            .map( LinkedList::new )
-            .orElse( new LinkedList<>() );
+        return getNotificationsByJobId( jobType, jobId, 0 );
     }
 
-    public synchronized Map<String, List<Notification>> getNotificationsWithType( JobType jobType )
+    /**
+     * Returns the notifications of the given job with a sequence number greater
+     * than the given sequence number, newest first.
+     *
+     * @param jobType the {@link JobType}.
+     * @param jobId the job identifier.
+     * @param since the sequence number, exclusive.
+     * @return a list of {@link Notification}.
+     */
+    public List<Notification> getNotificationsByJobId( JobType jobType, String jobId, long since )
     {
-        return notificationsWithType.get( jobType )
-            .entrySet()
-            .stream()
-            .collect( Collectors.toMap(
-                Map.Entry::getKey,
-                e -> e.getValue() != null ? new LinkedList<>( e.getValue() ) : new LinkedList<>() ) );
+        NotificationRingBuffer buffer = jobId != null ? notificationsWithType.get( jobType ).get( jobId ) : null;
+
+        return buffer != null ? new LinkedList<>( buffer.getNotificationsSince( since ) ) : new LinkedList<>();
     }
 
-    public synchronized void add( JobConfiguration jobConfiguration, Notification notification )
+    public Map<String, List<Notification>> getNotificationsWithType( JobType jobType )
     {
-        String uid = jobConfiguration.getUid();
-
-        Map<String, List<Notification>> uidNotifications = notificationsWithType
-            .get( jobConfiguration.getJobType() );
+        Map<String, List<Notification>> notifications = new LinkedHashMap<>();
 
-        LinkedList<Notification> notifications;
-        if ( uidNotifications.containsKey( uid ) )
+        for ( String jobId : notificationOrderWithType.get( jobType ) )
         {
-            notifications = (LinkedList<Notification>) uidNotifications.get( uid );
+            NotificationRingBuffer buffer = notificationsWithType.get( jobType ).get( jobId );
+
+            if ( buffer != null )
+            {
+                notifications.put( jobId, new LinkedList<>( buffer.getNotifications() ) );
+            }
         }
-        else
+
+        return notifications;
+    }
+
+    public void add( JobConfiguration jobConfiguration, Notification notification )
+    {
+        JobType jobType = jobConfiguration.getJobType();
+        String uid = jobConfiguration.getUid();
+
+        if ( uid == null )
         {
-            notifications = new LinkedList<>();
+            log.warn( "Notification for job of type '{}' without uid not stored: '{}'", jobType,
+                notification.getMessage() );
+            return;
         }
 
-        notifications.addFirst( notification );
+        Map<String, NotificationRingBuffer> buffers = notificationsWithType.get( jobType );
+
+        NotificationRingBuffer buffer = buffers.get( uid );
 
-        if ( uidNotifications.size() >= MAX_POOL_TYPE_SIZE )
+        if ( buffer == null )
         {
-            String key = (String) uidNotifications.keySet().toArray()[0];
-            uidNotifications.remove( key );
-        }
+            NotificationRingBuffer newBuffer = new NotificationRingBuffer( maxNotificationsPerJob );
+
+            buffer = buffers.putIfAbsent( uid, newBuffer );
 
-        uidNotifications.put( uid, notifications );
+            if ( buffer == null )
+            {
+                buffer = newBuffer;
 
-        notificationsWithType.put( jobConfiguration.getJobType(), uidNotifications );
+                notificationOrderWithType.get( jobType ).addLast( uid );
+
+                evict( buffers, notificationOrderWithType.get( jobType ) );
+            }
+        }
+
+        buffer.add( notification );
     }
 
-    public synchronized void addSummary( JobConfiguration jobConfiguration, Object summary )
+    public void addSummary( JobConfiguration jobConfiguration, Object summary )
     {
-        Map<String, Object> summaries = summariesWithType.get( jobConfiguration.getJobType() );
+        JobType jobType = jobConfiguration.getJobType();
+        String uid = jobConfiguration.getUid();
 
-        if ( summaries.size() >= MAX_POOL_TYPE_SIZE )
+        if ( uid == null )
         {
-            String key = (String) summaries.keySet().toArray()[0];
-            summaries.remove( key );
+            log.warn( "Summary for job of type '{}' without uid not stored", jobType );
+            return;
         }
 
-        summaries.put( jobConfiguration.getUid(), summary );
+        Map<String, Object> summaries = summariesWithType.get( jobType );
+
+        if ( summaries.put( uid, summary ) == null )
+        {
+            summaryOrderWithType.get( jobType ).addLast( uid );
+
+            evict( summaries, summaryOrderWithType.get( jobType ) );
+        }
     }
 
     public Object getSummary( JobType jobType, String jobId )
@@ -128,12 +216,62 @@ public class NotificationMap
 
     public Map<String, Object> getJobSummariesForJobType( JobType jobType )
     {
-        return summariesWithType.get( jobType );
+        Map<String, Object> summaries = new LinkedHashMap<>();
+
+        for ( String jobId : summaryOrderWithType.get( jobType ) )
+        {
+            Object summary = summariesWithType.get( jobType ).get( jobId );
+
+            if ( summary != null )
+            {
+                summaries.put( jobId, summary );
+            }
+        }
+
+        return summaries;
     }
 
     public void clear( JobConfiguration jobConfiguration )
     {
-        notificationsWithType.get( jobConfiguration.getJobType() ).remove( jobConfiguration.getUid() );
-        summariesWithType.get( jobConfiguration.getJobType() ).remove( jobConfiguration.getUid() );
+        JobType jobType = jobConfiguration.getJobType();
+        String uid = jobConfiguration.getUid();
+
+        if ( uid == null )
+        {
+            return;
+        }
+
+        if ( notificationsWithType.get( jobType ).remove( uid ) != null )
+        {
+            notificationOrderWithType.get( jobType ).remove( uid );
+        }
+
+        if ( summariesWithType.get( jobType ).remove( uid ) != null )
+        {
+            summaryOrderWithType.get( jobType ).remove( uid );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Removes the oldest entries until the map holds no more than
+     * {@link #MAX_POOL_TYPE_SIZE} entries.
+     */
+    private static void evict( Map<String, ?> map, Deque<String> order )
+    {
+        while ( map.size() > MAX_POOL_TYPE_SIZE )
+        {
+            String oldest = order.pollFirst();
+
+            if ( oldest == null )
+            {
+                return;
+            }
+
+            map.remove( oldest );
+        }
     }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.notification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free ring buffer holding the notifications of a single job.
+ * Every notification is assigned a sequence number which is strictly
+ * increasing within the buffer, starting at 1. Once the buffer is full the
+ * oldest notifications are overwritten.
+ * <p>
+ * Readers never block writers. A read returns the contiguous run of
+ * notifications following the requested sequence number, so that a client
+ * which polls with the highest sequence number it has seen will not miss
+ * notifications which were being written concurrently with the previous read.
+ */
+class NotificationRingBuffer
+{
+    private final int capacity;
+
+    private final AtomicReferenceArray<Notification> slots;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    NotificationRingBuffer( int capacity )
+    {
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>( capacity );
+    }
+
+    /**
+     * Adds the given notification to the buffer and assigns the next sequence
+     * number to it.
+     *
+     * @param notification the {@link Notification}.
+     * @return the sequence number of the notification.
+     */
+    long add( Notification notification )
+    {
+        long seq = sequence.incrementAndGet();
+
+        notification.setSequence( seq );
+
+        slots.set( index( seq ), notification );
+
+        return seq;
+    }
+
+    /**
+     * Returns all notifications held by the buffer, newest first.
+     */
+    List<Notification> getNotifications()
+    {
+        return getNotificationsSince( 0 );
+    }
+
+    /**
+     * Returns the notifications with a sequence number greater than the given
+     * sequence number, newest first.
+     *
+     * @param since the sequence number, exclusive.
+     * @return a list of {@link Notification}.
+     */
+    List<Notification> getNotificationsSince( long since )
+    {
+        long last = sequence.get();
+        long first = Math.max( Math.max( since, 0 ) + 1, last - capacity + 1 );
+
+        List<Notification> notifications = new ArrayList<>();
+
+        for ( long seq = first; seq <= last; seq++ )
+        {
+            Notification notification = slots.get( index( seq ) );
+
+            if ( notification == null || notification.getSequence() != seq )
+            {
+                if ( notification != null && notification.getSequence() > seq )
+                {
+                    continue; // Overwritten by a newer notification
+                }
+
+                break; // Not yet published by writer, stop at the gap
+            }
+
+            notifications.add( notification );
+        }
+
+        Collections.reverse( notifications );
+
+        return notifications;
+    }
+
+    /**
+     * Returns the sequence number of the last notification added to the
+     * buffer, or 0 if the buffer is empty.
+     */
+    long getLastSequence()
+    {
+        return sequence.get();
+    }
+
+    private int index( long seq )
+    {
+        return (int) ((seq - 1) % capacity);
+    }
+}
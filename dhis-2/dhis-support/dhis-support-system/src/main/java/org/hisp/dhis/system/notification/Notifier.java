@@ -56,6 +56,18 @@ public interface Notifier
 
     List<Notification> getNotificationsByJobId( JobType jobType, String jobId );
 
+    /**
+     * Returns the notifications of the given job with a sequence number greater
+     * than the given sequence number, newest first. Allows polling clients to
+     * fetch only notifications they have not seen yet.
+     *
+     * @param jobType the {@link JobType}.
+     * @param jobId the job identifier.
+     * @param since the sequence number, exclusive.
+     * @return a list of {@link Notification}.
+     */
+    List<Notification> getNotificationsByJobId( JobType jobType, String jobId, long since );
+
     Map<String, List<Notification>> getNotificationsByJobType( JobType jobType );
 
     Notifier clear( JobConfiguration id );
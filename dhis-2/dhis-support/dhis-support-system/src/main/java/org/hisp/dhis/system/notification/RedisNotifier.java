@@ -66,6 +66,8 @@ public class RedisNotifier implements Notifier
 
     private static final String NOTIFICATION_ORDER_KEY_PREFIX = "notification:order:";
 
+    private static final String NOTIFICATION_SEQUENCE_KEY_PREFIX = "notification:sequence:";
+
     private static final String SUMMARIES_KEY_PREFIX = "summaries:";
 
     private static final String SUMMARIES_KEY_ORDER_PREFIX = "summary:order:";
@@ -74,16 +76,27 @@ public class RedisNotifier implements Notifier
 
     private static final String COLON = ":";
 
-    private final static int MAX_POOL_TYPE_SIZE = 500;
+    private final static int MAX_POOL_TYPE_SIZE = NotificationMap.MAX_POOL_TYPE_SIZE;
 
     private final ObjectMapper jsonMapper;
 
+    private final int maxNotificationsPerJob;
+
     public RedisNotifier(
         RedisTemplate<String, String> redisTemplate,
         ObjectMapper jsonMapper )
+    {
+        this( redisTemplate, jsonMapper, NotificationMap.MAX_NOTIFICATIONS_PER_JOB );
+    }
+
+    public RedisNotifier(
+        RedisTemplate<String, String> redisTemplate,
+        ObjectMapper jsonMapper,
+        int maxNotificationsPerJob )
     {
         this.redisTemplate = redisTemplate;
         this.jsonMapper = jsonMapper;
+        this.maxNotificationsPerJob = maxNotificationsPerJob;
     }
 
     // -------------------------------------------------------------------------
@@ -129,13 +142,23 @@ public class RedisNotifier implements Notifier
             {
                 if ( redisTemplate.boundZSetOps( notificationOrderKey ).zCard() >= MAX_POOL_TYPE_SIZE )
                 {
-                    Set<String> deleteKeys = redisTemplate.boundZSetOps( notificationOrderKey ).range( 0, 0 );
-                    redisTemplate.delete( deleteKeys );
+                    Set<String> deleteUids = redisTemplate.boundZSetOps( notificationOrderKey ).range( 0, 0 );
+                    deleteUids.forEach( uid -> {
+                        redisTemplate.delete( generateNotificationKey( id.getJobType(), uid ) );
+                        redisTemplate.delete( generateNotificationSequenceKey( id.getJobType(), uid ) );
+                    } );
                     redisTemplate.boundZSetOps( notificationOrderKey ).removeRange( 0, 0 );
                 }
 
+                // Sequence number is used as score to support incremental reads
+
+                Long sequence = redisTemplate
+                    .boundValueOps( generateNotificationSequenceKey( id.getJobType(), id.getUid() ) ).increment();
+                notification.setSequence( sequence );
+
                 redisTemplate.boundZSetOps( notificationKey ).add( jsonMapper.writeValueAsString( notification ),
-                    now.getTime() );
+                    sequence );
+                redisTemplate.boundZSetOps( notificationKey ).removeRange( 0, -(maxNotificationsPerJob + 1) );
                 redisTemplate.boundZSetOps( notificationOrderKey ).add( id.getUid(), now.getTime() );
             }
             catch ( JsonProcessingException ex )
@@ -185,18 +208,25 @@ public class RedisNotifier implements Notifier
 
     @Override
     public List<Notification> getNotificationsByJobId( JobType jobType, String jobId )
+    {
+        return getNotificationsByJobId( jobType, jobId, 0 );
+    }
+
+    @Override
+    public List<Notification> getNotificationsByJobId( JobType jobType, String jobId, long since )
     {
         List<Notification> notifications = new LinkedList<>();
-        redisTemplate.boundZSetOps( generateNotificationKey( jobType, jobId ) ).range( 0, -1 ).forEach( x -> {
-            try
-            {
-                notifications.add( jsonMapper.readValue( x, Notification.class ) );
-            }
-            catch ( IOException ex )
-            {
-                log.warn( String.format( NOTIFIER_ERROR, ex.getMessage() ) );
-            }
-        } );
+        redisTemplate.boundZSetOps( generateNotificationKey( jobType, jobId ) )
+            .reverseRangeByScore( since + 1, Double.POSITIVE_INFINITY ).forEach( x -> {
+                try
+                {
+                    notifications.add( jsonMapper.readValue( x, Notification.class ) );
+                }
+                catch ( IOException ex )
+                {
+                    log.warn( String.format( NOTIFIER_ERROR, ex.getMessage() ) );
+                }
+            } );
         return notifications;
     }
 
@@ -218,6 +248,7 @@ public class RedisNotifier implements Notifier
         if ( id != null )
         {
             redisTemplate.delete( generateNotificationKey( id.getJobType(), id.getUid() ) );
+            redisTemplate.delete( generateNotificationSequenceKey( id.getJobType(), id.getUid() ) );
             redisTemplate.boundHashOps( generateSummaryKey( id.getJobType() ) ).delete( id.getUid() );
             redisTemplate.boundZSetOps( generateNotificationOrderKey( id.getJobType() ) ).remove( id.getUid() );
             redisTemplate.boundZSetOps( generateSummaryOrderKey( id.getJobType() ) ).remove( id.getUid() );
@@ -353,6 +384,15 @@ public class RedisNotifier implements Notifier
             .append( jobType.toString() ).toString();
     }
 
+    private static String generateNotificationSequenceKey( JobType jobType, String jobUid )
+    {
+        return new StringBuilder()
+            .append( NOTIFICATION_SEQUENCE_KEY_PREFIX )
+            .append( jobType.toString() )
+            .append( COLON )
+            .append( jobUid ).toString();
+    }
+
     private static String generateSummaryKey( JobType jobType )
     {
         return new StringBuilder()
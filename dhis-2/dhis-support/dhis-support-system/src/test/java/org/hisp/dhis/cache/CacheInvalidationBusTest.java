@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Unit tests for {@link CacheInvalidationBus}. Two nodes share an in-memory
+ * remote tier, and messages published by one node are delivered to the other
+ * node instead of going through Redis.
+ */
+public class CacheInvalidationBusTest
+{
+    private static final String REGION = "region";
+
+    private StringRedisTemplate redisTemplateA;
+
+    private Cache<String> remote;
+
+    private CacheInvalidationBus busA;
+
+    private CacheInvalidationBus busB;
+
+    private Cache<String> localA;
+
+    private Cache<String> localB;
+
+    private NearCache<String> cacheA;
+
+    private NearCache<String> cacheB;
+
+    @Before
+    public void setUp()
+    {
+        redisTemplateA = mock( StringRedisTemplate.class );
+        StringRedisTemplate redisTemplateB = mock( StringRedisTemplate.class );
+
+        busA = new CacheInvalidationBus( redisTemplateA );
+        busB = new CacheInvalidationBus( redisTemplateB );
+
+        forward( redisTemplateA, busB );
+        forward( redisTemplateB, busA );
+
+        remote = new LocalCache<>( new SimpleCacheBuilder<String>().forRegion( REGION ) );
+        localA = createLocalCache();
+        localB = createLocalCache();
+
+        cacheA = new NearCache<>( REGION, localA, remote, null, busA );
+        cacheB = new NearCache<>( REGION, localB, remote, null, busB );
+    }
+
+    @Test
+    public void testPutOnOtherNodeDropsLocalEntry()
+    {
+        cacheA.put( "a", "A" );
+
+        assertEquals( "A", cacheB.get( "a" ).get() );
+        assertTrue( localB.getIfPresent( "a" ).isPresent() );
+
+        cacheA.put( "a", "A2" );
+
+        assertFalse( localB.getIfPresent( "a" ).isPresent() );
+        assertEquals( "A2", cacheB.get( "a" ).get() );
+    }
+
+    @Test
+    public void testOwnInvalidationsAreIgnored()
+    {
+        cacheA.put( "a", "A" );
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass( String.class );
+        verify( redisTemplateA ).convertAndSend( eq( CacheInvalidationBus.CHANNEL ), message.capture() );
+
+        busA.onMessage( new DefaultMessage( channel(), bytes( message.getValue() ) ), null );
+
+        assertTrue( localA.getIfPresent( "a" ).isPresent() );
+    }
+
+    @Test
+    public void testInvalidateAllOnOtherNodeDropsAllLocalEntries()
+    {
+        cacheA.put( "a", "A" );
+        cacheA.put( "b", "B" );
+        cacheB.get( "a" );
+        cacheB.get( "b" );
+
+        assertEquals( 2, localB.getAll().size() );
+
+        busB.onMessage( new DefaultMessage( channel(), bytes( "other:" + REGION ) ), null );
+
+        assertTrue( localB.getAll().isEmpty() );
+        assertEquals( 2, localA.getAll().size() );
+    }
+
+    @Test
+    public void testKeyContainingSeparator()
+    {
+        cacheA.put( "a:b:c", "A" );
+        cacheB.get( "a:b:c" );
+
+        busB.onMessage( new DefaultMessage( channel(), bytes( "other:" + REGION + ":a:b:c" ) ), null );
+
+        assertFalse( localB.getIfPresent( "a:b:c" ).isPresent() );
+    }
+
+    @Test
+    public void testUnknownRegionAndMalformedMessagesAreIgnored()
+    {
+        cacheA.put( "a", "A" );
+        cacheB.get( "a" );
+
+        busB.onMessage( new DefaultMessage( channel(), bytes( "other:unknown:a" ) ), null );
+        busB.onMessage( new DefaultMessage( channel(), bytes( "other" ) ), null );
+        busB.onMessage( new DefaultMessage( channel(), bytes( "" ) ), null );
+
+        assertTrue( localB.getIfPresent( "a" ).isPresent() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private static Cache<String> createLocalCache()
+    {
+        return new LocalCache<>( new SimpleCacheBuilder<String>().forRegion( REGION ).withMaximumSize( 10 ) );
+    }
+
+    /**
+     * Delivers the messages sent through the given template to the given bus.
+     */
+    private static void forward( StringRedisTemplate redisTemplate, CacheInvalidationBus bus )
+    {
+        doAnswer( invocation -> {
+            bus.onMessage( new DefaultMessage( channel(), bytes( invocation.getArgument( 1 ) ) ), null );
+            return null;
+        } ).when( redisTemplate ).convertAndSend( eq( CacheInvalidationBus.CHANNEL ), anyString() );
+    }
+
+    private static byte[] channel()
+    {
+        return bytes( CacheInvalidationBus.CHANNEL );
+    }
+
+    private static byte[] bytes( String value )
+    {
+        return value.getBytes( StandardCharsets.UTF_8 );
+    }
+}
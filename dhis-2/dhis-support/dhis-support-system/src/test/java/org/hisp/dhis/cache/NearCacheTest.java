@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.matches;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for {@link NearCache}. The Redis tier is replaced by an in-memory
+ * cache.
+ */
+public class NearCacheTest
+{
+    private static final String REGION = "region";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private Cache<String> local;
+
+    private Cache<String> remote;
+
+    private NearCache<String> cache;
+
+    @Before
+    public void setUp()
+    {
+        local = new LocalCache<>( new SimpleCacheBuilder<String>().forRegion( REGION ).withMaximumSize( 10 ) );
+        remote = new LocalCache<>( new SimpleCacheBuilder<String>().forRegion( REGION ) );
+        cache = new NearCache<>( REGION, local, remote, null, new CacheInvalidationBus( redisTemplate ) );
+    }
+
+    @Test
+    public void testGetReadsThroughRemoteTierAndPopulatesLocalTier()
+    {
+        remote.put( "a", "A" );
+
+        assertEquals( "A", cache.get( "a" ).get() );
+        assertEquals( "A", local.getIfPresent( "a" ).get() );
+        assertEquals( 0, cache.getLocalHits() );
+        assertEquals( 1, cache.getLocalMisses() );
+        assertEquals( 1, cache.getRemoteHits() );
+
+        assertEquals( "A", cache.get( "a" ).get() );
+        assertEquals( 1, cache.getLocalHits() );
+        assertEquals( 1, cache.getRemoteHits() );
+    }
+
+    @Test
+    public void testGetMissInBothTiers()
+    {
+        assertFalse( cache.getIfPresent( "a" ).isPresent() );
+        assertEquals( 1, cache.getLocalMisses() );
+        assertEquals( 1, cache.getRemoteMisses() );
+    }
+
+    @Test
+    public void testGetWithMappingFunctionWritesBothTiers()
+    {
+        assertEquals( "A", cache.get( "a", key -> "A" ).get() );
+        assertEquals( "A", local.getIfPresent( "a" ).get() );
+        assertEquals( "A", remote.getIfPresent( "a" ).get() );
+    }
+
+    @Test
+    public void testPutWritesBothTiersAndPublishesInvalidation()
+    {
+        cache.put( "a", "A" );
+
+        assertEquals( "A", local.getIfPresent( "a" ).get() );
+        assertEquals( "A", remote.getIfPresent( "a" ).get() );
+        verify( redisTemplate ).convertAndSend( eq( CacheInvalidationBus.CHANNEL ), matches( ".+:region:a" ) );
+    }
+
+    @Test
+    public void testPutWithTtlDropsLocalEntry()
+    {
+        cache.put( "a", "A" );
+        cache.put( "a", "B", 60 );
+
+        assertFalse( local.getIfPresent( "a" ).isPresent() );
+        assertEquals( "B", cache.get( "a" ).get() );
+    }
+
+    @Test
+    public void testInvalidateRemovesFromBothTiers()
+    {
+        cache.put( "a", "A" );
+        cache.invalidate( "a" );
+
+        assertFalse( local.getIfPresent( "a" ).isPresent() );
+        assertFalse( remote.getIfPresent( "a" ).isPresent() );
+    }
+
+    @Test
+    public void testInvalidateLocalKeepsRemoteEntry()
+    {
+        cache.put( "a", "A" );
+        cache.put( "b", "B" );
+        cache.invalidateLocal( "a" );
+
+        assertFalse( local.getIfPresent( "a" ).isPresent() );
+        assertTrue( local.getIfPresent( "b" ).isPresent() );
+        assertEquals( "A", cache.get( "a" ).get() );
+        assertEquals( 1, cache.getRemoteHits() );
+
+        cache.invalidateAllLocal();
+
+        assertTrue( local.getAll().isEmpty() );
+        assertEquals( 2, remote.getAll().size() );
+    }
+
+    @Test
+    public void testGetAllCombinesTiers()
+    {
+        local.put( "a", "A" );
+        remote.put( "b", "B" );
+
+        Map<String, String> values = cache.getAll( Lists.newArrayList( "a", "b", "c" ) );
+
+        assertEquals( ImmutableMap.of( "a", "A", "b", "B" ), values );
+        assertEquals( 1, cache.getLocalHits() );
+        assertEquals( 2, cache.getLocalMisses() );
+        assertEquals( 1, cache.getRemoteHits() );
+        assertEquals( 1, cache.getRemoteMisses() );
+        assertEquals( "B", local.getIfPresent( "b" ).get() );
+    }
+
+    @Test
+    public void testPutSucceedsWhenBroadcastFails()
+    {
+        doThrow( new RedisConnectionFailureException( "Connection refused" ) ).when( redisTemplate )
+            .convertAndSend( eq( CacheInvalidationBus.CHANNEL ), matches( ".+" ) );
+
+        cache.put( "a", "A" );
+
+        assertEquals( "A", cache.get( "a" ).get() );
+    }
+}
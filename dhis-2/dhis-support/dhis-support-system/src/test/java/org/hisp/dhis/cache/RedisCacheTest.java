@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for the bulk operations of {@link RedisCache}.
+ */
+public class RedisCacheTest
+{
+    private static final String REGION = "region";
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private final StringRedisSerializer serializer = new StringRedisSerializer();
+
+    @Before
+    public void setUp()
+    {
+        when( redisTemplate.opsForValue() ).thenReturn( valueOperations );
+        doReturn( serializer ).when( redisTemplate ).getKeySerializer();
+        doReturn( serializer ).when( redisTemplate ).getValueSerializer();
+    }
+
+    @Test
+    public void testGetAllPrefixesKeysAndOmitsMissingKeys()
+    {
+        when( valueOperations.multiGet( Lists.newArrayList( "region:a", "region:b", "region:c" ) ) )
+            .thenReturn( Arrays.asList( "A", null, "C" ) );
+
+        Map<String, String> values = getCache( false ).getAll( Lists.newArrayList( "a", "b", "c" ) );
+
+        assertEquals( ImmutableMap.of( "a", "A", "c", "C" ), values );
+    }
+
+    @Test
+    public void testGetAllWithNoKeys()
+    {
+        assertTrue( getCache( false ).getAll( Lists.newArrayList() ).isEmpty() );
+
+        verify( valueOperations, never() ).multiGet( anyList() );
+    }
+
+    @Test
+    public void testGetAllRefreshesExpiryOfFoundKeys()
+    {
+        when( valueOperations.multiGet( Lists.newArrayList( "region:a", "region:b" ) ) )
+            .thenReturn( Arrays.asList( "A", null ) );
+
+        getCache( true ).getAll( Lists.newArrayList( "a", "b" ) );
+
+        runPipeline();
+
+        verify( connection ).expire( aryEq( bytes( "region:a" ) ), anyLong() );
+        verify( connection, never() ).expire( aryEq( bytes( "region:b" ) ), anyLong() );
+    }
+
+    @Test
+    public void testPutAllPrefixesKeysInPipeline()
+    {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put( "a", "A" );
+        entries.put( "b", "B" );
+
+        getCache( false ).putAll( entries );
+
+        runPipeline();
+
+        verify( connection ).set( aryEq( bytes( "region:a" ) ), aryEq( bytes( "A" ) ) );
+        verify( connection ).set( aryEq( bytes( "region:b" ) ), aryEq( bytes( "B" ) ) );
+    }
+
+    @Test
+    public void testPutAllWithExpiry()
+    {
+        getCacheWithExpiryAfterWrite().putAll( ImmutableMap.of( "a", "A" ) );
+
+        runPipeline();
+
+        verify( connection ).setEx( aryEq( bytes( "region:a" ) ), anyLong(), aryEq( bytes( "A" ) ) );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testPutAllWithNullValue()
+    {
+        Map<String, String> entries = new HashMap<>();
+        entries.put( "a", "A" );
+        entries.put( "b", null );
+
+        try
+        {
+            getCache( false ).putAll( entries );
+
+            fail( "Null values must be rejected" );
+        }
+        catch ( IllegalArgumentException ex )
+        {
+            // Expected
+        }
+
+        verify( redisTemplate, never() ).executePipelined( any( RedisCallback.class ) );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testPutAllWithNoEntries()
+    {
+        getCache( false ).putAll( new HashMap<>() );
+
+        verify( redisTemplate, never() ).executePipelined( any( RedisCallback.class ) );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testGetAllScansRegion()
+    {
+        Cursor<byte[]> cursor = mock( Cursor.class );
+        when( cursor.hasNext() ).thenReturn( true, true, false );
+        when( cursor.next() ).thenReturn( bytes( "region:a" ), bytes( "region:b" ) );
+        when( connection.scan( any( ScanOptions.class ) ) ).thenReturn( cursor );
+        when( connection.mGet( any( byte[][].class ) ) ).thenReturn( Arrays.asList( bytes( "A" ), null ) );
+
+        getCache( false ).getAll();
+
+        ArgumentCaptor<RedisCallback<Void>> callback = ArgumentCaptor.forClass( RedisCallback.class );
+        verify( redisTemplate ).execute( callback.capture() );
+
+        callback.getValue().doInRedis( connection );
+
+        ArgumentCaptor<ScanOptions> options = ArgumentCaptor.forClass( ScanOptions.class );
+        verify( connection ).scan( options.capture() );
+        assertEquals( "region:*", options.getValue().getPattern() );
+
+        verify( connection ).mGet( aryEq( bytes( "region:a" ) ), aryEq( bytes( "region:b" ) ) );
+        verify( cursor ).close();
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testInvalidateAllUnlinksScannedKeys()
+    {
+        Cursor<byte[]> cursor = mock( Cursor.class );
+        when( cursor.hasNext() ).thenReturn( true, false );
+        when( cursor.next() ).thenReturn( bytes( "region:a" ) );
+        when( connection.scan( any( ScanOptions.class ) ) ).thenReturn( cursor );
+
+        getCache( false ).invalidateAll();
+
+        ArgumentCaptor<RedisCallback<Void>> callback = ArgumentCaptor.forClass( RedisCallback.class );
+        verify( redisTemplate ).execute( callback.capture() );
+
+        callback.getValue().doInRedis( connection );
+
+        verify( connection ).unlink( aryEq( bytes( "region:a" ) ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private RedisCache<String> getCache( boolean expireAfterAccess )
+    {
+        ExtendedCacheBuilder<String> builder = new ExtendedCacheBuilder<>( redisTemplate, null, null );
+        builder.forRegion( REGION );
+
+        if ( expireAfterAccess )
+        {
+            builder.expireAfterAccess( 60, SECONDS );
+        }
+
+        return new RedisCache<>( builder );
+    }
+
+    private RedisCache<String> getCacheWithExpiryAfterWrite()
+    {
+        ExtendedCacheBuilder<String> builder = new ExtendedCacheBuilder<>( redisTemplate, null, null );
+        builder.forRegion( REGION );
+        builder.expireAfterWrite( 60, SECONDS );
+
+        return new RedisCache<>( builder );
+    }
+
+    /**
+     * Runs the callback passed to the pipeline against the mocked connection.
+     */
+    @SuppressWarnings( "unchecked" )
+    private void runPipeline()
+    {
+        ArgumentCaptor<RedisCallback<Object>> captor = ArgumentCaptor.forClass( RedisCallback.class );
+
+        verify( redisTemplate ).executePipelined( captor.capture() );
+
+        captor.getValue().doInRedis( connection );
+    }
+
+    private byte[] bytes( String value )
+    {
+        return serializer.serialize( value );
+    }
+}
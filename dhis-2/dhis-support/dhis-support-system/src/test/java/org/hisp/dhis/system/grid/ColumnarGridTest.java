@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.ValueType;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Runs the {@link GridTest} tests against {@link ColumnarGrid} in addition to
+ * tests of the column storage.
+ */
+public class ColumnarGridTest
+    extends GridTest
+{
+    @Override
+    protected Grid newGrid()
+    {
+        return new ColumnarGrid();
+    }
+
+    @Test
+    public void testSubstituteMetaDataForDictionary()
+    {
+        Grid grid = newGrid()
+            .addHeader( new GridHeader( "ou", "ou", ValueType.TEXT, false, true ) )
+            .addHeader( new GridHeader( "value", "value", ValueType.NUMBER, false, false ) )
+            .addRow().addValuesVar( "ouA", 1.0 )
+            .addRow().addValuesVar( "ouB", 2.0 )
+            .addRow().addValuesVar( null, 3.0 )
+            .addRow().addValuesVar( "ouC", 4.0 )
+            .addRow().addValuesVar( "ouA", 5.0 );
+
+        Map<Object, Object> metaData = new HashMap<>();
+        metaData.put( "ouA", "Bo" );
+        metaData.put( "ouB", "Bo" );
+
+        grid.substituteMetaData( metaData );
+
+        assertEquals( Lists.newArrayList( "Bo", "Bo", null, "ouC", "Bo" ), grid.getColumn( 0 ) );
+        assertEquals( Lists.newArrayList( 1.0, 2.0, 3.0, 4.0, 5.0 ), grid.getColumn( 1 ) );
+    }
+
+    @Test
+    public void testSubstituteMetaDataWithNonStringValues()
+    {
+        Grid grid = newGrid()
+            .addRow().addValuesVar( "A" )
+            .addRow().addValuesVar( "B" );
+
+        Map<Object, Object> metaData = new HashMap<>();
+        metaData.put( "A", 1 );
+
+        grid.substituteMetaData( 0, 0, metaData );
+
+        assertEquals( 1, grid.getValue( 0, 0 ) );
+        assertEquals( "B", grid.getValue( 1, 0 ) );
+    }
+
+    @Test
+    public void testMixedValueTypes()
+    {
+        Grid grid = newGrid()
+            .addRow().addValuesVar( "A", 1.0 )
+            .addRow().addValuesVar( 2, null )
+            .addRow().addValuesVar( "C", 3 );
+
+        assertEquals( "A", grid.getValue( 0, 0 ) );
+        assertEquals( 2, grid.getValue( 1, 0 ) );
+        assertEquals( "C", grid.getValue( 2, 0 ) );
+        assertEquals( 1.0, grid.getValue( 0, 1 ) );
+        assertNull( grid.getValue( 1, 1 ) );
+        assertEquals( 3, grid.getValue( 2, 1 ) );
+    }
+
+    @Test
+    public void testSortDoublesWithNulls()
+    {
+        Grid grid = newGrid()
+            .addRow().addValuesVar( "a", 5.2 )
+            .addRow().addValuesVar( "b", null )
+            .addRow().addValuesVar( "c", 108.1 )
+            .addRow().addValuesVar( "d", 0.1 );
+
+        grid.sortGrid( 2, 1 );
+
+        assertEquals( Lists.newArrayList( "c", "a", "d", "b" ), grid.getColumn( 0 ) );
+
+        grid.sortGrid( 2, -1 );
+
+        assertEquals( Lists.newArrayList( "b", "d", "a", "c" ), grid.getColumn( 0 ) );
+    }
+
+    @Test
+    public void testRowViewWritesThrough()
+    {
+        Grid grid = newGrid()
+            .addRow().addValuesVar( "A", 1.0 )
+            .addRow().addValuesVar( "B", 2.0 );
+
+        List<Object> row = grid.getRow( 1 );
+
+        row.set( 0, "X" );
+        row.set( 1, 4 );
+
+        assertEquals( "X", grid.getValue( 1, 0 ) );
+        assertEquals( 4, grid.getValue( 1, 1 ) );
+        assertEquals( Lists.newArrayList( "X", 4 ), grid.getRows().get( 1 ) );
+    }
+
+    @Test
+    public void testShortRowIsPadded()
+    {
+        Grid grid = newGrid()
+            .addRow().addValuesVar( "A1", "A2", "A3" )
+            .addRow().addValuesVar( "B1", "B2" )
+            .addRow().addValuesVar( "C1", "C2", "C3" );
+
+        assertEquals( 3, grid.getWidth() );
+        assertNull( grid.getValue( 1, 2 ) );
+        assertEquals( "C3", grid.getValue( 2, 2 ) );
+    }
+
+    @Test
+    public void testAddRowsFromListGrid()
+    {
+        Grid listGrid = new ListGrid()
+            .addRow().addValuesVar( "A", 1.0 )
+            .addRow().addValuesVar( "B", 2.0 );
+
+        Grid grid = newGrid()
+            .addRow().addValuesVar( "C", 3.0 )
+            .addRows( listGrid );
+
+        assertEquals( 3, grid.getHeight() );
+        assertEquals( listGrid.getRow( 1 ), grid.getRow( 2 ) );
+    }
+
+    @Test
+    public void testGetVisibleRowsAreViews()
+    {
+        Grid grid = newGrid()
+            .addHeader( new GridHeader( "A", false, false ) )
+            .addHeader( new GridHeader( "B", true, false ) )
+            .addHeader( new GridHeader( "C", false, false ) )
+            .addRow().addValuesVar( "A1", "B1", "C1" )
+            .addRow().addValuesVar( "A2", "B2", "C2" );
+
+        List<List<Object>> rows = grid.getVisibleRows();
+
+        assertEquals( 2, rows.size() );
+        assertEquals( Lists.newArrayList( "A1", "C1" ), rows.get( 0 ) );
+        assertEquals( Lists.newArrayList( "A2", "C2" ), rows.get( 1 ) );
+        assertTrue( grid.getVisibleWidth() == 2 );
+    }
+}
@@ -66,8 +66,8 @@ public class GridTest
     @Before
     public void setUp()
     {
-        gridA = new ListGrid();
-        gridB = new ListGrid();
+        gridA = newGrid();
+        gridB = newGrid();
 
         headerA = new GridHeader( "ColA", "colA", ValueType.TEXT, false, true );
         headerB = new GridHeader( "ColB", "colB", ValueType.TEXT, false, true );
@@ -114,7 +114,7 @@ public class GridTest
     @Test
     public void testAddHeaders()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
 
         GridHeader headerA = new GridHeader( "DataElementA", "Data element A" );
         GridHeader headerB = new GridHeader( "DataElementB", "Data element B" );
@@ -138,7 +138,7 @@ public class GridTest
     @Test
     public void testColumnIsEmpty()
     {
-        Grid grid = new ListGrid()
+        Grid grid = newGrid()
             .addRow().addValuesVar( "A1", null, "A3", null )
             .addRow().addValuesVar( "B1", null, "B3", null )
             .addRow().addValuesVar( null, null, "C3", null )
@@ -153,7 +153,7 @@ public class GridTest
     @Test
     public void testRemoveEmptyColumns()
     {
-        Grid grid = new ListGrid()
+        Grid grid = newGrid()
             .addHeader( new GridHeader( "H1" ) )
             .addHeader( new GridHeader( "H2" ) )
             .addHeader( new GridHeader( "H3" ) )
@@ -174,7 +174,7 @@ public class GridTest
     @Test
     public void testRemoveEmptyColumnsWithoutHeaders()
     {
-        Grid grid = new ListGrid()
+        Grid grid = newGrid()
             .addRow().addValuesVar( "A1", null, "A3", null )
             .addRow().addValuesVar( "B1", null, "B3", null )
             .addRow().addValuesVar( null, null, "C3", null )
@@ -190,7 +190,7 @@ public class GridTest
     @Test
     public void testAddHeaderList()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
 
         GridHeader headerA = new GridHeader( "DataElementA", "Data element A" );
         GridHeader headerB = new GridHeader( "DataElementB", "Data element B" );
@@ -601,7 +601,7 @@ public class GridTest
     @Test
     public void testSortA()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
 
         grid.addRow().addValue( 1 ).addValue( "a" );
         grid.addRow().addValue( 2 ).addValue( "b" );
@@ -622,7 +622,7 @@ public class GridTest
     @Test
     public void testSortB()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
 
         grid.addRow().addValue( 3 ).addValue( "a" );
         grid.addRow().addValue( 2 ).addValue( "b" );
@@ -643,7 +643,7 @@ public class GridTest
     @Test
     public void testSortC()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
 
         grid.addRow().addValue( 1 ).addValue( "c" );
         grid.addRow().addValue( 3 ).addValue( "a" );
@@ -664,7 +664,7 @@ public class GridTest
     @Test
     public void testSortD()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
 
         grid.addRow().addValue( "a" ).addValue( "a" ).addValue( 5.2 );
         grid.addRow().addValue( "b" ).addValue( "b" ).addValue( 0.0 );
@@ -697,7 +697,7 @@ public class GridTest
     @Test
     public void testSortE()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
 
         grid.addRow().addValue( "two" ).addValue( 2 );
         grid.addRow().addValue( "null" ).addValue( null );
@@ -718,7 +718,7 @@ public class GridTest
     @Test
     public void testSortF()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
 
         grid.addRow().addValue( "two" ).addValue( 2 );
         grid.addRow().addValue( "null" ).addValue( null );
@@ -758,7 +758,7 @@ public class GridTest
     @Test
     public void testAddRegressionColumn()
     {
-        gridA = new ListGrid();
+        gridA = newGrid();
 
         gridA.addRow();
         gridA.addValue( 10.0 );
@@ -783,7 +783,7 @@ public class GridTest
     @Test
     public void testAddCumulativeColumn()
     {
-        gridA = new ListGrid();
+        gridA = newGrid();
 
         gridA.addRow();
         gridA.addValue( 10.0 );
@@ -874,7 +874,7 @@ public class GridTest
     @Test
     public void testAddValuesAsList()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
 
         grid.addRow().addValuesAsList( Lists.newArrayList( "colA1", "colB1", "colC1" ) );
         grid.addRow().addValuesAsList( Lists.newArrayList( "colA2", "colB2", "colC2" ) );
@@ -889,6 +889,14 @@ public class GridTest
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Returns a new instance of the grid implementation under test.
+     */
+    protected Grid newGrid()
+    {
+        return new ListGrid();
+    }
+
     private static List<Object> getList( Object... items )
     {
         List<Object> list = new ArrayList<>();
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.commons.config.JacksonObjectMapperConfig;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.Lists;
+
+public class StreamingGridWriterTest
+{
+    private Grid createGrid()
+    {
+        Grid grid = new ListGrid();
+        grid.addHeader( new GridHeader( "psi", "Event", ValueType.TEXT, false, false ) );
+        grid.addHeader( new GridHeader( "value", "Value", ValueType.NUMBER, false, false ) );
+        grid.getMetaData().put( "items", "none" );
+
+        return grid;
+    }
+
+    private List<List<Object>> createRows()
+    {
+        return Lists.newArrayList(
+            Lists.newArrayList( "eventA", 1.5 ),
+            Lists.newArrayList( "eventB", null ) );
+    }
+
+    @Test
+    public void testJson()
+        throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try ( StreamingGridWriter writer = new JsonStreamingGridWriter( out ) )
+        {
+            writer.writeHeaders( createGrid() );
+            createRows().forEach( writer::writeRow );
+            writer.finish();
+        }
+
+        JsonNode json = JacksonObjectMapperConfig.jsonMapper.readTree( out.toByteArray() );
+
+        assertEquals( 2, json.get( "headers" ).size() );
+        assertEquals( "value", json.get( "headers" ).get( 1 ).get( "name" ).asText() );
+        assertEquals( "none", json.get( "metaData" ).get( "items" ).asText() );
+        assertEquals( 2, json.get( "width" ).asInt() );
+        assertEquals( 2, json.get( "height" ).asInt() );
+        assertEquals( "eventA", json.get( "rows" ).get( 0 ).get( 0 ).asText() );
+        assertEquals( 1.5, json.get( "rows" ).get( 0 ).get( 1 ).asDouble(), 0.01 );
+        assertTrue( json.get( "rows" ).get( 1 ).get( 1 ).isNull() );
+    }
+
+    @Test
+    public void testCsvMatchesGridUtils()
+        throws Exception
+    {
+        StringWriter expected = new StringWriter();
+
+        Grid grid = createGrid();
+        createRows().forEach( row -> grid.addRow().addValuesAsList( row ) );
+        GridUtils.toCsv( grid, expected );
+
+        StringWriter actual = new StringWriter();
+
+        try ( StreamingGridWriter writer = new CsvStreamingGridWriter( actual ) )
+        {
+            writer.writeHeaders( createGrid() );
+            createRows().forEach( writer::writeRow );
+            writer.finish();
+        }
+
+        assertEquals( expected.toString(), actual.toString() );
+    }
+}
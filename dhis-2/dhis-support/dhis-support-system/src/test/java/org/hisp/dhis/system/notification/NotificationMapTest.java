@@ -29,7 +29,11 @@ package org.hisp.dhis.system.notification;
 
 import static org.hisp.dhis.scheduling.JobType.DATAVALUE_IMPORT;
 import static org.hisp.dhis.system.notification.NotificationMap.MAX_POOL_TYPE_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import org.hisp.dhis.scheduling.JobConfiguration;
@@ -76,4 +80,91 @@ public class NotificationMapTest
         Assert.assertFalse( notPresentSummary.isPresent() );
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetNotificationsSinceSequence()
+    {
+        JobConfiguration jobConfiguration = new JobConfiguration( null, DATAVALUE_IMPORT, "userId", false );
+
+        for ( int i = 1; i <= 5; i++ )
+        {
+            mapToTest.add( jobConfiguration, notification( "Message " + i ) );
+        }
+
+        String uid = jobConfiguration.getUid();
+
+        List<Notification> notifications = mapToTest.getNotificationsByJobId( DATAVALUE_IMPORT, uid );
+        assertEquals( 5, notifications.size() );
+        assertEquals( "Message 5", notifications.get( 0 ).getMessage() );
+        assertEquals( 5, notifications.get( 0 ).getSequence() );
+
+        notifications = mapToTest.getNotificationsByJobId( DATAVALUE_IMPORT, uid, 3 );
+        assertEquals( 2, notifications.size() );
+        assertEquals( "Message 5", notifications.get( 0 ).getMessage() );
+        assertEquals( "Message 4", notifications.get( 1 ).getMessage() );
+
+        assertTrue( mapToTest.getNotificationsByJobId( DATAVALUE_IMPORT, uid, 5 ).isEmpty() );
+        assertTrue( mapToTest.getNotificationsByJobId( DATAVALUE_IMPORT, "unknown", 0 ).isEmpty() );
+    }
+
+    @Test
+    public void testOldestNotificationsAreOverwrittenPerJob()
+    {
+        NotificationMap map = new NotificationMap( 3 );
+
+        JobConfiguration jobConfiguration = new JobConfiguration( null, DATAVALUE_IMPORT, "userId", false );
+
+        for ( int i = 1; i <= 5; i++ )
+        {
+            map.add( jobConfiguration, notification( "Message " + i ) );
+        }
+
+        List<Notification> notifications = map.getNotificationsByJobId( DATAVALUE_IMPORT,
+            jobConfiguration.getUid() );
+        assertEquals( 3, notifications.size() );
+        assertEquals( 5, notifications.get( 0 ).getSequence() );
+        assertEquals( 3, notifications.get( 2 ).getSequence() );
+
+        notifications = map.getNotificationsByJobId( DATAVALUE_IMPORT, jobConfiguration.getUid(), 1 );
+        assertEquals( 3, notifications.size() );
+    }
+
+    @Test
+    public void testFirstJobToBeCreatedIsTheFirstOneToBeRemoved()
+    {
+        JobConfiguration jobConfiguration = new JobConfiguration( null, DATAVALUE_IMPORT, "userId", false );
+        for ( int i = 0; i <= MAX_POOL_TYPE_SIZE; i++ )
+        {
+            jobConfiguration.setUid( String.valueOf( i ) );
+            mapToTest.add( jobConfiguration, notification( "Message " + i ) );
+        }
+
+        assertEquals( MAX_POOL_TYPE_SIZE, mapToTest.getNotificationsWithType( DATAVALUE_IMPORT ).size() );
+        assertTrue( mapToTest.getNotificationsByJobId( DATAVALUE_IMPORT, "0" ).isEmpty() );
+        assertEquals( 1, mapToTest.getNotificationsByJobId( DATAVALUE_IMPORT, "1" ).size() );
+    }
+
+    @Test
+    public void testNotificationsWithoutJobUidAreNotStored()
+    {
+        JobConfiguration jobConfiguration = new JobConfiguration( null, DATAVALUE_IMPORT, "userId", false );
+        jobConfiguration.setUid( null );
+
+        mapToTest.add( jobConfiguration, notification( "Message" ) );
+        mapToTest.addSummary( jobConfiguration, "Summary" );
+
+        assertTrue( mapToTest.getNotificationsWithType( DATAVALUE_IMPORT ).isEmpty() );
+        assertTrue( mapToTest.getJobSummariesForJobType( DATAVALUE_IMPORT ).isEmpty() );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testMaxNotificationsPerJobMustBePositive()
+    {
+        new NotificationMap( 0 );
+    }
+
+    private Notification notification( String message )
+    {
+        return new Notification( NotificationLevel.INFO, DATAVALUE_IMPORT, new Date(), message, false );
+    }
+}
@@ -59,6 +59,7 @@ import org.hisp.dhis.common.IdentifiableObjects;
 import org.hisp.dhis.common.Pager;
 import org.hisp.dhis.common.SubscribableObject;
 import org.hisp.dhis.common.UserContext;
+import org.hisp.dhis.datasource.ReadOnlyRoutingTransactionManager;
 import org.hisp.dhis.dxf2.common.OrderParams;
 import org.hisp.dhis.dxf2.common.TranslateParams;
 import org.hisp.dhis.dxf2.metadata.MetadataExportService;
@@ -233,6 +234,9 @@ public abstract class AbstractCrudController<T extends IdentifiableObject>
     @Autowired
     private TranslationsCheck translationsCheck;
 
+    @Autowired
+    private ReadOnlyRoutingTransactionManager transactionManager;
+
     // --------------------------------------------------------------------------
     // GET
     // --------------------------------------------------------------------------
@@ -261,7 +265,8 @@ public abstract class AbstractCrudController<T extends IdentifiableObject>
                 "You don't have the proper permissions to read objects of this type." );
         }
 
-        List<T> entities = getEntityList( metadata, options, filters, orders );
+        List<T> entities = transactionManager.executeOnReadReplica(
+            () -> getEntityList( metadata, options, filters, orders ) );
 
         Pager pager = metadata.getPager();
 
@@ -283,7 +288,7 @@ public abstract class AbstractCrudController<T extends IdentifiableObject>
             {
                 String cacheKey = composePaginationCountKey( currentUser, filters, options );
                 totalCount = paginationCountCache.computeIfAbsent( cacheKey,
-                    () -> countTotal( options, filters, orders ) );
+                    () -> transactionManager.executeOnReadReplica( () -> countTotal( options, filters, orders ) ) );
             }
 
             pager = new Pager( options.getPage(), totalCount, options.getPageSize() );
@@ -32,6 +32,8 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.MediaType.TEXT_HTML_VALUE;
 import static org.springframework.http.MediaType.TEXT_PLAIN_VALUE;
 
+import java.util.List;
+
 import javax.servlet.http.HttpServletResponse;
 
 import lombok.AllArgsConstructor;
@@ -41,6 +43,9 @@ import org.hisp.dhis.analytics.AnalyticsService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataQueryService;
+import org.hisp.dhis.analytics.profile.AnalyticsQueryProfile;
+import org.hisp.dhis.analytics.rollup.AnalyticsRollupService;
+import org.hisp.dhis.analytics.rollup.AnalyticsRollupStatistics;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.common.AggregateAnalyticsQueryCriteria;
 import org.hisp.dhis.common.DataQueryRequest;
@@ -78,6 +83,9 @@ public class AnalyticsController
     @NonNull
     private final ContextUtils contextUtils;
 
+    @NonNull
+    private final AnalyticsRollupService rollupService;
+
     // -------------------------------------------------------------------------
     // Resources
     // -------------------------------------------------------------------------
@@ -181,6 +189,25 @@ public class AnalyticsController
         return AnalyticsUtils.getDebugDataSql( params );
     }
 
+    @GetMapping( value = RESOURCE_PATH + "/debug/profile", produces = APPLICATION_JSON_VALUE )
+    public @ResponseBody AnalyticsQueryProfile getDebugProfile(
+        AggregateAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletResponse response )
+    {
+        DataQueryParams params = dataQueryService.getFromRequest( mapFromCriteria( criteria, apiVersion ) );
+
+        AnalyticsQueryProfile profile = new AnalyticsQueryProfile();
+
+        contextUtils.configureAnalyticsResponse( response, ContextUtils.CONTENT_TYPE_JSON, CacheStrategy.NO_CACHE,
+            null, false, params.getLatestEndDate() );
+
+        analyticsService.getAggregatedDataValues( DataQueryParams.newBuilder( params )
+            .withProfile( profile ).build() );
+
+        return profile;
+    }
+
     // -------------------------------------------------------------------------
     // Raw data
     // -------------------------------------------------------------------------
@@ -265,6 +292,12 @@ public class AnalyticsController
         return AnalyticsTableType.values();
     }
 
+    @GetMapping( value = RESOURCE_PATH + "/rollups", produces = APPLICATION_JSON_VALUE )
+    public @ResponseBody List<AnalyticsRollupStatistics> getRollups()
+    {
+        return rollupService.getStatistics();
+    }
+
     private Grid getGrid( AggregateAnalyticsQueryCriteria criteria, DhisApiVersion apiVersion, String contentType,
         HttpServletResponse response )
     {
@@ -29,13 +29,21 @@ package org.hisp.dhis.webapi.controller;
 
 import static org.hisp.dhis.dxf2.webmessage.WebMessageUtils.jobConfigurationReport;
 
+import java.util.Set;
+
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.dataintegrity.DataIntegrityCheckType;
+import org.hisp.dhis.dataintegrity.DataIntegrityService;
+import org.hisp.dhis.dataintegrity.FlattenedDataIntegrityReport;
+import org.hisp.dhis.dxf2.webmessage.WebMessageException;
+import org.hisp.dhis.dxf2.webmessage.WebMessageUtils;
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.scheduling.JobType;
 import org.hisp.dhis.scheduling.SchedulingManager;
+import org.hisp.dhis.scheduling.parameters.DataIntegrityJobParameters;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
 import org.hisp.dhis.webapi.service.WebMessageService;
@@ -44,6 +52,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 /**
  * @author Halvdan Hoem Grelland <halvdanhg@gmail.com>
@@ -62,6 +72,9 @@ public class DataIntegrityController
     @Autowired
     private WebMessageService webMessageService;
 
+    @Autowired
+    private DataIntegrityService dataIntegrityService;
+
     public static final String RESOURCE_PATH = "/dataIntegrity";
 
     // --------------------------------------------------------------------------
@@ -70,15 +83,36 @@ public class DataIntegrityController
 
     @PreAuthorize( "hasRole('ALL') or hasRole('F_PERFORM_MAINTENANCE')" )
     @RequestMapping( value = DataIntegrityController.RESOURCE_PATH, method = RequestMethod.POST )
-    public void runAsyncDataIntegrity( HttpServletResponse response, HttpServletRequest request )
+    public void runAsyncDataIntegrity( @RequestParam( required = false ) Set<DataIntegrityCheckType> checks,
+        HttpServletResponse response, HttpServletRequest request )
     {
         JobConfiguration jobConfiguration = new JobConfiguration( "runAsyncDataIntegrity", JobType.DATA_INTEGRITY, null,
             true );
         jobConfiguration.setUserUid( currentUserService.getCurrentUser().getUid() );
+        jobConfiguration.setJobParameters( new DataIntegrityJobParameters( checks ) );
         jobConfiguration.setAutoFields();
 
         schedulingManager.executeJob( jobConfiguration );
 
         webMessageService.send( jobConfigurationReport( jobConfiguration ), response, request );
     }
+
+    // --------------------------------------------------------------------------
+    // Get last data integrity report
+    // --------------------------------------------------------------------------
+
+    @PreAuthorize( "hasRole('ALL') or hasRole('F_PERFORM_MAINTENANCE')" )
+    @RequestMapping( value = DataIntegrityController.RESOURCE_PATH, method = RequestMethod.GET )
+    public @ResponseBody FlattenedDataIntegrityReport getLastDataIntegrityReport()
+        throws WebMessageException
+    {
+        FlattenedDataIntegrityReport report = dataIntegrityService.getLastDataIntegrityReport();
+
+        if ( report == null )
+        {
+            throw new WebMessageException( WebMessageUtils.notFound( "No data integrity report exists" ) );
+        }
+
+        return report;
+    }
 }
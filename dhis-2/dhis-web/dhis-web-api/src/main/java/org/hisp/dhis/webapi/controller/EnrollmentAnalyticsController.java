@@ -40,7 +40,11 @@ import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.common.*;
 import org.hisp.dhis.common.cache.CacheStrategy;
 import org.hisp.dhis.program.ProgramStatus;
+import org.hisp.dhis.system.grid.CsvStreamingGridWriter;
 import org.hisp.dhis.system.grid.GridUtils;
+import org.hisp.dhis.system.grid.JsonStreamingGridWriter;
+import org.hisp.dhis.system.grid.StreamingGridWriter;
+import org.hisp.dhis.system.grid.XlsxStreamingGridWriter;
 import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -354,4 +358,79 @@ public class EnrollmentAnalyticsController
         Grid grid = analyticsService.getEnrollments( params );
         GridUtils.toHtmlCss( grid, response.getWriter() );
     }
+
+    // -------------------------------------------------------------------------
+    // Streaming query
+    // -------------------------------------------------------------------------
+
+    @RequestMapping( value = RESOURCE_PATH + "/query/{program}", method = RequestMethod.GET, params = "stream=true",
+        produces = "application/json" )
+    public void streamQueryJson(
+        @PathVariable String program,
+        EventsAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletResponse response )
+        throws Exception
+    {
+        EventQueryParams params = getStreamingParams( program, criteria, apiVersion );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_JSON,
+            CacheStrategy.RESPECT_SYSTEM_SETTING );
+
+        try ( StreamingGridWriter writer = new JsonStreamingGridWriter( response.getOutputStream() ) )
+        {
+            analyticsService.streamEnrollments( params, writer );
+        }
+    }
+
+    @RequestMapping( value = RESOURCE_PATH + "/query/{program}.csv", method = RequestMethod.GET,
+        params = "stream=true" )
+    public void streamQueryCsv(
+        @PathVariable String program,
+        EventsAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletResponse response )
+        throws Exception
+    {
+        EventQueryParams params = getStreamingParams( program, criteria, apiVersion );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_CSV, CacheStrategy.RESPECT_SYSTEM_SETTING,
+            "enrollments.csv", true );
+
+        try ( StreamingGridWriter writer = new CsvStreamingGridWriter( response.getWriter() ) )
+        {
+            analyticsService.streamEnrollments( params, writer );
+        }
+    }
+
+    @RequestMapping( value = RESOURCE_PATH + "/query/{program}.xlsx", method = RequestMethod.GET )
+    public void streamQueryXlsx(
+        @PathVariable String program,
+        EventsAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletResponse response )
+        throws Exception
+    {
+        EventQueryParams params = getStreamingParams( program, criteria, apiVersion );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_EXCEL_XLSX,
+            CacheStrategy.RESPECT_SYSTEM_SETTING, "enrollments.xlsx", true );
+
+        try ( StreamingGridWriter writer = new XlsxStreamingGridWriter( response.getOutputStream() ) )
+        {
+            analyticsService.streamEnrollments( params, writer );
+        }
+    }
+
+    private EventQueryParams getStreamingParams( String program, EventsAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion )
+    {
+        EventDataQueryRequest request = EventDataQueryRequest.newBuilder()
+            .program( program )
+            .fromCriteria( criteria )
+            .outputType( EventOutputType.ENROLLMENT )
+            .apiVersion( apiVersion ).build();
+
+        return eventDataQueryService.getFromRequest( request );
+    }
 }
@@ -44,7 +44,11 @@ import org.hisp.dhis.common.EventDataQueryRequest;
 import org.hisp.dhis.common.EventsAnalyticsQueryCriteria;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.cache.CacheStrategy;
+import org.hisp.dhis.system.grid.CsvStreamingGridWriter;
 import org.hisp.dhis.system.grid.GridUtils;
+import org.hisp.dhis.system.grid.JsonStreamingGridWriter;
+import org.hisp.dhis.system.grid.StreamingGridWriter;
+import org.hisp.dhis.system.grid.XlsxStreamingGridWriter;
 import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.springframework.stereotype.Controller;
@@ -280,6 +284,66 @@ public class EventAnalyticsController
             "events.html", false, response ), response.getWriter() );
     }
 
+    // -------------------------------------------------------------------------
+    // Streaming query
+    // -------------------------------------------------------------------------
+
+    @GetMapping( value = RESOURCE_PATH + "/query/{program}", params = "stream=true", produces = APPLICATION_JSON_VALUE )
+    public void streamQueryJson(
+        @PathVariable String program,
+        EventsAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletResponse response )
+        throws Exception
+    {
+        EventQueryParams params = eventDataService.getFromRequest( mapFromCriteria( criteria, program, apiVersion ) );
+
+        configResponseForJson( response );
+
+        try ( StreamingGridWriter writer = new JsonStreamingGridWriter( response.getOutputStream() ) )
+        {
+            analyticsService.streamEvents( params, writer );
+        }
+    }
+
+    @GetMapping( value = RESOURCE_PATH + "/query/{program}.csv", params = "stream=true" )
+    public void streamQueryCsv(
+        @PathVariable String program,
+        EventsAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletResponse response )
+        throws Exception
+    {
+        EventQueryParams params = eventDataService.getFromRequest( mapFromCriteria( criteria, program, apiVersion ) );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_CSV, CacheStrategy.RESPECT_SYSTEM_SETTING,
+            "events.csv", true );
+
+        try ( StreamingGridWriter writer = new CsvStreamingGridWriter( response.getWriter() ) )
+        {
+            analyticsService.streamEvents( params, writer );
+        }
+    }
+
+    @GetMapping( value = RESOURCE_PATH + "/query/{program}.xlsx" )
+    public void streamQueryXlsx(
+        @PathVariable String program,
+        EventsAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletResponse response )
+        throws Exception
+    {
+        EventQueryParams params = eventDataService.getFromRequest( mapFromCriteria( criteria, program, apiVersion ) );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_EXCEL_XLSX,
+            CacheStrategy.RESPECT_SYSTEM_SETTING, "events.xlsx", true );
+
+        try ( StreamingGridWriter writer = new XlsxStreamingGridWriter( response.getOutputStream() ) )
+        {
+            analyticsService.streamEvents( params, writer );
+        }
+    }
+
     private Grid getAggregatedGridWithAttachment( EventsAnalyticsQueryCriteria criteria, String program,
         DhisApiVersion apiVersion,
         String contentType, String file,
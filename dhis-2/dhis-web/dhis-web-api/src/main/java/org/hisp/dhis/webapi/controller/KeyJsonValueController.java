@@ -31,7 +31,9 @@ import static org.hisp.dhis.webapi.utils.ContextUtils.setNoStore;
 
 import java.io.IOException;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletRequest;
@@ -41,9 +43,12 @@ import org.apache.commons.beanutils.BeanUtils;
 import org.hisp.dhis.appmanager.App;
 import org.hisp.dhis.appmanager.AppManager;
 import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.common.Pager;
 import org.hisp.dhis.dxf2.webmessage.WebMessageException;
 import org.hisp.dhis.dxf2.webmessage.WebMessageUtils;
 import org.hisp.dhis.keyjsonvalue.KeyJsonValue;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueEntry;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQuery;
 import org.hisp.dhis.keyjsonvalue.KeyJsonValueService;
 import org.hisp.dhis.render.RenderService;
 import org.hisp.dhis.security.acl.AclService;
@@ -101,8 +106,11 @@ public class KeyJsonValueController
 
     /**
      * Returns a list of strings representing keys in the given namespace.
+     * Requests with any of the query parameters of
+     * {@link #queryNamespace} are handled by that method instead.
      */
-    @RequestMapping( value = "/{namespace}", method = RequestMethod.GET, produces = "application/json" )
+    @RequestMapping( value = "/{namespace}", method = RequestMethod.GET, params = { "!fields", "!filter", "!order",
+        "!page", "!pageSize" }, produces = "application/json" )
     public @ResponseBody List<String> getKeysInNamespace( @RequestParam( required = false ) Date lastUpdated,
         @PathVariable String namespace,
         HttpServletResponse response )
@@ -118,6 +126,45 @@ public class KeyJsonValueController
         return keyJsonValueService.getKeysInNamespace( namespace, lastUpdated, currentUserIsAdmin() );
     }
 
+    /**
+     * Queries the values in the given namespace. Returns a page of entries
+     * holding the key and the value, or only the given fields of the value.
+     * Filters are on the form {@code path:operator:value}, sort orders on the
+     * form {@code path:asc|desc}. Encrypted values are not included. Without
+     * fields the full values are returned.
+     */
+    @RequestMapping( value = "/{namespace}", method = RequestMethod.GET, produces = "application/json" )
+    public @ResponseBody Map<String, Object> queryNamespace( @PathVariable String namespace,
+        @RequestParam( required = false ) String fields,
+        @RequestParam( required = false ) List<String> filter,
+        @RequestParam( required = false ) String order,
+        @RequestParam( required = false ) Integer page,
+        @RequestParam( required = false ) Integer pageSize,
+        HttpServletResponse response )
+        throws WebMessageException
+    {
+        validateAccess( namespace );
+
+        KeyJsonValueQuery query = new KeyJsonValueQuery( namespace )
+            .withFields( fields )
+            .withFilters( filter )
+            .withOrders( order )
+            .withPaging( page, pageSize );
+
+        boolean isAdmin = currentUserIsAdmin();
+
+        List<KeyJsonValueEntry> entries = keyJsonValueService.getEntries( query, isAdmin );
+        long total = keyJsonValueService.countEntries( query, isAdmin );
+
+        setNoStore( response );
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put( "pager", new Pager( query.getPage(), total, query.getPageSize() ) );
+        result.put( "entries", entries );
+
+        return result;
+    }
+
     /**
      * Deletes all keys with the given namespace.
      */
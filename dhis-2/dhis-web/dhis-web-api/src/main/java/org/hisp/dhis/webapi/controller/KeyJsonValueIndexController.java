@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2004-2021, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.webapi.controller;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.dxf2.webmessage.WebMessageUtils;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQuery;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueService;
+import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
+import org.hisp.dhis.webapi.service.WebMessageService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Lets administrators declare indexes supporting data store queries for a
+ * namespace. Without path a GIN index for equality filters is managed,
+ * otherwise expression indexes for filtering and sorting by the value at the
+ * path.
+ */
+@Controller
+@RequestMapping( "/dataStoreIndexes" )
+@ApiVersion( { DhisApiVersion.DEFAULT, DhisApiVersion.ALL } )
+@PreAuthorize( "hasRole('ALL')" )
+public class KeyJsonValueIndexController
+{
+    private final KeyJsonValueService keyJsonValueService;
+
+    private final WebMessageService messageService;
+
+    public KeyJsonValueIndexController( KeyJsonValueService keyJsonValueService,
+        WebMessageService messageService )
+    {
+        this.keyJsonValueService = keyJsonValueService;
+        this.messageService = messageService;
+    }
+
+    @RequestMapping( value = "/{namespace}", method = RequestMethod.GET, produces = "application/json" )
+    public @ResponseBody List<String> getIndexes( @PathVariable String namespace )
+    {
+        return keyJsonValueService.getIndexes( namespace );
+    }
+
+    @RequestMapping( value = "/{namespace}", method = RequestMethod.POST )
+    public void createIndex( @PathVariable String namespace, @RequestParam( required = false ) String path,
+        HttpServletResponse response )
+    {
+        keyJsonValueService.createIndex( namespace, validatePath( path ) );
+
+        messageService.sendJson( WebMessageUtils.ok( "Index for namespace '" + namespace + "' created." ),
+            response );
+    }
+
+    @RequestMapping( value = "/{namespace}", method = RequestMethod.DELETE )
+    public void dropIndex( @PathVariable String namespace, @RequestParam( required = false ) String path,
+        HttpServletResponse response )
+    {
+        keyJsonValueService.dropIndex( namespace, validatePath( path ) );
+
+        messageService.sendJson( WebMessageUtils.ok( "Index for namespace '" + namespace + "' dropped." ),
+            response );
+    }
+
+    private String validatePath( String path )
+    {
+        if ( path == null || path.trim().isEmpty() )
+        {
+            return null;
+        }
+
+        KeyJsonValueQuery.toSegments( path.trim() );
+
+        return path.trim();
+    }
+}
@@ -228,14 +228,16 @@ public class SystemController
     @RequestMapping( value = "/tasks/{jobType}/{jobId}", method = RequestMethod.GET, produces = { "*/*",
         "application/json" } )
     public void getTaskJsonByUid( @PathVariable( "jobType" ) String jobType, @PathVariable( "jobId" ) String jobId,
-        HttpServletResponse response )
+        @RequestParam( required = false ) Long since, HttpServletResponse response )
         throws IOException
     {
         List<Notification> notifications = new ArrayList<>();
 
         if ( jobType != null )
         {
-            notifications = notifier.getNotificationsByJobId( JobType.valueOf( jobType.toUpperCase() ), jobId );
+            notifications = since != null
+                ? notifier.getNotificationsByJobId( JobType.valueOf( jobType.toUpperCase() ), jobId, since )
+                : notifier.getNotificationsByJobId( JobType.valueOf( jobType.toUpperCase() ), jobId );
         }
 
         setNoStore( response );
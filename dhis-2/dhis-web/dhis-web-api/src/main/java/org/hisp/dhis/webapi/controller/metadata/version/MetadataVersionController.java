@@ -29,6 +29,7 @@ package org.hisp.dhis.webapi.controller.metadata.version;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
@@ -40,6 +41,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.lang.StringUtils;
 import org.hisp.dhis.common.DhisApiVersion;
 import org.hisp.dhis.common.cache.CacheStrategy;
+import org.hisp.dhis.dxf2.common.HashCodeGenerator;
 import org.hisp.dhis.dxf2.metadata.version.exception.MetadataVersionServiceException;
 import org.hisp.dhis.metadata.version.MetadataVersion;
 import org.hisp.dhis.metadata.version.MetadataVersionService;
@@ -342,6 +344,52 @@ public class MetadataVersionController
         }
     }
 
+    // endpoint to download the merged snapshot of the versions after the
+    // baseline version up to the given version in gzip format
+    @PreAuthorize( "hasRole('ALL') or hasRole('F_METADATA_MANAGE')" )
+    @RequestMapping( value = MetadataVersionSchemaDescriptor.API_ENDPOINT
+        + "/{versionName}/delta.gz", method = RequestMethod.GET, produces = "*/*" )
+    public void downloadGZipVersionsDelta( @PathVariable( "versionName" ) String versionName,
+        @RequestParam( value = "baseline", required = false ) String baseline, HttpServletResponse response )
+        throws MetadataVersionException,
+        IOException,
+        BadRequestException
+    {
+        boolean enabled = isMetadataVersioningEnabled();
+
+        try
+        {
+            if ( !enabled )
+            {
+                throw new BadRequestException( "Metadata versioning is not enabled for this instance." );
+            }
+
+            String versionsDelta = versionService.getVersionsDelta( StringUtils.trimToNull( baseline ),
+                versionName );
+
+            if ( versionsDelta == null )
+            {
+                throw new MetadataVersionException(
+                    "No metadata version snapshot found for the given version " + versionName );
+            }
+
+            contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_GZIP, CacheStrategy.NO_CACHE,
+                "metadata.json.gz", true );
+            response.addHeader( ContextUtils.HEADER_CONTENT_TRANSFER_ENCODING, "binary" );
+            response.addHeader( MetadataVersionService.VERSIONS_DELTA_HASH_HEADER,
+                HashCodeGenerator.getHashCode( versionsDelta ) );
+
+            GZIPOutputStream gos = new GZIPOutputStream( response.getOutputStream() );
+            gos.write( versionsDelta.getBytes( StandardCharsets.UTF_8 ) );
+            gos.close();
+        }
+        catch ( MetadataVersionServiceException | NoSuchAlgorithmException ex )
+        {
+            throw new MetadataVersionException(
+                "Unable to download versions delta from system: " + versionName + ex.getMessage() );
+        }
+    }
+
     // ----------------------------------------------------------------------------------------
     // Private Methods
     // ----------------------------------------------------------------------------------------
@@ -93,6 +93,8 @@ public class ContextUtils
 
     public static final String CONTENT_TYPE_EXCEL = "application/vnd.ms-excel";
 
+    public static final String CONTENT_TYPE_EXCEL_XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
     public static final String CONTENT_TYPE_JAVASCRIPT = "application/javascript; charset=UTF-8";
 
     public static final String CONTENT_TYPE_FORM_ENCODED = "application/x-www-form-urlencoded";
@@ -48,6 +48,7 @@ import org.hisp.dhis.analytics.AnalyticsService;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataQueryService;
 import org.hisp.dhis.analytics.data.DefaultDataQueryService;
+import org.hisp.dhis.analytics.rollup.AnalyticsRollupService;
 import org.hisp.dhis.common.DimensionService;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
@@ -105,7 +106,7 @@ public class AnalyticsControllerTest
 
         // Controller under test
         final AnalyticsController controller = new AnalyticsController( dataQueryService, analyticsService,
-            contextUtils );
+            contextUtils, mock( AnalyticsRollupService.class ) );
 
         mockMvc = MockMvcBuilders.standaloneSetup( controller ).build();
 